@@ -0,0 +1,429 @@
+package bot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import model.BoardState;
+import model.RollTable;
+import move.MoveGenerator;
+
+/**
+ * This class represents the one-sided bear-off database,
+ * i.e. for every position of up to 15 checkers in a home board, 54264 of them,
+ * the exact distribution of the number of rolls to bear them all off with the best plays.
+ *
+ * It also keeps the distribution of the number of rolls to bear off the first checker,
+ * for positions with all 15 checkers still on the board, so gammons can be told apart.
+ *
+ * Once both sides are bearing off, the checkers can no longer meet,
+ * so the position is two independent one-sided positions
+ * and its equity is a lookup of both distributions, see getEquity().
+ *
+ * The database is generated by playing every roll from every position with the MoveGenerator,
+ * positions with fewer pips first, so the positions after a play are always known.
+ * Plays are picked to bear off in the fewest rolls on average,
+ * or to bear off the first checker in the fewest rolls for the gammon distribution.
+ *
+ * File format, little-endian, memory-mapped when loaded:
+ * 		- header, 6 ints: magic "BGBO", version, points, checkers, rolls per distribution, positions.
+ * 		- per position, by getIndex(): ROLLS uint16 of the bear-off distribution,
+ * 		  then ROLLS uint16 of the first checker distribution, probabilities times 65535.
+ * The last roll of a distribution also holds the odds of more rolls, they are too small to matter.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class BearoffDatabase {
+	public static final String DEFAULT_FILE = "bearoff.bgdb";
+	public static final int POINTS = BoardState.HOME_BOARD_SIZE;
+	public static final int CHECKERS = BoardState.MAX_CHECKERS;
+	// rolls per distribution, 0 to 31.
+	public static final int ROLLS = 32;
+	// C(POINTS + CHECKERS, POINTS).
+	public static final int POSITIONS = 54264;
+	// pips of 15 checkers on the 6 point.
+	public static final int MAX_PIPS = POINTS * CHECKERS;
+
+	private static final int MAGIC = 0x4F424742;
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 6 * Integer.BYTES;
+	private static final int POSITION_BYTES = 2 * ROLLS * Short.BYTES;
+	private static final double SCALE = 65535;
+
+	// COMBINATIONS[points][checkers], number of positions of up to the checkers on the points.
+	private static final int[][] COMBINATIONS = new int[POINTS+1][CHECKERS+1];
+
+	static {
+		for (int points = 0; points <= POINTS; points++) {
+			for (int checkers = 0; checkers <= CHECKERS; checkers++) {
+				COMBINATIONS[points][checkers] = points == 0 || checkers == 0 ? 1
+						: COMBINATIONS[points-1][checkers] + COMBINATIONS[points][checkers-1];
+			}
+		}
+	}
+
+	private final ByteBuffer buffer;
+
+	private BearoffDatabase(ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Returns the index of a home board.
+	 * Positions are ranked by the checkers on the 6 point, then the 5 point, down to the 1 point.
+	 * @param counts checkers per point, counts[0] is the 1 point, POINTS long.
+	 * @return the index, 0 (all borne off) to POSITIONS-1.
+	 */
+	public static int getIndex(int[] counts) {
+		return getIndex(counts, CHECKERS);
+	}
+
+	// index among the positions of up to the given number of checkers, same ranking.
+	static int getIndex(int[] counts, int checkers) {
+		int index = 0;
+		int left = checkers;
+		for (int point = POINTS-1; point >= 0; point--) {
+			// positions with fewer checkers on this point come first.
+			for (int n = 0; n < counts[point]; n++) {
+				index += COMBINATIONS[point][left - n];
+			}
+			left -= counts[point];
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the index of the side's home board.
+	 * @param state the board state, the side must be bearing off.
+	 * @param side BOTTOM or TOP.
+	 * @return the index.
+	 */
+	public static int getIndex(BoardState state, int side) {
+		return getIndex(state, side, CHECKERS);
+	}
+
+	static int getIndex(BoardState state, int side, int checkers) {
+		int index = 0;
+		int left = checkers;
+		for (int point = POINTS-1; point >= 0; point--) {
+			int count = state.getCheckers(side, getPip(side, point));
+			for (int n = 0; n < count; n++) {
+				index += COMBINATIONS[point][left - n];
+			}
+			left -= count;
+		}
+		return index;
+	}
+
+	// number of positions of up to the given number of checkers.
+	static int getPositions(int checkers) {
+		return COMBINATIONS[POINTS][checkers];
+	}
+
+	// pip of the side's point, 0 is the 1 point.
+	private static int getPip(int side, int point) {
+		return side == BoardState.BOTTOM ? point : BoardState.NUMBER_OF_PIPS-1 - point;
+	}
+
+	/**
+	 * Checks if both sides are bearing off, i.e. the database knows the equity of the position.
+	 * @param state the board state.
+	 * @return the boolean value.
+	 */
+	public static boolean isBearoff(BoardState state) {
+		return state.canBearOff(BoardState.BOTTOM) && state.canBearOff(BoardState.TOP);
+	}
+
+	/**
+	 * Returns the odds of bearing off all the checkers in exactly the given number of rolls.
+	 * @param index index of the position.
+	 * @param rolls number of rolls, 0 to ROLLS-1.
+	 * @return the probability.
+	 */
+	public double getProbability(int index, int rolls) {
+		return read(index, rolls);
+	}
+
+	/**
+	 * Returns the odds of bearing off the first checker in exactly the given number of rolls,
+	 * 0 rolls if a checker is already off.
+	 * @param index index of the position.
+	 * @param rolls number of rolls, 0 to ROLLS-1.
+	 * @return the probability.
+	 */
+	public double getFirstOffProbability(int index, int rolls) {
+		return read(index, ROLLS + rolls);
+	}
+
+	private double read(int index, int slot) {
+		return (buffer.getShort(HEADER_BYTES + index * POSITION_BYTES + slot * Short.BYTES) & 0xFFFF) / SCALE;
+	}
+
+	// average number of rolls to bear off all the checkers.
+	public double getExpectedRolls(int index) {
+		double rolls = 0;
+		for (int n = 1; n < ROLLS; n++) {
+			rolls += n * getProbability(index, n);
+		}
+		return rolls;
+	}
+
+	/**
+	 * Returns the cubeless equity of the side on roll, both sides must be bearing off.
+	 * The side on roll wins if it bears off in n rolls and the opponent needs n rolls or more,
+	 * and wins a gammon if the opponent also needs n rolls or more for its first checker.
+	 * @param state the board state.
+	 * @param side the side on roll, BOTTOM or TOP.
+	 * @return the equity of the side, between -2 and 2.
+	 */
+	public double getEquity(BoardState state, int side) {
+		return getEquity(getIndex(state, side), getIndex(state, BoardState.getOpponent(side)), null);
+	}
+
+	/**
+	 * Returns the cubeless odds of the side on roll, same as getEquity().
+	 * @param state the board state, both sides must be bearing off.
+	 * @param side the side on roll, BOTTOM or TOP.
+	 * @param out win and gammon odds of the side, see NeuralNetwork, backgammons are 0.
+	 */
+	public void getOutputs(BoardState state, int side, float[] out) {
+		getEquity(getIndex(state, side), getIndex(state, BoardState.getOpponent(side)), out);
+	}
+
+	/**
+	 * Computes the odds of the side on roll winning, winning a gammon and losing a gammon, see getEquity().
+	 * @param us index of the home board of the side on roll.
+	 * @param them index of the home board of the opponent.
+	 * @param out the odds as getOutputs() sets them, or null.
+	 * @return the equity of the side.
+	 */
+	private double getEquity(int us, int them, float[] out) {
+		// odds of the opponent needing n rolls or more, for its last and first checker, and of us needing more than n for our first.
+		double themLeft = 1, themFirstLeft = 1, usFirstLeft = 1;
+		double win = 0, winGammon = 0, loseGammon = 0;
+		for (int n = 0; n < ROLLS; n++) {
+			double p = getProbability(us, n);
+			win += p * themLeft;
+			winGammon += p * themFirstLeft;
+			// the opponent bears off in n rolls, before our first checker if that takes more than n rolls.
+			double pThem = getProbability(them, n);
+			usFirstLeft -= getFirstOffProbability(us, n);
+			loseGammon += pThem * Math.max(usFirstLeft, 0);
+			themLeft -= pThem;
+			themFirstLeft -= getFirstOffProbability(them, n);
+		}
+		if (out != null) {
+			out[NeuralNetwork.WIN] = (float) win;
+			out[NeuralNetwork.WIN_GAMMON] = (float) winGammon;
+			out[NeuralNetwork.WIN_BACKGAMMON] = 0;
+			out[NeuralNetwork.LOSE_GAMMON] = (float) loseGammon;
+			out[NeuralNetwork.LOSE_BACKGAMMON] = 0;
+		}
+		return 2 * win - 1 + winGammon - loseGammon;
+	}
+
+	/**
+	 * Generates the database in memory.
+	 * @return the database.
+	 */
+	public static BearoffDatabase generate() {
+		double[][] rolls = new double[POSITIONS][];
+		double[][] firstOff = new double[POSITIONS][];
+		double[] expectedRolls = new double[POSITIONS];
+		double[] expectedFirstOff = new double[POSITIONS];
+
+		// positions grouped by pips, a play always lowers the pips.
+		int[][] positions = getPositionCounts(CHECKERS);
+		int[][] byPips = groupByPips(positions);
+
+		MoveGenerator gen = new MoveGenerator();
+		BoardState state = new BoardState();
+		BoardState child = new BoardState();
+		for (int[] layer : byPips) {
+			for (int index : layer) {
+				int[] counts = positions[index];
+				rolls[index] = new double[ROLLS];
+				firstOff[index] = new double[ROLLS];
+				if (index == 0) {
+					rolls[index][0] = 1;
+					firstOff[index][0] = 1;
+					continue;
+				}
+				boolean isAnyOff = getCheckers(counts) < CHECKERS;
+				if (isAnyOff) firstOff[index][0] = 1;
+
+				setPosition(state, counts);
+				for (int roll = 0; roll < RollTable.ROLLS; roll++) {
+					int count = gen.generate(state, BoardState.BOTTOM, RollTable.getDie1(roll), RollTable.getDie2(roll));
+					int best = -1, bestFirst = -1;
+					for (int play = 0; play < count; play++) {
+						gen.getResultingState(play, child);
+						int next = getIndex(child, BoardState.BOTTOM);
+						if (best < 0 || expectedRolls[next] < expectedRolls[best]) best = next;
+						if (bestFirst < 0 || expectedFirstOff[next] < expectedFirstOff[bestFirst]) bestFirst = next;
+					}
+					double p = RollTable.getProbability(roll);
+					addShifted(rolls[index], rolls[best], p);
+					if (!isAnyOff) addShifted(firstOff[index], firstOff[bestFirst], p);
+				}
+				expectedRolls[index] = getMean(rolls[index]);
+				expectedFirstOff[index] = getMean(firstOff[index]);
+			}
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + POSITIONS * POSITION_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(POINTS).putInt(CHECKERS).putInt(ROLLS).putInt(POSITIONS);
+		for (int index = 0; index < POSITIONS; index++) {
+			putDistribution(buffer, rolls[index]);
+			putDistribution(buffer, firstOff[index]);
+		}
+		buffer.rewind();
+		return new BearoffDatabase(buffer);
+	}
+
+	/**
+	 * Lists the positions of up to the given number of checkers.
+	 * @param checkers the number of checkers.
+	 * @return the checkers per point of every position, by index.
+	 */
+	static int[][] getPositionCounts(int checkers) {
+		int[][] positions = new int[getPositions(checkers)][];
+		enumerate(new int[POINTS], POINTS-1, checkers, checkers, positions);
+		return positions;
+	}
+
+	// fills the points from the 6 point down.
+	private static void enumerate(int[] counts, int point, int left, int checkers, int[][] positions) {
+		if (point < 0) {
+			positions[getIndex(counts, checkers)] = counts.clone();
+			return;
+		}
+		for (int n = 0; n <= left; n++) {
+			counts[point] = n;
+			enumerate(counts, point-1, left - n, checkers, positions);
+		}
+		counts[point] = 0;
+	}
+
+	/**
+	 * Groups the positions by pips.
+	 * @param positions the checkers per point of every position, by index.
+	 * @return the indexes of the positions of each pip count, 0 to MAX_PIPS.
+	 */
+	static int[][] groupByPips(int[][] positions) {
+		int[][] byPips = new int[MAX_PIPS+1][];
+		int[] sizes = new int[MAX_PIPS+1];
+		for (int[] counts : positions) {
+			sizes[getPips(counts)]++;
+		}
+		for (int pips = 0; pips <= MAX_PIPS; pips++) {
+			byPips[pips] = new int[sizes[pips]];
+			sizes[pips] = 0;
+		}
+		for (int index = 0; index < positions.length; index++) {
+			int pips = getPips(positions[index]);
+			byPips[pips][sizes[pips]++] = index;
+		}
+		return byPips;
+	}
+
+	static int getPips(int[] counts) {
+		int pips = 0;
+		for (int point = 0; point < POINTS; point++) {
+			pips += counts[point] * (point+1);
+		}
+		return pips;
+	}
+
+	static int getCheckers(int[] counts) {
+		int checkers = 0;
+		for (int count : counts) {
+			checkers += count;
+		}
+		return checkers;
+	}
+
+	// BOTTOM's home board from the counts, the rest of its checkers off, TOP's checkers out of the way.
+	static void setPosition(BoardState state, int[] counts) {
+		state.clear();
+		for (int point = 0; point < POINTS; point++) {
+			state.setCheckers(getPip(BoardState.BOTTOM, point), BoardState.BOTTOM, counts[point]);
+		}
+		state.setHome(BoardState.BOTTOM, CHECKERS - getCheckers(counts));
+		state.setCheckers(getPip(BoardState.TOP, 0), BoardState.TOP, CHECKERS);
+	}
+
+	// adds the distribution one roll later, with the odds of the roll, the tail stays in the last roll.
+	private static void addShifted(double[] to, double[] from, double p) {
+		for (int n = 0; n < ROLLS-1; n++) {
+			to[n+1] += p * from[n];
+		}
+		to[ROLLS-1] += p * from[ROLLS-1];
+	}
+
+	private static double getMean(double[] distribution) {
+		double mean = 0;
+		for (int n = 1; n < ROLLS; n++) {
+			mean += n * distribution[n];
+		}
+		return mean;
+	}
+
+	private static void putDistribution(ByteBuffer buffer, double[] distribution) {
+		for (double p : distribution) {
+			buffer.putShort((short) Math.round(p * SCALE));
+		}
+	}
+
+	/**
+	 * Loads a database file, memory-mapped, so only the pages looked up are read.
+	 * @param path the database file.
+	 * @return the database.
+	 * @throws IOException if the file cannot be read or is not a one-sided bear-off database.
+	 */
+	public static BearoffDatabase load(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+				throw new IOException("Not a bear-off database: " + path);
+			}
+			int version = buffer.getInt();
+			int points = buffer.getInt();
+			int checkers = buffer.getInt();
+			int rolls = buffer.getInt();
+			int positions = buffer.getInt();
+			if (version != VERSION || points != POINTS || checkers != CHECKERS || rolls != ROLLS || positions != POSITIONS) {
+				throw new IOException("Unsupported bear-off database: version " + version + ", "
+						+ checkers + " checkers on " + points + " points, " + rolls + " rolls, " + positions + " positions");
+			}
+			if (buffer.capacity() != HEADER_BYTES + POSITIONS * POSITION_BYTES) {
+				throw new IOException("Bear-off database has " + buffer.capacity() + " bytes, expected " + (HEADER_BYTES + POSITIONS * POSITION_BYTES));
+			}
+			return new BearoffDatabase(buffer);
+		}
+	}
+
+	/**
+	 * Saves the database to a file.
+	 * @param path the database file.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void save(Path path) throws IOException {
+		ByteBuffer data = buffer.duplicate();
+		data.rewind();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (data.hasRemaining()) {
+				channel.write(data);
+			}
+		}
+	}
+}
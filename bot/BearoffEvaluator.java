@@ -0,0 +1,80 @@
+package bot;
+
+import java.util.Arrays;
+import model.BoardState;
+
+/**
+ * This class represents an evaluation that looks up bear-offs in the bear-off databases,
+ * and leaves every other position to another evaluator.
+ * Bear-offs of few enough checkers are looked up in the TwoSidedBearoffDatabase, exact,
+ * others in the one-sided BearoffDatabase, close to exact, where evaluators only estimate them.
+ *
+ * The databases may be shared by many evaluators, they are thread safe.
+ * An instance is as thread safe as the evaluator it wraps.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class BearoffEvaluator implements Evaluator {
+	private final BearoffDatabase database;
+	private final TwoSidedBearoffDatabase twoSided;
+	private final Evaluator evaluator;
+
+	public BearoffEvaluator(BearoffDatabase database, Evaluator evaluator) {
+		this(database, null, evaluator);
+	}
+
+	/**
+	 * Constructor.
+	 * @param database the one-sided bear-off database, or null.
+	 * @param twoSided the two-sided bear-off database, or null.
+	 * @param evaluator evaluates the positions that are not in either database.
+	 */
+	public BearoffEvaluator(BearoffDatabase database, TwoSidedBearoffDatabase twoSided, Evaluator evaluator) {
+		this.database = database;
+		this.twoSided = twoSided;
+		this.evaluator = evaluator;
+	}
+
+	@Override
+	public double evaluate(BoardState state, int side) {
+		if (state.isGameOver()) return Evaluator.getGameOverEquity(state, side);
+		// the opponent is on roll.
+		int opponent = BoardState.getOpponent(side);
+		if (twoSided != null && twoSided.contains(state)) return -twoSided.getEquity(state, opponent);
+		if (database != null && BearoffDatabase.isBearoff(state)) return -database.getEquity(state, opponent);
+		return evaluator.evaluate(state, side);
+	}
+
+	@Override
+	public void evaluateOutputs(BoardState state, int side, float[] out) {
+		if (state.isGameOver()) {
+			Evaluator.getGameOverOutputs(state, side, out);
+			return;
+		}
+		int opponent = BoardState.getOpponent(side);
+		if (twoSided != null && twoSided.contains(state)) {
+			// both sides have borne off checkers, no gammons left.
+			Arrays.fill(out, 0);
+			out[NeuralNetwork.WIN] = (float) (1 - twoSided.getProbability(state, opponent));
+		} else if (database != null && BearoffDatabase.isBearoff(state)) {
+			database.getOutputs(state, opponent, out);
+			NeuralNetwork.invert(out);
+		} else evaluator.evaluateOutputs(state, side, out);
+	}
+
+	public BearoffDatabase getDatabase() {
+		return database;
+	}
+
+	public TwoSidedBearoffDatabase getTwoSidedDatabase() {
+		return twoSided;
+	}
+
+	public Evaluator getEvaluator() {
+		return evaluator;
+	}
+}
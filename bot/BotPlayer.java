@@ -0,0 +1,60 @@
+package bot;
+
+import model.BoardState;
+import model.MatchState;
+import move.MoveGenerator;
+
+/**
+ * This interface represents a bot that plays headless matches, e.g. a bot submitted to a Tournament,
+ * beside game_engine.Player, which is played through the JavaFX game.
+ *
+ * The MatchReferee asks it for each decision of its side:
+ * 		- before rolling, whether to double, if the rules allow it.
+ * 		- when doubled, whether to take.
+ * 		- after rolling, which of the legal plays to play.
+ * Positions are BoardStates, left untouched, scores and the cube are MatchStates.
+ *
+ * An instance is used by one thread only, a Tournament makes one per worker thread,
+ * so implementations need not be thread safe.
+ * Bots loaded by class name need a public constructor without arguments.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public interface BotPlayer {
+	// the name printed in results.
+	String getName();
+
+	/**
+	 * Picks a play of the roll.
+	 * @param state the board state before the play.
+	 * @param side the side to play, BOTTOM or TOP of BoardState.
+	 * @param die1 first die, 1 to 6.
+	 * @param die2 second die, 1 to 6.
+	 * @param match the score and the cube.
+	 * @param plays the legal plays, i.e. MoveGenerator.generate(state, side, die1, die2), at least 1.
+	 * @return index of the play in plays.
+	 */
+	int play(BoardState state, int side, int die1, int die2, MatchState match, MoveGenerator plays);
+
+	/**
+	 * Decides whether to double before rolling, only asked if the side may double.
+	 * @param state the board state.
+	 * @param side the side on roll, BOTTOM or TOP.
+	 * @param match the score and the cube before the double.
+	 * @return true to double.
+	 */
+	boolean isDouble(BoardState state, int side, MatchState match);
+
+	/**
+	 * Decides whether to take a double of the opponent.
+	 * @param state the board state.
+	 * @param side the side that doubled, on roll, i.e. the opponent of this bot.
+	 * @param match the score and the cube before the double.
+	 * @return true to take, false to pass.
+	 */
+	boolean isTake(BoardState state, int side, MatchState match);
+}
@@ -0,0 +1,69 @@
+package bot;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Paths;
+import java.util.function.Supplier;
+
+/**
+ * This class makes BotPlayers from the player specs of the headless runners, one player per call of the supplier:
+ * 		- heuristic[:depth]		the game's bot with the HeuristicEvaluator.
+ * 		- file[:depth]			the game's bot with a neural network weight file, e.g. weights.bgnn:2.
+ * 		- class:name			a submitted BotPlayer, by class name, made by its constructor without arguments.
+ * The depth of the search is 1 by default, i.e. greedy.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class BotPlayers {
+	public static final String HEURISTIC = "heuristic";
+	public static final String CLASS_PREFIX = "class:";
+	public static final int DEFAULT_DEPTH = 1;
+
+	private BotPlayers() {}
+
+	/**
+	 * Returns the players of the spec.
+	 * @param spec the player spec.
+	 * @return a supplier of new players.
+	 * @throws IOException if the weight file cannot be loaded.
+	 * @throws IllegalArgumentException if the class is not a BotPlayer or cannot be made.
+	 */
+	public static Supplier<BotPlayer> forSpec(String spec) throws IOException {
+		if (spec.startsWith(CLASS_PREFIX)) return forClass(spec.substring(CLASS_PREFIX.length()));
+
+		String name = spec;
+		int depth = DEFAULT_DEPTH;
+		int colon = spec.lastIndexOf(':');
+		if (colon > 0 && spec.substring(colon+1).matches("\\d+")) {
+			name = spec.substring(0, colon);
+			depth = Integer.parseInt(spec.substring(colon+1));
+		}
+		int theDepth = depth;
+		if (name.equalsIgnoreCase(HEURISTIC)) {
+			return () -> new SearchBotPlayer(spec, new HeuristicEvaluator(), new HeuristicEvaluator(), theDepth);
+		}
+		NeuralNetwork net = NeuralNetwork.load(Paths.get(name));
+		return () -> new SearchBotPlayer(spec, new NeuralEvaluator(net), new NeuralEvaluator(net), theDepth);
+	}
+
+	private static Supplier<BotPlayer> forClass(String className) {
+		Class<? extends BotPlayer> type;
+		try {
+			type = Class.forName(className).asSubclass(BotPlayer.class);
+			type.getConstructor();
+		} catch (ClassNotFoundException | ClassCastException | NoSuchMethodException e) {
+			throw new IllegalArgumentException("Not a BotPlayer with a public constructor without arguments: " + className, e);
+		}
+		return () -> {
+			try {
+				return type.getConstructor().newInstance();
+			} catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+				throw new IllegalArgumentException("Cannot make " + className, e);
+			}
+		};
+	}
+}
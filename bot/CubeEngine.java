@@ -0,0 +1,368 @@
+package bot;
+
+import java.util.Arrays;
+import model.BoardState;
+import model.MatchState;
+import model.RollTable;
+import move.MoveGenerator;
+
+/**
+ * This class represents the bot's doubling cube decisions, i.e. double or not, take or pass,
+ * from the cubeless odds of the evaluator and the MatchEquityTable.
+ *
+ * Cubeful equity follows Janowski's model,
+ * a weighted mix of the dead cube, the cubeless odds at the value of the cube,
+ * and the fully live cube, where equity is linear in the winning chances between the cash points:
+ * 		- a centered cube has both sides' cash points.
+ * 		- an owned cube has only the owner's.
+ * The cash points of each cube level are solved from the level above, the highest level is dead,
+ * so a cube that can no longer be turned at the score, e.g. a win takes the match, counts as dead.
+ * Equities are match winning chances in a match, points in a money game.
+ *
+ * The winning chances of the side on roll are the average over the 21 rolls of the best play's odds.
+ * Decisions are cached by the hash of the position and of the MatchState,
+ * so asking again in the same turn, e.g. the advice before the bot's own decision, is free.
+ *
+ * Calls are synchronized, an instance holds scratch boards and the evaluator, which is not thread safe.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class CubeEngine {
+	// Janowski's x, share of the live cube in the mix, 0.68 is typical of middle game positions.
+	public static final double DEFAULT_CUBE_EFFICIENCY = 0.68;
+	// entries, a power of two.
+	public static final int DEFAULT_CACHE_SIZE = 1 << 12;
+
+	// cash points are solved to well below a thousandth.
+	private static final int BISECTIONS = 30;
+	// cube values 1 to MAX_CUBE, and one above for the doubled cube of the highest.
+	private static final int MAX_LEVELS = Integer.numberOfTrailingZeros(MatchState.MAX_CUBE) + 2;
+
+	// owners of the cube, from the perspective of the side on roll.
+	private static final int CENTERED = 0;
+	private static final int OWNED = 1;
+	private static final int OPPONENT_OWNED = 2;
+
+	private final Evaluator evaluator;
+	private final MatchEquityTable met;
+	private final double cubeEfficiency;
+
+	// scratch.
+	private final MoveGenerator gen;
+	private final BoardState child;
+	private final float[] rollOutputs;
+	private final double[] cashPoints, opponentCashPoints;
+	private final boolean[] canDouble, canOpponentDouble;
+
+	// the decision being solved, values from the perspective of the side on roll.
+	private MatchState match;
+	private int side, opponent;
+	private float[] outputs;
+
+	// direct mapped cache.
+	private final long[] keys;
+	private final Decision[] decisions;
+	private final int mask;
+	private long probes, hits;
+
+	public CubeEngine(Evaluator evaluator) {
+		this(evaluator, MatchEquityTable.getDefault(), DEFAULT_CUBE_EFFICIENCY, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * @param evaluator cubeless evaluation of positions, owned by the engine.
+	 * @param met converts game results to match winning chances.
+	 * @param cubeEfficiency share of the live cube, 0 for a dead cube to 1 for a fully live cube.
+	 * @param cacheSize cached decisions, rounded down to a power of two.
+	 */
+	public CubeEngine(Evaluator evaluator, MatchEquityTable met, double cubeEfficiency, int cacheSize) {
+		this.evaluator = evaluator;
+		this.met = met;
+		this.cubeEfficiency = cubeEfficiency;
+		gen = new MoveGenerator();
+		child = new BoardState();
+		rollOutputs = new float[NeuralNetwork.OUTPUTS];
+		cashPoints = new double[MAX_LEVELS];
+		opponentCashPoints = new double[MAX_LEVELS];
+		canDouble = new boolean[MAX_LEVELS];
+		canOpponentDouble = new boolean[MAX_LEVELS];
+		int size = Integer.highestOneBit(Math.max(cacheSize, 1));
+		keys = new long[size];
+		decisions = new Decision[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * Decides the cube of the side on roll, before it rolls.
+	 * The same decision tells the opponent to take or pass if the side doubles.
+	 * @param state the board state, game must not be over.
+	 * @param side the side on roll, BOTTOM or TOP.
+	 * @param match the score and the cube before the double.
+	 * @return the decision.
+	 */
+	public synchronized Decision decide(BoardState state, int side, MatchState match) {
+		long key = state.getHash(side) ^ match.getHash();
+		int slot = (int) key & mask;
+		probes++;
+		Decision decision = decisions[slot];
+		if (decision != null && keys[slot] == key) {
+			hits++;
+			return decision;
+		}
+
+		float[] outputs = new float[NeuralNetwork.OUTPUTS];
+		evaluatePreRoll(state, side, outputs);
+		decision = decide(side, match, outputs);
+		keys[slot] = key;
+		decisions[slot] = decision;
+		return decision;
+	}
+
+	/**
+	 * Decides the cube from given cubeless odds, e.g. of a rollout, nothing is cached.
+	 * @param side the side on roll, BOTTOM or TOP.
+	 * @param match the score and the cube before the double.
+	 * @param outputs odds of the side on roll before it rolls, see NeuralNetwork.
+	 * @return the decision.
+	 */
+	public synchronized Decision decide(int side, MatchState match, float[] outputs) {
+		this.match = match;
+		this.side = side;
+		this.opponent = BoardState.getOpponent(side);
+		this.outputs = outputs;
+
+		int cube = match.getCube();
+		int owner = match.getCubeOwner() == MatchState.CENTERED ? CENTERED : match.getCubeOwner() == side ? OWNED : OPPONENT_OWNED;
+		solveCashPoints(cube);
+
+		double p = outputs[NeuralNetwork.WIN];
+		boolean isAvailable = owner != OPPONENT_OWNED && canDouble[0];
+		double noDouble = getCubefulEquity(0, owner, p);
+		double doubleTake = isAvailable ? getCubefulEquity(1, OPPONENT_OWNED, p) : Double.NaN;
+		double doublePass = isAvailable ? getValue(cube) : Double.NaN;
+		this.outputs = null;
+		this.match = null;
+		return new Decision(match, outputs.clone(), isAvailable, noDouble, doubleTake, doublePass);
+	}
+
+	/**
+	 * Evaluates the odds of the side on roll before it rolls,
+	 * i.e. the odds of the best play of each roll, weighted by the probability of the roll.
+	 * @param state the board state, game must not be over.
+	 * @param side the side on roll, BOTTOM or TOP.
+	 * @param out odds of the side, see NeuralNetwork, OUTPUTS long.
+	 */
+	public synchronized void evaluatePreRoll(BoardState state, int side, float[] out) {
+		Arrays.fill(out, 0);
+		for (int roll = 0; roll < RollTable.ROLLS; roll++) {
+			int count = gen.generate(state, side, RollTable.getDie1(roll), RollTable.getDie2(roll));
+			int best = 0;
+			double bestEquity = Double.NEGATIVE_INFINITY;
+			for (int play = 0; play < count; play++) {
+				gen.getResultingState(play, child);
+				double equity = evaluator.evaluate(child, side);
+				if (equity > bestEquity) {
+					bestEquity = equity;
+					best = play;
+				}
+			}
+			gen.getResultingState(best, child);
+			evaluator.evaluateOutputs(child, side, rollOutputs);
+			float probability = (float) RollTable.getProbability(roll);
+			for (int o = 0; o < NeuralNetwork.OUTPUTS; o++) {
+				out[o] += probability * rollOutputs[o];
+			}
+		}
+	}
+
+	// cash points of each level, from the highest down, level i is the cube at cube << i.
+	private void solveCashPoints(int cube) {
+		int levels = 0;
+		while (levels < MAX_LEVELS && (long) cube << levels <= MatchState.MAX_CUBE) levels++;
+		// the level above the highest is dead.
+		Arrays.fill(canDouble, false);
+		Arrays.fill(canOpponentDouble, false);
+		for (int level = levels-1; level >= 0; level--) {
+			int value = cube << level;
+			canDouble[level] = match.canDouble(side, value);
+			canOpponentDouble[level] = match.canDouble(opponent, value);
+			// the opponent takes at our cash point, owning the cube one level up.
+			if (canDouble[level]) cashPoints[level] = solve(level+1, OPPONENT_OWNED, getValue(value));
+			if (canOpponentDouble[level]) opponentCashPoints[level] = solve(level+1, OWNED, getValue(-value));
+		}
+	}
+
+	// winning chances at which the cubeful equity of the level is the target, equity rises with them.
+	private double solve(int level, int owner, double target) {
+		double low = 0, high = 1;
+		for (int i = 0; i < BISECTIONS; i++) {
+			double mid = (low + high) / 2;
+			if (getCubefulEquity(level, owner, mid) < target) low = mid;
+			else high = mid;
+		}
+		return (low + high) / 2;
+	}
+
+	/**
+	 * Returns the cubeful equity of the side on roll, the mix of the dead and the live cube.
+	 * @param level the cube is at the starting cube << level.
+	 * @param owner CENTERED, OWNED or OPPONENT_OWNED.
+	 * @param p winning chances of the side.
+	 */
+	private double getCubefulEquity(int level, int owner, double p) {
+		int value = match.getCube() << level;
+		double win = getWinValue(value);
+		double lose = getLoseValue(value);
+		double dead = p * win + (1 - p) * lose;
+
+		// the opponent cashes below its cash point, we cash above ours, linear in between,
+		// beyond the cash points the live cube plays on for the gammons.
+		double opponentCashPoint = owner != OWNED && canOpponentDouble[level] ? opponentCashPoints[level] : -1;
+		double cashPoint = owner != OPPONENT_OWNED && canDouble[level] ? cashPoints[level] : 2;
+		double live;
+		if (p <= opponentCashPoint) {
+			live = interpolate(p, 0, lose, opponentCashPoint, getValue(-value));
+		} else if (p >= cashPoint) {
+			live = interpolate(p, cashPoint, getValue(value), 1, win);
+		} else {
+			double lowP = Math.max(opponentCashPoint, 0);
+			double highP = Math.min(cashPoint, 1);
+			live = interpolate(p, lowP, lowP == 0 ? lose : getValue(-value), highP, highP == 1 ? win : getValue(value));
+		}
+		return cubeEfficiency * live + (1 - cubeEfficiency) * dead;
+	}
+
+	private static double interpolate(double p, double p0, double equity0, double p1, double equity1) {
+		if (p1 <= p0) return equity0;
+		return equity0 + (p - p0) / (p1 - p0) * (equity1 - equity0);
+	}
+
+	// equity of the games won at the cube value, by their share of singles, gammons and backgammons.
+	private double getWinValue(int value) {
+		double win = outputs[NeuralNetwork.WIN];
+		if (win <= 0) return getValue(value);
+		double gammon = outputs[NeuralNetwork.WIN_GAMMON];
+		double backgammon = outputs[NeuralNetwork.WIN_BACKGAMMON];
+		return ((win - gammon) * getValue(value) + (gammon - backgammon) * getValue(2 * value)
+				+ backgammon * getValue(3 * value)) / win;
+	}
+
+	private double getLoseValue(int value) {
+		double lose = 1 - outputs[NeuralNetwork.WIN];
+		if (lose <= 0) return getValue(-value);
+		double gammon = outputs[NeuralNetwork.LOSE_GAMMON];
+		double backgammon = outputs[NeuralNetwork.LOSE_BACKGAMMON];
+		return ((lose - gammon) * getValue(-value) + (gammon - backgammon) * getValue(-2 * value)
+				+ backgammon * getValue(-3 * value)) / lose;
+	}
+
+	// equity of a game result, points won by the side on roll, negative if lost.
+	private double getValue(int points) {
+		if (match.isMoney()) return points;
+		return met.getEquityAfter(match.getAway(side), match.getAway(opponent), match.isCrawfordDone(), points);
+	}
+
+	public synchronized double getCacheHitRate() {
+		return probes == 0 ? 0 : (double) hits / probes;
+	}
+
+	public Evaluator getEvaluator() {
+		return evaluator;
+	}
+
+	/**
+	 * This class represents a cube decision,
+	 * equities of the side on roll for no double, double and take, and double and pass.
+	 */
+	public static class Decision {
+		private final MatchState match;
+		private final float[] outputs;
+		private final boolean isAvailable;
+		private final double noDouble, doubleTake, doublePass;
+
+		private Decision(MatchState match, float[] outputs, boolean isAvailable,
+				double noDouble, double doubleTake, double doublePass) {
+			this.match = match;
+			this.outputs = outputs;
+			this.isAvailable = isAvailable;
+			this.noDouble = noDouble;
+			this.doubleTake = doubleTake;
+			this.doublePass = doublePass;
+		}
+
+		// true if the side on roll may double.
+		public boolean isAvailable() {
+			return isAvailable;
+		}
+
+		// true if the side on roll should double, the opponent's best answer is better than not doubling.
+		public boolean isDouble() {
+			return isAvailable && Math.min(doubleTake, doublePass) > noDouble;
+		}
+
+		// true if the opponent should take a double, ties are taken.
+		public boolean isTake() {
+			return isAvailable && doubleTake <= doublePass;
+		}
+
+		// true if the opponent would pass, but playing on for a gammon is worth more than cashing.
+		public boolean isTooGood() {
+			return isAvailable && !isTake() && noDouble >= doublePass;
+		}
+
+		public double getNoDouble() {
+			return noDouble;
+		}
+
+		public double getDoubleTake() {
+			return doubleTake;
+		}
+
+		public double getDoublePass() {
+			return doublePass;
+		}
+
+		// cubeless odds of the side on roll, see NeuralNetwork.
+		public float[] getOutputs() {
+			return outputs.clone();
+		}
+
+		public MatchState getMatch() {
+			return match;
+		}
+
+		public String getAction() {
+			if (!isAvailable) return "No double available";
+			if (isTooGood()) return "Too good to double, pass";
+			return (isDouble() ? "Double, " : "No double, ") + (isTake() ? "take" : "pass");
+		}
+
+		// money equities per unit of the cube, match equities in percent.
+		private String format(double equity) {
+			if (match.isMoney()) return String.format("%+.3f", equity / match.getCube());
+			return String.format("%.1f%%", 100 * equity);
+		}
+
+		/**
+		 * Returns the decision in the form of
+		 * "Win 62.1% (gammon 18.0%), lose gammon 9.2%. No double +0.301, double/take +0.412, double/pass +1.000: Double, take".
+		 */
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			sb.append(String.format("Win %.1f%% (gammon %.1f%%), lose gammon %.1f%%. ", 100 * outputs[NeuralNetwork.WIN],
+					100 * outputs[NeuralNetwork.WIN_GAMMON], 100 * outputs[NeuralNetwork.LOSE_GAMMON]));
+			sb.append("No double ").append(format(noDouble));
+			if (isAvailable) {
+				sb.append(", double/take ").append(format(doubleTake));
+				sb.append(", double/pass ").append(format(doublePass));
+			}
+			return sb.append(": ").append(getAction()).toString();
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package bot;
+
+import java.util.Arrays;
+import model.BoardState;
+
+/**
+ * This interface represents a static evaluation of a position, used by the bot's search.
+ *
+ * The position is the one right after the side has played,
+ * i.e. the opponent of the side is on roll.
+ * Equity is in points per game from the side's perspective,
+ * between -3 (lose a backgammon) and 3 (win a backgammon).
+ *
+ * Implementations must not allocate per call, they are called millions of times per move.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public interface Evaluator {
+	double MIN_EQUITY = -3;
+	double MAX_EQUITY = 3;
+
+	/**
+	 * Evaluates the position after the side has played.
+	 * @param state the board state, left untouched.
+	 * @param side the side that just played, BOTTOM or TOP of BoardState.
+	 * @return the equity of the side.
+	 */
+	double evaluate(BoardState state, int side);
+
+	/**
+	 * Evaluates the odds of the position after the side has played, used by cube decisions.
+	 * Evaluators that only estimate equity count no gammons, and win at the odds their equity stands for.
+	 * @param state the board state, left untouched.
+	 * @param side the side that just played, BOTTOM or TOP of BoardState.
+	 * @param out win, gammon and backgammon odds of the side, see NeuralNetwork, OUTPUTS long.
+	 */
+	default void evaluateOutputs(BoardState state, int side, float[] out) {
+		if (state.isGameOver()) {
+			getGameOverOutputs(state, side, out);
+			return;
+		}
+		double equity = Math.max(-1, Math.min(1, evaluate(state, side)));
+		Arrays.fill(out, 0);
+		out[NeuralNetwork.WIN] = (float) ((equity + 1) / 2);
+	}
+
+	/**
+	 * Returns the equity of a finished game for the side,
+	 * i.e. the game score won or lost.
+	 * @param state the board state, game must be over.
+	 * @param side BOTTOM or TOP.
+	 * @return the equity of the side.
+	 */
+	static double getGameOverEquity(BoardState state, int side) {
+		int winner = state.getWinner();
+		int loser = BoardState.getOpponent(winner);
+		int score = state.getGameScore(loser);
+		return winner == side ? score : -score;
+	}
+
+	/**
+	 * Sets the outputs of a finished game as seen by the side, i.e. 1 or 0 for each output.
+	 * @param state the board state, game must be over.
+	 * @param side BOTTOM or TOP.
+	 * @param out outputs, OUTPUTS long.
+	 */
+	static void getGameOverOutputs(BoardState state, int side, float[] out) {
+		int winner = state.getWinner();
+		int score = state.getGameScore(BoardState.getOpponent(winner));
+		boolean isWin = winner == side;
+		out[NeuralNetwork.WIN] = isWin ? 1 : 0;
+		out[NeuralNetwork.WIN_GAMMON] = isWin && score >= 2 ? 1 : 0;
+		out[NeuralNetwork.WIN_BACKGAMMON] = isWin && score >= 3 ? 1 : 0;
+		out[NeuralNetwork.LOSE_GAMMON] = !isWin && score >= 2 ? 1 : 0;
+		out[NeuralNetwork.LOSE_BACKGAMMON] = !isWin && score >= 3 ? 1 : 0;
+	}
+}
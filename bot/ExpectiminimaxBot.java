@@ -0,0 +1,481 @@
+package bot;
+
+import model.BoardState;
+import model.RollTable;
+import move.MoveGenerator;
+
+/**
+ * This class represents a bot that picks a play by n-ply expectiminimax search.
+ *
+ * The tree alternates decision nodes (a side picks a play for a known roll)
+ * and chance nodes (the 21 distinct rolls of the side to roll, weighted by their odds).
+ * Values are equities in negamax form, i.e. always from the perspective of the side to play.
+ *
+ * Chance nodes are pruned with Star1 and Star2 (Ballard, 1983):
+ * 		- Star1, bounds of the unsearched rolls (MIN_EQUITY to MAX_EQUITY of Evaluator)
+ * 		  narrow the window of each roll, and cut off once the expected value cannot leave the window.
+ * 		- Star2, before the full search, each roll is probed with its best ordered play only,
+ * 		  which is a lower bound of that roll, often enough to cut off the chance node early.
+ * Plays are ordered by the static evaluation, the root by the previous iteration.
+ * Chance node values are kept in an optional TranspositionTable,
+ * since different play orders reach the same position.
+ *
+ * Search is iteratively deepened until the time budget or the max depth is reached,
+ * the deepest completed iteration gives the play.
+ * A depth of 1 is a plain 1-ply search, i.e. the play with the best static evaluation.
+ *
+ * Boards, move generators and ordering buffers are allocated once per depth and roll and reused,
+ * so searching allocates nothing once the buffers have grown to fit.
+ * An instance is not thread safe, use one per thread.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class ExpectiminimaxBot implements Search {
+	public static final int DEFAULT_MAX_DEPTH = 3;
+	private static final double MIN = Evaluator.MIN_EQUITY;
+	private static final double MAX = Evaluator.MAX_EQUITY;
+	// check the clock every 1024 evaluations.
+	private static final int CHECK_INTERVAL = 1023;
+	// next iteration is not started if it is unlikely to finish in time.
+	private static final int ITERATION_GROWTH = 16;
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final Evaluator evaluator;
+	private final int maxDepth;
+	private final TranspositionTable table;
+
+	// root decision node.
+	private final MoveGenerator rootGen;
+	private final BoardState rootChild;
+	private int[] rootOrder;
+	private double[] rootValues;
+
+	// chance nodes, indexed by the number of decision plies left, then by roll.
+	private final MoveGenerator[][] gens;
+	private final int[][][] orders;
+	private final double[][][] scores;
+	private final double[][] lower, upper;
+	private final BoardState[] children;
+
+	// search state.
+	private long deadline, nodes;
+	private boolean isAborted;
+	private volatile boolean isStopRequested;
+
+	// results.
+	private int bestPlay, completedDepth;
+	private double bestEquity;
+
+	public ExpectiminimaxBot(Evaluator evaluator) {
+		this(evaluator, DEFAULT_MAX_DEPTH);
+	}
+
+	public ExpectiminimaxBot(Evaluator evaluator, int maxDepth) {
+		this(evaluator, maxDepth, null);
+	}
+
+	/**
+	 * Constructor.
+	 * @param evaluator evaluator of the positions, used by this bot only.
+	 * @param maxDepth max depth of the iterative deepening.
+	 * @param table transposition table, may be shared with other bots, or null for none.
+	 */
+	public ExpectiminimaxBot(Evaluator evaluator, int maxDepth, TranspositionTable table) {
+		this.evaluator = evaluator;
+		this.maxDepth = maxDepth;
+		this.table = table;
+		rootGen = new MoveGenerator();
+		rootChild = new BoardState();
+		rootOrder = new int[INITIAL_CAPACITY];
+		rootValues = new double[INITIAL_CAPACITY];
+
+		// the root is a decision node, so chance nodes are at most maxDepth-1 plies deep.
+		int levels = Math.max(1, maxDepth-1);
+		gens = new MoveGenerator[levels][RollTable.ROLLS];
+		orders = new int[levels][RollTable.ROLLS][INITIAL_CAPACITY];
+		scores = new double[levels][RollTable.ROLLS][INITIAL_CAPACITY];
+		lower = new double[levels][RollTable.ROLLS];
+		upper = new double[levels][RollTable.ROLLS];
+		children = new BoardState[levels];
+		for (int depth = 0; depth < levels; depth++) {
+			children[depth] = new BoardState();
+			for (int roll = 0; roll < RollTable.ROLLS; roll++) {
+				gens[depth][roll] = new MoveGenerator();
+			}
+		}
+	}
+
+	@Override
+	public int search(BoardState state, int side, int die1, int die2, long budgetMillis) {
+		long start = System.nanoTime();
+		long budget = budgetMillis * 1_000_000;
+		isAborted = false;
+		nodes = 0;
+		if (table != null) table.newSearch();
+
+		// 1-ply, never aborted.
+		deadline = Long.MAX_VALUE;
+		int count = rootGen.generate(state, side, die1, die2);
+		ensureRootCapacity(count);
+		for (int play = 0; play < count; play++) {
+			rootGen.getResultingState(play, rootChild);
+			rootValues[play] = evaluate(rootChild, side);
+			rootOrder[play] = play;
+		}
+		sort(rootOrder, rootValues, count);
+		bestPlay = rootOrder[0];
+		bestEquity = rootValues[bestPlay];
+		completedDepth = 1;
+		if (count == 1) return bestPlay;
+
+		deadline = start + budget;
+		for (int depth = 2; depth <= maxDepth; depth++) {
+			long elapsed = System.nanoTime() - start;
+			if (elapsed * ITERATION_GROWTH > budget) break;
+
+			searchRoot(state, side, depth, count);
+			if (isAborted) break;
+			completedDepth = depth;
+			sort(rootOrder, rootValues, count);
+		}
+		return bestPlay;
+	}
+
+	// searches every play of the root, updating the best play as plays are completed.
+	private void searchRoot(BoardState state, int side, int depth, int count) {
+		int opponent = BoardState.getOpponent(side);
+		double best = MIN - 1;
+		int iterationBest = -1;
+		for (int i = 0; i < count; i++) {
+			int play = rootOrder[i];
+			rootGen.getResultingState(play, rootChild);
+			double value;
+			if (rootChild.isGameOver()) {
+				value = evaluate(rootChild, side);
+			} else {
+				// plays after the best only need to prove they are not better.
+				value = -chance(rootChild, opponent, depth-1, -MAX, -Math.max(best, MIN));
+			}
+			if (isAborted) break;
+
+			rootValues[play] = value;
+			if (value > best) {
+				best = value;
+				iterationBest = play;
+			}
+		}
+
+		// a partial iteration is only used if the previous best has been searched,
+		// since the best of this iteration then beats it at the new depth.
+		if (iterationBest >= 0) {
+			bestPlay = iterationBest;
+			bestEquity = best;
+		}
+	}
+
+	/* Sub-searches, used by ParallelSearch to split the tree between workers. */
+
+	/**
+	 * Starts a sub-search, clearing the node count and abort state.
+	 * @param deadline System.nanoTime() to abort at.
+	 */
+	public void begin(long deadline) {
+		this.deadline = deadline;
+		isAborted = false;
+		nodes = 0;
+	}
+
+	/**
+	 * Expected value of the side to roll, see begin().
+	 * @param state the board state, left untouched.
+	 * @param side side to roll.
+	 * @param depth decision plies left, 1 to getMaxDepth()-1.
+	 * @param alpha lower bound of the window.
+	 * @param beta upper bound of the window.
+	 * @return the expected equity of the side, fail-soft, meaningless if isAborted().
+	 */
+	public double searchChance(BoardState state, int side, int depth, double alpha, double beta) {
+		return chance(state, side, depth, alpha, beta);
+	}
+
+	/**
+	 * Best value of the side's plays for a roll, see begin().
+	 * @param state the board state, left untouched.
+	 * @param side side to play.
+	 * @param roll index of the roll in RollTable.
+	 * @param depth decision plies left including this one, 1 to getMaxDepth()-1.
+	 * @param alpha lower bound of the window.
+	 * @param beta upper bound of the window.
+	 * @return the best equity of the side, fail-soft, meaningless if isAborted().
+	 */
+	public double searchRoll(BoardState state, int side, int roll, int depth, double alpha, double beta) {
+		int level = depth-1;
+		MoveGenerator gen = gens[level][roll];
+		int count = gen.generate(state, side, RollTable.getDie1(roll), RollTable.getDie2(roll));
+		if (depth == 1) return getBestScore(level, roll, side);
+
+		order(level, roll, side);
+		if (isAborted) return 0;
+		return decision(side, depth, roll, alpha, beta, 0, count, MIN - 1);
+	}
+
+	public boolean isAborted() {
+		return isAborted;
+	}
+
+	/**
+	 * Expected value of the side to roll, looked up in the transposition table first.
+	 * @param state the board state.
+	 * @param side side to roll.
+	 * @param depth decision plies left, at least 1.
+	 * @param alpha lower bound of the window.
+	 * @param beta upper bound of the window.
+	 * @return the expected equity of the side, fail-soft.
+	 */
+	private double chance(BoardState state, int side, int depth, double alpha, double beta) {
+		if (table == null) return expect(state, side, depth, alpha, beta);
+
+		long hash = state.getHash(side);
+		long entry = table.probe(hash, depth);
+		if (entry != TranspositionTable.MISS) {
+			double lo = TranspositionTable.getLower(entry);
+			double hi = TranspositionTable.getUpper(entry);
+			if (lo >= beta) return lo;
+			if (hi <= alpha) return hi;
+			if (hi - lo <= TranspositionTable.EXACT_MARGIN) return lo;
+		}
+
+		double value = expect(state, side, depth, alpha, beta);
+		if (isAborted) return 0;
+
+		// the last ply ignores the window, else a fail-high is a lower bound and a fail-low an upper bound.
+		if (depth == 1 || (value > alpha && value < beta)) {
+			table.store(hash, depth, value, value);
+		} else if (value >= beta) {
+			table.store(hash, depth, value, MAX);
+		} else {
+			table.store(hash, depth, MIN, value);
+		}
+		return value;
+	}
+
+	// expected value of the side to roll, see chance().
+	private double expect(BoardState state, int side, int depth, double alpha, double beta) {
+		int level = depth-1;
+		MoveGenerator[] levelGens = gens[level];
+		for (int roll = 0; roll < RollTable.ROLLS; roll++) {
+			levelGens[roll].generate(state, side, RollTable.getDie1(roll), RollTable.getDie2(roll));
+		}
+
+		// last ply, a roll's value is its best static evaluation.
+		if (depth == 1) {
+			double sum = 0;
+			for (int roll = 0; roll < RollTable.ROLLS; roll++) {
+				sum += RollTable.getProbability(roll) * getBestScore(level, roll, side);
+				if (isAborted) return 0;
+			}
+			return sum;
+		}
+
+		double[] lo = lower[level];
+		double[] hi = upper[level];
+		for (int roll = 0; roll < RollTable.ROLLS; roll++) {
+			order(level, roll, side);
+			if (isAborted) return 0;
+			lo[roll] = MIN;
+			hi[roll] = MAX;
+		}
+		double loSum = MIN, hiSum = MAX;
+
+		// Star2, probe each roll with its first play.
+		for (int roll = 0; roll < RollTable.ROLLS; roll++) {
+			double p = RollTable.getProbability(roll);
+			double b = Math.min(MAX, (beta - (loSum - p * lo[roll])) / p);
+			double value = decision(side, depth, roll, MIN, b, 0, 1, MIN - 1);
+			if (isAborted) return 0;
+
+			loSum += p * (value - lo[roll]);
+			lo[roll] = value;
+			if (loSum >= beta) return loSum;
+		}
+
+		// Star1, search the remaining plays of each roll with the narrowed window.
+		for (int roll = 0; roll < RollTable.ROLLS; roll++) {
+			double p = RollTable.getProbability(roll);
+			double a = Math.max(MIN, (alpha - (hiSum - p * hi[roll])) / p);
+			double b = Math.min(MAX, (beta - (loSum - p * lo[roll])) / p);
+			int count = levelGens[roll].getPlayCount();
+			double value = decision(side, depth, roll, a, b, 1, count, lo[roll]);
+			if (isAborted) return 0;
+
+			double newLo = lo[roll], newHi = hi[roll];
+			if (value <= a) {
+				newHi = value;
+			} else if (value >= b) {
+				newLo = value;
+			} else {
+				newLo = value;
+				newHi = value;
+			}
+			loSum += p * (newLo - lo[roll]);
+			hiSum += p * (newHi - hi[roll]);
+			lo[roll] = newLo;
+			hi[roll] = newHi;
+			if (loSum >= beta) return loSum;
+			if (hiSum <= alpha) return hiSum;
+		}
+		return loSum;
+	}
+
+	/**
+	 * Best value of the side's plays for a roll, searching the ordered plays from start to end.
+	 * @param side side to play.
+	 * @param depth decision plies left, including this one.
+	 * @param roll index of the roll in RollTable.
+	 * @param alpha lower bound of the window.
+	 * @param beta upper bound of the window.
+	 * @param start first index of the ordered plays to search.
+	 * @param end index after the last of the ordered plays to search.
+	 * @param best value of the plays already searched.
+	 * @return the best value, fail-soft.
+	 */
+	private double decision(int side, int depth, int roll, double alpha, double beta, int start, int end, double best) {
+		int level = depth-1;
+		MoveGenerator gen = gens[level][roll];
+		int[] order = orders[level][roll];
+		double[] score = scores[level][roll];
+		BoardState child = children[level];
+		int opponent = BoardState.getOpponent(side);
+
+		double a = Math.max(alpha, best);
+		for (int i = start; i < end; i++) {
+			int play = order[i];
+			gen.getResultingState(play, child);
+			double value;
+			if (child.isGameOver()) {
+				value = score[play];
+			} else {
+				value = -chance(child, opponent, depth-1, -beta, -a);
+			}
+			if (isAborted) return 0;
+
+			if (value > best) {
+				best = value;
+				if (best >= beta) return best;
+				if (best > a) a = best;
+			}
+		}
+		return best;
+	}
+
+	// best static evaluation of the roll's plays.
+	private double getBestScore(int level, int roll, int side) {
+		MoveGenerator gen = gens[level][roll];
+		BoardState child = children[level];
+		double best = MIN - 1;
+		for (int play = 0; play < gen.getPlayCount(); play++) {
+			gen.getResultingState(play, child);
+			double value = evaluate(child, side);
+			if (value > best) best = value;
+		}
+		return best;
+	}
+
+	// evaluates the roll's plays and orders them, best first.
+	private void order(int level, int roll, int side) {
+		MoveGenerator gen = gens[level][roll];
+		int count = gen.getPlayCount();
+		if (orders[level][roll].length < count) {
+			int capacity = Math.max(count, orders[level][roll].length * 2);
+			orders[level][roll] = new int[capacity];
+			scores[level][roll] = new double[capacity];
+		}
+		int[] order = orders[level][roll];
+		double[] score = scores[level][roll];
+		BoardState child = children[level];
+		for (int play = 0; play < count; play++) {
+			gen.getResultingState(play, child);
+			score[play] = evaluate(child, side);
+			order[play] = play;
+		}
+		sort(order, score, count);
+	}
+
+	private double evaluate(BoardState state, int side) {
+		if ((++nodes & CHECK_INTERVAL) == 0 && (isStopRequested || System.nanoTime() > deadline)) {
+			isAborted = true;
+		}
+		return evaluator.evaluate(state, side);
+	}
+
+	// shell sort of the indexes by their values, descending.
+	static void sort(int[] order, double[] values, int count) {
+		for (int gap = count / 2; gap > 0; gap /= 2) {
+			for (int i = gap; i < count; i++) {
+				int index = order[i];
+				double value = values[index];
+				int j = i;
+				while (j >= gap && values[order[j-gap]] < value) {
+					order[j] = order[j-gap];
+					j -= gap;
+				}
+				order[j] = index;
+			}
+		}
+	}
+
+	private void ensureRootCapacity(int count) {
+		if (rootOrder.length < count) {
+			int capacity = Math.max(count, rootOrder.length * 2);
+			rootOrder = new int[capacity];
+			rootValues = new double[capacity];
+		}
+	}
+
+	@Override
+	public void stop() {
+		isStopRequested = true;
+	}
+
+	@Override
+	public void clearStop() {
+		isStopRequested = false;
+	}
+
+	@Override
+	public MoveGenerator getPlays() {
+		return rootGen;
+	}
+
+	public int getBestPlay() {
+		return bestPlay;
+	}
+
+	@Override
+	public double getBestEquity() {
+		return bestEquity;
+	}
+
+	@Override
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	@Override
+	public long getNodeCount() {
+		return nodes;
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	// transposition table, null if none.
+	public TranspositionTable getTable() {
+		return table;
+	}
+}
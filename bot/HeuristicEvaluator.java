@@ -0,0 +1,156 @@
+package bot;
+
+import model.BoardState;
+
+/**
+ * This class represents a hand-tuned evaluation of a position.
+ *
+ * Positions are scored in pips, i.e. how many pips ahead the side effectively is,
+ * then squashed into an equity between -1 and 1.
+ * Scoring considers:
+ * 		- pip count difference, adjusted since the opponent is on roll.
+ * 		- blots that the opponent can hit, weighted by the pips lost if hit.
+ * 		- points made in the home board, the bar point, anchors and primes.
+ * 		- checkers on the bar, weighted by how closed the board they enter is.
+ * Once there is no contact, only the race is scored.
+ *
+ * An instance is not thread safe, use one per thread.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class HeuristicEvaluator implements Evaluator {
+	// index 0 is the bar as the opponent enters from, 1-24 are distances as seen by the side.
+	private static final int BAR = BoardState.NUMBER_OF_PIPS + 1;
+
+	// number of the 36 rolls that hit a blot at distance 1-12, ignoring blocked points.
+	private static final int[] SHOTS = {0, 11, 12, 14, 15, 15, 17, 6, 6, 5, 3, 2, 3};
+
+	private static final double ON_ROLL_PIPS = 4;
+	private static final double HOME_POINT_BONUS = 4;
+	private static final double BAR_POINT_BONUS = 3;
+	private static final double ANCHOR_BONUS = 3;
+	private static final double PRIME_BONUS = 1.5;
+	private static final double BAR_PENALTY = 3;
+	private static final double CLOSED_POINT_PENALTY = 2;
+	private static final double HIT_TEMPO_PIPS = 8;
+	private static final double CONTACT_SCALE = 30;
+
+	// checkers of the side and of the opponent, by distance as seen by the side.
+	private final int[] mine, theirs;
+
+	public HeuristicEvaluator() {
+		mine = new int[BAR+1];
+		theirs = new int[BAR+1];
+	}
+
+	@Override
+	public double evaluate(BoardState state, int side) {
+		if (state.isGameOver()) return Evaluator.getGameOverEquity(state, side);
+
+		int opponent = BoardState.getOpponent(side);
+		load(state, side);
+		int myPips = state.getPipCount(side);
+		int theirPips = state.getPipCount(opponent);
+		double race = theirPips - myPips - ON_ROLL_PIPS;
+
+		// contact if any of our checkers still have to pass one of theirs.
+		int myFurthest = getFurthest(mine);
+		int theirFurthest = getTheirFurthest();
+		if (myFurthest <= theirFurthest) {
+			// the longer the race, the less a pip lead is worth.
+			double scale = 0.1 * (myPips + theirPips) / 2 + 4;
+			return Math.tanh(race / scale);
+		}
+
+		double score = race;
+		score += getPointsScore();
+		score -= getBlotsPenalty();
+		score += getBarScore();
+		return Math.tanh(score / CONTACT_SCALE);
+	}
+
+	private void load(BoardState state, int side) {
+		int opponent = BoardState.getOpponent(side);
+		for (int pipNum = 0; pipNum < BoardState.NUMBER_OF_PIPS; pipNum++) {
+			int distance = BoardState.getDistance(side, pipNum);
+			mine[distance] = state.getCheckers(side, pipNum);
+			theirs[distance] = state.getCheckers(opponent, pipNum);
+		}
+		mine[0] = 0;
+		mine[BAR] = state.getBar(side);
+		// the opponent enters into our home board, i.e. from before distance 1.
+		theirs[0] = state.getBar(opponent);
+		theirs[BAR] = 0;
+	}
+
+	// furthest distance with our checkers, BAR if on the bar.
+	private int getFurthest(int[] checkers) {
+		for (int distance = BAR; distance > 0; distance--) {
+			if (checkers[distance] > 0) return distance;
+		}
+		return 0;
+	}
+
+	// furthest distance of their checkers as seen by them, in our distances, i.e. the smallest.
+	private int getTheirFurthest() {
+		for (int distance = 0; distance < BAR; distance++) {
+			if (theirs[distance] > 0) return distance;
+		}
+		return BAR;
+	}
+
+	private double getPointsScore() {
+		double score = 0;
+		for (int distance = 1; distance <= BoardState.HOME_BOARD_SIZE; distance++) {
+			if (mine[distance] >= 2) score += HOME_POINT_BONUS;
+		}
+		if (mine[BoardState.HOME_BOARD_SIZE+1] >= 2) score += BAR_POINT_BONUS;
+
+		// anchors in their home board.
+		for (int distance = BoardState.NUMBER_OF_PIPS-BoardState.HOME_BOARD_SIZE+1; distance <= BoardState.NUMBER_OF_PIPS; distance++) {
+			if (mine[distance] >= 2) score += ANCHOR_BONUS;
+		}
+
+		// longest run of made points in front of their furthest checker,
+		// they move towards larger distances.
+		int longest = 0, run = 0;
+		for (int distance = getTheirFurthest()+1; distance <= BoardState.NUMBER_OF_PIPS; distance++) {
+			run = mine[distance] >= 2 ? run+1 : 0;
+			if (run > longest) longest = run;
+		}
+		score += PRIME_BONUS * longest * longest;
+		return score;
+	}
+
+	// expected pips lost from our blots being hit, shooters are their checkers behind the blot.
+	private double getBlotsPenalty() {
+		double penalty = 0;
+		for (int distance = 1; distance <= BoardState.NUMBER_OF_PIPS; distance++) {
+			if (mine[distance] != 1) continue;
+
+			double missed = 1;
+			for (int shot = 1; shot < SHOTS.length && shot <= distance; shot++) {
+				if (theirs[distance-shot] > 0) missed *= 1 - SHOTS[shot] / 36.0;
+			}
+			double hit = 1 - missed;
+			penalty += hit * (BAR - distance + HIT_TEMPO_PIPS);
+		}
+		return penalty;
+	}
+
+	// their checkers on the bar are good, more so the more closed our home board is.
+	private double getBarScore() {
+		int myClosed = 0, theirClosed = 0;
+		for (int distance = 1; distance <= BoardState.HOME_BOARD_SIZE; distance++) {
+			if (mine[distance] >= 2) myClosed++;
+			if (theirs[BAR-distance] >= 2) theirClosed++;
+		}
+		double score = theirs[0] * (BAR_PENALTY + CLOSED_POINT_PENALTY * myClosed);
+		score -= mine[BAR] * (BAR_PENALTY + CLOSED_POINT_PENALTY * theirClosed);
+		return score;
+	}
+}
@@ -0,0 +1,203 @@
+package bot;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a match equity table,
+ * i.e. the odds of winning the match from the start of a game, by the points each player still needs.
+ *
+ * The table is computed at startup by a memoized recursion over the scores,
+ * each game won or lost by a single game or a gammon, at a fixed gammon rate:
+ * 		- post-Crawford, the trailer doubles at once, and the leader drops
+ * 		  when the trailer would still need an even number of points, i.e. the free drop,
+ * 		  a doubled gammon is worth 4 points to the trailer.
+ * 		- the Crawford game is played without the cube.
+ * 		- before the Crawford game, games are valued cubeless,
+ * 		  the value of the cube itself is left to the cube decisions that use the table.
+ * Backgammons are rare enough to be counted as gammons.
+ *
+ * Lookups are constant time, from flat arrays,
+ * so money equities can be converted to match equities inside the search.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class MatchEquityTable {
+	public static final int MAX_LENGTH = 25;
+	// fraction of games won that are gammons.
+	public static final double DEFAULT_GAMMON_RATE = 0.26;
+
+	private static final MatchEquityTable DEFAULT = new MatchEquityTable(DEFAULT_GAMMON_RATE);
+
+	private final double gammonRate;
+	// [away][opponentAway] at the start of a game before the Crawford game is done, a 1-away is the Crawford game.
+	private final double[][] table;
+	// [away] of the trailer after the Crawford game, the leader is 1-away.
+	private final double[] postCrawford;
+
+	/**
+	 * Constructor, computes the table.
+	 * @param gammonRate fraction of games won that are gammons, 0 to 1.
+	 */
+	public MatchEquityTable(double gammonRate) {
+		this.gammonRate = gammonRate;
+		postCrawford = new double[MAX_LENGTH+1];
+		table = new double[MAX_LENGTH+1][MAX_LENGTH+1];
+		for (double[] row : table) {
+			Arrays.fill(row, Double.NaN);
+		}
+		postCrawford[0] = 1;
+		for (int away = 1; away <= MAX_LENGTH; away++) {
+			postCrawford[away] = computePostCrawford(away);
+		}
+		for (int away = 0; away <= MAX_LENGTH; away++) {
+			for (int opponentAway = 0; opponentAway <= MAX_LENGTH; opponentAway++) {
+				compute(away, opponentAway);
+			}
+		}
+	}
+
+	// the table at the default gammon rate, computed once.
+	public static MatchEquityTable getDefault() {
+		return DEFAULT;
+	}
+
+	public double getGammonRate() {
+		return gammonRate;
+	}
+
+	// the trailer doubles, the leader takes or drops, whichever is worse for the trailer.
+	private double computePostCrawford(int away) {
+		if (away == 1) return 0.5;
+		double take = 0.5 * (gammonRate * getPostCrawford(away-4) + (1 - gammonRate) * getPostCrawford(away-2));
+		double drop = postCrawford[away-1];
+		return Math.min(take, drop);
+	}
+
+	private double getPostCrawford(int away) {
+		return away <= 0 ? 1 : postCrawford[away];
+	}
+
+	// odds of the trailer in the Crawford game, only the trailer's wins keep the match going.
+	private double getCrawford(int away) {
+		return 0.5 * (gammonRate * getPostCrawford(away-2) + (1 - gammonRate) * getPostCrawford(away-1));
+	}
+
+	private double compute(int away, int opponentAway) {
+		if (away <= 0) return 1;
+		if (opponentAway <= 0) return 0;
+		if (!Double.isNaN(table[away][opponentAway])) return table[away][opponentAway];
+
+		double equity;
+		if (away == 1 && opponentAway == 1) {
+			equity = 0.5;
+		} else if (away == 1) {
+			equity = 1 - getCrawford(opponentAway);
+		} else if (opponentAway == 1) {
+			equity = getCrawford(away);
+		} else {
+			double win = gammonRate * compute(away-2, opponentAway) + (1 - gammonRate) * compute(away-1, opponentAway);
+			double lose = gammonRate * compute(away, opponentAway-2) + (1 - gammonRate) * compute(away, opponentAway-1);
+			equity = 0.5 * (win + lose);
+		}
+		table[away][opponentAway] = equity;
+		return equity;
+	}
+
+	/**
+	 * Returns the odds of winning the match from the start of a game.
+	 * Points needed beyond MAX_LENGTH are looked up as MAX_LENGTH.
+	 * @param away points the player needs.
+	 * @param opponentAway points the opponent needs.
+	 * @param isPostCrawford true if the Crawford game has been played before this game.
+	 * @return the match winning chances, 0 to 1.
+	 */
+	public double getEquity(int away, int opponentAway, boolean isPostCrawford) {
+		if (away <= 0) return 1;
+		if (opponentAway <= 0) return 0;
+		away = Math.min(away, MAX_LENGTH);
+		opponentAway = Math.min(opponentAway, MAX_LENGTH);
+		if (isPostCrawford && opponentAway == 1) return postCrawford[away];
+		if (isPostCrawford && away == 1) return 1 - postCrawford[opponentAway];
+		return table[away][opponentAway];
+	}
+
+	/**
+	 * Returns the odds of winning the match after the current game,
+	 * i.e. the match equity of a game result.
+	 * @param away points the player needs.
+	 * @param opponentAway points the opponent needs.
+	 * @param isCrawfordDone true if the current game is the Crawford game or after it.
+	 * @param points points won by the player, negative if lost, i.e. game score times the cube.
+	 * @return the match winning chances, 0 to 1.
+	 */
+	public double getEquityAfter(int away, int opponentAway, boolean isCrawfordDone, int points) {
+		if (points > 0) away -= points;
+		else opponentAway += points;
+		return getEquity(away, opponentAway, isCrawfordDone);
+	}
+
+	/**
+	 * Converts the cubeless outputs of the neural network to match winning chances.
+	 * @param away points the player needs.
+	 * @param opponentAway points the opponent needs.
+	 * @param isCrawfordDone true if the current game is the Crawford game or after it.
+	 * @param cube value of the cube.
+	 * @param outputs win, gammon and backgammon odds as seen by the player, see NeuralNetwork.
+	 * @return the match winning chances, 0 to 1.
+	 */
+	public double getEquity(int away, int opponentAway, boolean isCrawfordDone, int cube, float[] outputs) {
+		double win = outputs[NeuralNetwork.WIN];
+		double winGammon = outputs[NeuralNetwork.WIN_GAMMON];
+		double winBackgammon = outputs[NeuralNetwork.WIN_BACKGAMMON];
+		double loseGammon = outputs[NeuralNetwork.LOSE_GAMMON];
+		double loseBackgammon = outputs[NeuralNetwork.LOSE_BACKGAMMON];
+		return (win - winGammon) * getEquityAfter(away, opponentAway, isCrawfordDone, cube)
+				+ (winGammon - winBackgammon) * getEquityAfter(away, opponentAway, isCrawfordDone, 2 * cube)
+				+ winBackgammon * getEquityAfter(away, opponentAway, isCrawfordDone, 3 * cube)
+				+ (1 - win - loseGammon) * getEquityAfter(away, opponentAway, isCrawfordDone, -cube)
+				+ (loseGammon - loseBackgammon) * getEquityAfter(away, opponentAway, isCrawfordDone, -2 * cube)
+				+ loseBackgammon * getEquityAfter(away, opponentAway, isCrawfordDone, -3 * cube);
+	}
+
+	/**
+	 * Converts a cubeless money equity to match winning chances,
+	 * between losing and winning the game at the cube, gammons at the table's rate.
+	 * @param away points the player needs.
+	 * @param opponentAway points the opponent needs.
+	 * @param isCrawfordDone true if the current game is the Crawford game or after it.
+	 * @param cube value of the cube.
+	 * @param equity money equity of the player, clamped to -1 to 1.
+	 * @return the match winning chances, 0 to 1.
+	 */
+	public double getEquity(int away, int opponentAway, boolean isCrawfordDone, int cube, double equity) {
+		double win = gammonRate * getEquityAfter(away, opponentAway, isCrawfordDone, 2 * cube)
+				+ (1 - gammonRate) * getEquityAfter(away, opponentAway, isCrawfordDone, cube);
+		double lose = gammonRate * getEquityAfter(away, opponentAway, isCrawfordDone, -2 * cube)
+				+ (1 - gammonRate) * getEquityAfter(away, opponentAway, isCrawfordDone, -cube);
+		double p = (Math.max(-1, Math.min(1, equity)) + 1) / 2;
+		return lose + p * (win - lose);
+	}
+
+	/**
+	 * Returns the table of the given match length in the form of rows of percentages,
+	 * the player's points needed down, the opponent's across.
+	 */
+	public String toString(int length) {
+		length = Math.min(length, MAX_LENGTH);
+		StringBuilder sb = new StringBuilder("away");
+		for (int opponentAway = 1; opponentAway <= length; opponentAway++) {
+			sb.append(String.format("%6d", opponentAway));
+		}
+		for (int away = 1; away <= length; away++) {
+			sb.append(String.format("%n%4d", away));
+			for (int opponentAway = 1; opponentAway <= length; opponentAway++) {
+				sb.append(String.format("%6.1f", 100 * table[away][opponentAway]));
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,228 @@
+package bot;
+
+import model.BoardState;
+import model.DiceSource;
+import model.MatchState;
+import move.MoveGenerator;
+
+/**
+ * This class plays headless matches between two BotPlayers,
+ * on BoardState with the MoveGenerator, i.e. the rules of BoardMoves without JavaFX, same rules as the game:
+ * 		- the opening roll is one die each, doubles are rolled again, the higher die plays both.
+ * 		- games are won by a single game, gammon or backgammon, times the cube, see BoardState.getGameScore().
+ * 		- the cube follows the /double command, checked by MatchState,
+ * 		  once a player who doubled would win the match by a single game, the cube is dead.
+ * 		- the game after a player reaches match point is the Crawford game, no doubling.
+ *
+ * The dice of each game of a match are split from the DiceSource of the match, in the order of the games,
+ * every ply takes two dice whatever is played, so the same seed deals the same dice to the same side,
+ * whoever plays it, i.e. common random numbers between matches of different players.
+ *
+ * The statistics of the last match are kept until the next, per side.
+ * An instance is not thread safe, use one per thread.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class MatchReferee {
+	// games that last longer are replayed, they are almost always loops of hits by an untrained network.
+	private static final int MAX_PLIES = 1000;
+	// a match with more replayed games is abandoned, e.g. a bot that never bears off.
+	private static final int MAX_DROPPED = 100;
+
+	private final int length;
+	private final boolean isCubeEnabled;
+	private final MoveGenerator gen;
+	private final BoardState state;
+	private final BotPlayer[] players;
+	private DiceSource dice;
+
+	// the match and game being played.
+	private final int[] scores;
+	private boolean isCrawford, isPostCrawford;
+	private int cube, cubeOwner;
+	private boolean isCubeDead;
+
+	// statistics of the last match.
+	private final int[] gameWins, gammons, backgammons;
+	private int games, plies, doubles, passes, dropped;
+
+	/**
+	 * Constructor.
+	 * @param length points to win a match, 0 for a single money game.
+	 * @param isCubeEnabled false to play without the doubling cube.
+	 */
+	public MatchReferee(int length, boolean isCubeEnabled) {
+		this.length = length;
+		this.isCubeEnabled = isCubeEnabled;
+		gen = new MoveGenerator();
+		state = new BoardState();
+		players = new BotPlayer[2];
+		scores = new int[2];
+		gameWins = new int[2];
+		gammons = new int[2];
+		backgammons = new int[2];
+	}
+
+	/**
+	 * Plays a match.
+	 * @param bottom the player of BOTTOM.
+	 * @param top the player of TOP.
+	 * @param seed seed of the dice of the match.
+	 * @return the side of the winner, BOTTOM or TOP, or -1 if the match is abandoned.
+	 */
+	public int playMatch(BotPlayer bottom, BotPlayer top, long seed) {
+		players[BoardState.BOTTOM] = bottom;
+		players[BoardState.TOP] = top;
+		DiceSource matchDice = new DiceSource(seed);
+		for (int side = 0; side < 2; side++) {
+			scores[side] = 0;
+			gameWins[side] = 0;
+			gammons[side] = 0;
+			backgammons[side] = 0;
+		}
+		games = plies = doubles = passes = dropped = 0;
+
+		boolean hadCrawford = false;
+		isCrawford = false;
+		while (dropped <= MAX_DROPPED) {
+			// the first game at match point is the Crawford game, a replayed game stays one.
+			isCrawford = isCrawford || !hadCrawford && length > 0
+					&& (scores[BoardState.BOTTOM] == length-1 || scores[BoardState.TOP] == length-1);
+			isPostCrawford = hadCrawford;
+
+			dice = matchDice.split();
+			int winner = playGame();
+			if (winner < 0) continue;
+			if (isCrawford) {
+				hadCrawford = true;
+				isCrawford = false;
+			}
+			if (length == 0 || scores[winner] >= length) return winner;
+		}
+		return -1;
+	}
+
+	/**
+	 * Plays a game, from the opening roll to the game over or a pass.
+	 * @return the winner, or -1 if the game is dropped.
+	 */
+	private int playGame() {
+		state.setStartingPosition();
+		cube = 1;
+		cubeOwner = MatchState.CENTERED;
+		isCubeDead = false;
+
+		int die1, die2;
+		do {
+			die1 = dice.rollDie();
+			die2 = dice.rollDie();
+		} while (die1 == die2);
+		int turn = die1 > die2 ? BoardState.BOTTOM : BoardState.TOP;
+
+		for (int ply = 0; ply < MAX_PLIES; ply++) {
+			int opponent = BoardState.getOpponent(turn);
+			if (ply > 0) {
+				if (isCubeEnabled && !isCubeDead && offerDouble(turn) && !takeDouble(turn)) {
+					passes++;
+					return endGame(turn, cube);
+				}
+				die1 = dice.rollDie();
+				die2 = dice.rollDie();
+			}
+
+			int count = gen.generate(state, turn, die1, die2);
+			int play = players[turn].play(state, turn, die1, die2, getMatchState(), gen);
+			if (play < 0 || play >= count) {
+				throw new IllegalStateException(players[turn].getName() + " picked play " + play + " of " + count + ".");
+			}
+			gen.getResultingState(play, state);
+			plies++;
+			if (state.isGameOver()) {
+				int score = state.getGameScore(opponent);
+				if (score >= 2) gammons[turn]++;
+				if (score >= 3) backgammons[turn]++;
+				return endGame(turn, cube * score);
+			}
+			turn = opponent;
+		}
+		dropped++;
+		return -1;
+	}
+
+	private int endGame(int winner, int score) {
+		scores[winner] += score;
+		gameWins[winner]++;
+		games++;
+		return winner;
+	}
+
+	// the side on roll doubles if its player says so and the rules allow it.
+	private boolean offerDouble(int turn) {
+		MatchState match = getMatchState();
+		if (!match.canDouble(turn)) return false;
+		return players[turn].isDouble(state, turn, match);
+	}
+
+	// the opponent of the doubler takes if its player says so, the cube is turned.
+	private boolean takeDouble(int turn) {
+		doubles++;
+		MatchState match = getMatchState();
+		int opponent = BoardState.getOpponent(turn);
+		if (!players[opponent].isTake(state, turn, match)) return false;
+		cube *= 2;
+		cubeOwner = opponent;
+		// same as /accept, a cube the doubler wins the match with is dead.
+		if (cube >= MatchState.MAX_CUBE || length > 0 && scores[turn] + cube >= length) isCubeDead = true;
+		return true;
+	}
+
+	private MatchState getMatchState() {
+		return new MatchState(length, scores[BoardState.BOTTOM], scores[BoardState.TOP], cube, cubeOwner, isCrawford, isPostCrawford);
+	}
+
+	// points won by the side in the last match.
+	public int getScore(int side) {
+		return scores[side];
+	}
+
+	public int getGameWins(int side) {
+		return gameWins[side];
+	}
+
+	public int getGammons(int side) {
+		return gammons[side];
+	}
+
+	public int getBackgammons(int side) {
+		return backgammons[side];
+	}
+
+	public int getGames() {
+		return games;
+	}
+
+	public int getPlies() {
+		return plies;
+	}
+
+	public int getDoubles() {
+		return doubles;
+	}
+
+	public int getPasses() {
+		return passes;
+	}
+
+	// games replayed since they ran over the max plies.
+	public int getDropped() {
+		return dropped;
+	}
+
+	public int getLength() {
+		return length;
+	}
+}
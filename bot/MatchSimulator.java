@@ -0,0 +1,279 @@
+package bot;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import model.BoardState;
+
+/**
+ * This class represents a batch of bot-vs-bot matches played headless, for regression testing of the bot.
+ * Matches are played by a MatchReferee, same rules as the game.
+ * Player A is always BOTTOM, the opening roll decides who plays first, so the sides are even.
+ *
+ * Each worker thread plays whole matches with its own players and referee,
+ * the dice of a match are seeded by its number, so results do not depend on the threads.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class MatchSimulator {
+	public static final int PLAYER_A = BoardState.BOTTOM;
+	public static final int PLAYER_B = BoardState.TOP;
+	public static final int DEFAULT_LENGTH = 7;
+	// mixes the match number into the seed, see Rollout.
+	private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+	private final Supplier<BotPlayer> playerA, playerB;
+	private final int length;
+	private final boolean isCubeEnabled;
+	private final int threads;
+	private final long seed;
+
+	private PrintStream log;
+	private long logInterval;
+
+	// progress, shared between workers.
+	private final AtomicLong matchesStarted, matchesPlayed;
+	private final LongAdder[] matchWins, gameWins, gammons, backgammons, points;
+	private final LongAdder games, plies, doubles, passes, dropped;
+	private volatile boolean isStopRequested;
+	private long startTime;
+
+	/**
+	 * Constructor.
+	 * @param playerA player A, one per worker thread.
+	 * @param playerB player B, one per worker thread.
+	 * @param length points to win a match, 0 for single money games.
+	 * @param isCubeEnabled false to play without the doubling cube.
+	 * @param threads number of worker threads.
+	 * @param seed seed of the dice.
+	 */
+	public MatchSimulator(Supplier<BotPlayer> playerA, Supplier<BotPlayer> playerB,
+			int length, boolean isCubeEnabled, int threads, long seed) {
+		this.playerA = playerA;
+		this.playerB = playerB;
+		this.length = length;
+		this.isCubeEnabled = isCubeEnabled;
+		this.threads = threads;
+		this.seed = seed;
+		matchesStarted = new AtomicLong();
+		matchesPlayed = new AtomicLong();
+		matchWins = newAdders();
+		gameWins = newAdders();
+		gammons = newAdders();
+		backgammons = newAdders();
+		points = newAdders();
+		games = new LongAdder();
+		plies = new LongAdder();
+		doubles = new LongAdder();
+		passes = new LongAdder();
+		dropped = new LongAdder();
+	}
+
+	private static LongAdder[] newAdders() {
+		return new LongAdder[] {new LongAdder(), new LongAdder()};
+	}
+
+	/**
+	 * Prints the results so far to the log every interval matches.
+	 * @param log where to print the progress, or null.
+	 * @param interval number of matches between prints.
+	 */
+	public void setLog(PrintStream log, long interval) {
+		this.log = log;
+		this.logInterval = interval;
+	}
+
+	/**
+	 * Plays the given number of matches, blocking until done or stopped.
+	 * @param matches number of matches.
+	 * @return the results.
+	 * @throws InterruptedException if interrupted while waiting for the workers.
+	 */
+	public Result run(long matches) throws InterruptedException {
+		isStopRequested = false;
+		startTime = System.nanoTime();
+		Thread[] workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Thread(new Worker(matches), "simulator-" + i);
+			workers[i].start();
+		}
+		for (Thread aWorker : workers) {
+			aWorker.join();
+		}
+		return getResult();
+	}
+
+	// stops after the matches in progress.
+	public void stop() {
+		isStopRequested = true;
+	}
+
+	// the results of the matches played so far.
+	public Result getResult() {
+		long[][] sums = new long[5][2];
+		LongAdder[][] adders = {matchWins, gameWins, gammons, backgammons, points};
+		for (int i = 0; i < adders.length; i++) {
+			for (int player = 0; player < 2; player++) {
+				sums[i][player] = adders[i][player].sum();
+			}
+		}
+		return new Result(length, matchesPlayed.get(), sums[0], games.sum(), sums[1], sums[2], sums[3], sums[4],
+				plies.sum(), doubles.sum(), passes.sum(), dropped.sum(), System.nanoTime() - startTime);
+	}
+
+	/**
+	 * This class represents a worker thread, with its own players and referee.
+	 */
+	private class Worker implements Runnable {
+		private final long matches;
+		private final BotPlayer a, b;
+		private final MatchReferee referee;
+
+		private Worker(long matches) {
+			this.matches = matches;
+			a = playerA.get();
+			b = playerB.get();
+			referee = new MatchReferee(length, isCubeEnabled);
+		}
+
+		@Override
+		public void run() {
+			long match;
+			while (!isStopRequested && (match = matchesStarted.getAndIncrement()) < matches) {
+				int winner = referee.playMatch(a, b, seed + match * SEED_STEP);
+				for (int player = 0; player < 2; player++) {
+					gameWins[player].add(referee.getGameWins(player));
+					gammons[player].add(referee.getGammons(player));
+					backgammons[player].add(referee.getBackgammons(player));
+					points[player].add(referee.getScore(player));
+				}
+				games.add(referee.getGames());
+				plies.add(referee.getPlies());
+				doubles.add(referee.getDoubles());
+				passes.add(referee.getPasses());
+				dropped.add(referee.getDropped());
+				if (winner < 0) continue;
+				matchWins[winner].increment();
+
+				long played = matchesPlayed.incrementAndGet();
+				if (log != null && logInterval > 0 && played % logInterval == 0) log.println(getResult());
+			}
+		}
+	}
+
+	/**
+	 * This class represents the results of the matches played so far, per player.
+	 */
+	public static class Result {
+		private final int length;
+		private final long matches, games, plies, doubles, passes, dropped, elapsedTime;
+		private final long[] matchWins, gameWins, gammons, backgammons, points;
+
+		private Result(int length, long matches, long[] matchWins, long games, long[] gameWins, long[] gammons,
+				long[] backgammons, long[] points, long plies, long doubles, long passes, long dropped, long elapsedTime) {
+			this.length = length;
+			this.matches = matches;
+			this.matchWins = matchWins;
+			this.games = games;
+			this.gameWins = gameWins;
+			this.gammons = gammons;
+			this.backgammons = backgammons;
+			this.points = points;
+			this.plies = plies;
+			this.doubles = doubles;
+			this.passes = passes;
+			this.dropped = dropped;
+			this.elapsedTime = elapsedTime;
+		}
+
+		public long getMatches() {
+			return matches;
+		}
+
+		public long getGames() {
+			return games;
+		}
+
+		// fraction of the matches won by the player, PLAYER_A or PLAYER_B.
+		public double getMatchWinRate(int player) {
+			return matches == 0 ? 0 : (double) matchWins[player] / matches;
+		}
+
+		// half width of the 95% confidence interval of the match win rate.
+		public double getConfidence() {
+			if (matches == 0) return 0;
+			double p = getMatchWinRate(PLAYER_A);
+			return 1.96 * Math.sqrt(p * (1 - p) / matches);
+		}
+
+		public double getGameWinRate(int player) {
+			return games == 0 ? 0 : (double) gameWins[player] / games;
+		}
+
+		// fraction of the player's wins that are gammons or backgammons.
+		public double getGammonRate(int player) {
+			return gameWins[player] == 0 ? 0 : (double) gammons[player] / gameWins[player];
+		}
+
+		public double getBackgammonRate(int player) {
+			return gameWins[player] == 0 ? 0 : (double) backgammons[player] / gameWins[player];
+		}
+
+		// points won by the player per game.
+		public double getPointsPerGame(int player) {
+			return games == 0 ? 0 : (double) points[player] / games;
+		}
+
+		public double getAverageGameLength() {
+			return games == 0 ? 0 : (double) plies / games;
+		}
+
+		public long getDoubles() {
+			return doubles;
+		}
+
+		public long getPasses() {
+			return passes;
+		}
+
+		// games replayed since they ran over the max plies.
+		public long getDropped() {
+			return dropped;
+		}
+
+		// in nanoseconds.
+		public long getElapsedTime() {
+			return elapsedTime;
+		}
+
+		public double getMatchesPerHour() {
+			return elapsedTime == 0 ? 0 : matches * 3.6e12 / elapsedTime;
+		}
+
+		/**
+		 * Returns the results in the form of
+		 * "1000 7-point matches, A wins 52.3% +/- 3.1%, ..." over a few lines.
+		 */
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			String kind = length == 0 ? "money games" : length + "-point matches";
+			sb.append(String.format("%d %s, A wins %.1f%% +/- %.1f%% (95%% CI)%n", matches, kind,
+					100 * getMatchWinRate(PLAYER_A), 100 * getConfidence()));
+			sb.append(String.format("%d games, %.1f plies a game, %d doubles, %d passed, %d replayed%n",
+					games, getAverageGameLength(), doubles, passes, dropped));
+			for (int player = 0; player < 2; player++) {
+				sb.append(String.format("%s: games %.1f%%, gammons %.1f%%, backgammons %.1f%% of wins, %+.3f points a game%n",
+						player == PLAYER_A ? "A" : "B", 100 * getGameWinRate(player), 100 * getGammonRate(player),
+						100 * getBackgammonRate(player), getPointsPerGame(player) - getPointsPerGame(1-player)));
+			}
+			sb.append(String.format("%.1f s, %.0f matches an hour", elapsedTime / 1e9, getMatchesPerHour()));
+			return sb.toString();
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package bot;
+
+import model.BoardState;
+
+/**
+ * This class represents an evaluation of a position by a NeuralNetwork.
+ *
+ * The first layer is precomputed per point, i.e. for each side, distance and number of checkers,
+ * the sum of the hidden weights of the point's 4 inputs,
+ * so a point adds one row to the hidden sums instead of up to 4,
+ * and the board is read straight from the BoardState instead of being encoded first.
+ * Same values as NeuralNetwork.encode() then forward(), up to float rounding.
+ *
+ * The point rows are a snapshot of the weights when the evaluator is created,
+ * create a new evaluator once the weights have changed, e.g. after training.
+ * The network may be shared by many evaluators,
+ * each evaluator keeps its own buffers, so evaluating allocates nothing.
+ * An instance is not thread safe, use one per thread.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class NeuralEvaluator implements Evaluator {
+	private static final int COUNTS = BoardState.MAX_CHECKERS + 1;
+
+	private final NeuralNetwork net;
+	private final int h;
+	// hidden biases plus the turn input, which is always the same here.
+	private final float[] base;
+	// indexed by getPointRow().
+	private final float[][] pointRows;
+	private final float[] hidden;
+	private final float[] outputs;
+
+	public NeuralEvaluator(NeuralNetwork net) {
+		this.net = net;
+		h = net.getHidden();
+		base = net.hiddenBiases.clone();
+		NeuralNetwork.addRow(base, net.hiddenWeights[NeuralNetwork.TURN_INPUT+1], 1, h);
+
+		pointRows = new float[2 * BoardState.NUMBER_OF_PIPS * COUNTS][];
+		for (int block = 0; block < 2; block++) {
+			for (int distance = 1; distance <= BoardState.NUMBER_OF_PIPS; distance++) {
+				int input = NeuralNetwork.getPointInput(block == 0, distance);
+				for (int n = 1; n < COUNTS; n++) {
+					float[] row = new float[h];
+					NeuralNetwork.addRow(row, net.hiddenWeights[input], 1, h);
+					if (n >= 2) NeuralNetwork.addRow(row, net.hiddenWeights[input+1], 1, h);
+					if (n >= 3) NeuralNetwork.addRow(row, net.hiddenWeights[input+2], 1, h);
+					if (n > 3) NeuralNetwork.addRow(row, net.hiddenWeights[input+3], NeuralNetwork.getExtraCheckers(n), h);
+					pointRows[getPointRow(block == 0, distance, n)] = row;
+				}
+			}
+		}
+		hidden = new float[h];
+		outputs = new float[NeuralNetwork.OUTPUTS];
+	}
+
+	private static int getPointRow(boolean isSide, int distance, int n) {
+		return ((isSide ? 0 : BoardState.NUMBER_OF_PIPS) + distance-1) * COUNTS + n;
+	}
+
+	@Override
+	public double evaluate(BoardState state, int side) {
+		if (state.isGameOver()) return Evaluator.getGameOverEquity(state, side);
+		return NeuralNetwork.getEquity(evaluateOutputs(state, side));
+	}
+
+	@Override
+	public void evaluateOutputs(BoardState state, int side, float[] out) {
+		if (state.isGameOver()) Evaluator.getGameOverOutputs(state, side, out);
+		else System.arraycopy(evaluateOutputs(state, side), 0, out, 0, NeuralNetwork.OUTPUTS);
+	}
+
+	/**
+	 * Runs the network on the position after the side has played.
+	 * @param state the board state, game must not be over.
+	 * @param side the side that just played.
+	 * @return the outputs of the network, see NeuralNetwork, overwritten by the next call.
+	 */
+	public float[] evaluateOutputs(BoardState state, int side) {
+		float[] sums = hidden;
+		System.arraycopy(base, 0, sums, 0, h);
+		for (int pipNum = 0; pipNum < BoardState.NUMBER_OF_PIPS; pipNum++) {
+			int checkers = state.getCount(pipNum);
+			if (checkers == 0) continue;
+
+			int owner = checkers > 0 ? BoardState.BOTTOM : BoardState.TOP;
+			int n = checkers < 0 ? -checkers : checkers;
+			float[] row = pointRows[getPointRow(owner == side, BoardState.getDistance(owner, pipNum), n)];
+			for (int j = 0; j < h; j++) {
+				sums[j] += row[j];
+			}
+		}
+
+		int opponent = BoardState.getOpponent(side);
+		addInput(NeuralNetwork.BAR_INPUT, state.getBar(side) / 2f);
+		addInput(NeuralNetwork.BAR_INPUT+1, state.getBar(opponent) / 2f);
+		addInput(NeuralNetwork.HOME_INPUT, state.getHome(side) / (float) BoardState.MAX_CHECKERS);
+		addInput(NeuralNetwork.HOME_INPUT+1, state.getHome(opponent) / (float) BoardState.MAX_CHECKERS);
+		net.activate(sums, outputs);
+		return outputs;
+	}
+
+	private void addInput(int input, float value) {
+		if (value != 0) NeuralNetwork.addRow(hidden, net.hiddenWeights[input], value, h);
+	}
+
+	public NeuralNetwork getNetwork() {
+		return net;
+	}
+}
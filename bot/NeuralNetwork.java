@@ -0,0 +1,366 @@
+package bot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import model.BoardState;
+
+/**
+ * This class represents a TD-Gammon style neural network,
+ * i.e. 198 inputs, one sigmoid hidden layer and sigmoid outputs.
+ *
+ * Inputs are from the perspective of the side that just played, see encode():
+ * 		- 96 for the side's checkers, 4 per point by distance, 1 if 1 or more, 2 or more, 3 or more,
+ * 		  then (n-3)/2 for the rest.
+ * 		- 96 for the opponent's checkers, same as above by the opponent's distance.
+ * 		- checkers on the bar / 2 and checkers borne off / 15, for both sides.
+ * 		- 2 for the side on roll, always the opponent here, kept for the standard layout.
+ * Outputs are the probabilities of the side to win, win a gammon, win a backgammon,
+ * lose a gammon and lose a backgammon, gammons include backgammons.
+ *
+ * Weights are flat float arrays, laid out for the forward pass:
+ * 		- hidden weights are one array per input, so each active input adds its row to the hidden sums.
+ * 		  Most inputs are 0, so only the active inputs are visited.
+ * 		  Rows are separate arrays, since the JIT only vectorizes the loop when both arrays share the index.
+ * 		- output weights are one array per output, each summed with 8 independent sums,
+ * 		  since the JIT does not reorder float sums by itself.
+ *
+ * Weights are read by any number of threads, NeuralEvaluator keeps the per-thread buffers.
+ * Weights are package-private, TDTrainer updates them in place without locks.
+ *
+ * Weight file, little-endian:
+ * 		- header of 5 ints, magic "BGNN", version, inputs, hidden units, outputs.
+ * 		- floats of the hidden weights by input, hidden biases, output weights by output, output biases.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class NeuralNetwork {
+	public static final int INPUTS = 198;
+	public static final int OUTPUTS = 5;
+	public static final int DEFAULT_HIDDEN = 80;
+	public static final String DEFAULT_FILE = "weights.bgnn";
+
+	// outputs.
+	public static final int WIN = 0;
+	public static final int WIN_GAMMON = 1;
+	public static final int WIN_BACKGAMMON = 2;
+	public static final int LOSE_GAMMON = 3;
+	public static final int LOSE_BACKGAMMON = 4;
+
+	// inputs, first of each block, the side's then the opponent's.
+	static final int UNITS_PER_POINT = 4;
+	static final int SIDE_INPUTS = BoardState.NUMBER_OF_PIPS * UNITS_PER_POINT;
+	static final int BAR_INPUT = SIDE_INPUTS * 2;
+	static final int HOME_INPUT = BAR_INPUT + 2;
+	static final int TURN_INPUT = HOME_INPUT + 2;
+	// most inputs that can be active, i.e. 4 per point, bars, homes and turn.
+	public static final int MAX_ACTIVE_INPUTS = BoardState.NUMBER_OF_PIPS * UNITS_PER_POINT + 5;
+
+	// weight file.
+	private static final int MAGIC = 0x4E4E4742;
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 5 * Integer.BYTES;
+
+	// sigmoid lookup with linear interpolation, exp() is too slow for the hidden layer.
+	private static final float SIGMOID_RANGE = 16;
+	private static final int SIGMOID_STEPS_PER_UNIT = 64;
+	private static final float[] SIGMOID;
+
+	// last index the interpolation starts from, the table has one more entry after it.
+	private static final float SIGMOID_LAST = SIGMOID_RANGE * 2 * SIGMOID_STEPS_PER_UNIT;
+
+	static {
+		SIGMOID = new float[(int) SIGMOID_LAST + 2];
+		for (int i = 0; i < SIGMOID.length; i++) {
+			double x = (double) i / SIGMOID_STEPS_PER_UNIT - SIGMOID_RANGE;
+			SIGMOID[i] = (float) (1 / (1 + Math.exp(-x)));
+		}
+	}
+
+	private final int hidden;
+	final float[][] hiddenWeights;
+	final float[] hiddenBiases;
+	final float[][] outputWeights;
+	final float[] outputBiases;
+
+	/**
+	 * Constructor, weights are all 0.
+	 * @param hidden number of hidden units.
+	 */
+	public NeuralNetwork(int hidden) {
+		this.hidden = hidden;
+		hiddenWeights = new float[INPUTS][hidden];
+		hiddenBiases = new float[hidden];
+		outputWeights = new float[OUTPUTS][hidden];
+		outputBiases = new float[OUTPUTS];
+	}
+
+	/**
+	 * Returns a network with small random weights, the start of training.
+	 * @param hidden number of hidden units.
+	 * @param seed seed of the weights.
+	 * @return the network.
+	 */
+	public static NeuralNetwork newRandom(int hidden, long seed) {
+		NeuralNetwork net = new NeuralNetwork(hidden);
+		SplittableRandom random = new SplittableRandom(seed);
+		double hiddenScale = 1 / Math.sqrt(INPUTS);
+		double outputScale = 1 / Math.sqrt(hidden);
+		for (float[] row : net.hiddenWeights) {
+			for (int j = 0; j < hidden; j++) {
+				row[j] = (float) ((random.nextDouble() * 2 - 1) * hiddenScale);
+			}
+		}
+		for (float[] row : net.outputWeights) {
+			for (int j = 0; j < hidden; j++) {
+				row[j] = (float) ((random.nextDouble() * 2 - 1) * outputScale);
+			}
+		}
+		return net;
+	}
+
+	/* Inputs. */
+
+	/**
+	 * Encodes the board as the active inputs of the network, the rest are 0.
+	 * @param state the board state.
+	 * @param side the side that just played.
+	 * @param indexes index of each active input, at least MAX_ACTIVE_INPUTS long.
+	 * @param values value of each active input, at least MAX_ACTIVE_INPUTS long.
+	 * @return number of active inputs.
+	 */
+	public static int encode(BoardState state, int side, int[] indexes, float[] values) {
+		int opponent = BoardState.getOpponent(side);
+		int count = 0;
+		for (int pipNum = 0; pipNum < BoardState.NUMBER_OF_PIPS; pipNum++) {
+			int checkers = state.getCount(pipNum);
+			if (checkers == 0) continue;
+
+			int owner = checkers > 0 ? BoardState.BOTTOM : BoardState.TOP;
+			int n = checkers < 0 ? -checkers : checkers;
+			int input = getPointInput(owner == side, BoardState.getDistance(owner, pipNum));
+			indexes[count] = input;
+			values[count++] = 1;
+			if (n >= 2) {
+				indexes[count] = input+1;
+				values[count++] = 1;
+			}
+			if (n >= 3) {
+				indexes[count] = input+2;
+				values[count++] = 1;
+			}
+			if (n > 3) {
+				indexes[count] = input+3;
+				values[count++] = getExtraCheckers(n);
+			}
+		}
+
+		count = addInput(indexes, values, count, BAR_INPUT, state.getBar(side) / 2f);
+		count = addInput(indexes, values, count, BAR_INPUT+1, state.getBar(opponent) / 2f);
+		count = addInput(indexes, values, count, HOME_INPUT, state.getHome(side) / (float) BoardState.MAX_CHECKERS);
+		count = addInput(indexes, values, count, HOME_INPUT+1, state.getHome(opponent) / (float) BoardState.MAX_CHECKERS);
+		// the opponent is on roll.
+		return addInput(indexes, values, count, TURN_INPUT+1, 1);
+	}
+
+	// first of the 4 inputs of a point.
+	static int getPointInput(boolean isSide, int distance) {
+		return (isSide ? 0 : SIDE_INPUTS) + (distance-1) * UNITS_PER_POINT;
+	}
+
+	// value of the 4th input of a point, the checkers after the 3rd.
+	static float getExtraCheckers(int n) {
+		return (n-3) / 2f;
+	}
+
+	private static int addInput(int[] indexes, float[] values, int count, int input, float value) {
+		if (value == 0) return count;
+		indexes[count] = input;
+		values[count] = value;
+		return count+1;
+	}
+
+	/* Forward pass. */
+
+	/**
+	 * Runs the network on the active inputs.
+	 * @param indexes index of each active input, from encode().
+	 * @param values value of each active input, from encode().
+	 * @param count number of active inputs.
+	 * @param hiddenOut hidden activations, getHidden() long.
+	 * @param out outputs, OUTPUTS long.
+	 */
+	public void forward(int[] indexes, float[] values, int count, float[] hiddenOut, float[] out) {
+		System.arraycopy(hiddenBiases, 0, hiddenOut, 0, hidden);
+		for (int k = 0; k < count; k++) {
+			addRow(hiddenOut, hiddenWeights[indexes[k]], values[k], hidden);
+		}
+		activate(hiddenOut, out);
+	}
+
+	// adds value times the row to the sums.
+	static void addRow(float[] sums, float[] row, float value, int h) {
+		if (value == 1) {
+			for (int j = 0; j < h; j++) {
+				sums[j] += row[j];
+			}
+		} else {
+			for (int j = 0; j < h; j++) {
+				sums[j] += value * row[j];
+			}
+		}
+	}
+
+	/**
+	 * Runs the rest of the network from the hidden sums.
+	 * @param hiddenOut hidden sums, replaced by the hidden activations.
+	 * @param out outputs, OUTPUTS long.
+	 */
+	void activate(float[] hiddenOut, float[] out) {
+		int h = hidden;
+		for (int j = 0; j < h; j++) {
+			hiddenOut[j] = sigmoid(hiddenOut[j]);
+		}
+		for (int o = 0; o < OUTPUTS; o++) {
+			out[o] = sigmoid(dot(outputWeights[o], hiddenOut, h) + outputBiases[o]);
+		}
+	}
+
+	// dot product with 8 independent sums, so the adds do not wait on each other.
+	private static float dot(float[] a, float[] b, int n) {
+		float s0 = 0, s1 = 0, s2 = 0, s3 = 0, s4 = 0, s5 = 0, s6 = 0, s7 = 0;
+		int j = 0;
+		for (; j + 7 < n; j += 8) {
+			s0 += a[j] * b[j];
+			s1 += a[j+1] * b[j+1];
+			s2 += a[j+2] * b[j+2];
+			s3 += a[j+3] * b[j+3];
+			s4 += a[j+4] * b[j+4];
+			s5 += a[j+5] * b[j+5];
+			s6 += a[j+6] * b[j+6];
+			s7 += a[j+7] * b[j+7];
+		}
+		for (; j < n; j++) {
+			s0 += a[j] * b[j];
+		}
+		return ((s0 + s1) + (s2 + s3)) + ((s4 + s5) + (s6 + s7));
+	}
+
+	/**
+	 * Equity of the outputs, i.e. points per game won.
+	 * @param out outputs of forward().
+	 * @return the equity, between -3 and 3.
+	 */
+	public static double getEquity(float[] out) {
+		return 2 * out[WIN] - 1 + out[WIN_GAMMON] - out[LOSE_GAMMON] + out[WIN_BACKGAMMON] - out[LOSE_BACKGAMMON];
+	}
+
+	/**
+	 * Turns the outputs around to the opponent's perspective, in place.
+	 * @param out outputs of forward().
+	 */
+	public static void invert(float[] out) {
+		out[WIN] = 1 - out[WIN];
+		float temp = out[WIN_GAMMON];
+		out[WIN_GAMMON] = out[LOSE_GAMMON];
+		out[LOSE_GAMMON] = temp;
+		temp = out[WIN_BACKGAMMON];
+		out[WIN_BACKGAMMON] = out[LOSE_BACKGAMMON];
+		out[LOSE_BACKGAMMON] = temp;
+	}
+
+	// out of range inputs saturate, plain comparisons since Math.min() and max() also handle NaN.
+	static float sigmoid(float x) {
+		float pos = (x + SIGMOID_RANGE) * SIGMOID_STEPS_PER_UNIT;
+		if (pos < 0) pos = 0;
+		if (pos > SIGMOID_LAST) pos = SIGMOID_LAST;
+		int i = (int) pos;
+		float low = SIGMOID[i];
+		return low + (SIGMOID[i+1] - low) * (pos - i);
+	}
+
+	public int getHidden() {
+		return hidden;
+	}
+
+	/* Weight file. */
+
+	/**
+	 * Loads a network from a weight file, memory mapped so it is read straight from the page cache.
+	 * @param path the weight file.
+	 * @return the network.
+	 * @throws IOException if the file cannot be read or is not a weight file.
+	 */
+	public static NeuralNetwork load(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+				throw new IOException("Not a weight file: " + path);
+			}
+			int version = buffer.getInt();
+			int inputs = buffer.getInt();
+			int hidden = buffer.getInt();
+			int outputs = buffer.getInt();
+			if (version != VERSION || inputs != INPUTS || outputs != OUTPUTS || hidden <= 0) {
+				throw new IOException("Unsupported weight file: version " + version + ", " + inputs + "-" + hidden + "-" + outputs);
+			}
+
+			NeuralNetwork net = new NeuralNetwork(hidden);
+			if (buffer.remaining() != net.getWeightCount() * Float.BYTES) {
+				throw new IOException("Weight file has " + buffer.remaining() + " bytes of weights, expected " + net.getWeightCount() * Float.BYTES);
+			}
+			FloatBuffer floats = buffer.asFloatBuffer();
+			for (float[] row : net.hiddenWeights) {
+				floats.get(row);
+			}
+			floats.get(net.hiddenBiases);
+			for (float[] row : net.outputWeights) {
+				floats.get(row);
+			}
+			floats.get(net.outputBiases);
+			return net;
+		}
+	}
+
+	/**
+	 * Saves the network to a weight file, replacing it.
+	 * @param path the weight file.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void save(Path path) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + getWeightCount() * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(INPUTS).putInt(hidden).putInt(OUTPUTS);
+		FloatBuffer floats = buffer.asFloatBuffer();
+		for (float[] row : hiddenWeights) {
+			floats.put(row);
+		}
+		floats.put(hiddenBiases);
+		for (float[] row : outputWeights) {
+			floats.put(row);
+		}
+		floats.put(outputBiases);
+		buffer.rewind();
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	public int getWeightCount() {
+		return (INPUTS + 1 + OUTPUTS) * hidden + OUTPUTS;
+	}
+}
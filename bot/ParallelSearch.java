@@ -0,0 +1,346 @@
+package bot;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import model.BoardState;
+import model.RollTable;
+import move.MoveGenerator;
+
+/**
+ * This class represents the expectiminimax search of ExpectiminimaxBot,
+ * split between the threads of a ForkJoinPool.
+ *
+ * Each iteration of the iterative deepening is split as follows:
+ * 		- the previous best play is searched first, so the other plays get a window,
+ * 		  i.e. young brothers wait.
+ * 		- the other plays are then searched in parallel,
+ * 		  sharing the best value so far as the lower bound of their windows.
+ * 		- if there are fewer plays than threads, a play is split further
+ * 		  into its 21 rolls, each searched in parallel with the full window.
+ * Idle threads steal the tasks of busy ones, so uneven plays (e.g. doubles) balance out.
+ *
+ * Every worker thread has its own ExpectiminimaxBot, Evaluator and board copies,
+ * workers only read the plays of the root, which are generated before the tasks are forked.
+ * The TranspositionTable is shared by all the workers, it is lock-free.
+ * Nothing of the UI (i.e. the pips of BoardComponents) is ever touched by the workers.
+ *
+ * An instance searches one position at a time.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class ParallelSearch implements Search {
+	private static final double MIN = Evaluator.MIN_EQUITY;
+	private static final double MAX = Evaluator.MAX_EQUITY;
+	private static final int ITERATION_GROWTH = 16;
+
+	/**
+	 * This class represents the search state of a worker thread.
+	 */
+	private static class Worker {
+		private final ExpectiminimaxBot bot;
+		private final BoardState board;
+
+		private Worker(Evaluator evaluator, int maxDepth, TranspositionTable table) {
+			bot = new ExpectiminimaxBot(evaluator, maxDepth, table);
+			board = new BoardState();
+		}
+	}
+
+	private final ForkJoinPool pool;
+	private final int maxDepth;
+	private final ThreadLocal<Worker> workers;
+	private final Queue<Worker> allWorkers;
+	private final Evaluator rootEvaluator;
+	private final TranspositionTable table;
+
+	// root decision node, read only while tasks run.
+	private final MoveGenerator rootGen;
+	private final BoardState rootChild;
+	private int[] rootOrder;
+	private double[] rootValues;
+	private int side, depth, count;
+
+	// search state, shared between tasks.
+	private final LongAdder nodes;
+	private final AtomicLong alpha;
+	private long deadline;
+	private volatile boolean isAborted, isStopRequested;
+
+	// results.
+	private int bestPlay, completedDepth;
+	private double bestEquity;
+
+	public ParallelSearch(Supplier<Evaluator> evaluators) {
+		this(evaluators, ExpectiminimaxBot.DEFAULT_MAX_DEPTH, Runtime.getRuntime().availableProcessors());
+	}
+
+	public ParallelSearch(Supplier<Evaluator> evaluators, int maxDepth, int parallelism) {
+		this(evaluators, maxDepth, parallelism, new TranspositionTable());
+	}
+
+	/**
+	 * Constructor.
+	 * @param evaluators creates an evaluator for each worker thread, since evaluators are not thread safe.
+	 * @param maxDepth max depth of the iterative deepening.
+	 * @param parallelism number of worker threads.
+	 * @param table transposition table shared by the workers, or null for none.
+	 */
+	public ParallelSearch(Supplier<Evaluator> evaluators, int maxDepth, int parallelism, TranspositionTable table) {
+		this.maxDepth = maxDepth;
+		this.table = table;
+		pool = new ForkJoinPool(parallelism);
+		allWorkers = new ConcurrentLinkedQueue<>();
+		workers = ThreadLocal.withInitial(() -> {
+			Worker worker = new Worker(evaluators.get(), maxDepth, table);
+			allWorkers.add(worker);
+			// added before the check, so a worker made during stop() is stopped by one or the other.
+			if (isStopRequested) worker.bot.stop();
+			return worker;
+		});
+		rootEvaluator = evaluators.get();
+		rootGen = new MoveGenerator();
+		rootChild = new BoardState();
+		rootOrder = new int[0];
+		rootValues = new double[0];
+		nodes = new LongAdder();
+		alpha = new AtomicLong();
+	}
+
+	@Override
+	public int search(BoardState state, int side, int die1, int die2, long budgetMillis) {
+		long start = System.nanoTime();
+		long budget = budgetMillis * 1_000_000;
+		this.side = side;
+		isAborted = false;
+		nodes.reset();
+		if (table != null) table.newSearch();
+
+		// 1-ply on the calling thread, never aborted.
+		count = rootGen.generate(state, side, die1, die2);
+		if (rootOrder.length < count) {
+			rootOrder = new int[count];
+			rootValues = new double[count];
+		}
+		for (int play = 0; play < count; play++) {
+			rootGen.getResultingState(play, rootChild);
+			rootValues[play] = rootEvaluator.evaluate(rootChild, side);
+			rootOrder[play] = play;
+		}
+		nodes.add(count);
+		ExpectiminimaxBot.sort(rootOrder, rootValues, count);
+		bestPlay = rootOrder[0];
+		bestEquity = rootValues[bestPlay];
+		completedDepth = 1;
+		if (count == 1) return bestPlay;
+
+		deadline = start + budget;
+		for (depth = 2; depth <= maxDepth; depth++) {
+			long elapsed = System.nanoTime() - start;
+			if (elapsed * ITERATION_GROWTH > budget) break;
+
+			pool.invoke(new IterationTask());
+			if (isAborted) break;
+			completedDepth = depth;
+			ExpectiminimaxBot.sort(rootOrder, rootValues, count);
+		}
+		return bestPlay;
+	}
+
+	/**
+	 * This class represents an iteration at the root.
+	 */
+	@SuppressWarnings("serial")
+	private class IterationTask extends RecursiveAction {
+		@Override
+		protected void compute() {
+			double[] values = new double[count];
+			boolean[] isCompleted = new boolean[count];
+			setAlpha(MIN);
+
+			// young brothers wait, the previous best first.
+			new PlayTask(0, values, isCompleted).invoke();
+			if (!isCompleted[0]) return;
+
+			PlayTask[] tasks = new PlayTask[count-1];
+			for (int i = 1; i < count; i++) {
+				tasks[i-1] = new PlayTask(i, values, isCompleted);
+			}
+			invokeAll(tasks);
+
+			// a partial iteration is only used if the previous best has been searched,
+			// since the best of this iteration then beats it at the new depth.
+			double best = MIN - 1;
+			int iterationBest = -1;
+			for (int i = 0; i < count; i++) {
+				if (!isCompleted[i]) continue;
+				int play = rootOrder[i];
+				rootValues[play] = values[i];
+				if (values[i] > best) {
+					best = values[i];
+					iterationBest = play;
+				}
+			}
+			bestPlay = iterationBest;
+			bestEquity = best;
+		}
+	}
+
+	/**
+	 * This class represents the search of a play of the root.
+	 */
+	@SuppressWarnings("serial")
+	private class PlayTask extends RecursiveAction {
+		private final int index;
+		private final double[] values;
+		private final boolean[] isCompleted;
+
+		private PlayTask(int index, double[] values, boolean[] isCompleted) {
+			this.index = index;
+			this.values = values;
+			this.isCompleted = isCompleted;
+		}
+
+		@Override
+		protected void compute() {
+			if (isStopped()) return;
+			int play = rootOrder[index];
+			Worker worker = workers.get();
+			rootGen.getResultingState(play, worker.board);
+			double value;
+
+			if (worker.board.isGameOver()) {
+				value = Evaluator.getGameOverEquity(worker.board, side);
+			// split into rolls if there are not enough plays to keep the threads busy.
+			} else if (count < pool.getParallelism() * 2 && pool.getParallelism() > 1) {
+				double[] rollValues = new double[RollTable.ROLLS];
+				RollTask[] tasks = new RollTask[RollTable.ROLLS];
+				for (int roll = 0; roll < RollTable.ROLLS; roll++) {
+					tasks[roll] = new RollTask(play, roll, rollValues);
+				}
+				invokeAll(tasks);
+				if (isAborted) return;
+
+				double sum = 0;
+				for (int roll = 0; roll < RollTable.ROLLS; roll++) {
+					sum += RollTable.getProbability(roll) * rollValues[roll];
+				}
+				value = -sum;
+			} else {
+				// plays after the best only need to prove they are not better.
+				worker.bot.begin(deadline);
+				value = -worker.bot.searchChance(worker.board, BoardState.getOpponent(side), depth-1, -MAX, -getAlpha());
+				nodes.add(worker.bot.getNodeCount());
+				if (worker.bot.isAborted()) {
+					isAborted = true;
+					return;
+				}
+			}
+			values[index] = value;
+			isCompleted[index] = true;
+			raiseAlpha(value);
+		}
+	}
+
+	/**
+	 * This class represents the search of a roll of the opponent, after a play of the root.
+	 */
+	@SuppressWarnings("serial")
+	private class RollTask extends RecursiveAction {
+		private final int play, roll;
+		private final double[] rollValues;
+
+		private RollTask(int play, int roll, double[] rollValues) {
+			this.play = play;
+			this.roll = roll;
+			this.rollValues = rollValues;
+		}
+
+		@Override
+		protected void compute() {
+			if (isStopped()) return;
+			Worker worker = workers.get();
+			worker.bot.begin(deadline);
+			rootGen.getResultingState(play, worker.board);
+			rollValues[roll] = worker.bot.searchRoll(worker.board, BoardState.getOpponent(side), roll, depth-1, MIN, MAX);
+			nodes.add(worker.bot.getNodeCount());
+			if (worker.bot.isAborted()) isAborted = true;
+		}
+	}
+
+	private boolean isStopped() {
+		if (isStopRequested || System.nanoTime() > deadline) isAborted = true;
+		return isAborted;
+	}
+
+	/* Best value of the iteration so far, shared as the lower bound of the windows. */
+
+	private double getAlpha() {
+		return Double.longBitsToDouble(alpha.get());
+	}
+
+	private void setAlpha(double value) {
+		alpha.set(Double.doubleToLongBits(value));
+	}
+
+	private void raiseAlpha(double value) {
+		long prev;
+		do {
+			prev = alpha.get();
+			if (Double.longBitsToDouble(prev) >= value) return;
+		} while (!alpha.compareAndSet(prev, Double.doubleToLongBits(value)));
+	}
+
+	@Override
+	public void stop() {
+		isStopRequested = true;
+		for (Worker aWorker : allWorkers) {
+			aWorker.bot.stop();
+		}
+	}
+
+	@Override
+	public void clearStop() {
+		isStopRequested = false;
+		for (Worker aWorker : allWorkers) {
+			aWorker.bot.clearStop();
+		}
+	}
+
+	@Override
+	public MoveGenerator getPlays() {
+		return rootGen;
+	}
+
+	@Override
+	public double getBestEquity() {
+		return bestEquity;
+	}
+
+	@Override
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	@Override
+	public long getNodeCount() {
+		return nodes.sum();
+	}
+
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	// transposition table, null if none.
+	public TranspositionTable getTable() {
+		return table;
+	}
+}
@@ -0,0 +1,334 @@
+package bot;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import model.BoardState;
+import model.RollTable;
+import move.MoveGenerator;
+
+/**
+ * This class represents a Monte Carlo rollout of a position,
+ * i.e. the equity of the side on roll estimated by playing out many games from it.
+ *
+ * Each trial is played by a fast policy, the play with the best equity by the evaluator for each roll,
+ * until the game is over or the truncation is reached, where the evaluator's equity is the result.
+ * Trials are split between worker threads, each with its own evaluator.
+ *
+ * Two variance reductions are used, so fewer trials give the same accuracy:
+ * 		- quasi-random dice, the first two rolls are rotated through all the 36 x 36 outcomes,
+ * 		  so every 1296 trials have exactly the same first two rolls, shuffled by the seed.
+ * 		- luck adjustment, the luck of every roll is taken away from the result,
+ * 		  where luck is the equity of the best play for the roll minus the average over the 21 rolls.
+ * 		  The luck averages to 0, so the result is unbiased, but most of the dice's noise is gone.
+ * The result without the luck adjustment is kept too, to show the reduction.
+ *
+ * Nothing of JavaFX is used, the listener is called on the worker threads.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class Rollout {
+	public static final int DEFAULT_TRIALS = RollTable.OUTCOMES * RollTable.OUTCOMES;
+	// plies played before the evaluator takes over, 0 plays every game to the end.
+	// truncate only with an accurate evaluator, its error is not in the confidence interval.
+	public static final int DEFAULT_TRUNCATION = 0;
+	// z of a 95% confidence interval.
+	public static final double Z_95 = 1.96;
+	// in milliseconds.
+	private static final long REPORT_INTERVAL = 1000;
+	// rolls rotated through all their outcomes.
+	private static final int ROTATED_PLIES = 2;
+	// games that last longer are scored by the evaluator, as if truncated.
+	private static final int MAX_PLIES = 1000;
+
+	private final Supplier<Evaluator> evaluators;
+	private final int threads;
+	private volatile boolean isStopRequested;
+
+	// statistics of the current rollout, guarded by this.
+	private int trials;
+	private double sum, sumOfSquares, rawSum, rawSumOfSquares;
+	private long startTime, lastReport;
+
+	/**
+	 * Constructor.
+	 * @param evaluators creates an evaluator per worker, evaluators are not thread safe.
+	 * @param threads number of worker threads.
+	 */
+	public Rollout(Supplier<Evaluator> evaluators, int threads) {
+		this.evaluators = evaluators;
+		this.threads = threads;
+	}
+
+	/**
+	 * Rolls out the position, blocking until done or stopped.
+	 * A stop() since the last clearStop() stops it before any trial.
+	 * @param state the board state, left untouched.
+	 * @param side the side on roll, BOTTOM or TOP.
+	 * @param trials number of games to play out.
+	 * @param truncation plies per game before the evaluator takes over, 0 for no truncation.
+	 * @param seed seed of the dice.
+	 * @param listener called with the results so far every REPORT_INTERVAL, on a worker thread, or null.
+	 * @return the result of the trials played.
+	 * @throws InterruptedException if interrupted while waiting for the workers.
+	 */
+	public Result run(BoardState state, int side, int trials, int truncation, long seed, Consumer<Result> listener) throws InterruptedException {
+		BoardState.checkSide(side);
+		synchronized (this) {
+			this.trials = 0;
+			sum = sumOfSquares = rawSum = rawSumOfSquares = 0;
+			startTime = lastReport = System.nanoTime();
+		}
+
+		// a shuffle of the 36 outcomes per rotated ply.
+		SplittableRandom random = new SplittableRandom(seed);
+		int[][] rotations = new int[ROTATED_PLIES][RollTable.OUTCOMES];
+		for (int[] aRotation : rotations) {
+			for (int i = 0; i < aRotation.length; i++) {
+				int j = random.nextInt(i+1);
+				aRotation[i] = aRotation[j];
+				aRotation[j] = i;
+			}
+		}
+
+		AtomicInteger next = new AtomicInteger();
+		Thread[] workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			Worker worker = new Worker(state, side, trials, truncation, seed, rotations, next, listener);
+			workers[i] = new Thread(worker, "rollout-" + i);
+			workers[i].setDaemon(true);
+			workers[i].start();
+		}
+		try {
+			for (Thread aWorker : workers) {
+				aWorker.join();
+			}
+		} finally {
+			isStopRequested = true;
+		}
+		return getResult(trials);
+	}
+
+	// stops the rollout after the trials in progress, or the next one to run if none is running.
+	public void stop() {
+		isStopRequested = true;
+	}
+
+	// lets run() play its trials again after stop(), called before run() so a stop made in between is not lost.
+	public void clearStop() {
+		isStopRequested = false;
+	}
+
+	private synchronized void add(double value, double rawValue) {
+		trials++;
+		sum += value;
+		sumOfSquares += value * value;
+		rawSum += rawValue;
+		rawSumOfSquares += rawValue * rawValue;
+	}
+
+	// the result so far if it is time to report it, else null.
+	private synchronized Result pollReport(int total) {
+		long now = System.nanoTime();
+		if (now - lastReport < REPORT_INTERVAL * 1_000_000) return null;
+		lastReport = now;
+		return getResult(total);
+	}
+
+	private synchronized Result getResult(int total) {
+		return new Result(trials, total, sum, sumOfSquares, rawSum, rawSumOfSquares, System.nanoTime() - startTime);
+	}
+
+	/**
+	 * This class represents a worker thread, with its own evaluator and buffers.
+	 */
+	private class Worker implements Runnable {
+		private final BoardState start;
+		private final int side, trials, truncation;
+		private final long seed;
+		private final int[][] rotations;
+		private final AtomicInteger next;
+		private final Consumer<Result> listener;
+
+		private final Evaluator evaluator;
+		private final MoveGenerator gen;
+		private final BoardState state, child;
+		// board after the best play and its equity per roll, for the side on roll.
+		private final BoardState[] bestStates;
+		private final double[] bestEquities;
+
+		private Worker(BoardState start, int side, int trials, int truncation, long seed,
+				int[][] rotations, AtomicInteger next, Consumer<Result> listener) {
+			this.start = start.copy();
+			this.side = side;
+			this.trials = trials;
+			this.truncation = truncation;
+			this.seed = seed;
+			this.rotations = rotations;
+			this.next = next;
+			this.listener = listener;
+			evaluator = evaluators.get();
+			gen = new MoveGenerator();
+			state = new BoardState();
+			child = new BoardState();
+			bestStates = new BoardState[RollTable.ROLLS];
+			for (int roll = 0; roll < RollTable.ROLLS; roll++) {
+				bestStates[roll] = new BoardState();
+			}
+			bestEquities = new double[RollTable.ROLLS];
+		}
+
+		@Override
+		public void run() {
+			int trial;
+			while (!isStopRequested && (trial = next.getAndIncrement()) < trials) {
+				playTrial(trial);
+				if (listener != null) {
+					Result result = pollReport(trials);
+					if (result != null) listener.accept(result);
+				}
+			}
+		}
+
+		/**
+		 * Plays out a game from the start, then adds its result from the side's perspective.
+		 * @param trial index of the trial, picks its dice.
+		 */
+		private void playTrial(int trial) {
+			// the same trial always gets the same dice, however the trials are split between threads.
+			SplittableRandom random = new SplittableRandom(seed + trial * 0x9E3779B97F4A7C15L);
+			state.copyFrom(start);
+			int turn = side;
+			double luck = 0;
+			double equity = 0;
+			for (int ply = 0; ; ply++) {
+				int outcome;
+				if (ply < ROTATED_PLIES) {
+					// trial t gets outcome pair (a, b) of its block of 1296, a = t % 36, b = (t / 36 + a) % 36.
+					int a = trial % RollTable.OUTCOMES;
+					int b = (trial / RollTable.OUTCOMES + a) % RollTable.OUTCOMES;
+					outcome = rotations[ply][ply == 0 ? a : b];
+				} else {
+					outcome = random.nextInt(RollTable.OUTCOMES);
+				}
+				int roll = RollTable.getRollOfOutcome(outcome);
+
+				// the best play of every roll, so the luck of the roll is known.
+				double average = 0;
+				for (int aRoll = 0; aRoll < RollTable.ROLLS; aRoll++) {
+					searchRoll(turn, aRoll);
+					average += RollTable.getProbability(aRoll) * bestEquities[aRoll];
+				}
+				int sign = turn == side ? 1 : -1;
+				luck += sign * (bestEquities[roll] - average);
+
+				state.copyFrom(bestStates[roll]);
+				equity = sign * bestEquities[roll];
+				boolean isTruncated = truncation > 0 && ply+1 >= truncation;
+				if (state.isGameOver() || isTruncated || ply+1 >= MAX_PLIES) break;
+				turn = BoardState.getOpponent(turn);
+			}
+			add(equity - luck, equity);
+		}
+
+		// finds the best play of the roll by the evaluator, its board is kept in bestStates.
+		private void searchRoll(int turn, int roll) {
+			int count = gen.generate(state, turn, RollTable.getDie1(roll), RollTable.getDie2(roll));
+			int best = 0;
+			double bestEquity = Double.NEGATIVE_INFINITY;
+			for (int play = 0; play < count; play++) {
+				gen.getResultingState(play, child);
+				double equity = evaluator.evaluate(child, turn);
+				if (equity > bestEquity) {
+					bestEquity = equity;
+					best = play;
+				}
+			}
+			gen.getResultingState(best, bestStates[roll]);
+			bestEquities[roll] = bestEquity;
+		}
+	}
+
+	/**
+	 * This class represents the result of a rollout, or of the trials played so far.
+	 * Equities are from the perspective of the side on roll.
+	 */
+	public static class Result {
+		private final int trials, total;
+		private final double mean, standardError, rawMean, rawStandardError;
+		private final long elapsedTime;
+
+		private Result(int trials, int total, double sum, double sumOfSquares,
+				double rawSum, double rawSumOfSquares, long elapsedTime) {
+			this.trials = trials;
+			this.total = total;
+			this.elapsedTime = elapsedTime;
+			mean = trials == 0 ? 0 : sum / trials;
+			rawMean = trials == 0 ? 0 : rawSum / trials;
+			standardError = getStandardError(trials, mean, sumOfSquares);
+			rawStandardError = getStandardError(trials, rawMean, rawSumOfSquares);
+		}
+
+		// standard deviation of the trials over the square root of their number.
+		private static double getStandardError(int n, double mean, double sumOfSquares) {
+			if (n < 2) return 0;
+			double variance = (sumOfSquares - n * mean * mean) / (n - 1);
+			return Math.sqrt(Math.max(variance, 0) / n);
+		}
+
+		public int getTrials() {
+			return trials;
+		}
+
+		public int getTotal() {
+			return total;
+		}
+
+		public boolean isDone() {
+			return trials == total;
+		}
+
+		// luck adjusted equity.
+		public double getEquity() {
+			return mean;
+		}
+
+		public double getStandardError() {
+			return standardError;
+		}
+
+		// half the width of the 95% confidence interval.
+		public double getConfidence() {
+			return Z_95 * standardError;
+		}
+
+		// equity without the luck adjustment.
+		public double getRawEquity() {
+			return rawMean;
+		}
+
+		public double getRawStandardError() {
+			return rawStandardError;
+		}
+
+		// in nanoseconds.
+		public long getElapsedTime() {
+			return elapsedTime;
+		}
+
+		/**
+		 * Returns the result in the form of
+		 * "432/1296 trials, equity +0.123 +/- 0.045 (95% CI), +/- 0.210 without luck adjustment, 2.1 s".
+		 */
+		@Override
+		public String toString() {
+			return String.format("%d/%d trials, equity %+.3f +/- %.3f (95%% CI), +/- %.3f without luck adjustment, %.1f s",
+					trials, total, mean, getConfidence(), Z_95 * rawStandardError, elapsedTime / 1e9);
+		}
+	}
+}
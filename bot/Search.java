@@ -0,0 +1,49 @@
+package bot;
+
+import model.BoardState;
+import move.MoveGenerator;
+
+/**
+ * This interface represents a search for the best play of a roll.
+ * Used by the bot, implemented by the single and multi-threaded searches.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public interface Search {
+	/**
+	 * Searches for the best play of the side for the roll.
+	 * @param state the board state, left untouched.
+	 * @param side the side to play, BOTTOM or TOP of BoardState.
+	 * @param die1 first dice result.
+	 * @param die2 second dice result.
+	 * @param budgetMillis time budget, a 1-ply search is always completed regardless.
+	 * @return index of the best play in getPlays().
+	 */
+	int search(BoardState state, int side, int die1, int die2, long budgetMillis);
+
+	// plays of the last search, use with the index returned by search().
+	MoveGenerator getPlays();
+
+	double getBestEquity();
+
+	int getCompletedDepth();
+
+	long getNodeCount();
+
+	/**
+	 * Stops the search from another thread,
+	 * search() then returns the best play of the deepest completed iteration.
+	 * A search started after it is stopped too, until clearStop().
+	 */
+	void stop();
+
+	/**
+	 * Lets searches run to their budget again after stop(),
+	 * called before search() so a stop made in between is not lost.
+	 */
+	void clearStop();
+}
@@ -0,0 +1,61 @@
+package bot;
+
+import model.BoardState;
+import model.MatchState;
+import move.MoveGenerator;
+
+/**
+ * This class represents the game's bot as a BotPlayer,
+ * i.e. plays by an ExpectiminimaxBot searched to a fixed depth, and the cube by a CubeEngine.
+ *
+ * The search generates the plays in the same order as the referee's MoveGenerator,
+ * so the index of its best play is the index of the same play.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class SearchBotPlayer implements BotPlayer {
+	// of a search, the depth bounds it long before.
+	private static final long SEARCH_BUDGET = 3_600_000;
+
+	private final String name;
+	private final ExpectiminimaxBot bot;
+	private final CubeEngine cube;
+
+	/**
+	 * Constructor.
+	 * @param name the name printed in results.
+	 * @param evaluator evaluates the positions of the search, owned by this player.
+	 * @param cubeEvaluator evaluates the positions of cube decisions, owned by this player.
+	 * @param depth search depth, 1 is greedy.
+	 */
+	public SearchBotPlayer(String name, Evaluator evaluator, Evaluator cubeEvaluator, int depth) {
+		this.name = name;
+		bot = new ExpectiminimaxBot(evaluator, depth);
+		cube = new CubeEngine(cubeEvaluator);
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public int play(BoardState state, int side, int die1, int die2, MatchState match, MoveGenerator plays) {
+		if (plays.getPlayCount() == 1) return 0;
+		return bot.search(state, side, die1, die2, SEARCH_BUDGET);
+	}
+
+	@Override
+	public boolean isDouble(BoardState state, int side, MatchState match) {
+		return cube.decide(state, side, match).isDouble();
+	}
+
+	@Override
+	public boolean isTake(BoardState state, int side, MatchState match) {
+		return cube.decide(state, side, match).isTake();
+	}
+}
@@ -0,0 +1,338 @@
+package bot;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import model.BoardState;
+import model.DiceSource;
+import move.MoveGenerator;
+
+/**
+ * This class represents the TD(lambda) training of a NeuralNetwork by self-play.
+ *
+ * Each worker thread plays whole games against itself,
+ * picking the play with the best equity by the network for each roll, i.e. greedy as TD-Gammon.
+ * Once a game is over, the positions are trained towards their lambda-returns,
+ * 		G(t) = (1 - lambda) * V(t+1) + lambda * G(t+1), and G of the last position is the game's result,
+ * computed backwards over the game, flipped between the sides' perspectives.
+ * Training at the end of the game on lambda-returns is the offline form of eligibility traces,
+ * it keeps each update sparse, i.e. only the rows of the active inputs are written,
+ * where a trace touches every weight on every play.
+ *
+ * Workers update the shared weights in place without locks (Hogwild),
+ * updates are sparse, so workers rarely write the same weights and training scales with cores.
+ * The weights are saved to a checkpoint file every few games, written whole then moved into place.
+ * Nothing of JavaFX is used, games are played on BoardState with the MoveGenerator.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class TDTrainer {
+	public static final double DEFAULT_ALPHA = 0.02;
+	public static final double DEFAULT_LAMBDA = 0.7;
+	// games that last longer are dropped, they are almost always loops of hits by an untrained network.
+	private static final int MAX_PLIES = 1000;
+	private static final int INITIAL_PLIES = 128;
+
+	private final NeuralNetwork net;
+	private final float alpha, lambda;
+	private final int threads;
+	private final long seed;
+
+	private Path checkpointPath;
+	private long checkpointInterval;
+	private PrintStream log;
+	private final Object checkpointLock;
+
+	// progress, shared between workers.
+	private final AtomicLong gamesStarted, gamesPlayed;
+	private final LongAdder plies, dropped;
+	private volatile boolean isStopRequested;
+	private long startTime;
+
+	/**
+	 * Constructor.
+	 * @param net the network to train, updated in place.
+	 * @param alpha learning rate.
+	 * @param lambda decay of the lambda-returns, 0 trains towards the next position only.
+	 * @param threads number of worker threads.
+	 * @param seed seed of the dice, each worker gets its own split of it.
+	 */
+	public TDTrainer(NeuralNetwork net, double alpha, double lambda, int threads, long seed) {
+		this.net = net;
+		this.alpha = (float) alpha;
+		this.lambda = (float) lambda;
+		this.threads = threads;
+		this.seed = seed;
+		checkpointLock = new Object();
+		gamesStarted = new AtomicLong();
+		gamesPlayed = new AtomicLong();
+		plies = new LongAdder();
+		dropped = new LongAdder();
+	}
+
+	/**
+	 * Saves the weights every interval games, and prints the progress to the log.
+	 * @param path the weight file.
+	 * @param interval number of games between checkpoints.
+	 * @param log where to print the progress, or null.
+	 */
+	public void setCheckpoint(Path path, long interval, PrintStream log) {
+		this.checkpointPath = path;
+		this.checkpointInterval = interval;
+		this.log = log;
+	}
+
+	/**
+	 * Plays and trains the given number of games, blocking until done or stopped.
+	 * The weights are checkpointed once more at the end.
+	 * @param games number of games.
+	 * @throws InterruptedException if interrupted while waiting for the workers.
+	 * @throws IOException if the last checkpoint cannot be saved.
+	 */
+	public void train(long games) throws InterruptedException, IOException {
+		isStopRequested = false;
+		gamesStarted.set(0);
+		gamesPlayed.set(0);
+		plies.reset();
+		dropped.reset();
+		startTime = System.nanoTime();
+
+		DiceSource dice = new DiceSource(seed);
+		Thread[] workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Thread(new Worker(dice.split(), games), "trainer-" + i);
+			workers[i].start();
+		}
+		for (Thread aWorker : workers) {
+			aWorker.join();
+		}
+		// unless the last game was just checkpointed.
+		boolean isCheckpointed = checkpointInterval > 0 && gamesPlayed.get() % checkpointInterval == 0;
+		if (checkpointPath != null && !isCheckpointed) checkpoint();
+	}
+
+	// stops training after the games in progress.
+	public void stop() {
+		isStopRequested = true;
+	}
+
+	/**
+	 * This class represents a worker thread, with its own game and buffers.
+	 */
+	private class Worker implements Runnable {
+		private final DiceSource dice;
+		private final long games;
+		private final MoveGenerator gen;
+		private final BoardState state, child;
+
+		// the game, one entry per play, as seen by the side that played it.
+		private int[][] indexes;
+		private float[][] values;
+		private int[] counts;
+		private float[][] predictions;
+		private float[][] targets;
+
+		// network buffers.
+		private final int[] scratchIndexes;
+		private final float[] scratchValues, hidden, outputs, deltas, hiddenDeltas;
+
+		private Worker(DiceSource dice, long games) {
+			this.dice = dice;
+			this.games = games;
+			gen = new MoveGenerator();
+			state = new BoardState();
+			child = new BoardState();
+			allocate(INITIAL_PLIES);
+			scratchIndexes = new int[NeuralNetwork.MAX_ACTIVE_INPUTS];
+			scratchValues = new float[NeuralNetwork.MAX_ACTIVE_INPUTS];
+			hidden = new float[net.getHidden()];
+			outputs = new float[NeuralNetwork.OUTPUTS];
+			deltas = new float[NeuralNetwork.OUTPUTS];
+			hiddenDeltas = new float[net.getHidden()];
+		}
+
+		private void allocate(int capacity) {
+			int from = counts == null ? 0 : counts.length;
+			indexes = grow(indexes, capacity);
+			values = grow(values, capacity);
+			counts = counts == null ? new int[capacity] : Arrays.copyOf(counts, capacity);
+			predictions = grow(predictions, capacity);
+			targets = grow(targets, capacity);
+			for (int i = from; i < capacity; i++) {
+				indexes[i] = new int[NeuralNetwork.MAX_ACTIVE_INPUTS];
+				values[i] = new float[NeuralNetwork.MAX_ACTIVE_INPUTS];
+				predictions[i] = new float[NeuralNetwork.OUTPUTS];
+				targets[i] = new float[NeuralNetwork.OUTPUTS];
+			}
+		}
+
+		@Override
+		public void run() {
+			while (!isStopRequested && gamesStarted.getAndIncrement() < games) {
+				int length = playGame();
+				if (length > 0) {
+					learn(length);
+					plies.add(length);
+				} else {
+					dropped.increment();
+				}
+
+				long played = gamesPlayed.incrementAndGet();
+				if (checkpointPath != null && checkpointInterval > 0 && played % checkpointInterval == 0) {
+					try {
+						checkpoint();
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+				}
+			}
+		}
+
+		/**
+		 * Plays a game against itself, recording every play.
+		 * @return number of plays, or 0 if the game was dropped.
+		 */
+		private int playGame() {
+			state.setStartingPosition();
+			int side = dice.nextInt(2);
+			int length = 0;
+			while (!state.isGameOver()) {
+				if (length == MAX_PLIES) return 0;
+				if (length == counts.length) allocate(counts.length * 2);
+
+				int count = gen.generate(state, side, dice.rollDie(), dice.rollDie());
+				int best = 0;
+				double bestEquity = Double.NEGATIVE_INFINITY;
+				for (int play = 0; play < count; play++) {
+					gen.getResultingState(play, child);
+					if (child.isGameOver()) {
+						Evaluator.getGameOverOutputs(child, side, outputs);
+					} else {
+						int active = NeuralNetwork.encode(child, side, scratchIndexes, scratchValues);
+						net.forward(scratchIndexes, scratchValues, active, hidden, outputs);
+					}
+					double equity = NeuralNetwork.getEquity(outputs);
+					if (equity > bestEquity) {
+						bestEquity = equity;
+						best = play;
+						System.arraycopy(outputs, 0, predictions[length], 0, NeuralNetwork.OUTPUTS);
+					}
+				}
+
+				gen.getResultingState(best, state);
+				counts[length] = NeuralNetwork.encode(state, side, indexes[length], values[length]);
+				length++;
+				side = BoardState.getOpponent(side);
+			}
+			// the prediction of the last play is the result, set when its play was picked.
+			return length;
+		}
+
+		// trains every position but the last, whose value is the result, towards its lambda-return.
+		private void learn(int length) {
+			float[] g = targets[length-1];
+			System.arraycopy(predictions[length-1], 0, g, 0, NeuralNetwork.OUTPUTS);
+			for (int t = length-2; t >= 0; t--) {
+				float[] next = predictions[t+1];
+				float[] nextReturn = targets[t+1];
+				float[] target = targets[t];
+				// the next play is the opponent's, so its wins are our losses.
+				target[NeuralNetwork.WIN] = (1 - lambda) * (1 - next[NeuralNetwork.WIN]) + lambda * (1 - nextReturn[NeuralNetwork.WIN]);
+				target[NeuralNetwork.WIN_GAMMON] = (1 - lambda) * next[NeuralNetwork.LOSE_GAMMON] + lambda * nextReturn[NeuralNetwork.LOSE_GAMMON];
+				target[NeuralNetwork.WIN_BACKGAMMON] = (1 - lambda) * next[NeuralNetwork.LOSE_BACKGAMMON] + lambda * nextReturn[NeuralNetwork.LOSE_BACKGAMMON];
+				target[NeuralNetwork.LOSE_GAMMON] = (1 - lambda) * next[NeuralNetwork.WIN_GAMMON] + lambda * nextReturn[NeuralNetwork.WIN_GAMMON];
+				target[NeuralNetwork.LOSE_BACKGAMMON] = (1 - lambda) * next[NeuralNetwork.WIN_BACKGAMMON] + lambda * nextReturn[NeuralNetwork.WIN_BACKGAMMON];
+			}
+			for (int t = 0; t < length-1; t++) {
+				update(indexes[t], values[t], counts[t], targets[t]);
+			}
+		}
+
+		/**
+		 * Moves the outputs of the position towards the target by one gradient step,
+		 * i.e. backpropagation of the cross-entropy error of the sigmoid outputs.
+		 * Only the rows of the active inputs are written.
+		 */
+		private void update(int[] active, float[] activeValues, int count, float[] target) {
+			int h = net.getHidden();
+			net.forward(active, activeValues, count, hidden, outputs);
+			for (int o = 0; o < NeuralNetwork.OUTPUTS; o++) {
+				deltas[o] = target[o] - outputs[o];
+			}
+
+			// hidden deltas from the output weights before they are updated.
+			Arrays.fill(hiddenDeltas, 0);
+			for (int o = 0; o < NeuralNetwork.OUTPUTS; o++) {
+				NeuralNetwork.addRow(hiddenDeltas, net.outputWeights[o], deltas[o], h);
+			}
+			for (int j = 0; j < h; j++) {
+				hiddenDeltas[j] *= alpha * hidden[j] * (1 - hidden[j]);
+			}
+
+			for (int o = 0; o < NeuralNetwork.OUTPUTS; o++) {
+				NeuralNetwork.addRow(net.outputWeights[o], hidden, alpha * deltas[o], h);
+				net.outputBiases[o] += alpha * deltas[o];
+			}
+			NeuralNetwork.addRow(net.hiddenBiases, hiddenDeltas, 1, h);
+			for (int k = 0; k < count; k++) {
+				NeuralNetwork.addRow(net.hiddenWeights[active[k]], hiddenDeltas, activeValues[k], h);
+			}
+		}
+	}
+
+	private static int[][] grow(int[][] array, int capacity) {
+		return array == null ? new int[capacity][] : Arrays.copyOf(array, capacity);
+	}
+
+	private static float[][] grow(float[][] array, int capacity) {
+		return array == null ? new float[capacity][] : Arrays.copyOf(array, capacity);
+	}
+
+	/**
+	 * Saves the weights to the checkpoint file.
+	 * Written to a temporary file first, so the checkpoint is never half written.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void checkpoint() throws IOException {
+		synchronized (checkpointLock) {
+			Path temp = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+			net.save(temp);
+			Files.move(temp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			if (log != null) log.println(getProgress());
+		}
+	}
+
+	/**
+	 * Returns the progress in the form of
+	 * "10000 games, 250.0 games/s, 57.3 plies/game, 2 dropped".
+	 * @return the progress.
+	 */
+	public String getProgress() {
+		long played = gamesPlayed.get();
+		long learnt = played - dropped.sum();
+		return String.format("%d games, %.1f games/s, %.1f plies/game, %d dropped",
+				played, getGamesPerSecond(), learnt == 0 ? 0 : (double) plies.sum() / learnt, dropped.sum());
+	}
+
+	public double getGamesPerSecond() {
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+		return seconds <= 0 ? 0 : gamesPlayed.get() / seconds;
+	}
+
+	public long getGamesPlayed() {
+		return gamesPlayed.get();
+	}
+
+	public NeuralNetwork getNetwork() {
+		return net;
+	}
+}
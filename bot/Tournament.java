@@ -0,0 +1,411 @@
+package bot;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import model.BoardState;
+
+/**
+ * This class represents a tournament of BotPlayers, round-robin or Swiss, played headless by MatchReferees.
+ *
+ * Every pairing plays duplicate matches, i.e. two matches on the same dice,
+ * the second with the players on the other sides, so each player gets the dice the other had.
+ * Every pairing of a round plays on the same seeds, i.e. common random numbers,
+ * so the luck of the dice mostly cancels out of the differences between players.
+ *
+ * Swiss rounds pair the players by match wins so far, then by rating, avoiding rematches,
+ * an odd player out sits the round out.
+ *
+ * Ratings are Elo, fitted to the match wins of all pairings by Bradley-Terry maximum likelihood,
+ * with half a win each way added to every pairing played, so a player that wins every match still has a rating.
+ * Error bars are the 95% range of the ratings over bootstrap resamples of each pairing's duplicate matches.
+ *
+ * Matches are played on a pool of worker threads, each with its own players and referee.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class Tournament {
+	// duplicate matches per pairing.
+	public static final int DEFAULT_MATCHES = 50;
+	public static final int DEFAULT_BOOTSTRAP = 1000;
+	// Elo points per natural log of the odds.
+	private static final double ELO_SCALE = 400 / Math.log(10);
+	private static final int FIT_ITERATIONS = 500;
+	private static final double FIT_TOLERANCE = 1e-9;
+	private static final double PRIOR_WINS = 0.5;
+	// mixes the match number into the seed, see Rollout.
+	private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+	private final List<Supplier<BotPlayer>> players;
+	private final String[] names;
+	private final int length;
+	private final boolean isCubeEnabled;
+	private final int threads;
+	private final long seed;
+	private PrintStream log;
+
+	// [player][opponent][i], duplicate matches where the player won i of the two.
+	private final int[][][] duplicates;
+	// [player][opponent], rounds already paired.
+	private final boolean[][] isPaired;
+	private int rounds;
+
+	/**
+	 * Constructor.
+	 * @param players the players, one per worker thread per call, at least 2.
+	 * @param length points to win a match, 0 for single money games.
+	 * @param isCubeEnabled false to play without the doubling cube.
+	 * @param threads number of worker threads.
+	 * @param seed seed of the dice.
+	 */
+	public Tournament(List<Supplier<BotPlayer>> players, int length, boolean isCubeEnabled, int threads, long seed) {
+		this.players = players;
+		this.length = length;
+		this.isCubeEnabled = isCubeEnabled;
+		this.threads = threads;
+		this.seed = seed;
+		int n = players.size();
+		names = new String[n];
+		for (int i = 0; i < n; i++) {
+			names[i] = players.get(i).get().getName();
+		}
+		duplicates = new int[n][n][3];
+		isPaired = new boolean[n][n];
+	}
+
+	// prints each round's standings to the log, or null.
+	public void setLog(PrintStream log) {
+		this.log = log;
+	}
+
+	/**
+	 * Plays every pairing once, in a single round.
+	 * @param matches duplicate matches per pairing.
+	 * @throws InterruptedException if interrupted while waiting for the matches.
+	 */
+	public void playRoundRobin(int matches) throws InterruptedException {
+		List<int[]> pairings = new ArrayList<>();
+		for (int i = 0; i < names.length; i++) {
+			for (int j = i+1; j < names.length; j++) {
+				pairings.add(new int[] {i, j});
+			}
+		}
+		playRounds(round -> pairings, 1, matches);
+	}
+
+	/**
+	 * Plays Swiss rounds.
+	 * @param roundCount number of rounds.
+	 * @param matches duplicate matches per pairing.
+	 * @throws InterruptedException if interrupted while waiting for the matches.
+	 */
+	public void playSwiss(int roundCount, int matches) throws InterruptedException {
+		playRounds(round -> pairSwiss(), roundCount, matches);
+	}
+
+	// plays the rounds, each paired once the previous round is over.
+	private void playRounds(IntFunction<List<int[]>> pairer, int roundCount, int matches) throws InterruptedException {
+		ThreadLocal<BotPlayer[]> localPlayers = ThreadLocal.withInitial(() -> new BotPlayer[names.length]);
+		ThreadLocal<MatchReferee> localReferees = ThreadLocal.withInitial(() -> new MatchReferee(length, isCubeEnabled));
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "tournament");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			for (int r = 0; r < roundCount; r++) {
+				int round = rounds++;
+				List<Callable<Void>> jobs = new ArrayList<>();
+				for (int[] pairing : pairer.apply(round)) {
+					isPaired[pairing[0]][pairing[1]] = isPaired[pairing[1]][pairing[0]] = true;
+					for (int k = 0; k < matches; k++) {
+						long matchSeed = seed + ((long) round * matches + k) * SEED_STEP;
+						jobs.add(() -> {
+							playDuplicate(localPlayers.get(), localReferees.get(), pairing[0], pairing[1], matchSeed);
+							return null;
+						});
+					}
+				}
+				for (Future<Void> aJob : executor.invokeAll(jobs)) {
+					try {
+						aJob.get();
+					} catch (ExecutionException e) {
+						// e.g. a submitted bot that picked a play out of range.
+						throw new IllegalStateException(e.getCause());
+					}
+				}
+				if (log != null) log.println("Round " + (round+1) + ":" + System.lineSeparator() + getResult(0));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// plays the two matches of a duplicate, abandoned matches drop the whole duplicate.
+	private void playDuplicate(BotPlayer[] local, MatchReferee referee, int i, int j, long matchSeed) {
+		if (local[i] == null) local[i] = players.get(i).get();
+		if (local[j] == null) local[j] = players.get(j).get();
+		int first = referee.playMatch(local[i], local[j], matchSeed);
+		int second = referee.playMatch(local[j], local[i], matchSeed);
+		if (first < 0 || second < 0) return;
+		int wins = (first == BoardState.BOTTOM ? 1 : 0) + (second == BoardState.TOP ? 1 : 0);
+		synchronized (duplicates) {
+			duplicates[i][j][wins]++;
+			duplicates[j][i][2 - wins]++;
+		}
+	}
+
+	// pairs by match wins then rating, top down, each with the next player it has not met yet.
+	private List<int[]> pairSwiss() {
+		double[] ratings = fit(getWins(duplicates));
+		long[] wins = new long[names.length];
+		for (int i = 0; i < names.length; i++) {
+			for (int j = 0; j < names.length; j++) {
+				wins[i] += duplicates[i][j][1] + 2L * duplicates[i][j][2];
+			}
+		}
+		Integer[] order = new Integer[names.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.<Integer>comparingLong(i -> -wins[i]).thenComparingDouble(i -> -ratings[i]));
+
+		List<int[]> pairings = new ArrayList<>();
+		boolean[] isTaken = new boolean[names.length];
+		for (int a = 0; a < order.length; a++) {
+			if (isTaken[order[a]]) continue;
+			int partner = -1;
+			// a rematch only if every other player is taken.
+			for (int b = a+1; b < order.length; b++) {
+				if (isTaken[order[b]]) continue;
+				if (partner < 0) partner = b;
+				if (!isPaired[order[a]][order[b]]) {
+					partner = b;
+					break;
+				}
+			}
+			if (partner < 0) continue;
+			isTaken[order[a]] = isTaken[order[partner]] = true;
+			pairings.add(new int[] {order[a], order[partner]});
+		}
+		return pairings;
+	}
+
+	// [player][opponent], match wins.
+	private static double[][] getWins(int[][][] duplicates) {
+		int n = duplicates.length;
+		double[][] wins = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				wins[i][j] = duplicates[i][j][1] + 2.0 * duplicates[i][j][2];
+			}
+		}
+		return wins;
+	}
+
+	/**
+	 * Fits the Bradley-Terry strengths by the MM algorithm, as Elo ratings with a mean of 0.
+	 * @param wins [player][opponent], match wins.
+	 * @return the ratings.
+	 */
+	private static double[] fit(double[][] wins) {
+		int n = wins.length;
+		double[][] games = new double[n][n];
+		double[] totalWins = new double[n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (i == j || wins[i][j] + wins[j][i] == 0) continue;
+				games[i][j] = wins[i][j] + wins[j][i] + 2 * PRIOR_WINS;
+				totalWins[i] += wins[i][j] + PRIOR_WINS;
+			}
+		}
+
+		double[] strengths = new double[n];
+		Arrays.fill(strengths, 1);
+		for (int iteration = 0; iteration < FIT_ITERATIONS; iteration++) {
+			double change = 0, sum = 0;
+			double[] next = new double[n];
+			for (int i = 0; i < n; i++) {
+				double denominator = 0;
+				for (int j = 0; j < n; j++) {
+					if (games[i][j] > 0) denominator += games[i][j] / (strengths[i] + strengths[j]);
+				}
+				next[i] = denominator == 0 ? strengths[i] : totalWins[i] / denominator;
+				sum += next[i];
+			}
+			for (int i = 0; i < n; i++) {
+				next[i] *= n / sum;
+				change = Math.max(change, Math.abs(next[i] - strengths[i]));
+			}
+			strengths = next;
+			if (change < FIT_TOLERANCE) break;
+		}
+
+		double[] ratings = new double[n];
+		double mean = 0;
+		for (int i = 0; i < n; i++) {
+			ratings[i] = ELO_SCALE * Math.log(strengths[i]);
+			mean += ratings[i] / n;
+		}
+		for (int i = 0; i < n; i++) {
+			ratings[i] -= mean;
+		}
+		return ratings;
+	}
+
+	/**
+	 * Returns the standings so far.
+	 * @param bootstrap number of bootstrap resamples of the error bars, 0 for none.
+	 * @return the standings, best rating first.
+	 */
+	public Result getResult(int bootstrap) {
+		int n = names.length;
+		int[][][] counts;
+		synchronized (duplicates) {
+			counts = new int[n][n][];
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					counts[i][j] = duplicates[i][j].clone();
+				}
+			}
+		}
+		double[][] wins = getWins(counts);
+		double[] ratings = fit(wins);
+		double[] errors = new double[n];
+		if (bootstrap > 0) errors = getErrors(counts, bootstrap);
+
+		long[] matchWins = new long[n], matchesPlayed = new long[n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				matchWins[i] += (long) wins[i][j];
+				matchesPlayed[i] += 2L * (counts[i][j][0] + counts[i][j][1] + counts[i][j][2]);
+			}
+		}
+		return new Result(names, ratings, errors, matchWins, matchesPlayed);
+	}
+
+	// half width of the 95% range of each rating, over resamples of each pairing's duplicates.
+	private double[] getErrors(int[][][] counts, int bootstrap) {
+		int n = names.length;
+		SplittableRandom random = new SplittableRandom(seed);
+		double[][] samples = new double[n][bootstrap];
+		int[][][] resample = new int[n][n][3];
+		for (int b = 0; b < bootstrap; b++) {
+			for (int i = 0; i < n; i++) {
+				for (int j = i+1; j < n; j++) {
+					int[] count = counts[i][j];
+					int total = count[0] + count[1] + count[2];
+					Arrays.fill(resample[i][j], 0);
+					Arrays.fill(resample[j][i], 0);
+					for (int k = 0; k < total; k++) {
+						int pick = random.nextInt(total);
+						int wins = pick < count[0] ? 0 : pick < count[0] + count[1] ? 1 : 2;
+						resample[i][j][wins]++;
+						resample[j][i][2 - wins]++;
+					}
+				}
+			}
+			double[] ratings = fit(getWins(resample));
+			for (int i = 0; i < n; i++) {
+				samples[i][b] = ratings[i];
+			}
+		}
+
+		double[] errors = new double[n];
+		for (int i = 0; i < n; i++) {
+			Arrays.sort(samples[i]);
+			double low = samples[i][(int) (0.025 * (bootstrap - 1))];
+			double high = samples[i][(int) Math.ceil(0.975 * (bootstrap - 1))];
+			errors[i] = (high - low) / 2;
+		}
+		return errors;
+	}
+
+	/**
+	 * This class represents the standings of a tournament, best rating first.
+	 */
+	public static class Result {
+		private final String[] names;
+		private final double[] ratings, errors;
+		private final long[] matchWins, matchesPlayed;
+
+		private Result(String[] names, double[] ratings, double[] errors, long[] matchWins, long[] matchesPlayed) {
+			Integer[] order = new Integer[names.length];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, Comparator.comparingDouble(i -> -ratings[i]));
+			this.names = new String[names.length];
+			this.ratings = new double[names.length];
+			this.errors = new double[names.length];
+			this.matchWins = new long[names.length];
+			this.matchesPlayed = new long[names.length];
+			for (int rank = 0; rank < order.length; rank++) {
+				int i = order[rank];
+				this.names[rank] = names[i];
+				this.ratings[rank] = ratings[i];
+				this.errors[rank] = errors[i];
+				this.matchWins[rank] = matchWins[i];
+				this.matchesPlayed[rank] = matchesPlayed[i];
+			}
+		}
+
+		public int size() {
+			return names.length;
+		}
+
+		// of the player ranked rank, from 0.
+		public String getName(int rank) {
+			return names[rank];
+		}
+
+		public double getRating(int rank) {
+			return ratings[rank];
+		}
+
+		// half width of the 95% range of the rating, 0 if not bootstrapped.
+		public double getError(int rank) {
+			return errors[rank];
+		}
+
+		public long getMatchWins(int rank) {
+			return matchWins[rank];
+		}
+
+		public long getMatchesPlayed(int rank) {
+			return matchesPlayed[rank];
+		}
+
+		/**
+		 * Returns the standings in the form of one line per player,
+		 * "rank  name  rating +/- error  wins/matches".
+		 */
+		@Override
+		public String toString() {
+			int width = 6;
+			for (String aName : names) {
+				width = Math.max(width, aName.length());
+			}
+			StringBuilder sb = new StringBuilder(String.format("%4s  %-" + width + "s  %7s  %6s  %s", "rank", "player", "elo", "+/-", "wins"));
+			for (int rank = 0; rank < names.length; rank++) {
+				sb.append(String.format("%n%4d  %-" + width + "s  %+7.1f  %6.1f  %d/%d", rank+1, names[rank],
+						ratings[rank], errors[rank], matchWins[rank], matchesPlayed[rank]));
+			}
+			return sb.toString();
+		}
+	}
+}
@@ -0,0 +1,249 @@
+package bot;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class represents a transposition table of chance node values,
+ * keyed by the Zobrist hash of the position with the side to roll, see BoardState.getHash().
+ * Different play orders often reach the same position, so their values are only searched once.
+ *
+ * An entry keeps a lower and an upper bound of the value, since the search is windowed,
+ * and the depth they were searched to.
+ * Entries are two longs in a flat long[], grouped in buckets of 4, i.e. 64 bytes:
+ * 		- the key word, high bits of the hash, depth and age, xored with the data word.
+ * 		- the data word, lower and upper bound as floats, rounded outwards.
+ * The xor makes the table lock-free when shared between threads,
+ * an entry torn by a concurrent store no longer matches its key and is read as a miss.
+ *
+ * Replacement prefers to keep deep entries of the current search,
+ * entries of previous searches are replaced first, then the shallowest.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class TranspositionTable {
+	public static final int DEFAULT_SIZE_MB = 16;
+	public static final int MIN_SIZE_MB = 1;
+	// returned by probe() if there is no entry.
+	public static final long MISS = -1;
+	// bounds closer than this are an exact value, the float rounding is a few ulps.
+	public static final double EXACT_MARGIN = 1e-6;
+
+	private static final int ENTRY_BYTES = 16;
+	private static final int BUCKET_SIZE = 4;
+	// low bits of the key word, depth and age.
+	private static final int DEPTH_BITS = 4;
+	private static final int AGE_BITS = 8;
+	private static final int META_BITS = DEPTH_BITS + AGE_BITS;
+	private static final long KEY_MASK = -1L << META_BITS;
+	private static final int DEPTH_MASK = (1 << DEPTH_BITS) - 1;
+	private static final int AGE_MASK = (1 << AGE_BITS) - 1;
+	// entries of the current search are kept over deeper entries of previous searches.
+	private static final int CURRENT_AGE_BONUS = DEPTH_MASK + 1;
+	// buckets sampled by getUsage().
+	private static final int USAGE_SAMPLE = 1000;
+
+	private final long[] table;
+	private final int bucketMask;
+	private volatile int age;
+
+	// statistics.
+	private final LongAdder probes, hits, stores, evictions, rejections;
+
+	public TranspositionTable() {
+		this(DEFAULT_SIZE_MB);
+	}
+
+	/**
+	 * Constructor.
+	 * @param sizeMb size in megabytes, rounded down to a power of two, at least MIN_SIZE_MB.
+	 */
+	public TranspositionTable(int sizeMb) {
+		long bytes = (long) Math.max(sizeMb, MIN_SIZE_MB) << 20;
+		int buckets = Integer.highestOneBit((int) Math.min(bytes / (ENTRY_BYTES * BUCKET_SIZE), Integer.MAX_VALUE / (BUCKET_SIZE * 2)));
+		table = new long[buckets * BUCKET_SIZE * 2];
+		bucketMask = buckets - 1;
+		probes = new LongAdder();
+		hits = new LongAdder();
+		stores = new LongAdder();
+		evictions = new LongAdder();
+		rejections = new LongAdder();
+	}
+
+	/**
+	 * Looks up the bounds of a position, searched to at least the given depth.
+	 * @param hash Zobrist hash of the position with the side to roll.
+	 * @param depth decision plies left.
+	 * @return the data word, decode it with getLower() and getUpper(), or MISS.
+	 */
+	public long probe(long hash, int depth) {
+		probes.increment();
+		int start = getBucket(hash);
+		long key = hash & KEY_MASK;
+		for (int i = start; i < start + BUCKET_SIZE * 2; i += 2) {
+			long data = table[i+1];
+			long meta = table[i] ^ data;
+			if ((meta & KEY_MASK) == key && getDepth(meta) >= depth) {
+				hits.increment();
+				return data;
+			}
+		}
+		return MISS;
+	}
+
+	/**
+	 * Stores the bounds of a position.
+	 * @param hash Zobrist hash of the position with the side to roll.
+	 * @param depth decision plies left, at most 15.
+	 * @param lower lower bound of the value.
+	 * @param upper upper bound of the value.
+	 */
+	public void store(long hash, int depth, double lower, double upper) {
+		stores.increment();
+		int start = getBucket(hash);
+		long key = hash & KEY_MASK;
+		int currentAge = age;
+
+		// same position, else the least worth keeping.
+		int replace = start;
+		int worst = Integer.MAX_VALUE;
+		boolean isEviction = false;
+		for (int i = start; i < start + BUCKET_SIZE * 2; i += 2) {
+			long data = table[i+1];
+			long meta = table[i] ^ data;
+			if ((meta & KEY_MASK) == key) {
+				if (getDepth(meta) > depth && getAge(meta) == currentAge) {
+					rejections.increment();
+					return;
+				}
+				replace = i;
+				isEviction = false;
+				break;
+			}
+			int worth = meta == 0 && data == 0 ? -1 : getDepth(meta) + (getAge(meta) == currentAge ? CURRENT_AGE_BONUS : 0);
+			if (worth < worst) {
+				worst = worth;
+				replace = i;
+				isEviction = worth >= 0;
+			}
+		}
+		if (isEviction) evictions.increment();
+
+		long data = (long) Float.floatToRawIntBits(roundDown(lower)) << 32 | Float.floatToRawIntBits(roundUp(upper)) & 0xFFFFFFFFL;
+		long meta = key | (long) currentAge << DEPTH_BITS | Math.min(depth, DEPTH_MASK);
+		table[replace] = meta ^ data;
+		table[replace+1] = data;
+	}
+
+	public static double getLower(long data) {
+		return Float.intBitsToFloat((int) (data >>> 32));
+	}
+
+	public static double getUpper(long data) {
+		return Float.intBitsToFloat((int) data);
+	}
+
+	// starts a new search, so entries of previous searches are replaced first.
+	public void newSearch() {
+		age = (age + 1) & AGE_MASK;
+	}
+
+	// removes every entry and resets the statistics.
+	public void clear() {
+		Arrays.fill(table, 0);
+		resetStats();
+	}
+
+	public void resetStats() {
+		probes.reset();
+		hits.reset();
+		stores.reset();
+		evictions.reset();
+		rejections.reset();
+	}
+
+	private int getBucket(long hash) {
+		return ((int) hash & bucketMask) * BUCKET_SIZE * 2;
+	}
+
+	private static int getDepth(long meta) {
+		return (int) meta & DEPTH_MASK;
+	}
+
+	private static int getAge(long meta) {
+		return (int) (meta >>> DEPTH_BITS) & AGE_MASK;
+	}
+
+	// bounds are rounded outwards, so they still hold as floats.
+	private static float roundDown(double value) {
+		float f = (float) value;
+		return f > value ? Math.nextDown(f) : f;
+	}
+
+	private static float roundUp(double value) {
+		float f = (float) value;
+		return f < value ? Math.nextUp(f) : f;
+	}
+
+	/* Statistics, used to size the table. */
+
+	public long getProbeCount() {
+		return probes.sum();
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public double getHitRate() {
+		long probeCount = probes.sum();
+		return probeCount == 0 ? 0 : (double) hits.sum() / probeCount;
+	}
+
+	public long getStoreCount() {
+		return stores.sum();
+	}
+
+	// stores that replaced an entry of another position, i.e. index collisions in a full bucket.
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	// stores that were dropped, since the position was already stored deeper.
+	public long getRejectionCount() {
+		return rejections.sum();
+	}
+
+	public int getSizeMb() {
+		return (int) (((long) table.length * Long.BYTES) >> 20);
+	}
+
+	public int getCapacity() {
+		return table.length / 2;
+	}
+
+	// fraction of entries in use, sampled from the first buckets.
+	public double getUsage() {
+		int buckets = Math.min(USAGE_SAMPLE, bucketMask + 1);
+		int used = 0;
+		for (int i = 0; i < buckets * BUCKET_SIZE * 2; i += 2) {
+			if (table[i] != 0 || table[i+1] != 0) used++;
+		}
+		return (double) used / (buckets * BUCKET_SIZE);
+	}
+
+	/**
+	 * Returns the statistics in the form of
+	 * "16 MB, 12.3% used, 45.6% hits of 1000 probes, 700 stores, 10 evictions, 5 rejected".
+	 */
+	@Override
+	public String toString() {
+		return String.format("%d MB, %.1f%% used, %.1f%% hits of %d probes, %d stores, %d evictions, %d rejected",
+				getSizeMb(), getUsage() * 100, getHitRate() * 100, getProbeCount(),
+				getStoreCount(), getEvictionCount(), getRejectionCount());
+	}
+}
@@ -0,0 +1,445 @@
+package bot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import model.BoardState;
+import model.RollTable;
+import move.MoveGenerator;
+
+/**
+ * This class represents the two-sided bear-off database,
+ * i.e. for every pair of home boards of up to N checkers each,
+ * the exact cubeless odds of the side on roll winning, both sides playing to win.
+ * Some checkers are always off, so there are no gammons and the equity is 2 * odds - 1.
+ *
+ * Exact where the one-sided BearoffDatabase is not,
+ * it picks plays by the fewest rolls on average, which is not always the play that wins most.
+ * Home boards are indexed as in the BearoffDatabase, up to N checkers instead of 15.
+ *
+ * The database is generated bottom-up, by the total pips of both sides,
+ * a play lowers the pips so the positions after it are always known.
+ * Positions of the same total pips do not depend on each other, so each layer is split between threads.
+ * The plays of a home board do not depend on the other side's, they are generated once per roll.
+ *
+ * The odds are quantized to uint16, odds times 65535, in rows of the side on roll, by the opponent.
+ * Rows are split in blocks of a few rows, compressed on their own so any block can be read alone.
+ * Odds are close to their neighbours, so each is stored as the difference from a prediction,
+ * left + above - above left, as in PNG, with the high bytes of the block first, then the low bytes,
+ * which Deflater compresses about 18% smaller than the odds as they are.
+ *
+ * File format, little-endian, memory-mapped when loaded:
+ * 		- header, 7 ints: magic "BGB2", version, points, checkers N, positions per side, rows per block, blocks.
+ * 		- blocks + 1 longs, file offset of each block, then the end of the last.
+ * 		- blocks, Deflater compressed.
+ * Blocks are decoded on lookup, the most recently used are kept in a small cache,
+ * so only a fraction of the database is ever on the heap.
+ * The mapped file is shared, each thread has its own cache and Inflater,
+ * so lookups from parallel searches never wait on each other.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class TwoSidedBearoffDatabase {
+	public static final String DEFAULT_FILE = "bearoff2.bgdb";
+	public static final int DEFAULT_CHECKERS = 6;
+	// 8008 home boards a side, the odds of 64 million positions are kept in memory while generating.
+	public static final int MAX_CHECKERS = 10;
+	// in blocks, per thread.
+	public static final int DEFAULT_CACHE_SIZE = 64;
+	// odds per block, at least, rounded up to whole rows.
+	public static final int BLOCK_ENTRIES = 4096;
+
+	private static final int MAGIC = 0x32424742;
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 7 * Integer.BYTES;
+	private static final int ENTRY_BYTES = Short.BYTES;
+	private static final double SCALE = 65535;
+	private static final int NONE = -1;
+
+	private final int checkers, positions, rowsPerBlock, blocks, cacheSize;
+	private final ByteBuffer file;
+
+	// LRU cache of decoded blocks of each thread.
+	private final ThreadLocal<BlockCache> caches;
+	// lookups of all threads, so a cache is dropped with its thread.
+	private final LongAdder hits, misses;
+
+	private TwoSidedBearoffDatabase(ByteBuffer file, int checkers, int blocks, int cacheSize) {
+		this.file = file;
+		this.checkers = checkers;
+		this.blocks = blocks;
+		this.cacheSize = Math.max(1, Math.min(cacheSize, blocks));
+		positions = BearoffDatabase.getPositions(checkers);
+		rowsPerBlock = getRowsPerBlock(positions);
+		hits = new LongAdder();
+		misses = new LongAdder();
+		caches = ThreadLocal.withInitial(BlockCache::new);
+	}
+
+	public int getCheckers() {
+		return checkers;
+	}
+
+	/**
+	 * Checks if both sides are bearing off with no more than N checkers left.
+	 * @param state the board state.
+	 * @return the boolean value.
+	 */
+	public boolean contains(BoardState state) {
+		return BearoffDatabase.isBearoff(state)
+				&& state.getCheckersInPlay(BoardState.BOTTOM) <= checkers
+				&& state.getCheckersInPlay(BoardState.TOP) <= checkers;
+	}
+
+	/**
+	 * Returns the odds of the side on roll winning, see contains().
+	 * @param state the board state.
+	 * @param side the side on roll, BOTTOM or TOP.
+	 * @return the probability.
+	 */
+	public double getProbability(BoardState state, int side) {
+		int us = BearoffDatabase.getIndex(state, side, checkers);
+		int them = BearoffDatabase.getIndex(state, BoardState.getOpponent(side), checkers);
+		return getProbability(us, them);
+	}
+
+	/**
+	 * Returns the odds of the side on roll winning, by the indexes of the home boards.
+	 * @param us index of the home board of the side on roll.
+	 * @param them index of the home board of the opponent.
+	 * @return the probability.
+	 */
+	public double getProbability(int us, int them) {
+		char[] block = caches.get().getBlock(us / rowsPerBlock);
+		return block[(us % rowsPerBlock) * positions + them] / SCALE;
+	}
+
+	// cubeless equity of the side on roll, see contains().
+	public double getEquity(BoardState state, int side) {
+		return 2 * getProbability(state, side) - 1;
+	}
+
+	/**
+	 * Predicts an odds from its decoded neighbours in the block, left + above - above left, clamped.
+	 * @param values odds of the block, by row.
+	 * @param i index in the block.
+	 * @return the prediction, 0 to 65535.
+	 */
+	private static int getPrediction(char[] values, int i, int positions) {
+		int column = i % positions;
+		int left = column > 0 ? values[i-1] : 0;
+		int above = i >= positions ? values[i-positions] : 0;
+		int aboveLeft = column > 0 && i >= positions ? values[i-positions-1] : 0;
+		int prediction = left + above - aboveLeft;
+		return prediction < 0 ? 0 : prediction > Character.MAX_VALUE ? Character.MAX_VALUE : prediction;
+	}
+
+	private int getPrediction(char[] values, int i) {
+		return getPrediction(values, i, positions);
+	}
+
+	private static int getRowsPerBlock(int positions) {
+		return (BLOCK_ENTRIES + positions - 1) / positions;
+	}
+
+	// fraction of lookups found in the caches of all threads, approximate while lookups run.
+	public double getCacheHitRate() {
+		long hitCount = hits.sum();
+		long lookups = hitCount + misses.sum();
+		return lookups == 0 ? 0 : (double) hitCount / lookups;
+	}
+
+	/**
+	 * Generates the database file, the odds are kept in memory until written.
+	 * @param path the database file.
+	 * @param checkers N, checkers a side, 1 to MAX_CHECKERS.
+	 * @param threads number of threads.
+	 * @throws IOException if the file cannot be written.
+	 * @throws InterruptedException if interrupted while generating.
+	 */
+	public static void generate(Path path, int checkers, int threads) throws IOException, InterruptedException {
+		if (checkers < 1 || checkers > MAX_CHECKERS) {
+			throw new IllegalArgumentException("Checkers: " + checkers);
+		}
+		int positions = BearoffDatabase.getPositions(checkers);
+		int[][] counts = BearoffDatabase.getPositionCounts(checkers);
+		int[][] byPips = BearoffDatabase.groupByPips(counts);
+		int[] pips = new int[positions];
+		for (int index = 0; index < positions; index++) {
+			pips[index] = BearoffDatabase.getPips(counts[index]);
+		}
+		int[][][] children = getChildren(counts, checkers);
+
+		// odds of the side on roll winning, by us * positions + them.
+		float[] odds = new float[positions * positions];
+		int maxPips = BearoffDatabase.POINTS * checkers;
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			for (int total = 0; total <= 2 * maxPips; total++) {
+				int layer = total;
+				pool.submit(() -> IntStream.range(0, positions).parallel().forEach(us -> {
+					int themPips = layer - pips[us];
+					if (themPips < 0 || themPips > maxPips) return;
+					for (int them : byPips[themPips]) {
+						odds[us * positions + them] = getOdds(odds, children[us], us, them, positions);
+					}
+				})).get();
+			}
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+		write(path, odds, checkers, positions);
+	}
+
+	/**
+	 * Returns the odds of the side on roll winning, its best play for each roll.
+	 * After the play the opponent is on roll, so the odds are 1 minus the opponent's.
+	 */
+	private static float getOdds(float[] odds, int[][] usChildren, int us, int them, int positions) {
+		// the opponent has borne off, or the side on roll is already off, which only happens at 0 pips.
+		if (them == 0) return 0;
+		if (us == 0) return 1;
+
+		double total = 0;
+		for (int roll = 0; roll < RollTable.ROLLS; roll++) {
+			double best = 0;
+			for (int child : usChildren[roll]) {
+				double value = child == 0 ? 1 : 1 - odds[them * positions + child];
+				if (value > best) best = value;
+			}
+			total += RollTable.getProbability(roll) * best;
+		}
+		return (float) total;
+	}
+
+	/**
+	 * Generates the plays of every home board, as indexes of the home boards after them.
+	 * @return the distinct home boards after the plays, by index then roll.
+	 */
+	private static int[][][] getChildren(int[][] counts, int checkers) {
+		MoveGenerator gen = new MoveGenerator();
+		BoardState state = new BoardState();
+		BoardState child = new BoardState();
+		int[][][] children = new int[counts.length][RollTable.ROLLS][];
+		for (int index = 0; index < counts.length; index++) {
+			BearoffDatabase.setPosition(state, counts[index]);
+			for (int roll = 0; roll < RollTable.ROLLS; roll++) {
+				int count = index == 0 ? 0 : gen.generate(state, BoardState.BOTTOM, RollTable.getDie1(roll), RollTable.getDie2(roll));
+				int[] distinct = new int[count];
+				int size = 0;
+				for (int play = 0; play < count; play++) {
+					gen.getResultingState(play, child);
+					int next = BearoffDatabase.getIndex(child, BoardState.BOTTOM, checkers);
+					boolean isNew = true;
+					for (int i = 0; i < size && isNew; i++) {
+						isNew = distinct[i] != next;
+					}
+					if (isNew) distinct[size++] = next;
+				}
+				children[index][roll] = Arrays.copyOf(distinct, size);
+			}
+		}
+		return children;
+	}
+
+	// quantizes, predicts and compresses the odds block by block.
+	private static void write(Path path, float[] odds, int checkers, int positions) throws IOException {
+		int rowsPerBlock = getRowsPerBlock(positions);
+		int blocks = (positions + rowsPerBlock - 1) / rowsPerBlock;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + (blocks+1) * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(BearoffDatabase.POINTS).putInt(checkers)
+					.putInt(positions).putInt(rowsPerBlock).putInt(blocks);
+			channel.position(header.capacity());
+
+			Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+			char[] values = new char[rowsPerBlock * positions];
+			byte[] planes = new byte[values.length * ENTRY_BYTES];
+			byte[] compressed = new byte[planes.length * 2];
+			long offset = header.capacity();
+			for (int block = 0; block < blocks; block++) {
+				header.putLong(offset);
+				int from = block * rowsPerBlock * positions;
+				int entries = Math.min(values.length, odds.length - from);
+				for (int i = 0; i < entries; i++) {
+					values[i] = (char) Math.round(odds[from + i] * SCALE);
+				}
+				for (int i = 0; i < entries; i++) {
+					int difference = (values[i] - getPrediction(values, i, positions)) & 0xFFFF;
+					planes[i] = (byte) (difference >>> 8);
+					planes[entries + i] = (byte) difference;
+				}
+				deflater.reset();
+				deflater.setInput(planes, 0, entries * ENTRY_BYTES);
+				deflater.finish();
+				int length = 0;
+				while (!deflater.finished()) {
+					length += deflater.deflate(compressed, length, compressed.length - length);
+				}
+				ByteBuffer data = ByteBuffer.wrap(compressed, 0, length);
+				while (data.hasRemaining()) {
+					channel.write(data);
+				}
+				offset += length;
+			}
+			deflater.end();
+			header.putLong(offset);
+			header.rewind();
+			channel.position(0);
+			while (header.hasRemaining()) {
+				channel.write(header);
+			}
+		}
+	}
+
+	public static TwoSidedBearoffDatabase load(Path path) throws IOException {
+		return load(path, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Loads a database file, memory-mapped, blocks are decoded when looked up.
+	 * @param path the database file.
+	 * @param cacheSize number of decoded blocks kept.
+	 * @return the database.
+	 * @throws IOException if the file cannot be read or is not a two-sided bear-off database.
+	 */
+	public static TwoSidedBearoffDatabase load(Path path, int cacheSize) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+				throw new IOException("Not a two-sided bear-off database: " + path);
+			}
+			int version = buffer.getInt();
+			int points = buffer.getInt();
+			int checkers = buffer.getInt();
+			int positions = buffer.getInt();
+			int rowsPerBlock = buffer.getInt();
+			int blocks = buffer.getInt();
+			if (version != VERSION || points != BearoffDatabase.POINTS || checkers < 1 || checkers > MAX_CHECKERS
+					|| positions != BearoffDatabase.getPositions(checkers) || rowsPerBlock != getRowsPerBlock(positions)
+					|| blocks != (positions + rowsPerBlock - 1) / rowsPerBlock) {
+				throw new IOException("Unsupported two-sided bear-off database: version " + version + ", "
+						+ checkers + " checkers on " + points + " points, " + blocks + " blocks of " + rowsPerBlock + " rows");
+			}
+			long end = buffer.getLong(HEADER_BYTES + blocks * Long.BYTES);
+			if (buffer.capacity() != end) {
+				throw new IOException("Two-sided bear-off database has " + buffer.capacity() + " bytes, expected " + end);
+			}
+			return new TwoSidedBearoffDatabase(buffer, checkers, blocks, cacheSize);
+		}
+	}
+
+	/**
+	 * This class represents the LRU cache of decoded blocks of a thread, with the buffers to decode them.
+	 */
+	private class BlockCache {
+		private final char[][] slots;
+		private final byte[] planes;
+		private final int[] blockOfSlot, slotOfBlock;
+		// doubly linked list of slots, most recently used first.
+		private final int[] previous, next;
+		private int head, tail, used;
+		private final Inflater inflater;
+
+		private BlockCache() {
+			slots = new char[cacheSize][rowsPerBlock * positions];
+			planes = new byte[rowsPerBlock * positions * ENTRY_BYTES];
+			blockOfSlot = new int[cacheSize];
+			slotOfBlock = new int[blocks];
+			Arrays.fill(slotOfBlock, NONE);
+			previous = new int[cacheSize];
+			next = new int[cacheSize];
+			head = tail = NONE;
+			inflater = new Inflater();
+		}
+
+		// the decoded block, from the cache or decoded into the least recently used slot.
+		private char[] getBlock(int block) {
+			int slot = slotOfBlock[block];
+			if (slot != NONE) {
+				hits.increment();
+				moveToHead(slot);
+				return slots[slot];
+			}
+
+			misses.increment();
+			if (used < slots.length) {
+				slot = used++;
+			} else {
+				slot = tail;
+				unlink(slot);
+				slotOfBlock[blockOfSlot[slot]] = NONE;
+			}
+			decode(block, slots[slot]);
+			blockOfSlot[slot] = block;
+			slotOfBlock[block] = slot;
+			link(slot);
+			return slots[slot];
+		}
+
+		private void decode(int block, char[] out) {
+			long start = file.getLong(HEADER_BYTES + block * Long.BYTES);
+			long end = file.getLong(HEADER_BYTES + (block+1) * Long.BYTES);
+			ByteBuffer input = file.duplicate();
+			input.limit((int) end).position((int) start);
+			inflater.reset();
+			inflater.setInput(input);
+			int length = 0;
+			try {
+				while (!inflater.finished() && length < planes.length) {
+					length += inflater.inflate(planes, length, planes.length - length);
+				}
+			} catch (DataFormatException e) {
+				throw new IllegalStateException("Corrupt bear-off database block " + block, e);
+			}
+
+			// the last block may have fewer rows.
+			int entries = length / ENTRY_BYTES;
+			for (int i = 0; i < entries; i++) {
+				int difference = (planes[i] & 0xFF) << 8 | planes[entries + i] & 0xFF;
+				out[i] = (char) (getPrediction(out, i) + difference);
+			}
+		}
+
+		private void moveToHead(int slot) {
+			if (slot == head) return;
+			unlink(slot);
+			link(slot);
+		}
+
+		private void link(int slot) {
+			previous[slot] = NONE;
+			next[slot] = head;
+			if (head != NONE) previous[head] = slot;
+			head = slot;
+			if (tail == NONE) tail = slot;
+		}
+
+		private void unlink(int slot) {
+			if (previous[slot] != NONE) next[previous[slot]] = next[slot];
+			else head = next[slot];
+			if (next[slot] != NONE) previous[next[slot]] = previous[slot];
+			else tail = previous[slot];
+		}
+	}
+}
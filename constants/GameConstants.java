@@ -4,9 +4,9 @@ import java.awt.Dimension;
 import java.awt.Toolkit;
 import java.io.IOException;
 import java.io.InputStream;
+import game.ImageRegistry;
 import javafx.scene.image.Image;
 import javafx.scene.layout.Background;
-import javafx.scene.layout.BackgroundImage;
 import javafx.scene.text.Font;
 
 /**
@@ -97,7 +97,8 @@ public class GameConstants {
 	public static final int MAX_CHECKERS_IN_GAME = 30;
 	public static final int MAX_CHECKERS_PER_CHECKERS_STORER = MAX_CHECKERS_IN_GAME / 2;
 	public static final int NUMBER_OF_PIPS = 24;
-	public static final int TEXT_CONTAINER_THRESHOLD = 100;
+	// messages kept by the info panel, older messages are only in the log file.
+	public static final int INFO_PANEL_CAPACITY = 5000;
 
 	public static final int FONT_SIZE = 15;
 	public static final int FONT_SIZE_PLAYER_PANEL = 16;
@@ -150,15 +151,6 @@ public class GameConstants {
 		return Toolkit.getDefaultToolkit().getScreenSize();
 	}
 	
-	/**
-	 * Takes the path of the file and returns its file input stream.
-	 * @param path the path of the file.
-	 * @return the file input stream.
-	 */
-	private static InputStream getFile(String path) {
-		return GameConstants.class.getResourceAsStream("/game/" + path);
-	}
-	
 	/**
 	 * Currently hard-coded, we could create a image from illustrator, but this could work in the meantime.
 	 * @return size of the board.
@@ -174,7 +166,7 @@ public class GameConstants {
 	 * @return size of point.
 	 */
 	public static Dimension getPipSize() {
-		Image img = new Image(getFile("img/board/white_point.png"));
+		Image img = ImageRegistry.getImage("img/board/white_point.png");
 		Dimension d = new Dimension();
 		d.setSize(img.getWidth(), img.getHeight());
 		return d;
@@ -185,7 +177,7 @@ public class GameConstants {
 	 * @return size of checker.
 	 */
 	public static Dimension getCheckerSize() {
-		Image img = new Image(getFile("img/checkers/white_checkers.png"));
+		Image img = ImageRegistry.getImage("img/checkers/white_checkers.png");
 		Dimension d = new Dimension();
 		d.setSize(img.getWidth(), img.getHeight());
 		return d;
@@ -196,7 +188,7 @@ public class GameConstants {
 	 * @return size of dice.
 	 */
 	public static Dimension getDiceSize() {
-		Image img = new Image(getFile("img/dices/black/1.png"));
+		Image img = ImageRegistry.getImage("img/dices/black/1.png");
 		Dimension d = new Dimension();
 		d.setSize(img.getWidth(), img.getHeight());
 		return d;
@@ -207,14 +199,7 @@ public class GameConstants {
 	 * @return image of the board.
 	 */
 	public static Background getBoardImage() {
-		InputStream input = getFile("img/board/green.png");
-		Background bg = new Background(new BackgroundImage(new Image(input), null, null, null, null));
-		try {
-			input.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		return bg;
+		return ImageRegistry.getBackground("img/board/green.png");
 	}
 
 	/**
@@ -222,14 +207,7 @@ public class GameConstants {
 	 * @return image of the table.
 	 */
 	public static Background getTableImage() {
-		InputStream input = getFile("img/board/table.png");
-		Background bg = new Background(new BackgroundImage(new Image(input), null, null, null, null));
-		try {
-			input.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		return bg;
+		return ImageRegistry.getBackground("img/board/table.png");
 	}
 
 	
@@ -238,14 +216,7 @@ public class GameConstants {
 	 * @return image of the game.
 	 */
 	public static Background getGameImage() {
-		InputStream input = getFile("img/board/brown.png");
-		Background bg = new Background(new BackgroundImage(new Image(input), null, null, null, null));
-		try {
-			input.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		return bg;
+		return ImageRegistry.getBackground("img/board/brown.png");
 	}
 	
 	/**
@@ -253,14 +224,7 @@ public class GameConstants {
 	 * @return image of info panel.
 	 */
 	public static Background getPanelImage() {
-		InputStream input = getFile("img/board/panel.png");
-		Background bg = new Background(new BackgroundImage(new Image(input), null, null, null, null));
-		try {
-			input.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		return bg;
+		return ImageRegistry.getBackground("img/board/panel.png");
 	}
 	
 	/**
@@ -268,14 +232,7 @@ public class GameConstants {
 	 * @return image of score board.
 	 */
 	public static Background getScoreboardImage(String color) {
-		InputStream input = getFile("img/board/scoreboard_" + color + ".png");
-		Background bg = new Background(new BackgroundImage(new Image(input), null, null, null, null));
-		try {
-			input.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		return bg;
+		return ImageRegistry.getBackground("img/board/scoreboard_" + color + ".png");
 	}
 	
 	/**
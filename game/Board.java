@@ -1,10 +1,8 @@
 package game;
 
 import constants.DieInstance;
-import constants.GameEndScore;
 import constants.MoveResult;
 import constants.PlayerPerspectiveFrom;
-import constants.Quadrant;
 import game_engine.GameComponentsController;
 import game_engine.Settings;
 import javafx.scene.paint.Color;
@@ -26,10 +24,16 @@ import move.RollMoves;
  */
 public class Board extends BoardMoves {
 	private GameComponentsController game;
+	// bit i set if pips[i] is highlighted.
+	private int highlightedPips;
+	// top checkers highlighted, so un-highlighting only touches what was highlighted.
+	private final Checker[] highlightedCheckers;
+	private int numHighlightedCheckers;
 	
 	public Board(GameComponentsController game) {
 		super(game);
 		this.game = game;
+		highlightedCheckers = new Checker[pips.length];
 	}
 	
 	// unhighlight both the cube homes that will be in the middle of the two half boards.
@@ -86,13 +90,30 @@ public class Board extends BoardMoves {
 	 * Un-highlight the pips and checkers.
 	 */
 	public void unhighlightPipsAndCheckers() {
-		for (int i = 0; i < pips.length; i++) {
-			pips[i].setNormalImage();
-			
-			if (!pips[i].isEmpty()) {
-				pips[i].getTopChecker().setNormalImage();
-			}
+		for (int remaining = highlightedPips; remaining != 0; remaining &= remaining-1) {
+			pips[Integer.numberOfTrailingZeros(remaining)].setNormalImage();
+		}
+		highlightedPips = 0;
+		
+		for (int i = 0; i < numHighlightedCheckers; i++) {
+			highlightedCheckers[i].setNormalImage();
+			highlightedCheckers[i] = null;
+		}
+		numHighlightedCheckers = 0;
+	}
+	
+	private void highlightPip(int pipNum) {
+		pips[pipNum].setHighlightImage();
+		highlightedPips |= 1 << pipNum;
+	}
+	
+	private void highlightTopChecker(int pipNum) {
+		Checker checker = pips[pipNum].getTopChecker();
+		for (int i = 0; i < numHighlightedCheckers; i++) {
+			if (highlightedCheckers[i] == checker) return;
 		}
+		checker.setHighlightImage();
+		highlightedCheckers[numHighlightedCheckers++] = checker;
 	}
 	
 	/**
@@ -104,7 +125,7 @@ public class Board extends BoardMoves {
 		
 		for (int i = 0; i < pips.length; i++) {
 			if (i != exceptPipNum) {
-				pips[i].setHighlightImage();
+				highlightPip(i);
 			}
 		}
 		game.getMainHome().highlight();
@@ -124,7 +145,7 @@ public class Board extends BoardMoves {
 					game.getBars().highlight(move.getFromBar());
 				// pip to home or pip to pip.
 				} else {
-					pips[aMove.getFro()].getTopChecker().setHighlightImage();
+					highlightTopChecker(aMove.getFro());
 				}
 			}
 		}
@@ -146,7 +167,7 @@ public class Board extends BoardMoves {
 					PipToPip move = (PipToPip) aMove;
 					if (move.getFromPip() == fromPip) {
 						isFromPipInMoves = true;
-						pips[move.getToPip()].setHighlightImage();
+						highlightPip(move.getToPip());
 					}
 				} else if (aMove instanceof PipToHome) {
 					PipToHome move = (PipToHome) aMove;
@@ -160,7 +181,7 @@ public class Board extends BoardMoves {
 		
 		// Highlight the selected pip's top checker.
 		// Provided the fromPip is part of the moves.
-		if (isFromPipInMoves) pips[fromPip].getTopChecker().setHighlightImage();
+		if (isFromPipInMoves) highlightTopChecker(fromPip);
 	}
 	public void highlightToPipsAndToHome(Moves moves, String fromBar) {
 		game.unhighlightAll();
@@ -172,7 +193,7 @@ public class Board extends BoardMoves {
 					BarToPip move = (BarToPip) aMove;
 					if (move.getFromBar() == parseColor(fromBar)) {
 						isFromBarInMoves = true;
-						pips[move.getToPip()].setHighlightImage();
+						highlightPip(move.getToPip());
 					}
 				}
 			}
@@ -277,6 +298,7 @@ public class Board extends BoardMoves {
 		switch (moveResult) {
 			case MOVED_TO_PIP:
 				pips[toPip].push(pips[fromPip].pop());
+				state.movePipToPip(fromPip, toPip);
 				pips[toPip].drawCheckers();
 				pips[fromPip].drawCheckers();
 				break;
@@ -289,54 +311,8 @@ public class Board extends BoardMoves {
 	}
 	
 	// calculate the game score at game end based on rules.
+	// i.e. single, gammon or backgammon, see getGameScore() of BoardState.
 	public int getGameScore(Color loserColor) {
-		GameEndScore score = GameEndScore.SINGLE;
-
-		// if loser has checkers bore off.
-		if (isCheckersInHome(loserColor))
-			score = GameEndScore.SINGLE;
-		// if loser has no checkers bore off, and
-		// furthest checker is in opponent's inner board or bar.
-		else if (isCheckersInBar(loserColor) || isCheckersInWinnerInnerBoard(loserColor))
-			score = GameEndScore.BACKGAMMON;
-		// if loser has no checkers bore off, and
-		// furthest checker is in outer board or their inner board.
-		else if (isCheckersInOuterBoard(loserColor) || isCheckersInInnerBoard(loserColor))
-			score = GameEndScore.GAMMON;
-		
-		return score.ordinal();
-	}
-	
-	// checks if loser's checkers are in the outer board.
-	private boolean isCheckersInOuterBoard(Color loserColor) {
-		if (Settings.getWhiteHomeQuadrant() == Quadrant.BOTTOM_RIGHT || Settings.getWhiteHomeQuadrant() == Quadrant.TOP_RIGHT) {
-			return quad2.hasCheckerColor(loserColor) || quad3.hasCheckerColor(loserColor);
-		} else {
-			return quad1.hasCheckerColor(loserColor) || quad4.hasCheckerColor(loserColor);
-		}
-	}
-	
-	// checks if loser's checkers are in their inner board.
-	private boolean isCheckersInInnerBoard(Color loserColor) {
-		return getHomeQuadOfPlayer(loserColor).hasCheckerColor(loserColor);
-	}
-	
-	// checks if loser's checkers are in their home.
-	private boolean isCheckersInHome(Color loserColor) {
-		return !game.getMainHome().getHome(loserColor).isEmpty();
-	}
-	
-	// checks if loser's checkers are in winner's inner board.
-	private boolean isCheckersInWinnerInnerBoard(Color loserColor) {
-		if (loserColor == Settings.getBottomPerspectiveColor()) {
-			return getHomeQuadOfPlayer(Settings.getTopPerspectiveColor()).hasCheckerColor(loserColor);
-		} else {
-			return getHomeQuadOfPlayer(Settings.getBottomPerspectiveColor()).hasCheckerColor(loserColor);
-		}
-	}
-	
-	// checks if loser has checkers in his bar.
-	private boolean isCheckersInBar(Color loserColor) {
-		return !game.getBars().getBar(loserColor).isEmpty();
+		return state.getGameScore(getSide(loserColor));
 	}
 }
@@ -8,6 +8,7 @@ import game_engine.Player;
 import game_engine.Settings;
 import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
+import model.BoardState;
 
 /**
  * This class represents the Board object in Backgammon from the perspective of its components.
@@ -28,6 +29,7 @@ public class BoardComponents extends HBox {
 	protected BoardQuadrant quad1, quad2, quad3, quad4, whiteQuad, blackQuad;
 	protected LinkedList<BoardQuadrant> quads;
 	protected Dices leftDices, rightDices, dices;
+	protected BoardState state;
 	private boolean isLabelsFlipped;
 	
 	/**
@@ -39,6 +41,7 @@ public class BoardComponents extends HBox {
 	public BoardComponents() {
 		super();
 		isLabelsFlipped = false;
+		state = new BoardState();
 		quads = new LinkedList<>();
 		leftBoard = new HalfBoard();
 		rightBoard = new HalfBoard();
@@ -529,28 +532,15 @@ public class BoardComponents extends HBox {
 	}
 	
 	// Check if quadrant of pCurrent's home has all the checkers.
-	// It checks all quadrants for any pCurrent's checkers,
-	// if there is, then all of player's checkers are not in home board.
+	// i.e. none of pCurrent's checkers in the other quadrants.
 	public boolean isAllCheckersInHomeBoard(Player pCurrent) {
-		BoardQuadrant pQuad = getHomeQuadOfPlayer(pCurrent.getColor());
-		boolean hasAllCheckers = true;
-		
-		if (Settings.getWhiteHomeQuadrant() == Quadrant.BOTTOM_RIGHT) {
-			Color pColor = pCurrent.getColor();
-			for (BoardQuadrant quad : quads) {
-				if (!quad.equals(pQuad) && quad.hasCheckerColor(pColor)) {
-					hasAllCheckers = false;
-					break;
-				}
-			}
-		}
-		return hasAllCheckers;
+		return state.isAllCheckersInHomeBoard(pCurrent.getSide());
 	}
 	
 	// if it is able to bear off, but there are better pips to bear off, then we bear off those first.
-	// better pips to bear off = pips of the diceResult.
+	// better pips to bear off = pips further away from home than fromPip.
 	protected boolean hasBetterPipsToBearOff(Player pCurrent, int fromPip, int diceResult) {
-		return getHomeQuadOfPlayer(pCurrent.getColor()).hasBetterPipsToBearOff(pCurrent, fromPip, diceResult);
+		return state.hasCheckersBehind(pCurrent.getSide(), fromPip);
 	}
 	
 	// get home quad of the player, based on player's color.
@@ -633,6 +623,14 @@ public class BoardComponents extends HBox {
 		return pips;
 	}
 	
+	/**
+	 * Returns the headless board state that the pips are a view of.
+	 * @return the board state instance variable.
+	 */
+	public BoardState getBoardState() {
+		return state;
+	}
+	
 	private void initDices() {
 		/** IGNORE THIS ATM, currently considering to use red for all,
 		 * then when its the player's turn then change the dice to that
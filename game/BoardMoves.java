@@ -11,7 +11,9 @@ import game_engine.GameComponentsController;
 import game_engine.Player;
 import game_engine.Settings;
 import interfaces.ColorParser;
+import interfaces.ColorPerspectiveParser;
 import javafx.scene.paint.Color;
+import model.BoardState;
 import move.BarToPip;
 import move.Move;
 import move.Moves;
@@ -22,6 +24,7 @@ import move.SumMove;
 
 /**
  * This class represents the Board object in Backgammon from the perspective of moves calculation.
+ * Moves are calculated against the BoardState, the pips are only its view.
  * 
  * @teamname TeaCup
  * @author Bryan Sng, 17205050
@@ -29,7 +32,7 @@ import move.SumMove;
  * @author Braddy Yeoh, 17357376
  *
  */
-public class BoardMoves extends BoardComponents implements ColorParser {
+public class BoardMoves extends BoardComponents implements ColorParser, ColorPerspectiveParser {
 	private GameComponentsController game;
 	
 	public BoardMoves(GameComponentsController game) {
@@ -37,6 +40,27 @@ public class BoardMoves extends BoardComponents implements ColorParser {
 		this.game = game;
 	}
 	
+	/**
+	 * Rebuilds the board state from the checkers in the pips, bars and homes.
+	 * Used after the checkers storers are initialized directly instead of through moves,
+	 * i.e. game start, reset, /cheat.
+	 */
+	public void syncBoardState() {
+		state.clear();
+		for (int i = 0; i < pips.length; i++) {
+			if (!pips[i].isEmpty()) {
+				state.setCheckers(i, getSide(pips[i].getTopChecker().getColor()), pips[i].size());
+			}
+		}
+		
+		Color bottom = Settings.getBottomPerspectiveColor();
+		Color top = Settings.getTopPerspectiveColor();
+		state.setBar(BoardState.BOTTOM, game.getBars().getBar(bottom).size());
+		state.setBar(BoardState.TOP, game.getBars().getBar(top).size());
+		state.setHome(BoardState.BOTTOM, game.getMainHome().getHome(bottom).size());
+		state.setHome(BoardState.TOP, game.getMainHome().getHome(top).size());
+	}
+	
 	// With the sumMove and intermediate Move,
 	// we can calculate the difference in dice result, 
 	// then find the remaining RollMoves with that dice result.
@@ -164,11 +188,11 @@ public class BoardMoves extends BoardComponents implements ColorParser {
 	 */
 	public Moves calculateMoves(DieResults rollResult, Player pCurrent) {
 		if (GameConstants.FORCE_DOUBLE_INSTANCE) {
-			rollResult = dices.getDoubleRoll(DieInstance.DOUBLE);
+			rollResult = dices.getDoubleRoll();
 		} else if (GameConstants.FORCE_DOUBLE_ONES) {
-			rollResult = dices.getDoubleOnes(DieInstance.DOUBLE);
+			rollResult = dices.getDoubleOnes();
 		} else if (GameConstants.FORCE_DOUBLE_TWOS) {
-			rollResult = dices.getDoubleTwos(DieInstance.DOUBLE);
+			rollResult = dices.getDoubleTwos();
 		}
 		
 		// calculate rollmoves of normal moves.
@@ -297,7 +321,7 @@ public class BoardMoves extends BoardComponents implements ColorParser {
 	}
 	
 	private boolean hasCheckersInBar(Player pCurrent) {
-		return !game.getBars().getBar(pCurrent.getColor()).isEmpty();
+		return state.getBar(pCurrent.getSide()) > 0;
 	}
 	
 	private boolean addedAsBarToPipMove(Moves moves, RollMoves rollMoves, Player pCurrent, int diceResult, boolean isSumMove) {
@@ -411,7 +435,7 @@ public class BoardMoves extends BoardComponents implements ColorParser {
 	private boolean canToHome(Player pCurrent, int fromPip, int diceResult, int toPip, boolean isSumMove) {
 		boolean canToHome = false;
 		
-		boolean isCheckersInHomeBoard = isAllCheckersInHomeBoard(pCurrent) && !game.getBars().isCheckersInBar(pCurrent);
+		boolean isCheckersInHomeBoard = state.canBearOff(pCurrent.getSide());
 		boolean isValidMove = isPipToHomeMove(fromPip, pCurrent) == MoveResult.MOVED_TO_HOME_FROM_PIP;
 		boolean hasBetterPipsToBearOff = hasBetterPipsToBearOff(pCurrent, fromPip, diceResult);
 		
@@ -440,12 +464,12 @@ public class BoardMoves extends BoardComponents implements ColorParser {
 	public MoveResult isBarToPipMove(Color fromBar, int toPip) {
 		MoveResult moveResult = MoveResult.NOT_MOVED;
 		
-		Bar bar = game.getBars().getBar(fromBar);
-		if (!bar.isEmpty()) {
-			if (bar.topCheckerColorEquals(pips[toPip])) {
+		int side = getSide(fromBar);
+		if (state.getBar(side) > 0) {
+			if (state.isEmpty(toPip) || state.getOwner(toPip) == side) {
 				moveResult = MoveResult.MOVED_FROM_BAR;
 			} else {
-				if (pips[toPip].size() == 1) {
+				if (state.size(toPip) == 1) {
 					moveResult = MoveResult.MOVE_TO_BAR;
 				}
 			}
@@ -457,7 +481,7 @@ public class BoardMoves extends BoardComponents implements ColorParser {
 	
 	public MoveResult isPipToHomeMove(int fromPip, Player pCurrent) {
 		MoveResult moveResult = MoveResult.NOT_MOVED;
-		if (!pips[fromPip].isEmpty()) {
+		if (!state.isEmpty(fromPip)) {
 			if (isPipColorEqualsPlayerColor(fromPip, pCurrent)) {
 				moveResult = MoveResult.MOVED_TO_HOME_FROM_PIP;
 			}
@@ -517,12 +541,12 @@ public class BoardMoves extends BoardComponents implements ColorParser {
 	protected MoveResult isPipToPipMove(int fromPip, int toPip, Player pCurrent) {
 		MoveResult moveResult = MoveResult.NOT_MOVED;
 		
-		if (!pips[fromPip].isEmpty()) {
+		if (!state.isEmpty(fromPip)) {
 			if (isPipColorEqualsPlayerColor(fromPip, pCurrent)) {
-				if (pips[fromPip].topCheckerColorEquals(pips[toPip])) {
+				if (state.isEmpty(toPip) || state.getOwner(toPip) == state.getOwner(fromPip)) {
 					moveResult = MoveResult.MOVED_TO_PIP;
 				} else {
-					if (pips[toPip].size() == 1) {
+					if (state.size(toPip) == 1) {
 						moveResult = MoveResult.MOVE_TO_BAR;
 					}
 				}
@@ -652,8 +676,8 @@ public class BoardMoves extends BoardComponents implements ColorParser {
 	 */
 	private boolean isPipColorEqualsPlayerColor(int pipNum, Player player) {
 		boolean isFromPipColorEqualsPlayerColor = true;
-		if (player != null && !pips[pipNum].isEmpty()) {
-			isFromPipColorEqualsPlayerColor = pips[pipNum].topCheckerColorEquals(player.getColor());
+		if (player != null && !state.isEmpty(pipNum)) {
+			isFromPipColorEqualsPlayerColor = state.getOwner(pipNum) == player.getSide();
 		}
 		return isFromPipColorEqualsPlayerColor;
 	}
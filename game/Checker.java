@@ -1,7 +1,5 @@
 package game;
 
-import java.io.IOException;
-import java.io.InputStream;
 import interfaces.ColorParser;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -36,26 +34,14 @@ public class Checker extends ImageView implements ColorParser, Touchable {
 	}
 	
 	/**
-	 * - Get the image of the checker.
+	 * - Get the image of the checker, shared by all checkers of its color.
 	 * - Initialize img and img_highlighted instance variable.
 	 */
 	private void initImg(boolean isIcon) {
 		String colorString = parseColor(color);
 		if (isIcon) colorString += "_icon";
-		InputStream input1 = getClass().getResourceAsStream("img/checkers/" + colorString + "_checkers.png");
-		InputStream input2 = getClass().getResourceAsStream("img/checkers/" + colorString + "_checkers_highlighted.png");
-		img = new Image(input1);
-		imgHighlighted = new Image(input2);
-		try {
-			input1.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		try {
-			input2.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		img = ImageRegistry.getImage("img/checkers/" + colorString + "_checkers.png");
+		imgHighlighted = ImageRegistry.getImage("img/checkers/" + colorString + "_checkers_highlighted.png");
 		setNormalImage();
 	}
 	
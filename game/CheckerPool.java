@@ -0,0 +1,58 @@
+package game;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import constants.GameConstants;
+import javafx.scene.paint.Color;
+
+/**
+ * This class represents the pool of checkers of the board, so the checker nodes are created once
+ * and only moved between the pips, bars and homes.
+ * i.e. resetting the board takes its 30 checkers back from the pool instead of creating 30 new ones.
+ *
+ * Checkers are pooled per color, the pool grows to the most checkers of a color ever off the board at once.
+ * It is only used on the FX application thread, like the nodes it holds.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class CheckerPool {
+	private static final Map<Color, ArrayDeque<Checker>> FREE = new HashMap<>();
+	private static int created = 0;
+	
+	/**
+	 * Returns a free checker of the color, as a new checker would be, creating one if there is none.
+	 * @param color color of the checker.
+	 * @return the checker.
+	 */
+	public static Checker acquire(Color color) {
+		ArrayDeque<Checker> free = FREE.get(color);
+		Checker checker = free != null ? free.poll() : null;
+		if (checker == null) {
+			created++;
+			return new Checker(color);
+		}
+		checker.setNormalImage();
+		checker.setTranslateY(0);
+		checker.setViewOrder(0);
+		return checker;
+	}
+	
+	/**
+	 * Gives a checker back to the pool, it must already be removed from its storer.
+	 * @param checker the checker.
+	 */
+	public static void release(Checker checker) {
+		FREE.computeIfAbsent(checker.getColor(), color -> new ArrayDeque<>(GameConstants.MAX_CHECKERS_PER_CHECKERS_STORER)).push(checker);
+	}
+	
+	// number of checkers created by the pool so far.
+	public static int getCreated() {
+		return created;
+	}
+}
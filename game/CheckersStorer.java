@@ -1,16 +1,20 @@
 package game;
 
 import constants.GameConstants;
-import javafx.scene.image.ImageView;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
 import javafx.scene.paint.Color;
 
 public class CheckersStorer extends TouchablesStorer {
+	// true if the stack changed since the checkers were last positioned.
+	private boolean isDirty = false;
+	
 	public CheckersStorer() {
 		super();
 	}
 	
 	/**
-	 * Initialize num number of checkers with the checkerColor and pushes them to the stack.
+	 * Takes num number of checkers with the checkerColor from the CheckerPool and pushes them to the stack.
 	 * Then draw the checkers (i.e. add them to the point object that will be drawn on the stage).
 	 * @param num number of checkers.
 	 * @param checkerColor color of the checkers.
@@ -19,7 +23,7 @@ public class CheckersStorer extends TouchablesStorer {
 		removeCheckers();
 		
 		for (int i = 0; i < num; i++) {
-			push(new Checker(checkerColor));
+			push(CheckerPool.acquire(checkerColor));
 		}
 		drawCheckers();
 	}
@@ -27,36 +31,59 @@ public class CheckersStorer extends TouchablesStorer {
 	/**
 	 * Handles how the checkers are positioned in the point object.
 	 * (i.e. how it will be drawn eventually on the stage).
+	 * 
+	 * The storer is only marked as changed here, the checkers are positioned in the next layout pass,
+	 * so a storer changed many times before the next pulse is drawn once.
 	 */
 	public void drawCheckers() {
-		// Clear the point object of any children.
-		getChildren().clear();
+		isDirty = true;
+		requestLayout();
+	}
+	
+	@Override
+	protected void layoutChildren() {
+		if (isDirty) {
+			isDirty = false;
+			patchCheckers();
+		}
+		super.layoutChildren();
+	}
+	
+	@Override
+	public void drawCube() {
+		isDirty = false;
+		super.drawCube();
+	}
+	
+	/**
+	 * Patches the children to the checkers in the stack, topmost checker first.
+	 * The stack only changes at the top, so the checkers below the changes stay as children,
+	 * only the checkers popped or pushed are removed or added.
+	 */
+	private void patchCheckers() {
+		ObservableList<Node> children = getChildren();
+		int numCheckers = (top() instanceof Checker) ? size() : 0;
+		
+		// number of checkers from the bottom that are already children, in order.
+		int kept = 0;
+		while (kept < numCheckers && kept < children.size() && children.get(children.size()-1-kept) == get(kept)) {
+			kept++;
+		}
+		children.remove(0, children.size()-kept);
+		for (int i = kept; i < numCheckers; i++) {
+			children.add(0, (Checker) get(i));
+		}
 		
 		// If total height of checkers greater than point, we overlap the checkers.
-		int numCheckers = size();
+		// i.e. we basically add an y offset to the checkers so that they overlap each other.
+		// Else, we simply add them to the point without any offsets.
 		double slack = GameConstants.getPipSize().getHeight() * 0.2;
 		double diff = numCheckers * GameConstants.getCheckerSize().getHeight() - GameConstants.getPipSize().getHeight() + slack;
-		
-		if (top() instanceof Checker) {
-			// If overlap, we basically add an y offset to the checkers so that they overlap each other.
-			// Else, we simply add them to the point without any offsets.
-			if (diff >= 0) {
-				int i = 0;
-				double yOffset = (diff / numCheckers);
-				for (Touchable chk : this) {
-					ImageView checker = (Checker) chk;
-					checker.setTranslateY(yOffset*(numCheckers-i-1));
-					checker.setViewOrder(i);	// lower order - higher z-index, i.e. order 1 overlaps order 2.
-					getChildren().add(checker);
-					i++;
-				}
-			} else {
-				for (Touchable chk : this) {
-					ImageView checker = (Checker) chk;
-					checker.setTranslateY(0);
-					getChildren().add(checker);
-				}
-			}
+		double yOffset = diff >= 0 ? (diff / numCheckers) : 0;
+		for (int i = 0; i < numCheckers; i++) {
+			Checker checker = (Checker) get(numCheckers-i-1);
+			checker.setTranslateY(yOffset*(numCheckers-i-1));
+			checker.setViewOrder(i);	// lower order - higher z-index, i.e. order 1 overlaps order 2.
 		}
 	}
 	
@@ -83,11 +110,14 @@ public class CheckersStorer extends TouchablesStorer {
 	}
 	
 	/**
-	 * Removes all checkers in the storer (pop off stack).
+	 * Removes all checkers in the storer (pop off stack), giving them back to the CheckerPool.
 	 */
 	public void removeCheckers() {
 		getChildren().clear();
-		clear();
+		while (!isEmpty()) {
+			Touchable touchable = pop();
+			if (touchable instanceof Checker) CheckerPool.release((Checker) touchable);
+		}
 		drawCheckers();
 	}
 }
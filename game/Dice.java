@@ -1,13 +1,11 @@
 package game;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Random;
 import interfaces.ColorParser;
 import javafx.scene.effect.ColorAdjust;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.paint.Color;
+import model.DiceSource;
 
 /**
  * This class represents the dice object in Backgammon game.
@@ -56,26 +54,10 @@ public class Dice extends ImageView implements ColorParser {
 	private void initImages() {
 		String colorString = parseColor(color);
 		for (int i = 0; i < dices.length; i++) {
-			try {
-				InputStream input = getClass().getResourceAsStream("img/dices/" + colorString + "/" + (i+1) + ".png");
-				dices[i] = new Image(input);
-				input.close();
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
+			dices[i] = ImageRegistry.getImage("img/dices/" + colorString + "/" + (i+1) + ".png");
 		}
 	}
 	
-	/**
-	 * Get the roll dice result (i.e. number from 1 to 6).
-	 * @return the roll dice result.
-	 */
-	public int roll() {
-		Random rand = new Random();
-		int res = rand.nextInt(MAX_DICE_SIZE) + 1;
-		return res;
-	}
-	
 	/**
 	 * Set the image of dice based on result.
 	 * i.e. If result is 1, show image with dice at 1.
@@ -94,8 +76,7 @@ public class Dice extends ImageView implements ColorParser {
 	 */
 	private void rotate() {
 		// rotation range of 15 to -15.
-		Random rand = new Random();
-		int rotation = rand.nextInt(30) - 15 + 1;
+		int rotation = DiceSource.getCosmetic().nextInt(30) - 15 + 1;
 		setRotate(rotation);
 	}
 	
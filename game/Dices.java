@@ -6,6 +6,8 @@ import interfaces.ColorParser;
 import javafx.geometry.Pos;
 import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
+import model.DiceSource;
+import model.Roll;
 
 /**
  * This class represents a HBox of dices.
@@ -19,6 +21,7 @@ import javafx.scene.paint.Color;
 public class Dices extends HBox implements ColorParser {
 	private Dice[] dices;
 	private Color color;
+	private DiceSource source;
 	
 	/**
 	 * Default Constructor
@@ -39,6 +42,7 @@ public class Dices extends HBox implements ColorParser {
 	public Dices(Color color, int numberOfDices) {
 		super();
 		this.color = color;
+		source = DiceSource.getGameDice();
 		dices = new Dice[numberOfDices*2];	// times 2 to leave space for double die instances.
 		setAlignment(Pos.CENTER);
 		setSpacing(GameConstants.getDiceSize().getWidth() / 4.0);
@@ -67,60 +71,38 @@ public class Dices extends HBox implements ColorParser {
 		}
 	}
 	
+	// the stream the dice roll from, the game's dice by default.
+	public void setSource(DiceSource source) {
+		this.source = source;
+	}
+	
 	/**
 	 * Returns an array of integers, containing the result of each dice roll.
+	 * Doubles are drawn as four dices.
 	 * @return result of each dice roll in terms of an array of integers.
 	 */
 	public DieResults getTotalRoll(DieInstance instance) {
-		int numDices = getNumDices(instance);
-		DieResults res = new DieResults();
-		for (int i = 0; i < numDices; i++) {
-			res.add(dices[i].draw(dices[i].roll()));
-		}
-		drawDices(instance);
-		
-		if (isDouble(res)) {
-			res = addDoubleDie(res);
-		}
-		return res;
-	}
-	
-	/**
-	 * Checks if result of die roll is a double instance.
-	 * @param res, result of die roll.
-	 * @return boolean value indicating if so.
-	 */
-	private boolean isDouble(DieResults res) {
-		boolean isDouble = true;
-		// can't be double if only 1 dice.
-		if (res.size() > 1) {
-			Dice prev = res.getFirst();
-			for (Dice curr : res) {
-				if (!prev.equalsValueOf(curr)) {
-					isDouble = false;
-					break;
-				}
-				prev = curr;
-			}
-		} else {
-			isDouble = false;
+		if (getNumDices(instance) == 1) {
+			DieResults res = new DieResults();
+			res.add(dices[0].draw(source.rollDie()));
+			drawDices(instance);
+			return res;
 		}
-		return isDouble;
+		return draw(Roll.roll(source));
 	}
 	
 	/**
-	 * Doubles the current cube objects in dices as well as the roll die result.
-	 * @param res the roll die result.
-	 * @return double the roll die result.
+	 * Draws the roll, one dice per move of the roll, i.e. four for doubles.
+	 * @param roll the roll.
+	 * @return the dices drawn.
 	 */
-	private DieResults addDoubleDie(DieResults res) {
-		int numberOfDices = getNumDices(DieInstance.DOUBLE);
-		DieResults newRes = new DieResults();
-		for (int i = 0; i < numberOfDices; i++) {
-			newRes.add(dices[i].draw(res.getFirst().getDiceResult()));
+	public DieResults draw(Roll roll) {
+		DieResults res = new DieResults();
+		for (int i = 0; i < roll.getMoveCount(); i++) {
+			res.add(dices[i].draw(roll.getMove(i)));
 		}
-		drawDices(DieInstance.DOUBLE);
-		return newRes;
+		drawDices(roll.isDouble() ? DieInstance.DOUBLE : DieInstance.DEFAULT);
+		return res;
 	}
 	
 	/**
@@ -146,39 +128,22 @@ public class Dices extends HBox implements ColorParser {
 	
 	// Used to hard-create double rolls, added in Board's calculateMoves() method.
 	// Activated by FORCE_DOUBLE_INSTANCE constant in GameConstants.
-	public DieResults getDoubleRoll(DieInstance instance) {
-		int numberOfDices = getNumDices(instance);
-		int randomRoll = dices[0].roll();
-		DieResults res = new DieResults();
-		for (int i = 0; i < numberOfDices; i++) {
-			res.add(dices[i].draw(randomRoll));
-		}
-		drawDices(instance);
-		return res;
+	// a double draws four dice, see draw().
+	public DieResults getDoubleRoll() {
+		int randomRoll = source.rollDie();
+		return draw(Roll.of(randomRoll, randomRoll));
 	}
 	
 	// Used to hard-create double rolls of ones, added in Board's calculateMoves() method.
 	// Activated by FORCE_DOUBLE_ONES constant in GameConstants.
-	public DieResults getDoubleOnes(DieInstance instance) {
-		int numberOfDices = getNumDices(instance);
-		DieResults res = new DieResults();
-		for (int i = 0; i < numberOfDices; i++) {
-			res.add(dices[i].draw(1));
-		}
-		drawDices(instance);
-		return res;
+	public DieResults getDoubleOnes() {
+		return draw(Roll.of(1, 1));
 	}
 	
 	// Used to hard-create double rolls of ones, added in Board's calculateMoves() method.
 	// Activated by FORCE_DOUBLE_TWOS constant in GameConstants.
-	public DieResults getDoubleTwos(DieInstance instance) {
-		int numberOfDices = getNumDices(instance);
-		DieResults res = new DieResults();
-		for (int i = 0; i < numberOfDices; i++) {
-			res.add(dices[i].draw(2));
-		}
-		drawDices(instance);
-		return res;
+	public DieResults getDoubleTwos() {
+		return draw(Roll.of(2, 2));
 	}
 	
 	public void reset() {
@@ -1,10 +1,12 @@
 package game;
 
 import java.util.LinkedList;
+import model.Roll;
 
 /**
  * This class represents a linked list of Dice.
  * Used to represent the dice results in each turn.
+ * Engine code reasons about the dice with getRoll(), not the Dice nodes.
  * 
  * @teamname TeaCup
  * @author Bryan Sng, 17205050
@@ -18,6 +20,12 @@ public class DieResults extends LinkedList<Dice> {
 		super();
 	}
 	
+	// the roll of the first two dices, or null for a single dice.
+	public Roll getRoll() {
+		if (size() < 2) return null;
+		return Roll.of(getFirst().getDiceResult(), get(1).getDiceResult());
+	}
+	
 	public String toString() {
 		String s = "";
 		int i = 1;
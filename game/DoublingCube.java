@@ -1,11 +1,9 @@
 package game;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Random;
 import interfaces.ColorPerspectiveParser;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import model.DiceSource;
 
 /**
  * This class represents the doubling cube object in Backgammon game.
@@ -62,16 +60,8 @@ public class DoublingCube extends ImageView implements ColorPerspectiveParser, T
 		cubeHighlightedSides = new Image[MAX_DICE_SIZE];
 		for (int i = 0; i < cubeSides.length; i++) {
 			int side = (int) Math.pow(2.0, i+1);		// formula for 2,4,8,16,32,64.
-			try {
-				InputStream input1 = getClass().getResourceAsStream("img/double_cube/" + side + ".png");
-				InputStream input2 = getClass().getResourceAsStream("img/double_cube/" + side + "_highlighted.png");
-				cubeSides[i] = new Image(input1);
-				cubeHighlightedSides[i] = new Image(input2);
-				input1.close();
-				input2.close();
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
+			cubeSides[i] = ImageRegistry.getImage("img/double_cube/" + side + ".png");
+			cubeHighlightedSides[i] = ImageRegistry.getImage("img/double_cube/" + side + "_highlighted.png");
 		}
 	}
 	
@@ -96,8 +86,7 @@ public class DoublingCube extends ImageView implements ColorPerspectiveParser, T
 	 */
 	public void rotateOnBoard() {
 		// rotation range of 15 to -15.
-		Random rand = new Random();
-		int rotation = rand.nextInt(30) - 15 + 1;
+		int rotation = DiceSource.getCosmetic().nextInt(30) - 15 + 1;
 		setRotate(rotation);
 	}
 	
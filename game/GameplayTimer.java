@@ -136,6 +136,16 @@ public class GameplayTimer extends Label {
 		return minutes * 60;
 	}
 	
+	// seconds left of the roll timer, before the remaining time is used.
+	public long getRollTime() {
+		return rollTime;
+	}
+	
+	// seconds left of the remaining time of the match.
+	public long getRemainingTime() {
+		return remainingTime;
+	}
+	
 	// reset every match, not every game.
 	public void reset() {
 		stop();
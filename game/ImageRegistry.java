@@ -0,0 +1,73 @@
+package game;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundImage;
+
+/**
+ * This class represents the images of the game, each decoded once and shared by every node that shows it.
+ * i.e. 30 checkers share the same two images of their color, instead of decoding two each.
+ *
+ * Images are looked up by their path under /game/, e.g. "img/checkers/white_checkers.png",
+ * the path tells the kind, color and highlight of the image, the size is added for scaled images.
+ * Backgrounds of images, e.g. of the pips, are shared too, they are immutable.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class ImageRegistry {
+	private static final Map<String, Image> IMAGES = new ConcurrentHashMap<>();
+	private static final Map<String, Background> BACKGROUNDS = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the image at its own size, decoded on the first call.
+	 * @param path path of the image under /game/.
+	 * @return the shared image.
+	 */
+	public static Image getImage(String path) {
+		return IMAGES.computeIfAbsent(path, key -> load(key, 0, 0));
+	}
+
+	/**
+	 * Returns the image scaled to the size, decoded on the first call for that size.
+	 * @param path path of the image under /game/.
+	 * @param width width to scale to.
+	 * @param height height to scale to.
+	 * @return the shared image.
+	 */
+	public static Image getImage(String path, double width, double height) {
+		return IMAGES.computeIfAbsent(path + "@" + width + "x" + height, key -> load(path, width, height));
+	}
+
+	/**
+	 * Returns a background of the image at its own size.
+	 * @param path path of the image under /game/.
+	 * @return the shared background.
+	 */
+	public static Background getBackground(String path) {
+		return BACKGROUNDS.computeIfAbsent(path, key -> new Background(new BackgroundImage(getImage(key), null, null, null, null)));
+	}
+
+	private static Image load(String path, double width, double height) {
+		InputStream input = ImageRegistry.class.getResourceAsStream("/game/" + path);
+		Image image = width > 0 ? new Image(input, width, height, false, true) : new Image(input);
+		try {
+			input.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return image;
+	}
+
+	// number of images decoded so far.
+	public static int getImages() {
+		return IMAGES.size();
+	}
+}
@@ -1,14 +1,9 @@
 package game;
 
-import java.io.IOException;
-import java.io.InputStream;
-
 import constants.GameConstants;
 import interfaces.ColorParser;
 import javafx.geometry.Pos;
-import javafx.scene.image.Image;
 import javafx.scene.layout.Background;
-import javafx.scene.layout.BackgroundImage;
 import javafx.scene.paint.Color;
 
 /**
@@ -41,20 +36,8 @@ public class Pip extends CheckersStorer implements ColorParser {
 		super();
 		this.pipNum = pipNum;
 		String colorString = parseColor(color);
-		InputStream input1 = getClass().getResourceAsStream("img/board/" + colorString + "_point.png");
-		InputStream input2 = getClass().getResourceAsStream("img/board/" + colorString + "_point_highlighted.png");
-		normalBG = new Background(new BackgroundImage(new Image(input1), null, null, null, null));
-		highlightedBG = new Background(new BackgroundImage(new Image(input2), null, null, null, null));
-		try {
-			input1.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		try {
-			input2.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		normalBG = ImageRegistry.getBackground("img/board/" + colorString + "_point.png");
+		highlightedBG = ImageRegistry.getBackground("img/board/" + colorString + "_point_highlighted.png");
 		
 		setRotate(rotation);
 		setAlignment(Pos.BOTTOM_CENTER);
@@ -8,6 +8,7 @@ import javafx.scene.layout.VBox;
 
 /**
  * This class represents a stack data structure, i.e. Last-In-First-Out data structure.
+ * The elements are kept in a fixed array of the most a storer can hold, so push and pop never allocate.
  * 
  * @teamname TeaCup
  * @author Bryan Sng, 17205050
@@ -17,21 +18,12 @@ import javafx.scene.layout.VBox;
 public class Stack<E> extends VBox implements StackInterface<E>, Iterable<E> {
 	private final int MAXSIZE = GameConstants.MAX_CHECKERS_PER_CHECKERS_STORER;
 	private int size = 0;
-	private Node<E> top;
-	
-	private static class Node<E> {
-		private E data;
-		private Node<E> next;
-		
-		public Node(E d, Node<E> n) {
-			data = d;
-			next = n;
-		}
-	}
+	// elements from the bottom, elements[size-1] is the top.
+	private final Object[] elements;
 	
 	public Stack() {
 		super();
-		top = null;
+		elements = new Object[MAXSIZE+1];
 	}
 
 	@Override
@@ -47,14 +39,13 @@ public class Stack<E> extends VBox implements StackInterface<E>, Iterable<E> {
 	@Override
 	public E top() {
 		if (isEmpty()) {return null;}
-		return top.data;
+		return get(size-1);
 	}
 
 	@Override
 	public void push(E e) throws StackOverflowException {
 		if (size <= MAXSIZE) {
-			top = new Node<E>(e, top);
-			size++;
+			elements[size++] = e;
 		} else {
 			throw new StackOverflowException("MAXSIZE: " + MAXSIZE + ", but current size: " + size);
 		}
@@ -63,9 +54,8 @@ public class Stack<E> extends VBox implements StackInterface<E>, Iterable<E> {
 	@Override
 	public E pop() {
 		if (isEmpty()) {return null;}
-		E temp = top.data;
-		top = top.next;
-		size--;
+		E temp = get(--size);
+		elements[size] = null;
 		return temp;
 	}
 	
@@ -74,28 +64,30 @@ public class Stack<E> extends VBox implements StackInterface<E>, Iterable<E> {
 		while (!isEmpty())
 			pop();
 	}
+	
+	// the element at the index from the bottom, 0 is the bottom.
+	@SuppressWarnings("unchecked")
+	protected E get(int index) {
+		return (E) elements[index];
+	}
 
 	@Override
 	public Iterator<E> iterator() {
-		return new listIterator<E>();
+		return new listIterator();
 	}
 	
-	private class listIterator<T> implements Iterator<T> {
-		@SuppressWarnings("unchecked")
-		Node<T> curr = (Node<T>) top;
-		int pos = 0;
+	// iterates from the top to the bottom.
+	private class listIterator implements Iterator<E> {
+		int pos = size-1;
 
 		@Override
 		public boolean hasNext() {
-			return pos != size;
+			return pos >= 0;
 		}
 
 		@Override
-		public T next() {
-			T temp = curr.data;
-			curr = curr.next;
-			pos++;
-			return temp;
+		public E next() {
+			return get(pos--);
 		}
 	}
 }
@@ -0,0 +1,70 @@
+package game_engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import bot.BearoffDatabase;
+import bot.TwoSidedBearoffDatabase;
+
+/**
+ * This class generates the bot's bear-off databases, beside Main.
+ * It never starts JavaFX, so it can run on servers without a display.
+ * The bot memory-maps the database files on the next game, if they are in the working directory.
+ *
+ * Usage: java game_engine.BearoffMain [options]
+ * 		--file file			one-sided database file to write, default bearoff.bgdb.
+ * 		--two-sided file	two-sided database file to write, default bearoff2.bgdb.
+ * 		--checkers n		checkers a side of the two-sided database, default 6, 0 skips it.
+ * 		--threads n			number of threads of the two-sided database, default all cores.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class BearoffMain {
+	public static void main(String[] args) throws IOException, InterruptedException {
+		Path file = Paths.get(BearoffDatabase.DEFAULT_FILE);
+		Path twoSidedFile = Paths.get(TwoSidedBearoffDatabase.DEFAULT_FILE);
+		int checkers = TwoSidedBearoffDatabase.DEFAULT_CHECKERS;
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--file":
+					file = Paths.get(args[++i]);
+					break;
+				case "--two-sided":
+					twoSidedFile = Paths.get(args[++i]);
+					break;
+				case "--checkers":
+					checkers = Integer.parseInt(args[++i]);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				default:
+					System.err.println("Unknown option: " + args[i]);
+					System.exit(2);
+			}
+		}
+		if (checkers < 0 || checkers > TwoSidedBearoffDatabase.MAX_CHECKERS) {
+			System.err.println("Checkers must be 0 to " + TwoSidedBearoffDatabase.MAX_CHECKERS + ": " + checkers);
+			System.exit(2);
+		}
+
+		System.out.println("Generating the one-sided bear-off database, " + BearoffDatabase.POSITIONS + " positions.");
+		long startTime = System.nanoTime();
+		BearoffDatabase database = BearoffDatabase.generate();
+		database.save(file);
+		System.out.printf("Done in %.1f s, saved to %s.%n", (System.nanoTime() - startTime) / 1e9, file);
+
+		if (checkers == 0) return;
+		System.out.println("Generating the two-sided bear-off database, up to " + checkers + " checkers a side, on " + threads + " threads.");
+		startTime = System.nanoTime();
+		TwoSidedBearoffDatabase.generate(twoSidedFile, checkers, threads);
+		System.out.printf("Done in %.1f s, %d KB saved to %s.%n", (System.nanoTime() - startTime) / 1e9,
+				Files.size(twoSidedFile) >> 10, twoSidedFile);
+	}
+}
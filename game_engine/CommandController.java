@@ -3,6 +3,7 @@ package game_engine;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import bot.Rollout;
 import constants.GameConstants;
 import constants.MessageType;
 import constants.MoveResult;
@@ -15,6 +16,7 @@ import game.Pip;
 import interfaces.ColorParser;
 import interfaces.IndexOffset;
 import interfaces.InputValidator;
+import model.DiceSource;
 import musicplayer.MusicPlayer;
 import musicplayer.SoundEffectsPlayer;
 import javafx.animation.KeyFrame;
@@ -113,6 +115,18 @@ public class CommandController implements ColorParser, InputValidator, IndexOffs
 			runTestCommand();
 		} else if (command.equals("/cheat")) {
 			runCheatCommand();
+		} else if (command.equals("/bot")) {
+			runBotCommand(args);
+		} else if (command.equals("/rollout")) {
+			runRolloutCommand(args);
+		} else if (command.equals("/cube")) {
+			runCubeCommand();
+		} else if (command.equals("/seed")) {
+			runSeedCommand(args);
+		} else if (command.equals("/id")) {
+			runIdCommand();
+		} else if (command.equals("/position")) {
+			runPositionCommand(args);
 		/*
 		} else if (command.equals("/light")) {
 			Settings.useLightTheme();
@@ -651,6 +665,8 @@ public class CommandController implements ColorParser, InputValidator, IndexOffs
 	 * Saves game log (text on info panel) to text file.
 	 */
 	public void runSaveCommand() {
+		// so the saved game can be loaded in analysis tools.
+		runIdCommand();
 		if (infoPnl.saveToFile());
 			infoPnl.print("Game log saved to log.txt");
 	}
@@ -674,6 +690,7 @@ public class CommandController implements ColorParser, InputValidator, IndexOffs
 	/**
 	 * Command: /quit
 	 * Saves game log and prompts player to quit before quitting application.
+	 * The exit prompt closes the logs once confirmed, see MatchController.close().
 	 */
 	private void runQuitCommand() {
 		stage.fireEvent(new WindowEvent(infoPnl.getScene().getWindow(), WindowEvent.WINDOW_CLOSE_REQUEST));
@@ -711,6 +728,144 @@ public class CommandController implements ColorParser, InputValidator, IndexOffs
 		infoPnl.print(musicPlayer.getStatus(args[1]));
 	}
 	
+	/**
+	 * Command: /bot color
+	 * Command: /bot color on|off
+	 * Toggles or sets if the player of the color is played by the bot.
+	 */
+	private void runBotCommand(String[] args) {
+		if (args.length != 2 && args.length != 3) {
+			infoPnl.print("Incorrect syntax: expected /bot color [on | off].", MessageType.ERROR);
+			return;
+		}
+		
+		Player player;
+		String color = args[1].toLowerCase();
+		if (equalGameColors(color) && parseColor(color).equals(topPlayer.getColor())) {
+			player = topPlayer;
+		} else if (equalGameColors(color) && parseColor(color).equals(bottomPlayer.getColor())) {
+			player = bottomPlayer;
+		} else {
+			infoPnl.print("Incorrect syntax: expected white or black color in /bot color.", MessageType.ERROR);
+			return;
+		}
+		
+		boolean isBot = !player.isBot();
+		if (args.length == 3) {
+			if (args[2].equalsIgnoreCase("on")) {
+				isBot = true;
+			} else if (args[2].equalsIgnoreCase("off")) {
+				isBot = false;
+			} else {
+				infoPnl.print("Incorrect syntax: expected on or off in /bot color [on | off].", MessageType.ERROR);
+				return;
+			}
+		}
+		
+		player.setIsBot(isBot);
+		infoPnl.print(player.getName() + " (" + color + ") is now played by " + (isBot ? "the bot." : "a player."));
+		if (isBot) gameplay.getGameplayBot().handleTurn();
+	}
+	
+	/**
+	 * Command: /rollout [trials] [truncation]
+	 * Command: /rollout stop
+	 * Rolls out the current position in the background, or stops the rollout in progress.
+	 */
+	private void runRolloutCommand(String[] args) {
+		if (args.length == 2 && args[1].equalsIgnoreCase("stop")) {
+			gameplay.getGameplayBot().stopRollout();
+			return;
+		}
+		if (args.length > 3) {
+			infoPnl.print("Incorrect syntax: expected /rollout [trials] [truncation] or /rollout stop.", MessageType.ERROR);
+			return;
+		}
+		
+		int trials = Rollout.DEFAULT_TRIALS;
+		int truncation = Rollout.DEFAULT_TRUNCATION;
+		try {
+			if (args.length > 1) trials = Integer.parseInt(args[1]);
+			if (args.length > 2) truncation = Integer.parseInt(args[2]);
+		} catch (NumberFormatException e) {
+			infoPnl.print("Incorrect syntax: expected numbers in /rollout [trials] [truncation].", MessageType.ERROR);
+			return;
+		}
+		if (trials < 1 || truncation < 0) {
+			infoPnl.print("Incorrect syntax: expected at least 1 trial and a truncation of 0 or more plies.", MessageType.ERROR);
+			return;
+		}
+		gameplay.getGameplayBot().rollout(trials, truncation);
+	}
+	
+	/**
+	 * Command: /cube
+	 * Prints the cube decision of the player on roll, by the bot's cube engine.
+	 */
+	private void runCubeCommand() {
+		gameplay.getGameplayBot().adviseCube();
+	}
+	
+	/**
+	 * Command: /seed [n]
+	 * Prints the seed of the dice, or seeds the dice with n to replay a game.
+	 */
+	private void runSeedCommand(String[] args) {
+		DiceSource dice = DiceSource.getGameDice();
+		if (args.length == 1) {
+			infoPnl.print("Dice seed: " + dice.getSeed() + ".");
+			return;
+		}
+		if (args.length > 2) {
+			infoPnl.print("Incorrect syntax: expected /seed [number].", MessageType.ERROR);
+			return;
+		}
+		
+		long seed;
+		try {
+			seed = Long.parseLong(args[1]);
+		} catch (NumberFormatException e) {
+			infoPnl.print("Incorrect syntax: expected a number in /seed [number].", MessageType.ERROR);
+			return;
+		}
+		gameplay.setDiceSeed(seed);
+		if (gameplay.isStarted()) {
+			infoPnl.print("Dice seeded with " + seed + ", rolls from now on follow the seed.");
+		} else {
+			infoPnl.print("Dice seeded with " + seed + ", /start to replay the game.");
+		}
+	}
+	
+	/**
+	 * Command: /id
+	 * Prints the GNU Backgammon position ID and match ID of the game.
+	 */
+	private void runIdCommand() {
+		String positionId = gameplay.getPositionId();
+		String matchId = gameplay.getMatchId();
+		infoPnl.print("Position ID: " + positionId + ", Match ID: " + matchId + ", GNU Backgammon ID: " + positionId + ":" + matchId);
+	}
+	
+	/**
+	 * Command: /position id
+	 * Sets the board from a GNU Backgammon position ID, as seen by the player on roll.
+	 * A GNU Backgammon ID of the form "position:match" is accepted, the match part is ignored.
+	 */
+	private void runPositionCommand(String[] args) {
+		if (args.length != 2) {
+			infoPnl.print("Incorrect syntax: expected /position id.", MessageType.ERROR);
+			return;
+		}
+		String id = args[1].split(":")[0];
+		try {
+			gameplay.setPositionId(id);
+		} catch (IllegalArgumentException e) {
+			infoPnl.print("Invalid position ID: " + e.getMessage(), MessageType.ERROR);
+			return;
+		}
+		infoPnl.print("Board set to position " + id + ".");
+	}
+	
 	/**
 	 * Command: /cheat
 	 * Reorganizes the checkers at the checkersStorer based on assignment specification.
@@ -718,6 +873,7 @@ public class CommandController implements ColorParser, InputValidator, IndexOffs
 	private void runCheatCommand() {
 		game.removeCheckers();
 		initCheatCheckers();
+		game.syncBoardState();
 		if (gameplay.isStarted()) gameplay.recalculateMoves();
 		infoPnl.print("Cheat command ran.");
 	}
@@ -417,6 +417,8 @@ public class EventController implements ColorParser, ColorPerspectiveParser, Inp
 			Optional<ButtonType> closeResponse = exitCheck.showAndWait();
 			if (!ButtonType.OK.equals(closeResponse.get())) {
 				event.consume();
+			} else {
+				root.close();
 			}
 		});
 	}
@@ -12,10 +12,12 @@ import game.Home;
 import game.HomePanel;
 import game.Pip;
 import game.PlayerPanel;
+import interfaces.ColorPerspectiveParser;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
+import model.BoardState;
 
 /**
  * This class represents the game made up of separate components in Backgammon.
@@ -27,7 +29,7 @@ import javafx.scene.paint.Color;
  * @author Braddy Yeoh, 17357376
  *
  */
-public class GameComponentsController extends VBox {
+public class GameComponentsController extends VBox implements ColorPerspectiveParser {
 	private PlayerPanel topPlayerPnl, btmPlayerPnl;
 	private Bars bars;
 	private Board board;
@@ -80,6 +82,37 @@ public class GameComponentsController extends VBox {
 		setBackground(GameConstants.getGameImage());
 		setEffect(new DropShadow(20, 0, 0, Color.BLACK));
 		setMaxHeight(topPlayerPnl.getMinHeight() + middlePart.getHeight() + btmPlayerPnl.getMinHeight());
+		syncBoardState();
+	}
+	
+	/**
+	 * Rebuilds the board state from the checkers currently in the pips, bars and homes.
+	 */
+	public void syncBoardState() {
+		board.syncBoardState();
+	}
+	
+	/**
+	 * Redraws the pips, bars and homes as a view of the given board state.
+	 * The board's own state becomes a copy of it.
+	 * @param newState the board state to draw.
+	 */
+	public void drawBoardState(BoardState newState) {
+		Pip[] pips = board.getPips();
+		for (int i = 0; i < pips.length; i++) {
+			if (newState.isEmpty(i)) {
+				pips[i].removeCheckers();
+			} else {
+				pips[i].initCheckers(newState.size(i), getColor(newState.getOwner(i)));
+			}
+		}
+		
+		for (int side = BoardState.BOTTOM; side <= BoardState.TOP; side++) {
+			Color color = getColor(side);
+			bars.getBar(color).initCheckers(newState.getBar(side), color);
+			mainHome.getHome(color).initCheckers(newState.getHome(side), color);
+		}
+		board.getBoardState().copyFrom(newState);
 	}
 	
 	/**
@@ -146,6 +179,7 @@ public class GameComponentsController extends VBox {
 		// so this is actually not needed, but is left here just in case.
 		if (!pips[fro].isEmpty()) {
 			bar.push(pips[fro].pop());
+			board.getBoardState().movePipToBar(fro);
 			moveResult = MoveResult.MOVED_TO_BAR;
 			
 			pips[fro].drawCheckers();
@@ -170,6 +204,7 @@ public class GameComponentsController extends VBox {
 				Pip[] pips = board.getPips();
 				Bar bar = getBars().getBar(fromBar);
 				pips[toPip].push(bar.pop());
+				board.getBoardState().moveBarToPip(getSide(fromBar), toPip);
 				pips[toPip].drawCheckers();
 				bar.drawCheckers();
 				break;
@@ -195,6 +230,7 @@ public class GameComponentsController extends VBox {
 				Pip[] pips = board.getPips();
 				Home home = mainHome.getHome(pips[fromPip].getTopChecker().getColor());
 				home.push(pips[fromPip].pop());
+				board.getBoardState().movePipToHome(fromPip);
 				
 				pips[fromPip].drawCheckers();
 				home.drawCheckers();
@@ -218,6 +254,7 @@ public class GameComponentsController extends VBox {
 		if (!bar.isEmpty()) {
 			Home home = mainHome.getHome(bar.getTopChecker().getColor());
 			home.push(bar.pop());
+			board.getBoardState().moveBarToHome(getSide(fromBar));
 			moveResult = MoveResult.MOVED_TO_HOME_FROM_BAR;
 
 			bar.drawCheckers();
@@ -289,6 +326,8 @@ public class GameComponentsController extends VBox {
 		// remove from homes.
 		mainHome.getHome(Settings.getTopPerspectiveColor()).removeCheckers();
 		mainHome.getHome(Settings.getBottomPerspectiveColor()).removeCheckers();
+		
+		board.getBoardState().clear();
 	}
 
 	/**
@@ -302,6 +341,7 @@ public class GameComponentsController extends VBox {
 		bars.reset();
 		topPlayerPnl.reset();
 		btmPlayerPnl.reset();
+		syncBoardState();
 	}
 	// used exclusively to reset after each match, not each game.
 	public void resetTimers() {
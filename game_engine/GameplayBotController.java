@@ -0,0 +1,420 @@
+package game_engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import bot.BearoffDatabase;
+import bot.BearoffEvaluator;
+import bot.CubeEngine;
+import bot.Evaluator;
+import bot.ExpectiminimaxBot;
+import bot.HeuristicEvaluator;
+import bot.NeuralEvaluator;
+import bot.NeuralNetwork;
+import bot.ParallelSearch;
+import bot.Rollout;
+import bot.Search;
+import bot.TranspositionTable;
+import bot.TwoSidedBearoffDatabase;
+import constants.MessageType;
+import game.DieResults;
+import game.GameplayTimer;
+import interfaces.ColorParser;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.util.Duration;
+import model.BoardState;
+import model.MatchState;
+import model.Roll;
+import move.Move;
+import move.MoveGenerator;
+import move.RollMoves;
+import ui.InfoPanel;
+
+/**
+ * This class handles the turns of players played by the bot.
+ * Sub-controller of GameplayController.
+ *
+ * The bot searches on a background thread with a copy of the board state,
+ * split between all the cores by ParallelSearch,
+ * then plays its moves through /move commands on the JavaFX application thread,
+ * same as a player would, so all the gameplay rules and effects still apply.
+ *
+ * Positions are evaluated by the neural network if its weight file is in the working directory,
+ * else by the hand-tuned HeuristicEvaluator.
+ * Bear-offs are looked up in the bear-off databases instead, if their files are in the working directory.
+ *
+ * Its time budget per move is taken from the player's GameplayTimer,
+ * i.e. the roll timer while it lasts, else a slice of the remaining time.
+ *
+ * It doubles, takes and passes by the CubeEngine, also on the background thread,
+ * and gives the same decision as advice for /cube.
+ *
+ * It also rolls out positions for /rollout, on its own background threads,
+ * the results so far are printed on the JavaFX application thread as they come.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class GameplayBotController implements ColorParser {
+	// in milliseconds.
+	private static final long MIN_THINK_TIME = 250;
+	private static final long MAX_THINK_TIME = 3000;
+	private static final long MOVE_DELAY = 600;
+	// in seconds.
+	private static final long ROLL_TIME_MARGIN = 2;
+	private static final long REMAINING_TIME_SLICE = 60;
+	// transposition table shared by the bot's threads.
+	private static final int TABLE_SIZE_MB = TranspositionTable.DEFAULT_SIZE_MB;
+
+	private Search bot;
+	private CubeEngine cube;
+	private TranspositionTable table;
+	private ExecutorService executor;
+	private Rollout rollout;
+	private ExecutorService rolloutExecutor;
+	// read by the rollout thread.
+	private volatile int rollouts;
+	private boolean isRollingOut;
+	private DieResults rollResult;
+	private Timeline movesTl;
+	// read by the bot thread.
+	private volatile int turn;
+
+	private CommandController cmd;
+	private GameComponentsController game;
+	private GameplayController gameplay;
+	private InfoPanel infoPnl;
+
+	public GameplayBotController(GameComponentsController game, GameplayController gameplay, InfoPanel infoPnl) {
+		this.game = game;
+		this.gameplay = gameplay;
+		this.infoPnl = infoPnl;
+		table = new TranspositionTable(TABLE_SIZE_MB);
+		Supplier<Evaluator> evaluators = getEvaluators();
+		int threads = Runtime.getRuntime().availableProcessors();
+		bot = new ParallelSearch(evaluators, ExpectiminimaxBot.DEFAULT_MAX_DEPTH, threads, table);
+		cube = new CubeEngine(evaluators.get());
+		rollout = new Rollout(evaluators, threads);
+		executor = newExecutor("bot");
+		rolloutExecutor = newExecutor("rollout");
+		reset();
+	}
+
+	private static ExecutorService newExecutor(String name) {
+		return Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	// the neural network's evaluators if its weights can be loaded, else the heuristic ones,
+	// with bear-offs looked up in the bear-off databases that can be loaded.
+	private Supplier<Evaluator> getEvaluators() {
+		Supplier<Evaluator> evaluators = HeuristicEvaluator::new;
+		Path path = Paths.get(NeuralNetwork.DEFAULT_FILE);
+		if (Files.isRegularFile(path)) {
+			try {
+				NeuralNetwork net = NeuralNetwork.load(path);
+				evaluators = () -> new NeuralEvaluator(net);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+
+		BearoffDatabase database = null;
+		path = Paths.get(BearoffDatabase.DEFAULT_FILE);
+		if (Files.isRegularFile(path)) {
+			try {
+				database = BearoffDatabase.load(path);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		TwoSidedBearoffDatabase twoSided = null;
+		path = Paths.get(TwoSidedBearoffDatabase.DEFAULT_FILE);
+		if (Files.isRegularFile(path)) {
+			try {
+				twoSided = TwoSidedBearoffDatabase.load(path);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		if (database != null || twoSided != null) {
+			BearoffDatabase oneSided = database;
+			TwoSidedBearoffDatabase exact = twoSided;
+			Supplier<Evaluator> others = evaluators;
+			evaluators = () -> new BearoffEvaluator(oneSided, exact, others.get());
+		}
+		return evaluators;
+	}
+
+	// stops any search, moves or rollout in progress.
+	public void reset() {
+		turn++;
+		bot.stop();
+		// the rollout of the last position is dropped, so /rollout is free again.
+		rollouts++;
+		isRollingOut = false;
+		stopRollout();
+		rollResult = null;
+		if (movesTl != null) movesTl.stop();
+	}
+
+	public void setCommandController(CommandController cmd) {
+		this.cmd = cmd;
+	}
+
+	/**
+	 * Called once the current player has rolled and its moves are calculated.
+	 * @param rollResult the roll dice result.
+	 */
+	public void handleRoll(DieResults rollResult) {
+		this.rollResult = rollResult;
+		handleTurn();
+	}
+
+	/**
+	 * Acts for the current player if it is a bot,
+	 * i.e. takes or passes a double, doubles or rolls, or searches and plays its moves.
+	 * Every action is run later, so that the command that called this finishes first.
+	 */
+	public void handleTurn() {
+		Player pCurrent = gameplay.getCurrent();
+		if (!gameplay.isStarted() || pCurrent == null || !pCurrent.isBot() || gameplay.isInTransition()) return;
+
+		int theTurn = ++turn;
+		if (gameplay.isDoubling()) {
+			// the proposer is on roll, the decision is from its side.
+			BoardState state = game.getBoard().getBoardState().copy();
+			int side = gameplay.getOpponent().getSide();
+			MatchState match = gameplay.getMatchState();
+			executor.execute(() -> {
+				CubeEngine.Decision decision = cube.decide(state, side, match);
+				Platform.runLater(() -> {
+					if (!isTurn(theTurn, pCurrent) || !gameplay.isDoubling()) return;
+					infoPnl.print(pCurrent.getName() + "'s cube: " + decision, MessageType.DEBUG);
+					cmd.runCommand(decision.isTake() ? "/accept" : "/decline");
+				});
+			});
+		} else if (!gameplay.isRolled() && canDouble(pCurrent)) {
+			BoardState state = game.getBoard().getBoardState().copy();
+			int side = pCurrent.getSide();
+			MatchState match = gameplay.getMatchState();
+			executor.execute(() -> {
+				CubeEngine.Decision decision = cube.decide(state, side, match);
+				Platform.runLater(() -> {
+					if (!isTurn(theTurn, pCurrent) || gameplay.isRolled() || gameplay.isDoubling()) return;
+					infoPnl.print(pCurrent.getName() + "'s cube: " + decision, MessageType.DEBUG);
+					cmd.runCommand(decision.isDouble() ? "/double" : "/roll");
+				});
+			});
+		} else if (!gameplay.isRolled()) {
+			Platform.runLater(() -> {
+				if (isTurn(theTurn, pCurrent) && !gameplay.isRolled()) cmd.runCommand("/roll");
+			});
+		} else if (!gameplay.isMoved() && rollResult != null) {
+			search(theTurn, pCurrent);
+		}
+	}
+
+	// same rules as /double, the cube must be in its box or the player's home, and not be dead.
+	private boolean canDouble(Player pCurrent) {
+		return !gameplay.isMaxDoubling() && gameplay.getMatchState().canDouble(pCurrent.getSide());
+	}
+
+	/**
+	 * Prints the cube decision of the player on roll,
+	 * i.e. the proposer while a double is proposed, the current player before rolling,
+	 * else its opponent once the current player has moved.
+	 */
+	public void adviseCube() {
+		Player pCurrent = gameplay.getCurrent();
+		if (!gameplay.isStarted() || pCurrent == null) {
+			infoPnl.print("Game has not started yet, there is no cube decision.", MessageType.ERROR);
+			return;
+		} else if (gameplay.isRolled() && !gameplay.isMoved()) {
+			infoPnl.print("Cannot decide the cube in the middle of a turn, finish moving first.", MessageType.ERROR);
+			return;
+		}
+
+		Player pOnRoll = gameplay.isDoubling() || gameplay.isRolled() ? gameplay.getOpponent() : pCurrent;
+		BoardState state = game.getBoard().getBoardState().copy();
+		int side = pOnRoll.getSide();
+		MatchState match = gameplay.getMatchState();
+		executor.execute(() -> {
+			CubeEngine.Decision decision = cube.decide(state, side, match);
+			Platform.runLater(() -> infoPnl.print("Cube decision of " + pOnRoll.getName() + " on roll: " + decision));
+		});
+	}
+
+	private void search(int theTurn, Player pCurrent) {
+		BoardState state = game.getBoard().getBoardState().copy();
+		int side = pCurrent.getSide();
+		Roll roll = rollResult.getRoll();
+		int die1 = roll.getDie1();
+		int die2 = roll.getDie2();
+		long budget = getThinkTime(game.getPlayerPanel(pCurrent.getColor()).getTimer());
+		infoPnl.print(pCurrent.getName() + " is thinking...");
+
+		executor.execute(() -> {
+			// cleared before the check, so a reset after the check stops this search.
+			bot.clearStop();
+			if (theTurn != turn) return;
+			int best = bot.search(state, side, die1, die2, budget);
+			MoveGenerator plays = bot.getPlays();
+			int[] moves = new int[plays.getMoveCount(best)];
+			for (int i = 0; i < moves.length; i++) {
+				moves[i] = plays.getMove(best, i);
+			}
+			String stats = plays.toString(best) + " (" + bot.getCompletedDepth() + "-ply, equity "
+					+ String.format("%+.3f", bot.getBestEquity()) + ", " + bot.getNodeCount() + " evaluations)";
+			String tableStats = "Bot transposition table: " + table;
+			table.resetStats();
+
+			Platform.runLater(() -> {
+				if (!isTurn(theTurn, pCurrent)) return;
+				infoPnl.print(pCurrent.getName() + " plays " + stats, MessageType.DEBUG);
+				infoPnl.print(tableStats, MessageType.DEBUG);
+				playMoves(theTurn, pCurrent, moves);
+			});
+		});
+	}
+
+	/**
+	 * Rolls out the position for the player on roll in the background,
+	 * i.e. the current player before rolling, else its opponent once the current player has moved.
+	 * @param trials number of games to play out.
+	 * @param truncation plies per game before the evaluator takes over, 0 for none.
+	 */
+	public void rollout(int trials, int truncation) {
+		Player pCurrent = gameplay.getCurrent();
+		if (!gameplay.isStarted() || pCurrent == null) {
+			infoPnl.print("Game has not started yet, there is no position to roll out.", MessageType.ERROR);
+			return;
+		} else if (gameplay.isRolled() && !gameplay.isMoved()) {
+			infoPnl.print("Cannot roll out in the middle of a turn, finish moving first.", MessageType.ERROR);
+			return;
+		} else if (isRollingOut) {
+			infoPnl.print("A rollout is already running, stop it with /rollout stop.", MessageType.ERROR);
+			return;
+		}
+
+		Player pOnRoll = gameplay.isRolled() ? gameplay.getOpponent() : pCurrent;
+		BoardState state = game.getBoard().getBoardState().copy();
+		int side = pOnRoll.getSide();
+		long seed = System.nanoTime();
+		int theRollout = ++rollouts;
+		isRollingOut = true;
+		infoPnl.print("Rolling out " + trials + " games with " + pOnRoll.getName() + " on roll"
+				+ (truncation > 0 ? ", truncated after " + truncation + " plies." : "."));
+
+		rolloutExecutor.execute(() -> {
+			// cleared before the check, so a reset after the check stops this rollout.
+			rollout.clearStop();
+			if (theRollout != rollouts) return;
+			Rollout.Result result = null;
+			try {
+				result = rollout.run(state, side, trials, truncation, seed, progress -> Platform.runLater(() -> {
+					if (theRollout == rollouts) infoPnl.print("Rollout " + progress);
+				}));
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+			Rollout.Result done = result;
+			Platform.runLater(() -> {
+				if (theRollout != rollouts) return;
+				isRollingOut = false;
+				if (done != null) infoPnl.print("Rollout of " + pOnRoll.getName() + " on roll: " + done);
+			});
+		});
+	}
+
+	// stops the rollout in progress, its result so far is still printed.
+	public void stopRollout() {
+		rollout.stop();
+	}
+
+	// plays one move per key frame, so the moves can be followed on the board.
+	private void playMoves(int theTurn, Player pCurrent, int[] moves) {
+		int[] next = {0};
+		movesTl = new Timeline(new KeyFrame(Duration.millis(MOVE_DELAY), ev -> {
+			if (!isTurn(theTurn, pCurrent) || !gameplay.isRolled() || gameplay.isMoved()) {
+				movesTl.stop();
+				return;
+			}
+			int i = next[0]++;
+			if (i < moves.length && isValidMove(MoveGenerator.getFro(moves[i]), MoveGenerator.getTo(moves[i]))) {
+				cmd.runCommand(getMoveCommand(pCurrent, moves[i]));
+				return;
+			}
+			movesTl.stop();
+			if (gameplay.getGameplayMoves().isMapped()) {
+				// BoardMoves and the MoveGenerator disagree, the turn is left unfinished rather than played at random.
+				String mismatch = i < moves.length ? "its move " + getMoveCommand(pCurrent, moves[i]) + " is not valid"
+						: "moves are left after its play";
+				infoPnl.print(pCurrent.getName() + " cannot finish its turn, " + mismatch + ". Make the moves left with /move.", MessageType.ERROR);
+				gameplay.getGameplayMoves().printMoves();
+			}
+		}));
+		// a key frame after the last move, to catch moves left after the play.
+		movesTl.setCycleCount(moves.length + 1);
+		movesTl.play();
+	}
+
+	private boolean isTurn(int theTurn, Player pCurrent) {
+		return theTurn == turn && gameplay.isStarted() && pCurrent.equals(gameplay.getCurrent());
+	}
+
+	// checks if the move is part of the valid moves, without using up its dice.
+	private boolean isValidMove(int fro, int to) {
+		if (gameplay.getValidMoves() == null) return false;
+		for (RollMoves aRollMoves : gameplay.getValidMoves()) {
+			for (Move aMove : aRollMoves.getMoves()) {
+				if (aMove.getFro() == fro && aMove.getTo() == to) return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the move as a /move command with zero-based pips,
+	 * with the player's color for the bar and home.
+	 * @param pCurrent the player moving.
+	 * @param move packed move, see MoveGenerator.pack().
+	 * @return the command.
+	 */
+	private String getMoveCommand(Player pCurrent, int move) {
+		int side = pCurrent.getSide();
+		int fro = MoveGenerator.getFro(move);
+		int to = MoveGenerator.getTo(move);
+		String color = parseColor(pCurrent.getColor());
+		String froString = fro == BoardState.getBearOnPip(side) ? color : Integer.toString(fro);
+		String toString = to == BoardState.getBearOffPip(side) ? color : Integer.toString(to);
+		return "/move " + froString + " " + toString;
+	}
+
+	/**
+	 * Time budget of the bot's move.
+	 * @param timer the bot's timer.
+	 * @return the time budget in milliseconds.
+	 */
+	private long getThinkTime(GameplayTimer timer) {
+		long seconds;
+		if (timer.getRollTime() > ROLL_TIME_MARGIN) {
+			seconds = timer.getRollTime() - ROLL_TIME_MARGIN;
+		} else {
+			seconds = timer.getRemainingTime() / REMAINING_TIME_SLICE;
+		}
+		return Math.max(MIN_THINK_TIME, Math.min(MAX_THINK_TIME, seconds * 1000));
+	}
+}
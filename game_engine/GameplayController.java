@@ -18,6 +18,12 @@ import javafx.animation.Timeline;
 import javafx.util.Duration;
 import javafx.scene.control.ButtonType;
 import javafx.stage.Stage;
+import model.BoardState;
+import model.DiceSource;
+import model.MatchId;
+import model.MatchState;
+import model.PositionId;
+import model.Roll;
 import move.Moves;
 import ui.Dialogs;
 import ui.InfoPanel;
@@ -35,6 +41,8 @@ import ui.ScoreboardPrompt;
  */
 public class GameplayController implements ColorParser, ColorPerspectiveParser, InputValidator, IndexOffset, IntegerLettersParser {
 	private boolean isStarted, isRolled, isMoved, isFirstRoll, isTopPlayer, isDoubling, isDoubled, isMaxDoubling, isInTransition;
+	// true if /seed set the dice of the next game, kept over reset().
+	private boolean isDiceSeeded;
 	private Player bottomPlayer, topPlayer, pCurrent, pOpponent;
 	
 	private Stage stage;
@@ -43,6 +51,8 @@ public class GameplayController implements ColorParser, ColorPerspectiveParser,
 	private GameComponentsController game;
 	private InfoPanel infoPnl;
 	private GameplayMovesController gameplayMoves;
+	private GameplayBotController gameplayBot;
+	private MatchRecorder recorder;
 	
 	public GameplayController(Stage stage, MatchController root, GameComponentsController game, InfoPanel infoPnl, Player bottomPlayer, Player topPlayer) {
 		this.bottomPlayer = bottomPlayer;
@@ -52,6 +62,8 @@ public class GameplayController implements ColorParser, ColorPerspectiveParser,
 		this.game = game;
 		this.infoPnl = infoPnl;
 		gameplayMoves = new GameplayMovesController(game, this, infoPnl);
+		gameplayBot = new GameplayBotController(game, this, infoPnl);
+		recorder = new MatchRecorder();
 		reset();
 	}
 	
@@ -67,12 +79,14 @@ public class GameplayController implements ColorParser, ColorPerspectiveParser,
 		isInTransition = false;
 		if (nextPause != null) nextPause.stop();
 		gameplayMoves.reset();
+		gameplayBot.reset();
 		stopCurrentPlayerTimer();
 	}
 	
 	public void setCommandController(CommandController cmd) {
 		this.cmd = cmd;
 		gameplayMoves.setCommandController(cmd);
+		gameplayBot.setCommandController(cmd);
 	}
 	
 	/**
@@ -81,6 +95,12 @@ public class GameplayController implements ColorParser, ColorPerspectiveParser,
 	 */
 	public void start() {
 		isStarted = true;
+		// each game gets its own seed, so it can be replayed by /seed.
+		DiceSource dice = DiceSource.getGameDice();
+		if (!isDiceSeeded) dice.setSeed(DiceSource.newSeed());
+		isDiceSeeded = false;
+		infoPnl.print("Dice seed of this game: " + dice.getSeed() + ".", MessageType.DEBUG);
+		recorder.startGame(getMatchState(), game.getBoard().getBoardState(), bottomPlayer.getName(), topPlayer.getName());
 		cmd.runCommand("/roll");
 		
 		// facial expressions.
@@ -88,6 +108,16 @@ public class GameplayController implements ColorParser, ColorPerspectiveParser,
 		game.getEmojiOfPlayer(pOpponent.getColor()).setThinkingFace();
 	}
 	
+	/**
+	 * Restarts the dice from the seed, the dice of a game started with the same seed are the same.
+	 * Applies to the next /start, or from the next roll if the game is started.
+	 * @param seed seed of the dice.
+	 */
+	public void setDiceSeed(long seed) {
+		DiceSource.getGameDice().setSeed(seed);
+		isDiceSeeded = !isStarted;
+	}
+	
 	/**
 	 * Rolls die, calculates possible moves and highlight top checkers.
 	 * Called at /roll.
@@ -115,10 +145,14 @@ public class GameplayController implements ColorParser, ColorPerspectiveParser,
 		
 		infoPnl.print("Roll dice result: " + rollResult + ".");
 		isRolled = true;
+		recorder.roll(pCurrent.getSide(), rollResult.getRoll());
 		
 		// calculate possible moves.
 		setValidMoves(game.getBoard().calculateMoves(rollResult, pCurrent));
 		gameplayMoves.handleEndOfMovesCalculation(getValidMoves());
+		
+		// if current player is a bot, it plays instead of player input.
+		gameplayBot.handleRoll(rollResult);
 	}
 	
 	/**
@@ -215,6 +249,8 @@ public class GameplayController implements ColorParser, ColorPerspectiveParser,
 	 */
 	private Timeline nextPause;
 	public Player next() {
+		if (isRolled) recorder.play(pCurrent.getSide(), game.getBoard().getBoardState());
+		
 		// this needs to be set first,
 		// if not during wait, players can /next more than once.
 		isRolled = false;
@@ -255,6 +291,7 @@ public class GameplayController implements ColorParser, ColorPerspectiveParser,
 				roll();
 			} else infoPnl.print("You can only roll the dice.");
 		}
+		gameplayBot.handleTurn();
 	}
 	private void swapPlayers() {
 		Player temp = pCurrent;
@@ -306,6 +343,69 @@ public class GameplayController implements ColorParser, ColorPerspectiveParser,
 		return pCurrent.getScore() + game.getCube().getEndGameMultiplier() >= Settings.TOTAL_GAMES_IN_A_MATCH;
 	}
 	
+	/**
+	 * Returns the score and the cube as plain primitives, for the bot's cube decisions.
+	 * While a double is proposed, the cube is as it was before the double,
+	 * i.e. owned by the proposer, or centered if it was in its box.
+	 */
+	public MatchState getMatchState() {
+		DoublingCube cube = game.getCube();
+		int value = isDoubling() ? cube.getIntermediateGameMultiplier() : cube.getEndGameMultiplier();
+		int owner = MatchState.CENTERED;
+		if (isDoubling()) {
+			if (value > 1) owner = pOpponent.getSide();
+		} else if (pCurrent != null && pCurrent.hasCube()) {
+			owner = pCurrent.getSide();
+		} else if (pOpponent != null && pOpponent.hasCube()) {
+			owner = pOpponent.getSide();
+		}
+		return new MatchState(Settings.TOTAL_GAMES_IN_A_MATCH, bottomPlayer.getScore(), topPlayer.getScore(),
+				value, owner, root.isCrawfordGame(), root.isPostCrawford());
+	}
+	
+	// the side on roll, BOTTOM before the first roll.
+	// while doubling, pCurrent is already the player to decide, so the doubler is pOpponent.
+	private int getSideOnRoll() {
+		if (pCurrent == null || isFirstRoll) return BoardState.BOTTOM;
+		return isDoubling() ? pOpponent.getSide() : pCurrent.getSide();
+	}
+	
+	/**
+	 * Returns the GNU Backgammon position ID of the board, see PositionId.
+	 */
+	public String getPositionId() {
+		return PositionId.encode(game.getBoard().getBoardState(), getSideOnRoll());
+	}
+	
+	/**
+	 * Returns the GNU Backgammon match ID of the game, see MatchId.
+	 * While doubling, the doubler is on roll and the player to decide is pCurrent.
+	 */
+	public String getMatchId() {
+		int side = getSideOnRoll();
+		int turn = isDoubling() ? pCurrent.getSide() : side;
+		int die1 = 0, die2 = 0;
+		if (isRolled() && getValidMoves() != null) {
+			Roll roll = getValidMoves().getDieResults().getRoll();
+			die1 = roll.getDie1();
+			die2 = roll.getDie2();
+		}
+		int gameState = isStarted() ? MatchId.PLAYING : MatchId.NO_GAME;
+		return new MatchId(getMatchState(), gameState, side, turn, isDoubling(), die1, die2).encode();
+	}
+	
+	/**
+	 * Sets the board from a GNU Backgammon position ID, as seen by the player on roll.
+	 * @param id the position ID.
+	 * @throws IllegalArgumentException if the ID is not a legal position.
+	 */
+	public void setPositionId(String id) {
+		BoardState state = new BoardState();
+		PositionId.decode(id, getSideOnRoll(), state);
+		game.drawBoardState(state);
+		if (isStarted()) recalculateMoves();
+	}
+	
 	/**
 	 * Highlight pips and checkers based on mode.
 	 * Used by EventController.
@@ -365,9 +465,11 @@ public class GameplayController implements ColorParser, ColorPerspectiveParser,
 		if (isDoubling()) {
 			isDoubling = false;
 			isDoubled = true;
+			recorder.take(pCurrent.getSide());
 		} else {
 			isDoubling = true;
 			isDoubled = false;
+			recorder.offerDouble(pCurrent.getSide());
 		}
 	}
 	
@@ -383,8 +485,14 @@ public class GameplayController implements ColorParser, ColorPerspectiveParser,
 		infoPnl.print("Game over.", MessageType.ANNOUNCEMENT);
 		
 		stopCurrentPlayerTimer();
+		if (isIntermediate) {
+			recorder.pass(pCurrent.getSide());
+		} else {
+			recorder.play(pCurrent.getSide(), game.getBoard().getBoardState());
+		}
 		if (isIntermediate) swapPlayers();
 		handleGameOverScore(isIntermediate);
+		recorder.endGame(pCurrent.getSide(), bottomPlayer.getScore(), topPlayer.getScore());
 		
 		if (root.isMatchOver())
 			root.handleMatchOver();
@@ -508,6 +616,12 @@ public class GameplayController implements ColorParser, ColorPerspectiveParser,
 	public GameplayMovesController getGameplayMoves() {
 		return gameplayMoves;
 	}
+	public MatchRecorder getMatchRecorder() {
+		return recorder;
+	}
+	public GameplayBotController getGameplayBot() {
+		return gameplayBot;
+	}
 	public Moves getValidMoves() {
 		return gameplayMoves.getValidMoves();
 	}
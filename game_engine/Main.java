@@ -17,13 +17,15 @@ import javafx.stage.Stage;
  *
  */
 public class Main extends Application {
+	private MatchController root;
+	
 	public static void main(String[] args) {
 		launch(args);	// calls start method.
 	}
 	
 	@Override
 	public void start(Stage stage) throws Exception {
-		MatchController root = new MatchController(stage);
+		root = new MatchController(stage);
 		
 		Scene scene = new Scene(root);
 		
@@ -37,6 +39,14 @@ public class Main extends Application {
 		root.requestFocus();
 	}
 	
+	/**
+	 * Writes what is left of the logs if the application exits without the exit prompt.
+	 */
+	@Override
+	public void stop() {
+		if (root != null) root.close();
+	}
+	
 	/**
 	 * Set the application's icon.
 	 * @param stage, the stage of the application.
@@ -1,6 +1,7 @@
 package game_engine;
 
 import java.util.Optional;
+import bot.MatchEquityTable;
 import constants.GameConstants;
 import constants.MessageType;
 import constants.PlayerPerspectiveFrom;
@@ -51,6 +52,7 @@ public class MatchController extends GridPane implements ColorPerspectiveParser,
 	private EventController event;
 	private MusicPlayer musicPlayer;
 	private Stage stage;
+	private MatchEquityTable met;
 	private boolean isPlayerInfosEnteredFirstTime, isPromptCancel, hadCrawfordGame, isCrawfordGame;
 	
 	/**
@@ -78,6 +80,7 @@ public class MatchController extends GridPane implements ColorPerspectiveParser,
 		rollDieBtn = new RollDieButton();
 		cmdPnl = new CommandPanel();
 		musicPlayer = new MusicPlayer();
+		met = MatchEquityTable.getDefault();
 		isPlayerInfosEnteredFirstTime = true;
 		isPromptCancel = false;
 	}
@@ -95,7 +98,16 @@ public class MatchController extends GridPane implements ColorPerspectiveParser,
 		initLayout();
 	}
 	
+	/**
+	 * Closes the match log and writes the game log, used when the application exits.
+	 */
+	public void close() {
+		gameplay.getMatchRecorder().close();
+		infoPnl.closeLog();
+	}
+	
 	public void resetApplication() {
+		gameplay.getMatchRecorder().close();
 		cmdPnl.reset();
 		musicPlayer.reset();
 		bottomPlayer.reset();
@@ -163,9 +175,19 @@ public class MatchController extends GridPane implements ColorPerspectiveParser,
 			}
 			
 			isPlayerInfosEnteredFirstTime = false;
+			printMatchEquity();
 			gameplay.start();
 		}
 	}
+	
+	// Prints each player's odds of winning the match, from the match equity table.
+	private void printMatchEquity() {
+		int bottomAway = Settings.TOTAL_GAMES_IN_A_MATCH - bottomPlayer.getScore();
+		int topAway = Settings.TOTAL_GAMES_IN_A_MATCH - topPlayer.getScore();
+		double bottomChances = met.getEquity(bottomAway, topAway, isPostCrawford());
+		infoPnl.print(String.format("Match winning chances: %s %.1f%%, %s %.1f%%.",
+				bottomPlayer.getName(), 100 * bottomChances, topPlayer.getName(), 100 * (1 - bottomChances)));
+	}
 	// Checks if next game is crawford game.
 	// is crawford game either winner match score, i.e. TOTAL_GAMES_IN_A_MATCH-1.
 	private boolean checkIsCrawfordGame() {
@@ -376,4 +398,13 @@ public class MatchController extends GridPane implements ColorPerspectiveParser,
 	public boolean isCrawfordGame() {
 		return isCrawfordGame;
 	}
+	
+	// true if the Crawford game was played before the current game.
+	public boolean isPostCrawford() {
+		return hadCrawfordGame && !isCrawfordGame;
+	}
+	
+	public MatchEquityTable getMatchEquityTable() {
+		return met;
+	}
 }
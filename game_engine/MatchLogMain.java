@@ -0,0 +1,118 @@
+package game_engine;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import model.BoardState;
+import model.MatchLogReader;
+import model.MatchLogWriter;
+import model.PositionId;
+
+/**
+ * This class prints the match logs the game records in the matches folder, see MatchRecorder.
+ * It never starts JavaFX, so it can run on servers without a display.
+ *
+ * Without options it lists the games of the log, with --game it lists the records of a game,
+ * with the position ID of the board after each play, and with --record it prints a single record and its board.
+ * Games and records are read by seeking, so a record of a long match is printed without reading the games before it.
+ *
+ * Usage: java game_engine.MatchLogMain [options] file
+ * 		--game n		list the records of game n, from 1.
+ * 		--record n		with --game, print only record n, from 0, the GAME_START.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class MatchLogMain {
+	private static final int ALL = -1;
+
+	public static void main(String[] args) throws IOException {
+		String file = null;
+		int game = ALL;
+		int record = ALL;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--game":
+					game = Integer.parseInt(args[++i]) - 1;
+					break;
+				case "--record":
+					record = Integer.parseInt(args[++i]);
+					break;
+				default:
+					if (args[i].startsWith("--") || file != null) {
+						System.err.println("Unknown option: " + args[i]);
+						System.exit(2);
+					}
+					file = args[i];
+			}
+		}
+		if (file == null) {
+			System.err.println("Usage: java game_engine.MatchLogMain [--game n [--record n]] file" + MatchLogWriter.EXTENSION);
+			System.exit(2);
+		}
+		if (record != ALL && game == ALL) {
+			System.err.println("--record needs --game.");
+			System.exit(2);
+		}
+
+		try (MatchLogReader reader = new MatchLogReader(Paths.get(file))) {
+			if (game != ALL && (game < 0 || game >= reader.getGames())) {
+				System.err.println("Game must be 1 to " + reader.getGames() + ": " + (game+1));
+				System.exit(2);
+			}
+			if (record != ALL && (record < 0 || record >= reader.getRecords(game))) {
+				System.err.println("Record must be 0 to " + (reader.getRecords(game)-1) + ": " + record);
+				System.exit(2);
+			}
+
+			if (game == ALL) {
+				printMatch(reader);
+			} else if (record == ALL) {
+				printGame(reader, game);
+			} else {
+				printRecord(reader, game, record);
+			}
+		}
+	}
+
+	private static void printMatch(MatchLogReader reader) throws IOException {
+		String length = reader.getLength() == 0 ? "money games" : reader.getLength() + " points";
+		System.out.println(reader.getName(BoardState.BOTTOM) + " (BOTTOM) against " + reader.getName(BoardState.TOP)
+				+ " (TOP), " + length + ", started " + Instant.ofEpochMilli(reader.getStartTime()) + ".");
+		for (int game = 0; game < reader.getGames(); game++) {
+			int records = reader.getRecords(game);
+			MatchLogReader.Record first = reader.getRecord(game, 0);
+			MatchLogReader.Record last = reader.getRecord(game, records-1);
+			String result = last.getType() == MatchLogWriter.GAME_END ? last.toString() : "unfinished";
+			System.out.println("Game " + (game+1) + ": " + first + ", " + records + " records, " + result + ".");
+		}
+	}
+
+	private static void printGame(MatchLogReader reader, int game) throws IOException {
+		BoardState state = new BoardState();
+		for (int record = 0; record < reader.getRecords(game); record++) {
+			MatchLogReader.Record r = reader.getRecord(game, record);
+			String line = record + "\t" + r;
+			if (r.getType() == MatchLogWriter.GAME_START || r.getType() == MatchLogWriter.PLAY) {
+				reader.getPosition(game, record, state);
+				line += " " + PositionId.encode(state, getSideOnRoll(r));
+			}
+			System.out.println(line);
+		}
+	}
+
+	private static void printRecord(MatchLogReader reader, int game, int record) throws IOException {
+		BoardState state = new BoardState();
+		reader.getPosition(game, record, state);
+		System.out.println(reader.getRecord(game, record));
+		System.out.println(state);
+	}
+
+	// the side on roll of the board logged with the record, BOTTOM at GAME_START, else the opponent of the player.
+	private static int getSideOnRoll(MatchLogReader.Record record) {
+		return record.getType() == MatchLogWriter.GAME_START ? BoardState.BOTTOM : BoardState.getOpponent(record.getSide());
+	}
+}
@@ -0,0 +1,130 @@
+package game_engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import model.BoardState;
+import model.MatchLogWriter;
+import model.MatchState;
+import model.Roll;
+
+/**
+ * This class records the match being played to a binary match log, see MatchLogWriter.
+ * Sub-controller of GameplayController.
+ *
+ * A log is created in the matches folder at the first game of a match, and closed when the match is reset or the game quits.
+ * A failed write is printed and stops the recording, the game goes on.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class MatchRecorder {
+	private static final Path DIRECTORY = Paths.get("matches");
+	private static final DateTimeFormatter FILE_NAME = DateTimeFormatter.ofPattern("'match-'yyyyMMdd-HHmmss'" + MatchLogWriter.EXTENSION + "'");
+
+	private MatchLogWriter writer;
+	private Path path;
+
+	/**
+	 * Starts recording a game, creating the log if it is the first game of the match.
+	 * @param match the score and cube at the start of the game.
+	 * @param state the board at the start of the game.
+	 * @param bottomName name of the BOTTOM player.
+	 * @param topName name of the TOP player.
+	 */
+	public void startGame(MatchState match, BoardState state, String bottomName, String topName) {
+		try {
+			if (writer == null) {
+				Files.createDirectories(DIRECTORY);
+				path = DIRECTORY.resolve(LocalDateTime.now().format(FILE_NAME));
+				writer = new MatchLogWriter(path, match.getLength(), bottomName, topName);
+			}
+			writer.startGame(match, state);
+		} catch (IOException e) {
+			e.printStackTrace();
+			close();
+		}
+	}
+
+	public void roll(int side, Roll roll) {
+		if (writer == null || roll == null) return;
+		try {
+			writer.roll(side, roll.getDie1(), roll.getDie2());
+		} catch (IOException e) {
+			e.printStackTrace();
+			close();
+		}
+	}
+
+	public void play(int side, BoardState state) {
+		if (writer == null) return;
+		try {
+			writer.play(side, state);
+		} catch (IOException e) {
+			e.printStackTrace();
+			close();
+		}
+	}
+
+	public void offerDouble(int side) {
+		if (writer == null) return;
+		try {
+			writer.offerDouble(side);
+		} catch (IOException e) {
+			e.printStackTrace();
+			close();
+		}
+	}
+
+	public void take(int side) {
+		if (writer == null) return;
+		try {
+			writer.take(side);
+		} catch (IOException e) {
+			e.printStackTrace();
+			close();
+		}
+	}
+
+	public void pass(int side) {
+		if (writer == null) return;
+		try {
+			writer.pass(side);
+		} catch (IOException e) {
+			e.printStackTrace();
+			close();
+		}
+	}
+
+	public void endGame(int winner, int bottomScore, int topScore) {
+		if (writer == null) return;
+		try {
+			writer.endGame(winner, bottomScore, topScore);
+		} catch (IOException e) {
+			e.printStackTrace();
+			close();
+		}
+	}
+
+	// closes the log with its index, the next game starts a new log.
+	public void close() {
+		if (writer == null) return;
+		try {
+			writer.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		writer = null;
+	}
+
+	// the log of the match being recorded, or the last one.
+	public Path getPath() {
+		return path;
+	}
+}
@@ -18,7 +18,7 @@ public class Player implements ColorPerspectiveParser {
 	private String name;
 	private int score;
 	private Color color;
-	private boolean hasCube;
+	private boolean hasCube, isBot;
 	private PlayerPerspectiveFrom pov;
 	
 	public Player(PlayerPerspectiveFrom pov) {
@@ -30,6 +30,7 @@ public class Player implements ColorPerspectiveParser {
 	public void reset() {
 		name = Settings.getDefaultPlayerName(pov);
 		hasCube = false;
+		isBot = false;
 		if (GameConstants.FORCE_TEST_DEAD_CUBE)
 			score = Settings.TOTAL_GAMES_IN_A_MATCH-3;
 		else if (color.equals(Settings.getTopPerspectiveColor()) && (GameConstants.FORCE_TEST_CRAWFORD_RULE || GameConstants.FORCE_TEST_AFTER_CRAWFORD_RULE))
@@ -72,10 +73,20 @@ public class Player implements ColorPerspectiveParser {
 		return pov;
 	}
 	
+	// side of the player in BoardState.
+	public int getSide() {
+		return getSide(pov);
+	}
+	
 	public boolean hasCube() {
 		return hasCube;
 	}
 	
+	// if true, moves are made by the bot instead of player input.
+	public boolean isBot() {
+		return isBot;
+	}
+	
 	public void setName(String name) {
 		this.name = name;
 	}
@@ -91,4 +102,8 @@ public class Player implements ColorPerspectiveParser {
 	public void setHasCube(boolean hasCube) {
 		this.hasCube = hasCube;
 	}
+	
+	public void setIsBot(boolean isBot) {
+		this.isBot = isBot;
+	}
 } 
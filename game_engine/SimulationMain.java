@@ -0,0 +1,92 @@
+package game_engine;
+
+import java.io.IOException;
+import bot.BotPlayers;
+import bot.MatchSimulator;
+
+/**
+ * This class runs headless bot-vs-bot matches for regression testing of the bot, beside Main.
+ * It never starts JavaFX, so it can run on servers without a display.
+ *
+ * A player is the hand-tuned heuristic, a neural network weight file, or a BotPlayer class, see BotPlayers,
+ * e.g. a newly trained network against the last one, each with its search depth.
+ *
+ * Usage: java game_engine.SimulationMain [options]
+ * 		--matches n		number of matches, default 1000.
+ * 		--length n		points to win a match, default 7, 0 plays single money games.
+ * 		--a player		player A, e.g. heuristic, weights.bgnn:2 or class:name, default heuristic.
+ * 		--b player		player B, default heuristic.
+ * 		--no-cube		play without the doubling cube.
+ * 		--threads n		number of worker threads, default all cores.
+ * 		--seed n		seed of the dice, default random.
+ * 		--report n		matches between progress reports, default 1000.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class SimulationMain {
+	public static void main(String[] args) throws IOException, InterruptedException {
+		long matches = 1000;
+		int length = MatchSimulator.DEFAULT_LENGTH;
+		String playerA = BotPlayers.HEURISTIC;
+		String playerB = BotPlayers.HEURISTIC;
+		boolean isCubeEnabled = true;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long seed = System.nanoTime();
+		long report = 1000;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--matches":
+					matches = Long.parseLong(args[++i]);
+					break;
+				case "--length":
+					length = Integer.parseInt(args[++i]);
+					break;
+				case "--a":
+					playerA = args[++i];
+					break;
+				case "--b":
+					playerB = args[++i];
+					break;
+				case "--no-cube":
+					isCubeEnabled = false;
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				case "--report":
+					report = Long.parseLong(args[++i]);
+					break;
+				default:
+					System.err.println("Unknown option: " + args[i]);
+					System.exit(2);
+			}
+		}
+
+		MatchSimulator simulator = new MatchSimulator(BotPlayers.forSpec(playerA), BotPlayers.forSpec(playerB),
+				length, isCubeEnabled, threads, seed);
+		simulator.setLog(System.out, report);
+		// ctrl-c finishes the matches in progress and prints the results.
+		Thread main = Thread.currentThread();
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			simulator.stop();
+			try {
+				main.join();
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		}));
+
+		System.out.println("Playing " + matches + " matches of A (" + playerA + ") against B (" + playerB + ") on "
+				+ threads + " threads, seed " + seed + ".");
+		MatchSimulator.Result result = simulator.run(matches);
+		System.out.println("Done.");
+		System.out.println(result);
+	}
+}
@@ -0,0 +1,100 @@
+package game_engine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import bot.BotPlayer;
+import bot.BotPlayers;
+import bot.MatchSimulator;
+import bot.Tournament;
+
+/**
+ * This class runs a headless tournament of bots, beside Main, and prints their Elo ratings with error bars.
+ * It never starts JavaFX, so it can run on servers without a display.
+ *
+ * A bot is the hand-tuned heuristic, a neural network weight file, or a submitted BotPlayer class, see BotPlayers.
+ *
+ * Usage: java game_engine.TournamentMain --bot player --bot player [more --bot] [options]
+ * 		--bot player		a bot, e.g. heuristic, weights.bgnn:2 or class:name, at least 2.
+ * 		--swiss n			play n Swiss rounds, default a single round-robin.
+ * 		--matches n			duplicate matches per pairing, default 50.
+ * 		--length n			points to win a match, default 7, 0 plays single money games.
+ * 		--no-cube			play without the doubling cube.
+ * 		--threads n			number of worker threads, default all cores.
+ * 		--seed n			seed of the dice, default random.
+ * 		--bootstrap n		resamples of the error bars, default 1000.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class TournamentMain {
+	public static void main(String[] args) throws IOException, InterruptedException {
+		List<String> bots = new ArrayList<>();
+		int swissRounds = 0;
+		int matches = Tournament.DEFAULT_MATCHES;
+		int length = MatchSimulator.DEFAULT_LENGTH;
+		boolean isCubeEnabled = true;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long seed = System.nanoTime();
+		int bootstrap = Tournament.DEFAULT_BOOTSTRAP;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--bot":
+					bots.add(args[++i]);
+					break;
+				case "--swiss":
+					swissRounds = Integer.parseInt(args[++i]);
+					break;
+				case "--matches":
+					matches = Integer.parseInt(args[++i]);
+					break;
+				case "--length":
+					length = Integer.parseInt(args[++i]);
+					break;
+				case "--no-cube":
+					isCubeEnabled = false;
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				case "--bootstrap":
+					bootstrap = Integer.parseInt(args[++i]);
+					break;
+				default:
+					System.err.println("Unknown option: " + args[i]);
+					System.exit(2);
+			}
+		}
+		if (bots.size() < 2) {
+			System.err.println("At least 2 bots are needed, e.g. --bot heuristic --bot heuristic:2");
+			System.exit(2);
+		}
+
+		List<Supplier<BotPlayer>> players = new ArrayList<>();
+		for (String aBot : bots) {
+			players.add(BotPlayers.forSpec(aBot));
+		}
+		Tournament tournament = new Tournament(players, length, isCubeEnabled, threads, seed);
+		tournament.setLog(System.out);
+
+		long startTime = System.nanoTime();
+		if (swissRounds > 0) {
+			System.out.println("Playing " + swissRounds + " Swiss rounds of " + bots.size() + " bots, "
+					+ matches + " duplicate matches a pairing, on " + threads + " threads, seed " + seed + ".");
+			tournament.playSwiss(swissRounds, matches);
+		} else {
+			System.out.println("Playing a round-robin of " + bots.size() + " bots, "
+					+ matches + " duplicate matches a pairing, on " + threads + " threads, seed " + seed + ".");
+			tournament.playRoundRobin(matches);
+		}
+		System.out.printf("Done in %.1f s.%n", (System.nanoTime() - startTime) / 1e9);
+		System.out.println(tournament.getResult(bootstrap));
+	}
+}
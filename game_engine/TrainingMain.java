@@ -0,0 +1,101 @@
+package game_engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import bot.NeuralNetwork;
+import bot.TDTrainer;
+
+/**
+ * This class runs the headless training of the bot's neural network, beside Main.
+ * It never starts JavaFX, so it can run on servers without a display.
+ *
+ * Training resumes from the weight file if it exists, else starts from random weights.
+ * The weights are checkpointed to the weight file, which the bot loads on the next game.
+ *
+ * Usage: java game_engine.TrainingMain [options]
+ * 		--games n		number of self-play games, default 100000.
+ * 		--threads n		number of worker threads, default all cores.
+ * 		--weights file	weight file to resume from and checkpoint to, default weights.bgnn.
+ * 		--checkpoint n	games between checkpoints, default 5000.
+ * 		--hidden n		hidden units of a new network, default 80.
+ * 		--alpha x		learning rate, default 0.02.
+ * 		--lambda x		lambda of TD(lambda), default 0.7.
+ * 		--seed n		seed of the dice and new weights, default random.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class TrainingMain {
+	public static void main(String[] args) throws IOException, InterruptedException {
+		long games = 100_000;
+		int threads = Runtime.getRuntime().availableProcessors();
+		Path weights = Paths.get(NeuralNetwork.DEFAULT_FILE);
+		long checkpoint = 5_000;
+		int hidden = NeuralNetwork.DEFAULT_HIDDEN;
+		double alpha = TDTrainer.DEFAULT_ALPHA;
+		double lambda = TDTrainer.DEFAULT_LAMBDA;
+		long seed = System.nanoTime();
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--games":
+					games = Long.parseLong(args[++i]);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				case "--weights":
+					weights = Paths.get(args[++i]);
+					break;
+				case "--checkpoint":
+					checkpoint = Long.parseLong(args[++i]);
+					break;
+				case "--hidden":
+					hidden = Integer.parseInt(args[++i]);
+					break;
+				case "--alpha":
+					alpha = Double.parseDouble(args[++i]);
+					break;
+				case "--lambda":
+					lambda = Double.parseDouble(args[++i]);
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				default:
+					System.err.println("Unknown option: " + args[i]);
+					System.exit(2);
+			}
+		}
+
+		NeuralNetwork net;
+		if (Files.isRegularFile(weights)) {
+			net = NeuralNetwork.load(weights);
+			System.out.println("Resuming from " + weights + ", " + net.getHidden() + " hidden units.");
+		} else {
+			net = NeuralNetwork.newRandom(hidden, seed);
+			System.out.println("Starting from random weights, " + hidden + " hidden units.");
+		}
+
+		TDTrainer trainer = new TDTrainer(net, alpha, lambda, threads, seed);
+		trainer.setCheckpoint(weights, checkpoint, System.out);
+		// ctrl-c finishes the games in progress and saves the weights.
+		Thread main = Thread.currentThread();
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			trainer.stop();
+			try {
+				main.join();
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		}));
+
+		System.out.println("Training " + games + " games on " + threads + " threads, alpha " + alpha + ", lambda " + lambda + ".");
+		trainer.train(games);
+		System.out.println("Done, weights saved to " + weights + ".");
+	}
+}
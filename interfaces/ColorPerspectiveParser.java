@@ -1,8 +1,10 @@
 package interfaces;
 
 import constants.PlayerPerspectiveFrom;
+import exceptions.PlayerNoPerspectiveException;
 import game_engine.Settings;
 import javafx.scene.paint.Color;
+import model.BoardState;
 
 /**
  * This interface is used to convert color to pov and vice versa,
@@ -10,6 +12,7 @@ import javafx.scene.paint.Color;
  * but require its equivalence in terms of PlayerPerspectiveFrom or vice versa.
  * i.e. Color.WHITE -> PlayerPerspectiveFrom.BOTTOM
  * i.e. PlayerPerspectiveFrom.BOTTOM -> Color.WHITE
+ * i.e. Color.WHITE -> BoardState.BOTTOM
  * 
  * @teamname TeaCup
  * @author Bryan Sng, 17205050
@@ -45,4 +48,31 @@ public interface ColorPerspectiveParser {
 		}
 		return pov;
 	}
+
+	// get the color given its side of BoardState.
+	default Color getColor(int side) {
+		return side == BoardState.BOTTOM ? getColor(PlayerPerspectiveFrom.BOTTOM) : getColor(PlayerPerspectiveFrom.TOP);
+	}
+
+	// get the side of BoardState given its pov.
+	default int getSide(PlayerPerspectiveFrom pov) {
+		int side = -1;
+		switch (pov) {
+			case BOTTOM:
+				side = BoardState.BOTTOM;
+				break;
+			case TOP:
+				side = BoardState.TOP;
+				break;
+			default:
+				throw new PlayerNoPerspectiveException();
+		}
+		return side;
+	}
+
+	// get the side of BoardState given its color.
+	// this method relies on getPOV.
+	default int getSide(Color color) {
+		return getSide(getPOV(color));
+	}
 }
@@ -0,0 +1,538 @@
+package model;
+
+import java.util.Arrays;
+import constants.GameEndScore;
+import exceptions.PlayerNoPerspectiveException;
+
+/**
+ * This class represents the Board in Backgammon as plain primitive counts.
+ * It holds no JavaFX nodes, so it can be copied, compared and mutated cheaply
+ * by move generation, search and simulation code without a running toolkit.
+ *
+ * Pips are zero-based (0-23), same as the pips array of BoardComponents.
+ * A pip stores a signed count, positive for the bottom player's checkers,
+ * negative for the top player's checkers.
+ *
+ * BOTTOM - home board is pips 0-5, bears off to -1, bears on from 24.
+ * TOP - home board is pips 18-23, bears off to 24, bears on from -1.
+ *
+ * The Zobrist hash of the board is kept up to date by every setter and move, see Zobrist.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class BoardState {
+	public static final int NUMBER_OF_PIPS = 24;
+	public static final int MAX_CHECKERS = 15;
+	public static final int HOME_BOARD_SIZE = 6;
+	public static final int BOTTOM = 0;
+	public static final int TOP = 1;
+	// bytes taken by writeTo(), i.e. pips, bars and homes.
+	public static final int BYTES = NUMBER_OF_PIPS + 4;
+
+	private final byte[] pips;
+	private final byte[] bars;
+	private final byte[] homes;
+	private long hash;
+
+	/**
+	 * Default Constructor
+	 * 		- Initializes an empty board, i.e. no checkers anywhere.
+	 */
+	public BoardState() {
+		pips = new byte[NUMBER_OF_PIPS];
+		bars = new byte[2];
+		homes = new byte[2];
+	}
+
+	/**
+	 * Copy Constructor
+	 * @param other the board state to copy from.
+	 */
+	public BoardState(BoardState other) {
+		this();
+		copyFrom(other);
+	}
+
+	/**
+	 * Returns a new board state with the checkers at their starting positions.
+	 * @return the starting board state.
+	 */
+	public static BoardState newGame() {
+		BoardState state = new BoardState();
+		state.setStartingPosition();
+		return state;
+	}
+
+	/**
+	 * Sets the checkers at their starting positions.
+	 * Same as the default initCheckers() of BoardComponents.
+	 */
+	public void setStartingPosition() {
+		clear();
+		setCheckers(23, BOTTOM, 2);
+		setCheckers(12, BOTTOM, 5);
+		setCheckers(7, BOTTOM, 3);
+		setCheckers(5, BOTTOM, 5);
+		setCheckers(0, TOP, 2);
+		setCheckers(11, TOP, 5);
+		setCheckers(16, TOP, 3);
+		setCheckers(18, TOP, 5);
+	}
+
+	// removes every checker from pips, bars and homes.
+	public void clear() {
+		Arrays.fill(pips, (byte) 0);
+		Arrays.fill(bars, (byte) 0);
+		Arrays.fill(homes, (byte) 0);
+		hash = 0;
+	}
+
+	public void copyFrom(BoardState other) {
+		System.arraycopy(other.pips, 0, pips, 0, NUMBER_OF_PIPS);
+		bars[BOTTOM] = other.bars[BOTTOM];
+		bars[TOP] = other.bars[TOP];
+		homes[BOTTOM] = other.homes[BOTTOM];
+		homes[TOP] = other.homes[TOP];
+		hash = other.hash;
+	}
+
+	public BoardState copy() {
+		return new BoardState(this);
+	}
+
+	/**
+	 * Writes the board into a flat buffer, taking BYTES bytes from offset.
+	 * Used by move generation and search to keep positions without allocating.
+	 * @param buffer the buffer to write to.
+	 * @param offset index of the first byte.
+	 */
+	public void writeTo(byte[] buffer, int offset) {
+		System.arraycopy(pips, 0, buffer, offset, NUMBER_OF_PIPS);
+		offset += NUMBER_OF_PIPS;
+		buffer[offset] = bars[BOTTOM];
+		buffer[offset+1] = bars[TOP];
+		buffer[offset+2] = homes[BOTTOM];
+		buffer[offset+3] = homes[TOP];
+	}
+
+	/**
+	 * Reads the board from a flat buffer written by writeTo().
+	 * @param buffer the buffer to read from.
+	 * @param offset index of the first byte.
+	 */
+	public void readFrom(byte[] buffer, int offset) {
+		System.arraycopy(buffer, offset, pips, 0, NUMBER_OF_PIPS);
+		offset += NUMBER_OF_PIPS;
+		bars[BOTTOM] = buffer[offset];
+		bars[TOP] = buffer[offset+1];
+		homes[BOTTOM] = buffer[offset+2];
+		homes[TOP] = buffer[offset+3];
+		hash = Zobrist.hash(this);
+	}
+
+	/**
+	 * Reads the board from a flat buffer written by writeTo(), with its known hash.
+	 * Skips calculating the hash, used by move generation that keeps the hash of each play.
+	 * @param buffer the buffer to read from.
+	 * @param offset index of the first byte.
+	 * @param hash the value of getHash() when the board was written.
+	 */
+	public void readFrom(byte[] buffer, int offset, long hash) {
+		System.arraycopy(buffer, offset, pips, 0, NUMBER_OF_PIPS);
+		offset += NUMBER_OF_PIPS;
+		bars[BOTTOM] = buffer[offset];
+		bars[TOP] = buffer[offset+1];
+		homes[BOTTOM] = buffer[offset+2];
+		homes[TOP] = buffer[offset+3];
+		this.hash = hash;
+	}
+
+	// checks if the board equals the one written in the buffer at offset.
+	public boolean equalsAt(byte[] buffer, int offset) {
+		for (int i = 0; i < NUMBER_OF_PIPS; i++) {
+			if (pips[i] != buffer[offset+i]) return false;
+		}
+		offset += NUMBER_OF_PIPS;
+		return bars[BOTTOM] == buffer[offset] && bars[TOP] == buffer[offset+1]
+			&& homes[BOTTOM] == buffer[offset+2] && homes[TOP] == buffer[offset+3];
+	}
+
+	// Zobrist hash of the board, regardless of the side to move.
+	public long getHash() {
+		return hash;
+	}
+
+	// Zobrist hash of the board with the side to move.
+	public long getHash(int sideToMove) {
+		return hash ^ Zobrist.getSideKey(sideToMove);
+	}
+
+	/* Side helpers. */
+
+	public static int getOpponent(int side) {
+		return side ^ 1;
+	}
+
+	// +1 for bottom's checkers, -1 for top's checkers.
+	public static int getSign(int side) {
+		return side == BOTTOM ? 1 : -1;
+	}
+
+	// pip boundary that checkers bear on from, either 24 or -1.
+	public static int getBearOnPip(int side) {
+		return side == BOTTOM ? NUMBER_OF_PIPS : -1;
+	}
+
+	// pip boundary that checkers bear off to, either -1 or 24.
+	public static int getBearOffPip(int side) {
+		return side == BOTTOM ? -1 : NUMBER_OF_PIPS;
+	}
+
+	/**
+	 * Calculates the toPip with the given fromPip and dice result.
+	 * Same direction rules as getPossibleToPip() of BoardMoves.
+	 * @param side BOTTOM or TOP.
+	 * @param fromPip zero-based pip, or the bear-on boundary.
+	 * @param diceResult roll dice result.
+	 * @return toPip, may be out of range (i.e. bearing off).
+	 */
+	public static int getToPip(int side, int fromPip, int diceResult) {
+		return side == BOTTOM ? fromPip - diceResult : fromPip + diceResult;
+	}
+
+	// distance of the pip to the bear-off boundary, i.e. 1-24 as seen by the side.
+	public static int getDistance(int side, int pipNum) {
+		return side == BOTTOM ? pipNum + 1 : NUMBER_OF_PIPS - pipNum;
+	}
+
+	public static boolean isPipNumberInRange(int pipNum) {
+		return pipNum >= 0 && pipNum < NUMBER_OF_PIPS;
+	}
+
+	public static boolean isInHomeBoard(int side, int pipNum) {
+		return getDistance(side, pipNum) <= HOME_BOARD_SIZE;
+	}
+
+	public static void checkSide(int side) {
+		if (side != BOTTOM && side != TOP) {
+			throw new PlayerNoPerspectiveException("Side: " + side);
+		}
+	}
+
+	/* Queries. */
+
+	// raw signed count of a pip.
+	public int getCount(int pipNum) {
+		return pips[pipNum];
+	}
+
+	// number of checkers in the pip, regardless of color.
+	public int size(int pipNum) {
+		int count = pips[pipNum];
+		return count < 0 ? -count : count;
+	}
+
+	public boolean isEmpty(int pipNum) {
+		return pips[pipNum] == 0;
+	}
+
+	/**
+	 * Returns the side that owns the checkers of the pip.
+	 * @param pipNum zero-based pip.
+	 * @return BOTTOM, TOP, or -1 if the pip is empty.
+	 */
+	public int getOwner(int pipNum) {
+		int count = pips[pipNum];
+		if (count == 0) return -1;
+		return count > 0 ? BOTTOM : TOP;
+	}
+
+	// number of the side's checkers in the pip.
+	public int getCheckers(int side, int pipNum) {
+		int count = pips[pipNum] * getSign(side);
+		return count > 0 ? count : 0;
+	}
+
+	public int getBar(int side) {
+		return bars[side];
+	}
+
+	public int getHome(int side) {
+		return homes[side];
+	}
+
+	// checkers of the side still in play, i.e. in pips or bar.
+	public int getCheckersInPlay(int side) {
+		return MAX_CHECKERS - homes[side];
+	}
+
+	/**
+	 * Returns a boolean value indicating if the side can place a checker at the pip,
+	 * i.e. pip is empty, has the side's checkers, or has a single opponent checker.
+	 * @param side BOTTOM or TOP.
+	 * @param pipNum zero-based pip.
+	 * @return the boolean value.
+	 */
+	public boolean isOpen(int side, int pipNum) {
+		return pips[pipNum] * getSign(side) >= -1;
+	}
+
+	// opponent has exactly one checker in the pip.
+	public boolean isBlot(int side, int pipNum) {
+		return pips[pipNum] * getSign(side) == -1;
+	}
+
+	/**
+	 * Checks if all of the side's checkers on the board are in its home board.
+	 * Does not consider the bar, same as isAllCheckersInHomeBoard() of BoardComponents.
+	 * @param side BOTTOM or TOP.
+	 * @return the boolean value.
+	 */
+	public boolean isAllCheckersInHomeBoard(int side) {
+		if (side == BOTTOM) {
+			for (int pipNum = HOME_BOARD_SIZE; pipNum < NUMBER_OF_PIPS; pipNum++) {
+				if (pips[pipNum] > 0) return false;
+			}
+		} else {
+			for (int pipNum = 0; pipNum < NUMBER_OF_PIPS-HOME_BOARD_SIZE; pipNum++) {
+				if (pips[pipNum] < 0) return false;
+			}
+		}
+		return true;
+	}
+
+	// able to bear off if no checkers in bar and all checkers in home board.
+	public boolean canBearOff(int side) {
+		return bars[side] == 0 && isAllCheckersInHomeBoard(side);
+	}
+
+	/**
+	 * Checks if the side has checkers further away from home than fromPip.
+	 * Used to decide if a die larger than needed can bear off the checker at fromPip,
+	 * same as hasBetterPipsToBearOff() of BoardQuadrant.
+	 * @param side BOTTOM or TOP.
+	 * @param fromPip zero-based pip.
+	 * @return the boolean value.
+	 */
+	public boolean hasCheckersBehind(int side, int fromPip) {
+		if (side == BOTTOM) {
+			for (int pipNum = fromPip+1; pipNum < NUMBER_OF_PIPS; pipNum++) {
+				if (pips[pipNum] > 0) return true;
+			}
+		} else {
+			for (int pipNum = fromPip-1; pipNum >= 0; pipNum--) {
+				if (pips[pipNum] < 0) return true;
+			}
+		}
+		return bars[side] > 0;
+	}
+
+	/**
+	 * Returns the total pips the side needs to bear off all its checkers.
+	 * @param side BOTTOM or TOP.
+	 * @return the pip count.
+	 */
+	public int getPipCount(int side) {
+		int sign = getSign(side);
+		int total = bars[side] * (NUMBER_OF_PIPS+1);
+		for (int pipNum = 0; pipNum < NUMBER_OF_PIPS; pipNum++) {
+			int count = pips[pipNum] * sign;
+			if (count > 0) total += count * getDistance(side, pipNum);
+		}
+		return total;
+	}
+
+	public boolean isGameOver() {
+		return homes[BOTTOM] == MAX_CHECKERS || homes[TOP] == MAX_CHECKERS;
+	}
+
+	/**
+	 * Returns the winner of the game, if there is one.
+	 * @return BOTTOM, TOP, or -1 if the game is not over.
+	 */
+	public int getWinner() {
+		if (homes[BOTTOM] == MAX_CHECKERS) return BOTTOM;
+		if (homes[TOP] == MAX_CHECKERS) return TOP;
+		return -1;
+	}
+
+	/**
+	 * Calculate the game score at game end based on rules.
+	 * Same rules as getGameScore() of Board.
+	 * @param loser the side that lost.
+	 * @return the ordinal of GameEndScore, i.e. 1 single, 2 gammon, 3 backgammon.
+	 */
+	public int getGameScore(int loser) {
+		GameEndScore score = GameEndScore.SINGLE;
+
+		// if loser has no checkers bore off, and
+		// furthest checker is in bar or winner's inner board, backgammon.
+		// else, gammon.
+		if (homes[loser] == 0) {
+			score = GameEndScore.GAMMON;
+			if (bars[loser] > 0) {
+				score = GameEndScore.BACKGAMMON;
+			} else {
+				int winner = getOpponent(loser);
+				for (int pipNum = 0; pipNum < NUMBER_OF_PIPS; pipNum++) {
+					if (isInHomeBoard(winner, pipNum) && getCheckers(loser, pipNum) > 0) {
+						score = GameEndScore.BACKGAMMON;
+						break;
+					}
+				}
+			}
+		}
+		return score.ordinal();
+	}
+
+	/* Setters, used to sync from or to the UI board. */
+
+	public void setCheckers(int pipNum, int side, int count) {
+		setCount(pipNum, count * getSign(side));
+	}
+
+	public void setBar(int side, int count) {
+		hash ^= Zobrist.getBarKey(side, bars[side]) ^ Zobrist.getBarKey(side, count);
+		bars[side] = (byte) count;
+	}
+
+	public void setHome(int side, int count) {
+		hash ^= Zobrist.getHomeKey(side, homes[side]) ^ Zobrist.getHomeKey(side, count);
+		homes[side] = (byte) count;
+	}
+
+	// sets the raw signed count of a pip, every pip change goes through here to update the hash.
+	private void setCount(int pipNum, int count) {
+		hash ^= Zobrist.getPipKey(pipNum, pips[pipNum]) ^ Zobrist.getPipKey(pipNum, count);
+		pips[pipNum] = (byte) count;
+	}
+
+	/* Primitive checker movements, same as the ones of GameComponentsController and Board. */
+
+	// pops a checker from one pip and push it to the other, hits are not handled.
+	public void movePipToPip(int fromPip, int toPip) {
+		int side = getOwner(fromPip);
+		int sign = getSign(side);
+		setCount(fromPip, pips[fromPip] - sign);
+		setCount(toPip, pips[toPip] + sign);
+	}
+
+	// pops a checker from a pip and push it to the bar of its side.
+	public void movePipToBar(int fromPip) {
+		int side = getOwner(fromPip);
+		setCount(fromPip, pips[fromPip] - getSign(side));
+		setBar(side, bars[side] + 1);
+	}
+
+	// pops a checker from the side's bar and push it to a pip.
+	public void moveBarToPip(int side, int toPip) {
+		setBar(side, bars[side] - 1);
+		setCount(toPip, pips[toPip] + getSign(side));
+	}
+
+	// pops a checker from a pip and push it to the home of its side.
+	public void movePipToHome(int fromPip) {
+		int side = getOwner(fromPip);
+		setCount(fromPip, pips[fromPip] - getSign(side));
+		setHome(side, homes[side] + 1);
+	}
+
+	// pops a checker from the side's bar and push it to its home.
+	public void moveBarToHome(int side) {
+		setBar(side, bars[side] - 1);
+		setHome(side, homes[side] + 1);
+	}
+
+	/**
+	 * Makes a move of the side, including hitting a blot at toPip.
+	 * fromPip may be the bear-on boundary, toPip may be beyond the bear-off boundary.
+	 * The move is assumed to be legal.
+	 * @param side BOTTOM or TOP.
+	 * @param fromPip zero-based pip, or bear-on boundary.
+	 * @param toPip zero-based pip, or any pip beyond the board to bear off.
+	 * @return boolean value indicating if a checker was hit.
+	 */
+	public boolean applyMove(int side, int fromPip, int toPip) {
+		int sign = getSign(side);
+		if (isPipNumberInRange(fromPip)) {
+			setCount(fromPip, pips[fromPip] - sign);
+		} else {
+			setBar(side, bars[side] - 1);
+		}
+
+		boolean isHit = false;
+		if (isPipNumberInRange(toPip)) {
+			if (pips[toPip] == -sign) {
+				int opponent = getOpponent(side);
+				setBar(opponent, bars[opponent] + 1);
+				setCount(toPip, sign);
+				isHit = true;
+			} else {
+				setCount(toPip, pips[toPip] + sign);
+			}
+		} else {
+			setHome(side, homes[side] + 1);
+		}
+		return isHit;
+	}
+
+	/**
+	 * Reverts a move made by applyMove().
+	 * @param side BOTTOM or TOP.
+	 * @param fromPip the fromPip given to applyMove().
+	 * @param toPip the toPip given to applyMove().
+	 * @param isHit the value returned by applyMove().
+	 */
+	public void undoMove(int side, int fromPip, int toPip, boolean isHit) {
+		int sign = getSign(side);
+		if (isPipNumberInRange(toPip)) {
+			if (isHit) {
+				int opponent = getOpponent(side);
+				setCount(toPip, -sign);
+				setBar(opponent, bars[opponent] - 1);
+			} else {
+				setCount(toPip, pips[toPip] - sign);
+			}
+		} else {
+			setHome(side, homes[side] - 1);
+		}
+
+		if (isPipNumberInRange(fromPip)) {
+			setCount(fromPip, pips[fromPip] + sign);
+		} else {
+			setBar(side, bars[side] + 1);
+		}
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (!(obj instanceof BoardState)) return false;
+		BoardState other = (BoardState) obj;
+		return Arrays.equals(pips, other.pips) && Arrays.equals(bars, other.bars) && Arrays.equals(homes, other.homes);
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	/**
+	 * Returns the board in the form of "pips | bars | homes".
+	 * i.e. "-2 0 0 0 0 5 ... | 0 0 | 0 0".
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int pipNum = 0; pipNum < NUMBER_OF_PIPS; pipNum++) {
+			sb.append(pips[pipNum]).append(' ');
+		}
+		sb.append("| ").append(bars[BOTTOM]).append(' ').append(bars[TOP]);
+		sb.append(" | ").append(homes[BOTTOM]).append(' ').append(homes[TOP]);
+		return sb.toString();
+	}
+}
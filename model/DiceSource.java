@@ -0,0 +1,94 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class represents a stream of dice, backed by a SplittableRandom (SplitMix64).
+ *
+ * A stream started from a seed always deals the same dice, so a game is replayed bit-for-bit by its seed.
+ * split() starts an independent stream, seeded from this one, e.g. one per simulation thread or per game,
+ * so threads never share a generator and the split streams are still reproducible from the first seed.
+ *
+ * The game rolls from getGameDice(), reseeded at every /start or by /seed.
+ * Rotations of the dice and the cube, and the random song, roll from getCosmetic(),
+ * so redrawing the board never shifts the dice of a replay.
+ *
+ * An instance is not thread safe, use one per thread.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class DiceSource {
+	public static final int DIE_FACES = 6;
+
+	private static final DiceSource GAME_DICE = new DiceSource();
+	private static final DiceSource COSMETIC = new DiceSource();
+
+	private SplittableRandom random;
+	private long seed;
+
+	// random seed.
+	public DiceSource() {
+		this(newSeed());
+	}
+
+	public DiceSource(long seed) {
+		setSeed(seed);
+	}
+
+	// the dice of the game on the board, used on the JavaFX thread only.
+	public static DiceSource getGameDice() {
+		return GAME_DICE;
+	}
+
+	// rolls that do not change the game, e.g. rotations of images.
+	public static DiceSource getCosmetic() {
+		return COSMETIC;
+	}
+
+	// a seed from the default seeding of SplittableRandom, different each call.
+	public static long newSeed() {
+		return new SplittableRandom().nextLong();
+	}
+
+	/**
+	 * Restarts the stream, the same seed deals the same dice.
+	 * @param seed seed of the stream.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+		random = new SplittableRandom(seed);
+	}
+
+	// the seed the stream started from.
+	public long getSeed() {
+		return seed;
+	}
+
+	// a die from 1 to 6.
+	public int rollDie() {
+		return 1 + random.nextInt(DIE_FACES);
+	}
+
+	// a number from 0 to bound-1.
+	public int nextInt(int bound) {
+		return random.nextInt(bound);
+	}
+
+	// a number from origin to bound-1.
+	public int nextInt(int origin, int bound) {
+		return random.nextInt(origin, bound);
+	}
+
+	/**
+	 * Returns an independent stream, seeded by the next number of this one.
+	 * The split stream's seed is known, so it can be replayed on its own.
+	 * @return the new stream.
+	 */
+	public DiceSource split() {
+		return new DiceSource(random.nextLong());
+	}
+}
@@ -0,0 +1,205 @@
+package model;
+
+import java.util.Base64;
+
+/**
+ * This class represents the match ID of GNU Backgammon, i.e. 12 characters of base64
+ * for the cube, the score, the dice and whose turn it is, everything of a game besides the board.
+ *
+ * The key is 66 bits in 9 bytes, filled from the lowest bit, each field from its lowest bit:
+ * 		- 4 bits, log2 of the cube value.
+ * 		- 2 bits, cube owner, player 0 or 1, or 3 if centered.
+ * 		- 1 bit, player on roll.
+ * 		- 1 bit, Crawford game.
+ * 		- 3 bits, game state, see the constants below.
+ * 		- 1 bit, player to decide, i.e. the opponent of the player on roll once doubled.
+ * 		- 1 bit, double offered.
+ * 		- 2 bits, resignation offered, 0 if none.
+ * 		- 3 bits each, the two dice, 0 if not rolled.
+ * 		- 15 bits, match length, 0 for money.
+ * 		- 15 bits each, the scores of player 0 and 1.
+ * Player 0 of GNU Backgammon is BOTTOM, player 1 is TOP, as in PositionId.
+ *
+ * Instances are immutable.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class MatchId {
+	public static final int KEY_BYTES = 9;
+	public static final int LENGTH = 12;
+	// game states.
+	public static final int NO_GAME = 0;
+	public static final int PLAYING = 1;
+	public static final int GAME_OVER = 2;
+	public static final int RESIGNED = 3;
+	public static final int DROPPED = 4;
+	private static final int CENTERED_OWNER = 3;
+
+	private final MatchState match;
+	private final int sideOnRoll, turn, gameState, resignation, die1, die2;
+	private final boolean isDoubleOffered;
+
+	/**
+	 * Constructor.
+	 * @param match the score, the cube and the Crawford game.
+	 * @param gameState PLAYING, NO_GAME, ...
+	 * @param sideOnRoll BOTTOM or TOP, the side whose turn it is.
+	 * @param turn BOTTOM or TOP, the side to decide, the opponent of sideOnRoll if a double is offered.
+	 * @param isDoubleOffered true if sideOnRoll doubled and turn has not answered yet.
+	 * @param die1 first dice result, or 0 if not rolled.
+	 * @param die2 second dice result, or 0 if not rolled.
+	 */
+	public MatchId(MatchState match, int gameState, int sideOnRoll, int turn, boolean isDoubleOffered, int die1, int die2) {
+		this(match, gameState, sideOnRoll, turn, isDoubleOffered, 0, die1, die2);
+	}
+
+	private MatchId(MatchState match, int gameState, int sideOnRoll, int turn, boolean isDoubleOffered,
+			int resignation, int die1, int die2) {
+		BoardState.checkSide(sideOnRoll);
+		BoardState.checkSide(turn);
+		this.match = match;
+		this.gameState = gameState;
+		this.sideOnRoll = sideOnRoll;
+		this.turn = turn;
+		this.isDoubleOffered = isDoubleOffered;
+		this.resignation = resignation;
+		this.die1 = die1;
+		this.die2 = die2;
+	}
+
+	/**
+	 * Writes the 9 bytes key of the match.
+	 * @param key buffer to write to.
+	 * @param offset index of the first byte in key.
+	 */
+	public void writeKey(byte[] key, int offset) {
+		for (int i = 0; i < KEY_BYTES; i++) {
+			key[offset + i] = 0;
+		}
+		int bit = 0;
+		bit = setBits(key, offset, bit, 4, Integer.numberOfTrailingZeros(match.getCube()));
+		bit = setBits(key, offset, bit, 2, match.getCubeOwner() == MatchState.CENTERED ? CENTERED_OWNER : match.getCubeOwner());
+		bit = setBits(key, offset, bit, 1, sideOnRoll);
+		bit = setBits(key, offset, bit, 1, match.isCrawford() ? 1 : 0);
+		bit = setBits(key, offset, bit, 3, gameState);
+		bit = setBits(key, offset, bit, 1, turn);
+		bit = setBits(key, offset, bit, 1, isDoubleOffered ? 1 : 0);
+		bit = setBits(key, offset, bit, 2, resignation);
+		bit = setBits(key, offset, bit, 3, die1);
+		bit = setBits(key, offset, bit, 3, die2);
+		bit = setBits(key, offset, bit, 15, match.getLength());
+		bit = setBits(key, offset, bit, 15, match.getScore(BoardState.BOTTOM));
+		setBits(key, offset, bit, 15, match.getScore(BoardState.TOP));
+	}
+
+	/**
+	 * Returns the match from a 9 bytes key.
+	 * Post-Crawford is not in the key, it is taken as a score at match point after the Crawford game.
+	 * @param key buffer to read from.
+	 * @param offset index of the first byte in key.
+	 * @throws IllegalArgumentException if the key is not a legal match.
+	 */
+	public static MatchId readKey(byte[] key, int offset) {
+		int cube = 1 << getBits(key, offset, 0, 4);
+		int owner = getBits(key, offset, 4, 2);
+		int sideOnRoll = getBits(key, offset, 6, 1);
+		boolean isCrawford = getBits(key, offset, 7, 1) == 1;
+		int gameState = getBits(key, offset, 8, 3);
+		int turn = getBits(key, offset, 11, 1);
+		boolean isDoubleOffered = getBits(key, offset, 12, 1) == 1;
+		int resignation = getBits(key, offset, 13, 2);
+		int die1 = getBits(key, offset, 15, 3);
+		int die2 = getBits(key, offset, 18, 3);
+		int length = getBits(key, offset, 21, 15);
+		int bottomScore = getBits(key, offset, 36, 15);
+		int topScore = getBits(key, offset, 51, 15);
+
+		if (owner == 2) throw new IllegalArgumentException("Cube owner: " + owner);
+		if (gameState > DROPPED) throw new IllegalArgumentException("Game state: " + gameState);
+		if (die1 > 6 || die2 > 6 || (die1 == 0) != (die2 == 0)) throw new IllegalArgumentException("Dice: " + die1 + ", " + die2);
+		if (length > 0 && (bottomScore >= length || topScore >= length) && gameState == PLAYING) {
+			throw new IllegalArgumentException("Score " + bottomScore + "-" + topScore + " of a " + length + "-point match.");
+		}
+		boolean isPostCrawford = length > 0 && !isCrawford && (bottomScore == length-1 || topScore == length-1);
+		MatchState match = new MatchState(length, bottomScore, topScore, cube,
+				owner == CENTERED_OWNER ? MatchState.CENTERED : owner, isCrawford, isPostCrawford);
+		return new MatchId(match, gameState, sideOnRoll, turn, isDoubleOffered, resignation, die1, die2);
+	}
+
+	/**
+	 * Returns the match from a match ID.
+	 * @param id the match ID, 12 characters.
+	 * @throws IllegalArgumentException if the ID is not a legal match.
+	 */
+	public static MatchId decode(String id) {
+		if (id.length() != LENGTH) throw new IllegalArgumentException("Match ID is " + LENGTH + " characters.");
+		return readKey(Base64.getDecoder().decode(id), 0);
+	}
+
+	// the match ID, e.g. "MAHgAAAAAAAA" for the start of a 0-0 7-point match with BOTTOM on roll.
+	public String encode() {
+		byte[] key = new byte[KEY_BYTES];
+		writeKey(key, 0);
+		return Base64.getEncoder().encodeToString(key);
+	}
+
+	private static int setBits(byte[] key, int offset, int bit, int bits, int value) {
+		for (int i = 0; i < bits; i++, bit++) {
+			if ((value >>> i & 1) != 0) key[offset + bit / 8] |= 1 << (bit % 8);
+		}
+		return bit;
+	}
+
+	private static int getBits(byte[] key, int offset, int bit, int bits) {
+		int value = 0;
+		for (int i = 0; i < bits; i++, bit++) {
+			if ((key[offset + bit / 8] & 1 << (bit % 8)) != 0) value |= 1 << i;
+		}
+		return value;
+	}
+
+	public MatchState getMatchState() {
+		return match;
+	}
+
+	public int getGameState() {
+		return gameState;
+	}
+
+	public int getSideOnRoll() {
+		return sideOnRoll;
+	}
+
+	public int getTurn() {
+		return turn;
+	}
+
+	public boolean isDoubleOffered() {
+		return isDoubleOffered;
+	}
+
+	public int getResignation() {
+		return resignation;
+	}
+
+	public int getDie1() {
+		return die1;
+	}
+
+	public int getDie2() {
+		return die2;
+	}
+
+	public boolean isRolled() {
+		return die1 != 0;
+	}
+
+	@Override
+	public String toString() {
+		return encode();
+	}
+}
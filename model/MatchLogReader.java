@@ -0,0 +1,300 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class reads a match log written by MatchLogWriter, see there for the file format.
+ *
+ * The games are found by the index at the end of the file, or by scanning the records if the log was not closed.
+ * A game is read with a single positional read when first asked for, the records after the game are never read,
+ * and the board at any record is the key of the last play or game start before it, so seeking never replays moves.
+ *
+ * An instance is not thread safe.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class MatchLogReader implements Closeable {
+	private final FileChannel channel;
+	private final int length;
+	private final long startTime;
+	private final String[] names;
+	private long[] gameOffsets;
+	private int games;
+	// offset of the end of the records.
+	private long recordsEnd;
+
+	// the game last read.
+	private int loadedGame;
+	private ByteBuffer gameBuffer;
+	private int[] recordOffsets;
+	private int records;
+
+	/**
+	 * Opens a match log.
+	 * @param path the log file.
+	 * @throws IOException if the file cannot be read or is not a match log.
+	 */
+	public MatchLogReader(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = read(0, (int) Math.min(channel.size(), 3 * Integer.BYTES + Long.BYTES + 2 * (Short.BYTES + Short.MAX_VALUE)));
+			if (header.remaining() < 3 * Integer.BYTES + Long.BYTES || header.getInt() != MatchLogWriter.MAGIC) {
+				throw new IOException("Not a match log: " + path);
+			}
+			int version = header.getInt();
+			if (version != MatchLogWriter.VERSION) throw new IOException("Unsupported match log version " + version + ": " + path);
+			length = header.getInt();
+			startTime = header.getLong();
+			names = new String[] {getName(header), getName(header)};
+
+			if (!readIndex()) scan(header.position());
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		loadedGame = -1;
+		recordOffsets = new int[64];
+	}
+
+	private static String getName(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getShort()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	// reads the index from the trailer, false if there is none.
+	private boolean readIndex() throws IOException {
+		long size = channel.size();
+		if (size < MatchLogWriter.TRAILER_BYTES) return false;
+		ByteBuffer trailer = read(size - MatchLogWriter.TRAILER_BYTES, MatchLogWriter.TRAILER_BYTES);
+		long indexOffset = trailer.getLong();
+		if (trailer.getInt() != MatchLogWriter.INDEX_MAGIC || indexOffset < 0 || indexOffset > size - MatchLogWriter.TRAILER_BYTES) return false;
+
+		ByteBuffer index = read(indexOffset, (int) (size - MatchLogWriter.TRAILER_BYTES - indexOffset));
+		games = index.getInt();
+		if (games < 0 || index.remaining() != games * Long.BYTES) return false;
+		gameOffsets = new long[games];
+		for (int game = 0; game < games; game++) {
+			gameOffsets[game] = index.getLong();
+		}
+		recordsEnd = indexOffset;
+		return true;
+	}
+
+	// finds the games by walking the records from the offset, up to the first incomplete or unknown record.
+	private void scan(long offset) throws IOException {
+		gameOffsets = new long[16];
+		games = 0;
+		long size = channel.size();
+		ByteBuffer records = read(offset, (int) Math.min(size - offset, Integer.MAX_VALUE));
+		while (records.hasRemaining()) {
+			int start = records.position();
+			byte type = records.get(start);
+			int bytes = MatchLogWriter.getRecordBytes(type);
+			if (bytes < 0 || records.remaining() < bytes) break;
+			if (type == MatchLogWriter.GAME_START) {
+				if (games == gameOffsets.length) gameOffsets = Arrays.copyOf(gameOffsets, games * 2);
+				gameOffsets[games++] = offset + start;
+			}
+			records.position(start + bytes);
+		}
+		recordsEnd = offset + records.position();
+	}
+
+	private ByteBuffer read(long position, int bytes) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) break;
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	// reads the game's records, unless it is the game last read.
+	private void load(int game) throws IOException {
+		if (game == loadedGame) return;
+		if (game < 0 || game >= games) throw new IndexOutOfBoundsException("Game " + game + " of " + games);
+		long end = game+1 < games ? gameOffsets[game+1] : recordsEnd;
+		gameBuffer = read(gameOffsets[game], (int) (end - gameOffsets[game]));
+		records = 0;
+		int offset = 0;
+		while (offset < gameBuffer.limit()) {
+			int bytes = MatchLogWriter.getRecordBytes(gameBuffer.get(offset));
+			if (bytes < 0 || offset + bytes > gameBuffer.limit()) break;
+			if (records == recordOffsets.length) recordOffsets = Arrays.copyOf(recordOffsets, records * 2);
+			recordOffsets[records++] = offset;
+			offset += bytes;
+		}
+		loadedGame = game;
+	}
+
+	public int getGames() {
+		return games;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	// in ms since the epoch.
+	public long getStartTime() {
+		return startTime;
+	}
+
+	public String getName(int side) {
+		return names[side];
+	}
+
+	/**
+	 * Returns the number of records of the game, the GAME_START included.
+	 * @param game the game, 0 to getGames()-1.
+	 */
+	public int getRecords(int game) throws IOException {
+		load(game);
+		return records;
+	}
+
+	/**
+	 * Returns a record of a game.
+	 * @param game the game, 0 to getGames()-1.
+	 * @param record the record, 0 to getRecords(game)-1, 0 is the GAME_START.
+	 */
+	public Record getRecord(int game, int record) throws IOException {
+		load(game);
+		if (record < 0 || record >= records) throw new IndexOutOfBoundsException("Record " + record + " of " + records);
+		return new Record(gameBuffer, recordOffsets[record]);
+	}
+
+	/**
+	 * Sets the board as it was after a record of a game, i.e. after the last play up to the record.
+	 * @param game the game, 0 to getGames()-1.
+	 * @param record the record, 0 to getRecords(game)-1.
+	 * @param state the board to set.
+	 */
+	public void getPosition(int game, int record, BoardState state) throws IOException {
+		load(game);
+		if (record < 0 || record >= records) throw new IndexOutOfBoundsException("Record " + record + " of " + records);
+		for (int i = record; i >= 0; i--) {
+			int offset = recordOffsets[i];
+			byte type = gameBuffer.get(offset);
+			if (type == MatchLogWriter.PLAY) {
+				PositionId.readKey(gameBuffer.array(), offset + 2, gameBuffer.get(offset + 1), state);
+				return;
+			} else if (type == MatchLogWriter.GAME_START) {
+				PositionId.readKey(gameBuffer.array(), offset + 1 + 2 * Short.BYTES + 1, BoardState.BOTTOM, state);
+				return;
+			}
+		}
+		throw new IllegalStateException("Game " + game + " does not start with a GAME_START record.");
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * This class represents a record of the log, as plain fields.
+	 * Fields a record type does not have are 0, see MatchLogWriter.
+	 */
+	public static class Record {
+		private final byte type;
+		private final int side, die1, die2, bottomScore, topScore;
+		private final boolean isCrawford;
+
+		private Record(ByteBuffer buffer, int offset) {
+			type = buffer.get(offset);
+			int side = 0, die1 = 0, die2 = 0, bottomScore = 0, topScore = 0;
+			boolean isCrawford = false;
+			switch (type) {
+				case MatchLogWriter.GAME_START:
+					bottomScore = buffer.getShort(offset + 1);
+					topScore = buffer.getShort(offset + 3);
+					isCrawford = buffer.get(offset + 5) == 1;
+					break;
+				case MatchLogWriter.ROLL:
+					side = buffer.get(offset + 1);
+					die1 = buffer.get(offset + 2);
+					die2 = buffer.get(offset + 3);
+					break;
+				case MatchLogWriter.GAME_END:
+					side = buffer.get(offset + 1);
+					bottomScore = buffer.getShort(offset + 2);
+					topScore = buffer.getShort(offset + 4);
+					break;
+				default:
+					side = buffer.get(offset + 1);
+			}
+			this.side = side;
+			this.die1 = die1;
+			this.die2 = die2;
+			this.bottomScore = bottomScore;
+			this.topScore = topScore;
+			this.isCrawford = isCrawford;
+		}
+
+		public byte getType() {
+			return type;
+		}
+
+		// the side that rolled, played, doubled, took or passed, or the winner of GAME_END.
+		public int getSide() {
+			return side;
+		}
+
+		public int getDie1() {
+			return die1;
+		}
+
+		public int getDie2() {
+			return die2;
+		}
+
+		// score of the side at GAME_START, or after the game at GAME_END.
+		public int getScore(int side) {
+			return side == BoardState.BOTTOM ? bottomScore : topScore;
+		}
+
+		public boolean isCrawford() {
+			return isCrawford;
+		}
+
+		/**
+		 * Returns the record in the form of "ROLL TOP 6-5".
+		 */
+		@Override
+		public String toString() {
+			String sideName = side == BoardState.BOTTOM ? "BOTTOM" : "TOP";
+			switch (type) {
+				case MatchLogWriter.GAME_START:
+					return "GAME_START " + bottomScore + "-" + topScore + (isCrawford ? " Crawford" : "");
+				case MatchLogWriter.ROLL:
+					return "ROLL " + sideName + " " + die1 + "-" + die2;
+				case MatchLogWriter.PLAY:
+					return "PLAY " + sideName;
+				case MatchLogWriter.DOUBLE:
+					return "DOUBLE " + sideName;
+				case MatchLogWriter.TAKE:
+					return "TAKE " + sideName;
+				case MatchLogWriter.PASS:
+					return "PASS " + sideName;
+				case MatchLogWriter.GAME_END:
+					return "GAME_END " + sideName + " " + bottomScore + "-" + topScore;
+				default:
+					return "UNKNOWN " + type;
+			}
+		}
+	}
+}
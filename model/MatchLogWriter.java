@@ -0,0 +1,222 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class writes a match log, a binary stream of the rolls, plays, cube actions and scores of a match,
+ * read back by MatchLogReader.
+ *
+ * Records are buffered and written through a FileChannel when the buffer is full, at the end of each game and on close.
+ * Plays are saved as the position key of the board after the play, see PositionId,
+ * so any position of the log is read without replaying the game.
+ *
+ * File format, little-endian:
+ * 		- header: int magic "BGML", int version, int match length, long start time in ms,
+ * 		  then the names of BOTTOM and TOP, each a short length and UTF-8 bytes.
+ * 		- records, a type byte then a fixed size body per type:
+ * 			GAME_START	short BOTTOM score, short TOP score, byte Crawford game, key of the board, BOTTOM on roll.
+ * 			ROLL		byte side, byte die1, byte die2.
+ * 			PLAY		byte side, key of the board after the play, side on roll.
+ * 			DOUBLE		byte side, the doubler.
+ * 			TAKE		byte side, the taker.
+ * 			PASS		byte side, the side that passed.
+ * 			GAME_END	byte winner, short BOTTOM score, short TOP score, after the game.
+ * 		- index, written on close: int number of games, long offset of each GAME_START.
+ * 		- trailer: long offset of the index, int magic "BGMX".
+ * A log without a trailer, e.g. the game crashed, is still read, its games are found by scanning the records.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class MatchLogWriter implements Closeable {
+	public static final String EXTENSION = ".bgml";
+	static final int MAGIC = 0x4C4D4742;
+	static final int INDEX_MAGIC = 0x584D4742;
+	static final int VERSION = 1;
+	static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+
+	// record types.
+	public static final byte GAME_START = 1;
+	public static final byte ROLL = 2;
+	public static final byte PLAY = 3;
+	public static final byte DOUBLE = 4;
+	public static final byte TAKE = 5;
+	public static final byte PASS = 6;
+	public static final byte GAME_END = 7;
+
+	private static final int BUFFER_BYTES = 1 << 16;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final byte[] key;
+	// bytes written to the channel so far.
+	private long written;
+	private long[] gameOffsets;
+	private int games;
+
+	/**
+	 * Creates the log file, replacing any file at the path, and writes the header.
+	 * @param path the log file.
+	 * @param length points to win the match, 0 for money games.
+	 * @param bottomName name of the BOTTOM player.
+	 * @param topName name of the TOP player.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public MatchLogWriter(Path path, int length, String bottomName, String topName) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		key = new byte[PositionId.KEY_BYTES];
+		gameOffsets = new long[16];
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(length).putLong(System.currentTimeMillis());
+		putName(bottomName);
+		putName(topName);
+	}
+
+	private void putName(String name) throws IOException {
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+		int size = Math.min(bytes.length, Short.MAX_VALUE);
+		ensure(Short.BYTES + size);
+		buffer.putShort((short) size).put(bytes, 0, size);
+	}
+
+	// the record type's size, type byte included, or -1 if unknown.
+	static int getRecordBytes(byte type) {
+		switch (type) {
+			case GAME_START:
+				return 1 + 2 * Short.BYTES + 1 + PositionId.KEY_BYTES;
+			case ROLL:
+				return 4;
+			case PLAY:
+				return 2 + PositionId.KEY_BYTES;
+			case DOUBLE:
+			case TAKE:
+			case PASS:
+				return 2;
+			case GAME_END:
+				return 2 + 2 * Short.BYTES;
+			default:
+				return -1;
+		}
+	}
+
+	/**
+	 * Starts a game.
+	 * @param match the score and Crawford game at the start of the game.
+	 * @param state the board at the start of the game, usually the starting position.
+	 */
+	public void startGame(MatchState match, BoardState state) throws IOException {
+		ensure(getRecordBytes(GAME_START));
+		if (games == gameOffsets.length) gameOffsets = Arrays.copyOf(gameOffsets, games * 2);
+		gameOffsets[games++] = getPosition();
+		buffer.put(GAME_START);
+		buffer.putShort((short) match.getScore(BoardState.BOTTOM)).putShort((short) match.getScore(BoardState.TOP));
+		buffer.put((byte) (match.isCrawford() ? 1 : 0));
+		putKey(state, BoardState.BOTTOM);
+	}
+
+	public void roll(int side, int die1, int die2) throws IOException {
+		ensure(getRecordBytes(ROLL));
+		buffer.put(ROLL).put((byte) side).put((byte) die1).put((byte) die2);
+	}
+
+	/**
+	 * Records a play by the board after it.
+	 * @param side BOTTOM or TOP, the side that played.
+	 * @param state the board after the play.
+	 */
+	public void play(int side, BoardState state) throws IOException {
+		ensure(getRecordBytes(PLAY));
+		buffer.put(PLAY).put((byte) side);
+		putKey(state, side);
+	}
+
+	public void offerDouble(int side) throws IOException {
+		putSideRecord(DOUBLE, side);
+	}
+
+	public void take(int side) throws IOException {
+		putSideRecord(TAKE, side);
+	}
+
+	public void pass(int side) throws IOException {
+		putSideRecord(PASS, side);
+	}
+
+	/**
+	 * Ends a game, the log is flushed so a finished game is never lost.
+	 * @param winner BOTTOM or TOP.
+	 * @param bottomScore score of BOTTOM after the game.
+	 * @param topScore score of TOP after the game.
+	 */
+	public void endGame(int winner, int bottomScore, int topScore) throws IOException {
+		ensure(getRecordBytes(GAME_END));
+		buffer.put(GAME_END).put((byte) winner).putShort((short) bottomScore).putShort((short) topScore);
+		flush();
+	}
+
+	private void putSideRecord(byte type, int side) throws IOException {
+		ensure(getRecordBytes(type));
+		buffer.put(type).put((byte) side);
+	}
+
+	private void putKey(BoardState state, int sideOnRoll) {
+		PositionId.writeKey(state, sideOnRoll, key, 0);
+		buffer.put(key);
+	}
+
+	// offset in the file of the next byte written.
+	private long getPosition() {
+		return written + buffer.position();
+	}
+
+	// makes room in the buffer for the given bytes.
+	private void ensure(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) flush();
+	}
+
+	// writes the buffered records to the file.
+	public void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			written += channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	public int getGames() {
+		return games;
+	}
+
+	/**
+	 * Writes the index of the games and the trailer, then closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!channel.isOpen()) return;
+		try {
+			long indexOffset = getPosition();
+			ensure(Integer.BYTES);
+			buffer.putInt(games);
+			for (int game = 0; game < games; game++) {
+				ensure(Long.BYTES);
+				buffer.putLong(gameOffsets[game]);
+			}
+			ensure(TRAILER_BYTES);
+			buffer.putLong(indexOffset).putInt(INDEX_MAGIC);
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package model;
+
+/**
+ * This class represents the state of the match a game is played in, as plain primitives,
+ * i.e. the score, the cube and the Crawford rule, what cube decisions depend on besides the board.
+ * A match of length 0 is a money game, the score is left out.
+ *
+ * Instances are immutable.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class MatchState {
+	// owner of a cube in the middle, either side may double.
+	public static final int CENTERED = -1;
+	// same as the highest face of DoublingCube.
+	public static final int MAX_CUBE = 64;
+
+	private final int length;
+	private final int[] scores;
+	private final int cube;
+	private final int cubeOwner;
+	private final boolean isCrawford;
+	private final boolean isPostCrawford;
+
+	/**
+	 * Constructor.
+	 * @param length points to win the match, 0 for a money game.
+	 * @param bottomScore points won by BOTTOM so far.
+	 * @param topScore points won by TOP so far.
+	 * @param cube value of the cube, 1 if not doubled yet.
+	 * @param cubeOwner side that owns the cube, BOTTOM or TOP, or CENTERED.
+	 * @param isCrawford true if this is the Crawford game, no doubling.
+	 * @param isPostCrawford true if the Crawford game has been played before this game.
+	 */
+	public MatchState(int length, int bottomScore, int topScore, int cube, int cubeOwner, boolean isCrawford, boolean isPostCrawford) {
+		this.length = length;
+		this.scores = new int[] {bottomScore, topScore};
+		this.cube = cube;
+		this.cubeOwner = cubeOwner;
+		this.isCrawford = isCrawford;
+		this.isPostCrawford = isPostCrawford;
+	}
+
+	public static MatchState newMoneyGame(int cube, int cubeOwner) {
+		return new MatchState(0, 0, 0, cube, cubeOwner, false, false);
+	}
+
+	public boolean isMoney() {
+		return length == 0;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public int getScore(int side) {
+		return scores[side];
+	}
+
+	// points the side still needs to win the match.
+	public int getAway(int side) {
+		return length - scores[side];
+	}
+
+	public int getCube() {
+		return cube;
+	}
+
+	public int getCubeOwner() {
+		return cubeOwner;
+	}
+
+	public boolean isCrawford() {
+		return isCrawford;
+	}
+
+	public boolean isPostCrawford() {
+		return isPostCrawford;
+	}
+
+	public boolean isCrawfordDone() {
+		return isCrawford || isPostCrawford;
+	}
+
+	/**
+	 * Checks if the side may offer a double at the given cube value,
+	 * same rules as the double command, the cube is dead once a win at it takes the side's match,
+	 * the side must own the cube or the cube must be centered.
+	 * @param side BOTTOM or TOP.
+	 * @param cube value of the cube before the double.
+	 */
+	public boolean canDouble(int side, int cube) {
+		if (isCrawford || cube >= MAX_CUBE) return false;
+		return isMoney() || cube < getAway(side);
+	}
+
+	// checks if the side may double the current cube.
+	public boolean canDouble(int side) {
+		if (cubeOwner != CENTERED && cubeOwner != side) return false;
+		return canDouble(side, cube);
+	}
+
+	/**
+	 * Returns the state of the match after the side doubled and the opponent took,
+	 * i.e. the cube at twice the value, owned by the opponent.
+	 * @param side BOTTOM or TOP, the side that doubled.
+	 */
+	public MatchState getDoubled(int side) {
+		return new MatchState(length, scores[BoardState.BOTTOM], scores[BoardState.TOP], 2 * cube,
+				BoardState.getOpponent(side), isCrawford, isPostCrawford);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (!(obj instanceof MatchState)) return false;
+		MatchState other = (MatchState) obj;
+		return length == other.length && scores[0] == other.scores[0] && scores[1] == other.scores[1]
+				&& cube == other.cube && cubeOwner == other.cubeOwner
+				&& isCrawford == other.isCrawford && isPostCrawford == other.isPostCrawford;
+	}
+
+	/**
+	 * Returns a 64 bit hash of the match state, to be combined with the Zobrist hash of the board.
+	 */
+	public long getHash() {
+		long hash = length;
+		hash = hash * 31 + scores[0];
+		hash = hash * 31 + scores[1];
+		hash = hash * 31 + cube;
+		hash = hash * 31 + cubeOwner;
+		hash = hash * 4 + (isCrawford ? 2 : 0) + (isPostCrawford ? 1 : 0);
+		// spread the bits, see SplittableRandom.
+		hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+		hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+		return hash ^ (hash >>> 31);
+	}
+
+	@Override
+	public int hashCode() {
+		long hash = getHash();
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		String cubeString = "cube " + cube + (cubeOwner == CENTERED ? " centered" : cubeOwner == BoardState.BOTTOM ? " bottom" : " top");
+		if (isMoney()) return "money game, " + cubeString;
+		return scores[0] + "-" + scores[1] + " to " + length + ", " + cubeString
+				+ (isCrawford ? ", Crawford" : isPostCrawford ? ", post-Crawford" : "");
+	}
+}
@@ -0,0 +1,119 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * This class encodes and decodes the position ID of GNU Backgammon, i.e. 14 characters of base64 for a BoardState.
+ *
+ * The key is a string of 80 bits, for each player, first the opponent of the player on roll, then the player on roll,
+ * 25 points from the player's 1 point to its 24 point then the bar, as many 1 bits as checkers then a 0 bit.
+ * Bits fill each of the 10 bytes from the lowest bit, checkers borne off are left out.
+ *
+ * writeKey() fills a caller's buffer without allocating, so the key doubles as an exact key of a position,
+ * e.g. for caches and binary logs.
+ * Player 0 of GNU Backgammon is BOTTOM, player 1 is TOP.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class PositionId {
+	public static final int KEY_BYTES = 10;
+	public static final int LENGTH = 14;
+	private static final int KEY_BITS = KEY_BYTES * 8;
+	// 24 points and the bar per player.
+	private static final int POINTS = BoardState.NUMBER_OF_PIPS + 1;
+
+	/**
+	 * Writes the 10 bytes key of the position.
+	 * @param state the board.
+	 * @param sideOnRoll BOTTOM or TOP.
+	 * @param key buffer to write to.
+	 * @param offset index of the first byte in key.
+	 */
+	public static void writeKey(BoardState state, int sideOnRoll, byte[] key, int offset) {
+		BoardState.checkSide(sideOnRoll);
+		Arrays.fill(key, offset, offset + KEY_BYTES, (byte) 0);
+		int bit = 0;
+		for (int i = 0; i < 2; i++) {
+			int side = i == 0 ? BoardState.getOpponent(sideOnRoll) : sideOnRoll;
+			for (int point = 1; point <= POINTS; point++) {
+				int checkers = point == POINTS ? state.getBar(side) : state.getCheckers(side, getPip(side, point));
+				for (int n = 0; n < checkers; n++, bit++) {
+					key[offset + bit / 8] |= 1 << (bit % 8);
+				}
+				bit++;
+			}
+		}
+	}
+
+	/**
+	 * Returns the position ID of the board, e.g. "4HPwATDgc/ABMA" for the starting position.
+	 * @param state the board.
+	 * @param sideOnRoll BOTTOM or TOP.
+	 * @return the position ID.
+	 */
+	public static String encode(BoardState state, int sideOnRoll) {
+		byte[] key = new byte[KEY_BYTES];
+		writeKey(state, sideOnRoll, key, 0);
+		return Base64.getEncoder().withoutPadding().encodeToString(key);
+	}
+
+	/**
+	 * Reads the board from a 10 bytes key, checkers not on the board are borne off.
+	 * @param key buffer to read from.
+	 * @param offset index of the first byte in key.
+	 * @param sideOnRoll BOTTOM or TOP.
+	 * @param state the board to set.
+	 * @throws IllegalArgumentException if the key is not a legal position.
+	 */
+	public static void readKey(byte[] key, int offset, int sideOnRoll, BoardState state) {
+		BoardState.checkSide(sideOnRoll);
+		state.clear();
+		int bit = 0;
+		for (int i = 0; i < 2; i++) {
+			int side = i == 0 ? BoardState.getOpponent(sideOnRoll) : sideOnRoll;
+			int total = 0;
+			for (int point = 1; point <= POINTS; point++) {
+				int checkers = 0;
+				while (bit < KEY_BITS && (key[offset + bit / 8] & 1 << (bit % 8)) != 0) {
+					checkers++;
+					bit++;
+				}
+				// the 0 bit ending the point.
+				if (bit++ >= KEY_BITS) throw new IllegalArgumentException("Position key runs over " + KEY_BITS + " bits.");
+
+				total += checkers;
+				if (point == POINTS) {
+					state.setBar(side, checkers);
+				} else if (checkers > 0) {
+					int pipNum = getPip(side, point);
+					if (!state.isEmpty(pipNum)) throw new IllegalArgumentException("Both players on pip " + (pipNum+1) + ".");
+					state.setCheckers(pipNum, side, checkers);
+				}
+			}
+			if (total > BoardState.MAX_CHECKERS) throw new IllegalArgumentException("Over " + BoardState.MAX_CHECKERS + " checkers.");
+			state.setHome(side, BoardState.MAX_CHECKERS - total);
+		}
+	}
+
+	/**
+	 * Sets the board from a position ID.
+	 * @param id the position ID, 14 characters.
+	 * @param sideOnRoll BOTTOM or TOP.
+	 * @param state the board to set.
+	 * @throws IllegalArgumentException if the ID is not a legal position.
+	 */
+	public static void decode(String id, int sideOnRoll, BoardState state) {
+		if (id.length() != LENGTH) throw new IllegalArgumentException("Position ID is " + LENGTH + " characters.");
+		readKey(Base64.getDecoder().decode(id), 0, sideOnRoll, state);
+	}
+
+	// the pip of the side's point, 1-24 as seen by the side.
+	private static int getPip(int side, int point) {
+		return side == BoardState.BOTTOM ? point - 1 : BoardState.NUMBER_OF_PIPS - point;
+	}
+}
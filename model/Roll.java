@@ -0,0 +1,100 @@
+package model;
+
+/**
+ * This class represents a roll of two dice, in the order they were rolled, without any JavaFX node.
+ * The 36 rolls are made once, of() returns the same instance for the same dice, so rolling never allocates.
+ * The odds and moves of the roll come from RollTable.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public final class Roll {
+	private static final Roll[] ROLLS = new Roll[RollTable.OUTCOMES];
+
+	static {
+		for (int die1 = 1; die1 <= 6; die1++) {
+			for (int die2 = 1; die2 <= 6; die2++) {
+				ROLLS[RollTable.getOutcome(die1, die2)] = new Roll(die1, die2);
+			}
+		}
+	}
+
+	private final int die1, die2, index;
+
+	private Roll(int die1, int die2) {
+		this.die1 = die1;
+		this.die2 = die2;
+		index = RollTable.getRoll(die1, die2);
+	}
+
+	/**
+	 * Returns the roll of the dice.
+	 * @param die1 first dice result, 1-6.
+	 * @param die2 second dice result, 1-6.
+	 * @return the roll.
+	 */
+	public static Roll of(int die1, int die2) {
+		if (die1 < 1 || die1 > 6 || die2 < 1 || die2 > 6) {
+			throw new IllegalArgumentException("Dice: " + die1 + ", " + die2);
+		}
+		return ROLLS[RollTable.getOutcome(die1, die2)];
+	}
+
+	// the roll of one of the 36 equally likely outcomes, 0-35.
+	public static Roll ofOutcome(int outcome) {
+		return ROLLS[outcome];
+	}
+
+	// the roll from two dice of the source.
+	public static Roll roll(DiceSource source) {
+		int die1 = source.rollDie();
+		int die2 = source.rollDie();
+		return ROLLS[RollTable.getOutcome(die1, die2)];
+	}
+
+	public int getDie1() {
+		return die1;
+	}
+
+	public int getDie2() {
+		return die2;
+	}
+
+	public boolean isDouble() {
+		return die1 == die2;
+	}
+
+	// index of the roll in RollTable, same for both orders of the dice.
+	public int getIndex() {
+		return index;
+	}
+
+	public int getMoveCount() {
+		return RollTable.getMoveCount(index);
+	}
+
+	// a dice result the roll is played as, doubles are four of the same.
+	public int getMove(int move) {
+		return RollTable.getMove(index, move);
+	}
+
+	// pips the roll moves, doubles count four times.
+	public int getPips() {
+		return isDouble() ? die1 * 4 : die1 + die2;
+	}
+
+	public double getProbability() {
+		return RollTable.getProbability(index);
+	}
+
+	/**
+	 * Returns the roll in the form of "6-5".
+	 */
+	@Override
+	public String toString() {
+		return die1 + "-" + die2;
+	}
+}
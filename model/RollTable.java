@@ -0,0 +1,115 @@
+package model;
+
+/**
+ * This class represents the 21 distinct rolls of two dice and their odds.
+ * Doubles happen 1 in 36, other rolls 2 in 36 since either dice can show either result.
+ * Used by the bot to walk the chance nodes of a position.
+ *
+ * Every table is filled once, so walking the rolls, their moves or the 36 outcomes never allocates.
+ * The moves of a roll are the dice results it is played as, i.e. four for doubles.
+ * Roll is the same roll as an object, for code that keeps a roll around.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class RollTable {
+	public static final int ROLLS = 21;
+	public static final int OUTCOMES = 36;
+	public static final int MAX_MOVES = 4;
+
+	private static final int[] DIE1 = new int[ROLLS];
+	private static final int[] DIE2 = new int[ROLLS];
+	private static final int[] WEIGHT = new int[ROLLS];
+	private static final double[] PROBABILITY = new double[ROLLS];
+	private static final int[] MOVE_COUNT = new int[ROLLS];
+	private static final int[] MOVES = new int[ROLLS * MAX_MOVES];
+	// roll of each outcome, outcome = (die1-1) * 6 + (die2-1).
+	private static final int[] OUTCOME_ROLL = new int[OUTCOMES];
+
+	// doubles first, they are the rolls with the most plays.
+	static {
+		int roll = 0;
+		for (int die = 1; die <= 6; die++) {
+			set(roll++, die, die);
+		}
+		for (int die1 = 1; die1 <= 6; die1++) {
+			for (int die2 = die1+1; die2 <= 6; die2++) {
+				set(roll++, die1, die2);
+			}
+		}
+		for (roll = 0; roll < ROLLS; roll++) {
+			OUTCOME_ROLL[getOutcome(DIE1[roll], DIE2[roll])] = roll;
+			OUTCOME_ROLL[getOutcome(DIE2[roll], DIE1[roll])] = roll;
+		}
+	}
+
+	private static void set(int roll, int die1, int die2) {
+		DIE1[roll] = die1;
+		DIE2[roll] = die2;
+		WEIGHT[roll] = die1 == die2 ? 1 : 2;
+		PROBABILITY[roll] = (double) WEIGHT[roll] / OUTCOMES;
+		MOVE_COUNT[roll] = die1 == die2 ? 4 : 2;
+		for (int move = 0; move < MOVE_COUNT[roll]; move++) {
+			MOVES[roll * MAX_MOVES + move] = move % 2 == 0 ? die1 : die2;
+		}
+	}
+
+	public static int getDie1(int roll) {
+		return DIE1[roll];
+	}
+
+	public static int getDie2(int roll) {
+		return DIE2[roll];
+	}
+
+	public static boolean isDouble(int roll) {
+		return DIE1[roll] == DIE2[roll];
+	}
+
+	// number of the 36 outcomes that give the roll, i.e. 1 or 2.
+	public static int getWeight(int roll) {
+		return WEIGHT[roll];
+	}
+
+	public static double getProbability(int roll) {
+		return PROBABILITY[roll];
+	}
+
+	// number of dice results the roll is played as, 4 for doubles, else 2.
+	public static int getMoveCount(int roll) {
+		return MOVE_COUNT[roll];
+	}
+
+	/**
+	 * Returns a dice result the roll is played as, doubles are four of the same.
+	 * @param roll index of the roll.
+	 * @param move 0 to getMoveCount(roll)-1.
+	 * @return the dice result, 1-6.
+	 */
+	public static int getMove(int roll, int move) {
+		return MOVES[roll * MAX_MOVES + move];
+	}
+
+	/**
+	 * Returns the index of the roll, dice results in any order.
+	 * @param die1 first dice result, 1-6.
+	 * @param die2 second dice result, 1-6.
+	 * @return the index, 0-20.
+	 */
+	public static int getRoll(int die1, int die2) {
+		return OUTCOME_ROLL[getOutcome(die1, die2)];
+	}
+
+	// the roll of one of the 36 equally likely outcomes, 0-35.
+	public static int getRollOfOutcome(int outcome) {
+		return OUTCOME_ROLL[outcome];
+	}
+
+	// the outcome of the dice in this order, 0-35.
+	public static int getOutcome(int die1, int die2) {
+		return (die1-1) * 6 + (die2-1);
+	}
+}
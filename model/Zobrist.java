@@ -0,0 +1,94 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class represents the Zobrist keys of a BoardState.
+ *
+ * A position hashes to the xor of one random key per pip count, bar count and home count,
+ * so a checker move updates the hash by xoring out the old counts and xoring in the new ones.
+ * The side to move is xored in by the search, since BoardState does not know it.
+ *
+ * Keys of empty pips, bars and homes are 0, so an empty board hashes to 0.
+ * Keys come from a fixed seed, so hashes are the same between runs.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class Zobrist {
+	private static final long SEED = 0x7EAC0FL;
+	// signed pip counts go from -MAX_CHECKERS to MAX_CHECKERS.
+	private static final int PIP_COUNTS = BoardState.MAX_CHECKERS * 2 + 1;
+
+	private static final long[] PIP_KEYS;
+	private static final long[][] BAR_KEYS;
+	private static final long[][] HOME_KEYS;
+	private static final long TOP_TO_MOVE_KEY;
+
+	static {
+		SplittableRandom random = new SplittableRandom(SEED);
+		PIP_KEYS = new long[BoardState.NUMBER_OF_PIPS * PIP_COUNTS];
+		for (int pipNum = 0; pipNum < BoardState.NUMBER_OF_PIPS; pipNum++) {
+			for (int count = -BoardState.MAX_CHECKERS; count <= BoardState.MAX_CHECKERS; count++) {
+				PIP_KEYS[getPipIndex(pipNum, count)] = count == 0 ? 0 : random.nextLong();
+			}
+		}
+		BAR_KEYS = new long[2][BoardState.MAX_CHECKERS+1];
+		HOME_KEYS = new long[2][BoardState.MAX_CHECKERS+1];
+		for (int side = BoardState.BOTTOM; side <= BoardState.TOP; side++) {
+			for (int count = 1; count <= BoardState.MAX_CHECKERS; count++) {
+				BAR_KEYS[side][count] = random.nextLong();
+				HOME_KEYS[side][count] = random.nextLong();
+			}
+		}
+		TOP_TO_MOVE_KEY = random.nextLong();
+	}
+
+	private static int getPipIndex(int pipNum, int count) {
+		return pipNum * PIP_COUNTS + count + BoardState.MAX_CHECKERS;
+	}
+
+	/**
+	 * Returns the key of a pip count.
+	 * @param pipNum zero-based pip.
+	 * @param count signed count, same as BoardState.getCount().
+	 * @return the key.
+	 */
+	public static long getPipKey(int pipNum, int count) {
+		return PIP_KEYS[getPipIndex(pipNum, count)];
+	}
+
+	public static long getBarKey(int side, int count) {
+		return BAR_KEYS[side][count];
+	}
+
+	public static long getHomeKey(int side, int count) {
+		return HOME_KEYS[side][count];
+	}
+
+	// key xored in when the side to move is TOP.
+	public static long getSideKey(int side) {
+		return side == BoardState.TOP ? TOP_TO_MOVE_KEY : 0;
+	}
+
+	/**
+	 * Calculates the hash of a board from scratch.
+	 * BoardState keeps its hash up to date incrementally, this is used to check it.
+	 * @param state the board state.
+	 * @return the hash, same as state.getHash() if it is up to date.
+	 */
+	public static long hash(BoardState state) {
+		long hash = 0;
+		for (int pipNum = 0; pipNum < BoardState.NUMBER_OF_PIPS; pipNum++) {
+			hash ^= getPipKey(pipNum, state.getCount(pipNum));
+		}
+		for (int side = BoardState.BOTTOM; side <= BoardState.TOP; side++) {
+			hash ^= getBarKey(side, state.getBar(side));
+			hash ^= getHomeKey(side, state.getHome(side));
+		}
+		return hash;
+	}
+}
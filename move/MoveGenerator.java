@@ -0,0 +1,456 @@
+package move;
+
+import java.util.Arrays;
+import model.BoardState;
+
+/**
+ * This class represents a legal move generator that works on a BoardState.
+ * Unlike calculateMoves() of BoardMoves, it generates full-turn plays,
+ * i.e. every legal way to play the whole roll, instead of moves per dice result.
+ *
+ * Plays are written into reusable primitive buffers,
+ * so once the buffers have grown to fit, generating moves allocates nothing.
+ *
+ * Rules enforced:
+ * 		- checkers in the bar must bear on before any other move.
+ * 		- must use as many dice results as possible.
+ * 		- if only one dice result can be used, must use the larger one if possible.
+ * 		- bearing off with a larger dice result only from the furthest pip.
+ * Plays that result in the same position are only kept once.
+ *
+ * A half-move is packed into an int, see pack().
+ * Its fro and to use the same pip numbers as Move.getFro() and Move.getTo(),
+ * i.e. bar is the bear-on boundary, home is the bear-off boundary.
+ *
+ * An instance is not thread safe, use one per thread.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class MoveGenerator {
+	public static final int MAX_MOVES_PER_PLAY = 4;
+	private static final int INITIAL_CAPACITY = 256;
+
+	private final BoardState scratch;
+	private final int[] dice;
+	private final int[] path;
+	private int numOfDice;
+	private int side;
+
+	// plays.
+	private int[] moves;
+	private byte[] lengths;
+	private byte[] positions;
+	private int count;
+	private int maxDiceUsed, maxDiceResultUsed;
+
+	// open addressing table of play indexes, keyed by resulting position.
+	// stamps mark which slots belong to the current generate() call, so it never needs clearing.
+	// hashes are the Zobrist hashes of the positions, see BoardState.getHash().
+	private int[] table, tableStamps;
+	private long[] hashes;
+	private int stamp;
+
+	public MoveGenerator() {
+		scratch = new BoardState();
+		dice = new int[MAX_MOVES_PER_PLAY];
+		path = new int[MAX_MOVES_PER_PLAY];
+		allocate(INITIAL_CAPACITY);
+	}
+
+	private void allocate(int capacity) {
+		moves = new int[capacity * MAX_MOVES_PER_PLAY];
+		lengths = new byte[capacity];
+		positions = new byte[capacity * BoardState.BYTES];
+		hashes = new long[capacity];
+		table = new int[capacity * 2];
+		tableStamps = new int[capacity * 2];
+		stamp = 0;
+	}
+
+	/**
+	 * Generates the legal plays of the side for the roll.
+	 * If no checker can be moved, there is a single play with no half-moves.
+	 * @param state the board to generate plays for, it is left untouched.
+	 * @param side BOTTOM or TOP of BoardState.
+	 * @param die1 first dice result, 1-6.
+	 * @param die2 second dice result, 1-6.
+	 * @return number of plays generated.
+	 */
+	public int generate(BoardState state, int side, int die1, int die2) {
+		BoardState.checkSide(side);
+		scratch.copyFrom(state);
+		this.side = side;
+		count = 0;
+		maxDiceUsed = 0;
+		maxDiceResultUsed = 0;
+		nextStamp();
+
+		if (die1 == die2) {
+			numOfDice = 4;
+			dice[0] = dice[1] = dice[2] = dice[3] = die1;
+			generate(0, BoardState.NUMBER_OF_PIPS+1);
+		} else {
+			numOfDice = 2;
+			dice[0] = die1;
+			dice[1] = die2;
+			generate(0, BoardState.NUMBER_OF_PIPS+1);
+			dice[0] = die2;
+			dice[1] = die1;
+			generate(0, BoardState.NUMBER_OF_PIPS+1);
+		}
+		return count;
+	}
+
+	// depth-first search over the dice results left.
+	// for doubles, checkers are moved furthest first (maxDistance),
+	// as every other order gives the same positions.
+	private void generate(int depth, int maxDistance) {
+		boolean hasMove = false;
+
+		if (depth < numOfDice) {
+			int diceResult = dice[depth];
+			boolean isDouble = numOfDice == 4;
+
+			// BarToPip
+			if (scratch.getBar(side) > 0) {
+				int fro = BoardState.getBearOnPip(side);
+				int to = BoardState.getToPip(side, fro, diceResult);
+				if (scratch.isOpen(side, to)) {
+					hasMove = true;
+					makeMove(depth, fro, to, diceResult, isDouble ? BoardState.NUMBER_OF_PIPS+1 : maxDistance);
+				}
+			// PipToPip or PipToHome
+			} else {
+				boolean canBearOff = scratch.canBearOff(side);
+				int sign = BoardState.getSign(side);
+				int startDistance = isDouble ? Math.min(maxDistance, BoardState.NUMBER_OF_PIPS) : BoardState.NUMBER_OF_PIPS;
+
+				for (int distance = startDistance; distance >= 1; distance--) {
+					int fro = side == BoardState.BOTTOM ? distance-1 : BoardState.NUMBER_OF_PIPS-distance;
+					if (scratch.getCount(fro) * sign <= 0) continue;
+
+					int to = BoardState.getToPip(side, fro, diceResult);
+					if (BoardState.isPipNumberInRange(to)) {
+						if (scratch.isOpen(side, to)) {
+							hasMove = true;
+							makeMove(depth, fro, to, diceResult, distance);
+						}
+					} else if (canBearOff) {
+						// exact dice result, or larger dice result from the furthest pip.
+						if (distance == diceResult || !scratch.hasCheckersBehind(side, fro)) {
+							hasMove = true;
+							makeMove(depth, fro, BoardState.getBearOffPip(side), diceResult, distance);
+						}
+					}
+				}
+			}
+		}
+
+		if (!hasMove) {
+			addPlay(depth);
+		}
+	}
+
+	private void makeMove(int depth, int fro, int to, int diceResult, int distance) {
+		boolean isHit = scratch.applyMove(side, fro, to);
+		path[depth] = pack(fro, to, isHit, diceResult);
+		generate(depth+1, distance);
+		scratch.undoMove(side, fro, to, isHit);
+	}
+
+	// adds the path of half-moves as a play, if it follows the max dice usage rules.
+	private void addPlay(int length) {
+		if (length < maxDiceUsed) return;
+
+		// only one dice result used, must be the larger one.
+		int diceResult = length == 1 && numOfDice == 2 ? getDiceResult(path[0]) : 0;
+		if (length == maxDiceUsed && diceResult < maxDiceResultUsed) return;
+
+		if (length > maxDiceUsed || diceResult > maxDiceResultUsed) {
+			count = 0;
+			maxDiceUsed = length;
+			maxDiceResultUsed = diceResult;
+			nextStamp();
+		}
+
+		// remove duplicate positions.
+		long hash = scratch.getHash();
+		int mask = table.length - 1;
+		int slot = getSlot(hash) & mask;
+		while (tableStamps[slot] == stamp) {
+			int play = table[slot];
+			if (hashes[play] == hash && scratch.equalsAt(positions, play * BoardState.BYTES)) {
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		if (count == lengths.length) {
+			grow();
+			addPlay(length);
+			return;
+		}
+
+		int play = count++;
+		System.arraycopy(path, 0, moves, play * MAX_MOVES_PER_PLAY, length);
+		lengths[play] = (byte) length;
+		hashes[play] = hash;
+		scratch.writeTo(positions, play * BoardState.BYTES);
+		table[slot] = play;
+		tableStamps[slot] = stamp;
+	}
+
+	private void nextStamp() {
+		stamp++;
+		if (stamp == 0) {
+			Arrays.fill(tableStamps, 0);
+			stamp = 1;
+		}
+	}
+
+	// doubles the capacity, keeping the plays generated so far.
+	private void grow() {
+		int[] oldMoves = moves;
+		byte[] oldLengths = lengths;
+		byte[] oldPositions = positions;
+		long[] oldHashes = hashes;
+		allocate(oldLengths.length * 2);
+		System.arraycopy(oldMoves, 0, moves, 0, oldMoves.length);
+		System.arraycopy(oldLengths, 0, lengths, 0, oldLengths.length);
+		System.arraycopy(oldPositions, 0, positions, 0, oldPositions.length);
+		System.arraycopy(oldHashes, 0, hashes, 0, oldHashes.length);
+
+		// rehash.
+		nextStamp();
+		int mask = table.length - 1;
+		for (int play = 0; play < count; play++) {
+			int slot = getSlot(hashes[play]) & mask;
+			while (tableStamps[slot] == stamp) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = play;
+			tableStamps[slot] = stamp;
+		}
+	}
+
+	private static int getSlot(long hash) {
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	/* Results. */
+
+	public int getPlayCount() {
+		return count;
+	}
+
+	public int getSide() {
+		return side;
+	}
+
+	// number of half-moves in the play, 0 if no checker can be moved.
+	public int getMoveCount(int play) {
+		return lengths[play];
+	}
+
+	// packed half-move of the play, see pack().
+	public int getMove(int play, int i) {
+		return moves[play * MAX_MOVES_PER_PLAY + i];
+	}
+
+	// number of dice results that every play uses.
+	public int getDiceUsed() {
+		return maxDiceUsed;
+	}
+
+	/**
+	 * Writes the position after the play into the given board state.
+	 * @param play index of the play.
+	 * @param out the board state to write to.
+	 * @return out.
+	 */
+	public BoardState getResultingState(int play, BoardState out) {
+		out.readFrom(positions, play * BoardState.BYTES, hashes[play]);
+		return out;
+	}
+
+	/**
+	 * Checks if fro is the fromPip or bear-on boundary of the first half-move of any play.
+	 * Same as isValidFro() of Moves.
+	 * @param fro fromPip, or bear-on boundary.
+	 * @return the boolean value.
+	 */
+	public boolean isValidFro(int fro) {
+		if (maxDiceUsed == 0) return false;
+		for (int k = 0; k < numOfDice; k++) {
+			// doubles, every dice result is the same.
+			if (numOfDice == 4 && k > 0) break;
+			int diceResult = dice[k];
+			if (!canMove(fro, diceResult)) continue;
+
+			int to = getTarget(fro, diceResult);
+			boolean isHit = scratch.applyMove(side, fro, to);
+			boolean isValid = isFullPlay(1 << k, 1, diceResult);
+			scratch.undoMove(side, fro, to, isHit);
+			if (isValid) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if a checker can be moved from fro to to as the start of any play,
+	 * using a single dice result or summing them (i.e. same as a SumMove).
+	 * Plays keep a single order of their half-moves, and one of the plays reaching the same position,
+	 * so the checker's path is searched on the board instead,
+	 * it is valid if the rest of the dice results can still be used as in the plays, see getDiceUsed().
+	 * @param fro fromPip, or bear-on boundary.
+	 * @param to toPip, or bear-off boundary.
+	 * @return the number of dice results used to get there, 0 if it is not valid.
+	 */
+	public int isValidMove(int fro, int to) {
+		if (maxDiceUsed == 0) return 0;
+		return findPath(fro, to, 0, 0, true);
+	}
+
+	/**
+	 * Checks if a checker can be moved from fro to to with the dice results of the last generate(),
+	 * every half-move of the path legal, but not necessarily using as many dice results as possible.
+	 * i.e. moves that only break the max dice usage rules are playable but not valid, see isValidMove().
+	 * @param fro fromPip, or bear-on boundary.
+	 * @param to toPip, or bear-off boundary.
+	 * @return the number of dice results used to get there, 0 if it is not playable.
+	 */
+	public int isPlayableMove(int fro, int to) {
+		return findPath(fro, to, 0, 0, false);
+	}
+
+	// moves a checker from at one dice result at a time, looking for to.
+	// usedMask marks the dice results used so far, used is their number.
+	private int findPath(int at, int to, int usedMask, int used, boolean isFullPlay) {
+		for (int k = 0; k < numOfDice; k++) {
+			if ((usedMask & (1 << k)) != 0) continue;
+			int diceResult = dice[k];
+			if (canMove(at, diceResult)) {
+				int next = getTarget(at, diceResult);
+				boolean isHit = scratch.applyMove(side, at, next);
+				int result = 0;
+				if (next == to) {
+					if (!isFullPlay || isFullPlay(usedMask | (1 << k), used+1, diceResult)) result = used+1;
+				} else if (BoardState.isPipNumberInRange(next)) {
+					result = findPath(next, to, usedMask | (1 << k), used+1, isFullPlay);
+				}
+				scratch.undoMove(side, at, next, isHit);
+				if (result > 0) return result;
+			}
+			// doubles, the other dice results are the same.
+			if (numOfDice == 4) break;
+		}
+		return 0;
+	}
+
+	// checks if the half-moves so far can be part of a play, i.e. the rest of the dice results can be used
+	// to use as many as the plays, and the larger one if only one of two is used.
+	private boolean isFullPlay(int usedMask, int used, int lastDiceResult) {
+		if (maxDiceUsed == 1 && numOfDice == 2 && lastDiceResult != maxDiceResultUsed) return false;
+		return getMaxDiceUsed(usedMask, used) == maxDiceUsed;
+	}
+
+	// most dice results that can be used on scratch, given the ones used so far, stops once maxDiceUsed is reached.
+	private int getMaxDiceUsed(int usedMask, int used) {
+		if (used >= maxDiceUsed) return used;
+		int best = used;
+		for (int k = 0; k < numOfDice; k++) {
+			if ((usedMask & (1 << k)) != 0) continue;
+			int diceResult = dice[k];
+			for (int fro = -1; fro <= BoardState.NUMBER_OF_PIPS; fro++) {
+				if (!canMove(fro, diceResult)) continue;
+				int to = getTarget(fro, diceResult);
+				boolean isHit = scratch.applyMove(side, fro, to);
+				best = Math.max(best, getMaxDiceUsed(usedMask | (1 << k), used+1));
+				scratch.undoMove(side, fro, to, isHit);
+				if (best >= maxDiceUsed) return best;
+			}
+			// doubles, the other dice results are the same.
+			if (numOfDice == 4) break;
+		}
+		return best;
+	}
+
+	// checks if a checker of the side can be moved from fro by the dice result on scratch, same rules as generate().
+	private boolean canMove(int fro, int diceResult) {
+		int bar = scratch.getBar(side);
+		if (fro == BoardState.getBearOnPip(side)) {
+			return bar > 0 && scratch.isOpen(side, BoardState.getToPip(side, fro, diceResult));
+		}
+		if (!BoardState.isPipNumberInRange(fro) || bar > 0 || scratch.getCheckers(side, fro) == 0) return false;
+
+		int to = BoardState.getToPip(side, fro, diceResult);
+		if (BoardState.isPipNumberInRange(to)) return scratch.isOpen(side, to);
+		// exact dice result, or larger dice result from the furthest pip.
+		return scratch.canBearOff(side)
+				&& (BoardState.getDistance(side, fro) == diceResult || !scratch.hasCheckersBehind(side, fro));
+	}
+
+	// toPip of the move, or the bear-off boundary.
+	private int getTarget(int fro, int diceResult) {
+		int to = BoardState.getToPip(side, fro, diceResult);
+		return BoardState.isPipNumberInRange(to) ? to : BoardState.getBearOffPip(side);
+	}
+
+	/**
+	 * Returns the play in the form of "13/7* 8/7",
+	 * pip numbers are one-based as seen by the side, "bar" and "off" for bar and home.
+	 * @param play index of the play.
+	 * @return the string.
+	 */
+	public String toString(int play) {
+		if (lengths[play] == 0) return "no move";
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < lengths[play]; i++) {
+			int move = getMove(play, i);
+			if (i > 0) sb.append(' ');
+			sb.append(toString(side, getFro(move))).append('/').append(toString(side, getTo(move)));
+			if (isHit(move)) sb.append('*');
+		}
+		return sb.toString();
+	}
+
+	private static String toString(int side, int pipNum) {
+		if (pipNum == BoardState.getBearOnPip(side)) return "bar";
+		if (pipNum == BoardState.getBearOffPip(side)) return "off";
+		return String.valueOf(BoardState.getDistance(side, pipNum));
+	}
+
+	/* Packed half-moves. */
+
+	/**
+	 * Packs a half-move into an int.
+	 * bits 0-4, fro+1.
+	 * bits 5-9, to+1.
+	 * bit 10, isHit.
+	 * bits 11-13, dice result.
+	 * @return the packed half-move.
+	 */
+	public static int pack(int fro, int to, boolean isHit, int diceResult) {
+		return (fro+1) | ((to+1) << 5) | ((isHit ? 1 : 0) << 10) | (diceResult << 11);
+	}
+
+	public static int getFro(int move) {
+		return (move & 0x1F) - 1;
+	}
+
+	public static int getTo(int move) {
+		return ((move >>> 5) & 0x1F) - 1;
+	}
+
+	public static boolean isHit(int move) {
+		return ((move >>> 10) & 1) != 0;
+	}
+
+	public static int getDiceResult(int move) {
+		return (move >>> 11) & 0x7;
+	}
+}
@@ -3,9 +3,9 @@ package musicplayer;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import java.util.ArrayList;
-import java.util.Random;
 
 import constants.GameConstants;
+import model.DiceSource;
 
 /**
  * This class controls the music functionalities of the game.
@@ -82,8 +82,7 @@ public class MusicPlayer {
 	public void random() {
 		stop();
 		
-		Random random = new Random();
-		int indexOfSong = random.nextInt(2) + 1;
+		int indexOfSong = DiceSource.getCosmetic().nextInt(2) + 1;
 		currentMusic = playlist.get(indexOfSong-1);
 		
 		play();
@@ -0,0 +1,419 @@
+package simulation;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import bot.Evaluator;
+import bot.HeuristicEvaluator;
+import bot.NeuralEvaluator;
+import bot.NeuralNetwork;
+import game.Board;
+import game.BoardQuadrant;
+import game_engine.Player;
+import model.BoardState;
+import move.Move;
+import move.MoveGenerator;
+import move.Moves;
+import move.PipToPip;
+import move.RollMoves;
+
+/**
+ * This class represents the micro benchmarks of the move, dice and scoring hot paths.
+ * Used to get the ns/op and allocation baselines before changing the engine.
+ *
+ * Every benchmark is parameterized by position type and by doubles or non-doubles,
+ * cycling through the rolls of that kind on each invocation.
+ * Each benchmark is warmed up, then timed over a fixed duration,
+ * the allocation is measured with the allocated bytes of the benchmarking thread.
+ *
+ * Benchmarks of BoardMoves, Moves, BoardQuadrant and Board run on an offscreen game,
+ * i.e. the JavaFX toolkit is started but no stage is shown.
+ * If the toolkit cannot start (e.g. no display), only the headless benchmarks are run.
+ *
+ * Usage: java simulation.Benchmarks [options]
+ * 		--filter text	only run benchmarks with names containing text.
+ * 		--quick			shorter warmup and measurement, for smoke runs.
+ * 		--csv file		also write the results as csv, for baselines.
+ * 		--headless		skip the benchmarks that need the JavaFX toolkit.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class Benchmarks {
+	private static final int BATCH_SIZE = 64;
+	private static final int[][] DOUBLES = {{1,1}, {2,2}, {3,3}, {4,4}, {5,5}, {6,6}};
+	private static final int[][] NON_DOUBLES = {
+		{1,2}, {1,3}, {1,4}, {1,5}, {1,6}, {2,3}, {2,4}, {2,5},
+		{2,6}, {3,4}, {3,5}, {3,6}, {4,5}, {4,6}, {5,6}
+	};
+
+	/**
+	 * This enum represents the position types, each backed by a fixture of Fixtures.
+	 */
+	public enum PositionType {
+		CONTACT("OPENING"),
+		RACE("RACE"),
+		BEAR_OFF("BEAR_OFF_FULL"),
+		BAR("BAR_ENTRY_BOTH_SIDES");
+
+		private final String fixture;
+
+		PositionType(String fixture) {
+			this.fixture = fixture;
+		}
+
+		public BoardState getState() {
+			return Fixtures.get(fixture).getState();
+		}
+	}
+
+	/**
+	 * An operation to benchmark, i is the invocation number.
+	 * Returns a value that is consumed so the JIT cannot remove the work.
+	 */
+	private interface Op {
+		long run(int i) throws Exception;
+	}
+
+	/**
+	 * Creates the operation of a benchmark for a position and set of rolls.
+	 */
+	private interface Setup {
+		Op create(BoardState state, int[][] rolls) throws Exception;
+	}
+
+	/**
+	 * This class represents the measurement of a benchmark.
+	 */
+	public static class Result {
+		private final String name;
+		private final long ops;
+		private final double nsPerOp, bytesPerOp, mbPerSec;
+		private final long gcCount;
+
+		public Result(String name, long ops, long elapsedNanos, long allocatedBytes, long gcCount) {
+			this.name = name;
+			this.ops = ops;
+			this.nsPerOp = (double) elapsedNanos / ops;
+			this.bytesPerOp = (double) allocatedBytes / ops;
+			this.mbPerSec = allocatedBytes / 1e6 / (elapsedNanos / 1e9);
+			this.gcCount = gcCount;
+		}
+
+		public String toCsv() {
+			return String.format("%s,%d,%.1f,%.1f,%.1f,%d", name, ops, nsPerOp, bytesPerOp, mbPerSec, gcCount);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-58s %12.1f %12.1f %10.1f %6d", name, nsPerOp, bytesPerOp, mbPerSec, gcCount);
+		}
+	}
+
+	private final com.sun.management.ThreadMXBean threads;
+	private final long warmupNanos, measureNanos;
+	private long sink;
+
+	public Benchmarks(long warmupMillis, long measureMillis) {
+		threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		threads.setThreadAllocatedMemoryEnabled(true);
+		warmupNanos = warmupMillis * 1_000_000;
+		measureNanos = measureMillis * 1_000_000;
+	}
+
+	/**
+	 * Warms up then times the operation on the calling thread.
+	 * @param name name of the benchmark.
+	 * @param op the operation.
+	 * @return the result.
+	 */
+	public Result measure(String name, Op op) throws Exception {
+		int i = 0;
+		long start = System.nanoTime();
+		while (System.nanoTime() - start < warmupNanos) {
+			for (int j = 0; j < BATCH_SIZE; j++) sink += op.run(i++);
+		}
+
+		long ops = 0, gcStart = getGcCount();
+		long allocStart = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+		start = System.nanoTime();
+		long elapsed;
+		do {
+			for (int j = 0; j < BATCH_SIZE; j++) sink += op.run(i++);
+			ops += BATCH_SIZE;
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < measureNanos);
+		long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocStart;
+		return new Result(name, ops, elapsed, allocated, getGcCount() - gcStart);
+	}
+
+	private static long getGcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+		}
+		return count;
+	}
+
+	public long getSink() {
+		return sink;
+	}
+
+	/* Headless benchmarks, on BoardState and the MoveGenerator. */
+
+	private static void addHeadless(List<String> names, List<Setup> setups) {
+		names.add("MoveGenerator.generate");
+		setups.add((state, rolls) -> {
+			MoveGenerator gen = new MoveGenerator();
+			return i -> {
+				int[] roll = rolls[i % rolls.length];
+				return gen.generate(state, BoardState.BOTTOM, roll[0], roll[1]);
+			};
+		});
+
+		names.add("MoveGenerator.isValidMove");
+		setups.add((state, rolls) -> {
+			MoveGenerator[] gens = new MoveGenerator[rolls.length];
+			int[][] pairs = new int[rolls.length][];
+			for (int r = 0; r < rolls.length; r++) {
+				gens[r] = new MoveGenerator();
+				gens[r].generate(state, BoardState.BOTTOM, rolls[r][0], rolls[r][1]);
+				pairs[r] = getFirstMove(gens[r]);
+			}
+			return i -> {
+				int r = i % rolls.length;
+				return gens[r].isValidMove(pairs[r][0], pairs[r][1]);
+			};
+		});
+
+		names.add("BoardState.hasCheckersBehind");
+		setups.add((state, rolls) -> i -> state.hasCheckersBehind(BoardState.BOTTOM, i % BoardState.HOME_BOARD_SIZE) ? 1 : 0);
+
+		names.add("BoardState.getGameScore");
+		setups.add((state, rolls) -> i -> state.getGameScore(i & 1));
+
+		names.add("HeuristicEvaluator.evaluate");
+		setups.add((state, rolls) -> {
+			Evaluator evaluator = new HeuristicEvaluator();
+			BoardState[] children = getChildren(state, rolls);
+			return i -> (long) (evaluator.evaluate(children[i % children.length], BoardState.BOTTOM) * 1000);
+		});
+
+		names.add("NeuralEvaluator.evaluate");
+		setups.add((state, rolls) -> {
+			Evaluator evaluator = new NeuralEvaluator(NeuralNetwork.newRandom(NeuralNetwork.DEFAULT_HIDDEN, 1));
+			BoardState[] children = getChildren(state, rolls);
+			return i -> (long) (evaluator.evaluate(children[i % children.length], BoardState.BOTTOM) * 1000);
+		});
+	}
+
+	// positions after the plays of the first roll, so evaluations do not see the same board every time.
+	private static BoardState[] getChildren(BoardState state, int[][] rolls) {
+		MoveGenerator gen = new MoveGenerator();
+		int count = gen.generate(state, BoardState.BOTTOM, rolls[0][0], rolls[0][1]);
+		BoardState[] children = new BoardState[count];
+		for (int play = 0; play < count; play++) {
+			children[play] = gen.getResultingState(play, new BoardState());
+		}
+		return children;
+	}
+
+	// fro and to of the first half-move, or 0 to 0 if there is none.
+	private static int[] getFirstMove(MoveGenerator gen) {
+		if (gen.getMoveCount(0) == 0) return new int[] {0, 0};
+		int move = gen.getMove(0, 0);
+		return new int[] {MoveGenerator.getFro(move), MoveGenerator.getTo(move)};
+	}
+
+	/* Benchmarks of the game components, on an offscreen game. */
+
+	private static void addLegacy(List<String> names, List<Setup> setups, LegacyMoves legacy) {
+		Board board = legacy.getGame().getBoard();
+		Player pCurrent = legacy.getPlayer(BoardState.BOTTOM);
+
+		names.add("BoardMoves.calculateMoves");
+		setups.add((state, rolls) -> {
+			legacy.getGame().drawBoardState(state);
+			return i -> {
+				int[] roll = rolls[i % rolls.length];
+				return board.calculateMoves(legacy.getDieResults(roll[0], roll[1]), pCurrent).size();
+			};
+		});
+
+		// recalculates the same moves over and over, i.e. after a move that changed nothing.
+		names.add("BoardMoves.recalculateMoves");
+		setups.add((state, rolls) -> {
+			legacy.getGame().drawBoardState(state);
+			Moves[] moves = calculateAll(legacy, state, rolls);
+			return i -> board.recalculateMoves(moves[i % rolls.length], pCurrent).size();
+		});
+
+		// includes a shallow copy of the moves, since removing changes them.
+		names.add("Moves.removeRollMoves");
+		setups.add((state, rolls) -> {
+			Moves[] moves = calculateAll(legacy, state, rolls);
+			return i -> {
+				Moves copy = shallowCopy(moves[i % rolls.length]);
+				if (!copy.isEmpty()) copy.removeRollMoves(copy.getFirst());
+				return copy.size();
+			};
+		});
+
+		// last roll moves is a sum roll moves if there is any, i.e. the costlier branch.
+		names.add("Moves.removeOtherRollMoves");
+		setups.add((state, rolls) -> {
+			Moves[] moves = calculateAll(legacy, state, rolls);
+			return i -> {
+				Moves copy = shallowCopy(moves[i % rolls.length]);
+				if (!copy.isEmpty()) copy.removeOtherRollMoves(copy.getLast());
+				return copy.size();
+			};
+		});
+
+		names.add("Moves.isValidPipToPip");
+		setups.add((state, rolls) -> {
+			Moves[] moves = calculateAll(legacy, state, rolls);
+			String[][] inputs = new String[rolls.length][];
+			for (int r = 0; r < rolls.length; r++) {
+				inputs[r] = getFirstPipToPip(moves[r]);
+			}
+			return i -> {
+				int r = i % rolls.length;
+				return moves[r].isValidPipToPip(inputs[r][0], inputs[r][1]) != null ? 1 : 0;
+			};
+		});
+
+		names.add("BoardQuadrant.hasBetterPipsToBearOff");
+		setups.add((state, rolls) -> {
+			legacy.getGame().drawBoardState(state);
+			BoardQuadrant homeQuad = board.getHomeQuadOfPlayer(pCurrent.getColor());
+			return i -> {
+				int[] roll = rolls[i % rolls.length];
+				return homeQuad.hasBetterPipsToBearOff(pCurrent, roll[0]-1, roll[0]) ? 1 : 0;
+			};
+		});
+
+		names.add("Board.getGameScore");
+		setups.add((state, rolls) -> {
+			legacy.getGame().drawBoardState(state);
+			Player[] players = {legacy.getPlayer(BoardState.BOTTOM), legacy.getPlayer(BoardState.TOP)};
+			return i -> board.getGameScore(players[i & 1].getColor());
+		});
+	}
+
+	private static Moves[] calculateAll(LegacyMoves legacy, BoardState state, int[][] rolls) {
+		Moves[] moves = new Moves[rolls.length];
+		for (int r = 0; r < rolls.length; r++) {
+			moves[r] = legacy.calculateMoves(state, BoardState.BOTTOM, rolls[r][0], rolls[r][1]);
+		}
+		return moves;
+	}
+
+	private static Moves shallowCopy(Moves moves) {
+		Moves copy = new Moves(moves.getDieResults());
+		copy.addAll(moves);
+		return copy;
+	}
+
+	// fro and to of the first PipToPip, as typed in /move.
+	private static String[] getFirstPipToPip(Moves moves) {
+		for (RollMoves aRollMoves : moves) {
+			for (Move aMove : aRollMoves.getMoves()) {
+				if (aMove instanceof PipToPip) {
+					return new String[] {String.valueOf(aMove.getFro()), String.valueOf(aMove.getTo())};
+				}
+			}
+		}
+		return new String[] {"0", "0"};
+	}
+
+	/* Runner. */
+
+	public static void main(String[] args) throws Exception {
+		String filter = null, csvFile = null;
+		boolean isQuick = false, isHeadless = false;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--filter":
+					filter = args[++i];
+					break;
+				case "--quick":
+					isQuick = true;
+					break;
+				case "--csv":
+					csvFile = args[++i];
+					break;
+				case "--headless":
+					isHeadless = true;
+					break;
+				default:
+					System.err.println("Unknown option: " + args[i]);
+					System.exit(2);
+			}
+		}
+
+		Benchmarks benchmarks = isQuick ? new Benchmarks(50, 100) : new Benchmarks(1000, 2000);
+		List<Result> results = new ArrayList<>();
+		System.out.printf("%-58s %12s %12s %10s %6s%n", "Benchmark", "ns/op", "B/op", "MB/s", "GCs");
+
+		List<String> names = new ArrayList<>();
+		List<Setup> setups = new ArrayList<>();
+		addHeadless(names, setups);
+		results.addAll(benchmarks.runAll(names, setups, filter));
+
+		if (!isHeadless) {
+			LegacyMoves legacy = null;
+			try {
+				legacy = LegacyMoves.create();
+			} catch (Exception | Error e) {
+				System.out.println("Game benchmarks skipped, JavaFX toolkit not available: " + e);
+			}
+			if (legacy != null) {
+				List<String> legacyNames = new ArrayList<>();
+				List<Setup> legacySetups = new ArrayList<>();
+				addLegacy(legacyNames, legacySetups, legacy);
+
+				// the game components are only touched on the JavaFX application thread.
+				String theFilter = filter;
+				results.addAll(LegacyMoves.runOnFxThread(() -> benchmarks.runAll(legacyNames, legacySetups, theFilter)));
+			}
+		}
+
+		if (csvFile != null) {
+			try (PrintWriter out = new PrintWriter(new FileWriter(csvFile))) {
+				out.println("benchmark,ops,ns_per_op,bytes_per_op,mb_per_sec,gc_count");
+				for (Result aResult : results) {
+					out.println(aResult.toCsv());
+				}
+			} catch (IOException e) {
+				System.err.println("Unable to write " + csvFile + ": " + e.getMessage());
+			}
+		}
+		System.out.println("(checksum " + benchmarks.getSink() + ")");
+		System.exit(0);
+	}
+
+	private List<Result> runAll(List<String> names, List<Setup> setups, String filter) throws Exception {
+		List<Result> results = new ArrayList<>();
+		for (int b = 0; b < names.size(); b++) {
+			if (filter != null && !names.get(b).contains(filter)) continue;
+			for (PositionType aType : PositionType.values()) {
+				for (boolean isDouble : new boolean[] {false, true}) {
+					int[][] rolls = isDouble ? DOUBLES : NON_DOUBLES;
+					String name = names.get(b) + " " + aType + " " + (isDouble ? "doubles" : "non-doubles");
+					Result aResult = measure(name, setups.get(b).create(aType.getState(), rolls));
+					System.out.println(aResult);
+					results.add(aResult);
+				}
+			}
+		}
+		return results;
+	}
+}
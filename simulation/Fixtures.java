@@ -0,0 +1,122 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import model.BoardState;
+
+/**
+ * This class represents the seed positions used by the simulation tools.
+ * The FORCE_* setups of GameConstants are kept here as BoardStates,
+ * so they can be used without changing the flags and restarting the game.
+ *
+ * Positions are written as "pip:countColor" separated by spaces,
+ * with zero-based pips same as initCheckers() of BoardComponents,
+ * i.e. "0:2B 5:5W" is 2 black checkers at pip 0, 5 white checkers at pip 5.
+ * "bar:countColor" and "home:countColor" for the bars and homes.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class Fixtures {
+	private static final String OPENING = "0:2B 5:5W 7:3W 11:5B 12:5W 16:3B 18:5B 23:2W";
+
+	/**
+	 * This class represents a named seed position.
+	 */
+	public static class Fixture {
+		private final String name;
+		private final BoardState state;
+
+		public Fixture(String name, BoardState state) {
+			this.name = name;
+			this.state = state;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public BoardState getState() {
+			return state;
+		}
+	}
+
+	public static List<Fixture> getAll() {
+		List<Fixture> fixtures = new ArrayList<>();
+		fixtures.add(new Fixture("OPENING", parse(OPENING)));
+
+		// FORCE_* setups of BoardComponents, Bar and HomePanel, and /cheat of CommandController.
+		fixtures.add(new Fixture("FORCE_A_LOT_MOVES", parse("4:1B 5:1B 6:1B 7:1B 8:1B 9:1B 10:1B 11:1B 12:1W 13:1W 14:1W 15:1W 16:1W 17:1W 18:1W 19:1W")));
+		fixtures.add(new Fixture("FORCE_DOUBLE_BAD_PRINT_MOVES", parse("3:4W 4:1W 5:6W 11:4B 12:4W 15:1B 18:5B 19:2B 20:1B 23:2B")));
+		fixtures.add(new Fixture("FORCE_BAD_PRINT_MOVES", parse("5:15W 18:15B")));
+		fixtures.add(new Fixture("FORCE_ONE_CHECKER", parse("11:1W 12:1B")));
+		fixtures.add(new Fixture("FORCE_TWO_CHECKER", parse("11:2W 12:2B")));
+		fixtures.add(new Fixture("FORCE_TEST_SINGLE", parse("0:3W 1:3W 22:2B 23:2B home:9W home:11B")));
+		fixtures.add(new Fixture("FORCE_TEST_GAMMON", parse("0:3W 1:3W 10:1B 15:1B 22:1B home:9W")));
+		fixtures.add(new Fixture("FORCE_TEST_BACKGAMMON", parse("0:3W 1:3W 3:1B 4:1B bar:1B home:9W")));
+		fixtures.add(new Fixture("FORCE_CHECKERS_AT_BARS", parse(OPENING + " bar:2W bar:2B")));
+		fixtures.add(new Fixture("FORCE_LESS_CHECKERS_AT_BARS", parse(OPENING + " bar:1W bar:1B")));
+		fixtures.add(new Fixture("CHEAT", parse("0:2W 23:2B home:13W home:13B")));
+		fixtures.add(new Fixture("FORCE_CHECKERS_EASY_HITTING_PIP_TO_PIP", parse("8:1B 9:1B 10:1B 11:1B 12:1W 13:1W 14:1W 15:1W")));
+		fixtures.add(new Fixture("FORCE_CHECKERS_EASY_HITTING_PIP_TO_HOME", parse("0:1B 1:1B 2:1B 3:1W 4:1W")));
+		fixtures.add(new Fixture("FORCE_CHECKERS_EASY_HITTING_PIP_TO_PIP_INTERMEDIATE_MOVES", parse("9:1B 10:2B 11:1B 12:1W 13:1W 14:1W")));
+		fixtures.add(new Fixture("FORCE_CHECKERS_AT_OPPOSITE_HOME_BOARD_AT_FRONT", parse("0:2W 1:2W 2:2W 3:2W 4:2W 19:2B 20:2B 21:2B 22:2B 23:2B")));
+		fixtures.add(new Fixture("FORCE_CHECKERS_AT_OPPOSITE_HOME_BOARD_AT_BACK", parse("3:2W 4:2W 5:2W 18:2B 19:2B 20:2B")));
+		fixtures.add(new Fixture("FORCE_CANT_BEAR_OFF_WHEN_HIT", parse("0:1B 1:1W 2:1W 3:1W 4:1W 5:1W")));
+		fixtures.add(new Fixture("FORCE_CHECKERS_IN_HOME_BOARD", parse("0:2W 1:2W 2:2W 3:2W 4:2W 5:5W 18:5B 19:2B 20:2B 21:2B 22:2B 23:2B")));
+		fixtures.add(new Fixture("FORCE_CHECKERS_IN_HOME_BOARD_AT_PIP_5", parse("0:2W 1:2W 2:2W 3:2W 4:5W 19:5B 20:2B 21:2B 22:2B 23:2B")));
+		fixtures.add(new Fixture("FORCE_LESS_CHECKERS_IN_HOME_BOARD", parse("0:2W 1:2W 2:2W 21:2B 22:2B 23:2B")));
+		fixtures.add(new Fixture("FORCE_LESSER_CHECKERS_IN_HOME_BOARD", parse("0:1W 1:1W 22:1B 23:1B")));
+		fixtures.add(new Fixture("FORCE_ONE_CHECKER_OUTSIDE_HOME_BOARD", parse("0:2W 1:2W 2:2W 3:2W 4:2W 5:4W 6:1W 17:1B 18:4B 19:2B 20:2B 21:2B 22:2B 23:2B")));
+		fixtures.add(new Fixture("FORCE_OPPONENT_CHECKER_INSIDE_HOME_BOARD", parse("0:1B 3:5W 4:5W 5:5W 18:4B 19:5B 20:5B")));
+
+		// race, bear-off and bar entry positions.
+		fixtures.add(new Fixture("RACE", parse("0:2W 1:2W 2:3W 3:3W 4:2W 6:2W 9:1W 13:2B 17:3B 18:3B 19:3B 20:2B 22:2B")));
+		fixtures.add(new Fixture("BEAR_OFF_FULL", parse("0:3W 1:3W 2:3W 3:2W 4:2W 5:2W 18:2B 19:2B 20:2B 21:3B 22:3B 23:3B")));
+		fixtures.add(new Fixture("BEAR_OFF_GAPS", parse("0:4W 2:3W 5:1W home:7W 18:1B 21:5B 23:2B home:7B")));
+		fixtures.add(new Fixture("BEAR_OFF_CONTACT", parse("0:2W 1:2W 2:3W 3:3W 4:2W 5:2W 7:1B home:1W 18:3B 19:3B 20:3B 21:3B 22:2B")));
+		fixtures.add(new Fixture("BAR_ENTRY_CLOSED_BOARD", parse("0:2W 1:2W 2:2W 3:2W 4:2W 5:2W 7:3W 12:2B 16:3B 18:5B 23:2B bar:1B home:2B")));
+		fixtures.add(new Fixture("BAR_ENTRY_TWO_ON_BAR", parse("1:2W 3:2W 5:4W 7:3W 12:4W 11:5B 16:3B 18:5B bar:2B")));
+		fixtures.add(new Fixture("BAR_ENTRY_BOTH_SIDES", parse("0:2B 5:5W 7:3W 11:4B 12:4W 16:3B 18:4B 19:2W bar:1W bar:2B")));
+		return fixtures;
+	}
+
+	/**
+	 * Returns the fixture with the name.
+	 * @param name the name of the fixture.
+	 * @return the fixture, null if there is no such fixture.
+	 */
+	public static Fixture get(String name) {
+		for (Fixture aFixture : getAll()) {
+			if (aFixture.getName().equals(name)) return aFixture;
+		}
+		return null;
+	}
+
+	/**
+	 * Parses a position in the form of "pip:countColor ...".
+	 * @param position the position string.
+	 * @return the board state.
+	 */
+	public static BoardState parse(String position) {
+		BoardState state = new BoardState();
+		for (String token : position.trim().split("\\s+")) {
+			String[] parts = token.split(":");
+			String checkers = parts[1];
+			int count = Integer.parseInt(checkers.substring(0, checkers.length()-1));
+			int side = checkers.endsWith("W") ? BoardState.BOTTOM : BoardState.TOP;
+
+			if (parts[0].equals("bar")) {
+				state.setBar(side, count);
+			} else if (parts[0].equals("home")) {
+				state.setHome(side, count);
+			} else {
+				state.setCheckers(Integer.parseInt(parts[0]), side, count);
+			}
+		}
+		return state;
+	}
+}
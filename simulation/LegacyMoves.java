@@ -0,0 +1,161 @@
+package simulation;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import constants.PlayerPerspectiveFrom;
+import game.Dice;
+import game.DieResults;
+import game_engine.GameComponentsController;
+import game_engine.Player;
+import javafx.application.Platform;
+import model.BoardState;
+import move.Move;
+import move.Moves;
+import move.RollMoves;
+
+/**
+ * This class runs calculateMoves() of BoardMoves against a BoardState,
+ * by drawing it on a game that is never shown.
+ * Used by the simulation tools to compare BoardMoves with the MoveGenerator.
+ *
+ * It needs the JavaFX toolkit to load the images, but no stage.
+ * Everything is run on the JavaFX application thread.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class LegacyMoves {
+	// fro and to of a move are from -1 to 24.
+	public static final int PAIRS = 26 * 26;
+	private static boolean isToolkitStarted = false;
+
+	private GameComponentsController game;
+	private Player[] players;
+	private Dice[][] dices;
+
+	private LegacyMoves() {
+		players = new Player[2];
+		players[BoardState.BOTTOM] = new Player(PlayerPerspectiveFrom.BOTTOM);
+		players[BoardState.TOP] = new Player(PlayerPerspectiveFrom.TOP);
+		game = new GameComponentsController(players[BoardState.BOTTOM], players[BoardState.TOP]);
+
+		// 4 of each dice result, for doubles.
+		dices = new Dice[6][4];
+		for (int i = 0; i < 6; i++) {
+			for (int j = 0; j < 4; j++) {
+				dices[i][j] = new Dice(i+1);
+			}
+		}
+	}
+
+	/**
+	 * Starts the JavaFX toolkit if needed, then creates the game on its thread.
+	 * @return the legacy moves.
+	 * @throws Exception if the toolkit is not able to start, i.e. no display.
+	 */
+	public static LegacyMoves create() throws Exception {
+		startToolkit();
+		return runOnFxThread(LegacyMoves::new);
+	}
+
+	public static synchronized void startToolkit() throws InterruptedException {
+		if (!isToolkitStarted) {
+			CountDownLatch started = new CountDownLatch(1);
+			Platform.startup(started::countDown);
+			started.await();
+			isToolkitStarted = true;
+		}
+	}
+
+	/**
+	 * Runs the task on the JavaFX application thread and waits for its result.
+	 * @param task the task to run.
+	 * @return the result of the task.
+	 * @throws Exception the exception thrown by the task.
+	 */
+	public static <T> T runOnFxThread(Callable<T> task) throws Exception {
+		if (Platform.isFxApplicationThread()) {
+			return task.call();
+		}
+		FutureTask<T> future = new FutureTask<>(task);
+		Platform.runLater(future);
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			throw (Exception) e.getCause();
+		}
+	}
+
+	public GameComponentsController getGame() {
+		return game;
+	}
+
+	public Player getPlayer(int side) {
+		return players[side];
+	}
+
+	/**
+	 * Returns the roll as the DieResults that Dices.getTotalRoll() gives,
+	 * i.e. four dices for doubles.
+	 * @param die1 first dice result.
+	 * @param die2 second dice result.
+	 * @return the die results.
+	 */
+	public DieResults getDieResults(int die1, int die2) {
+		DieResults res = new DieResults();
+		res.add(dices[die1-1][0]);
+		res.add(dices[die2-1][1]);
+		if (die1 == die2) {
+			res.add(dices[die1-1][2]);
+			res.add(dices[die1-1][3]);
+		}
+		return res;
+	}
+
+	/**
+	 * Draws the state on the board and calculates the moves with BoardMoves.
+	 * Must be called on the JavaFX application thread.
+	 * @param state the board state.
+	 * @param side BOTTOM or TOP.
+	 * @param die1 first dice result.
+	 * @param die2 second dice result.
+	 * @return the moves.
+	 */
+	public Moves calculateMoves(BoardState state, int side, int die1, int die2) {
+		if (!game.getBoard().getBoardState().equals(state)) {
+			game.drawBoardState(state);
+		}
+		return game.getBoard().calculateMoves(getDieResults(die1, die2), players[side]);
+	}
+
+	/**
+	 * Marks the fro and to of every move calculated by BoardMoves,
+	 * at index getPairIndex(fro, to) of pairs.
+	 * @param state the board state.
+	 * @param side BOTTOM or TOP.
+	 * @param die1 first dice result.
+	 * @param die2 second dice result.
+	 * @param pairs array of size PAIRS, cleared before marking.
+	 * @throws Exception the exception thrown by BoardMoves.
+	 */
+	public void getMovePairs(BoardState state, int side, int die1, int die2, boolean[] pairs) throws Exception {
+		runOnFxThread(() -> {
+			java.util.Arrays.fill(pairs, false);
+			for (RollMoves aRollMoves : calculateMoves(state, side, die1, die2)) {
+				for (Move aMove : aRollMoves.getMoves()) {
+					pairs[getPairIndex(aMove.getFro(), aMove.getTo())] = true;
+				}
+			}
+			return null;
+		});
+	}
+
+	public static int getPairIndex(int fro, int to) {
+		return (fro+1) * 26 + (to+1);
+	}
+}
@@ -0,0 +1,261 @@
+package simulation;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import model.BoardState;
+import model.DiceSource;
+import model.MatchLogReader;
+import model.MatchLogWriter;
+import model.MatchState;
+import move.MoveGenerator;
+
+/**
+ * This class represents a round-trip check of the match log, it runs without the UI.
+ *
+ * It plays matches of random legal plays, random doubles and passes, writes them with MatchLogWriter
+ * and keeps every record and board in memory, then reads the log back with MatchLogReader
+ * and compares each record, and the board at each record, with what was written.
+ * Games are read last to first, so every game is found by seeking.
+ * Each log is read twice, once closed, found by its index, and once with the index and trailer cut off,
+ * as if the game crashed, found by scanning the records.
+ *
+ * Usage: java simulation.MatchLogCheck [options]
+ * 		--matches n		number of matches, default 20.
+ * 		--length n		points to win a match, default 7.
+ * 		--seed n		seed of the dice, default random.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class MatchLogCheck {
+	private static final String BOTTOM_NAME = "Bottom";
+	private static final String TOP_NAME = "Top";
+	// 1 in n plies starts with a double, 1 in n doubles is passed.
+	private static final int DOUBLE_ODDS = 10;
+	private static final int PASS_ODDS = 4;
+	// mismatches printed before the rest are only counted.
+	private static final int MAX_PRINTED = 20;
+
+	private final MoveGenerator gen;
+	private final DiceSource dice;
+	private final int length;
+	private int mismatches;
+
+	public MatchLogCheck(int length, long seed) {
+		this.length = length;
+		gen = new MoveGenerator();
+		dice = new DiceSource(seed);
+	}
+
+	public int getMismatches() {
+		return mismatches;
+	}
+
+	/**
+	 * Writes a random match to the file, then checks the log closed and without its index.
+	 * @param path the log file, replaced.
+	 * @param unclosed file for the log without its index, replaced.
+	 */
+	public void check(Path path, Path unclosed) throws IOException {
+		List<List<Expected>> games;
+		try (MatchLogWriter writer = new MatchLogWriter(path, length, BOTTOM_NAME, TOP_NAME)) {
+			games = writeMatch(writer);
+		}
+		compare(path, games, "closed");
+
+		// index: int number of games, a long per game, then the trailer, long offset and int magic.
+		long indexBytes = Integer.BYTES + (long) games.size() * Long.BYTES + Long.BYTES + Integer.BYTES;
+		Files.copy(path, unclosed, StandardCopyOption.REPLACE_EXISTING);
+		try (FileChannel channel = FileChannel.open(unclosed, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - indexBytes);
+		}
+		compare(unclosed, games, "unclosed");
+	}
+
+	// plays the match, every record written is added to the expected records of its game.
+	private List<List<Expected>> writeMatch(MatchLogWriter writer) throws IOException {
+		List<List<Expected>> games = new ArrayList<>();
+		int[] scores = new int[2];
+		boolean isCrawford = false, isPostCrawford = false;
+		while (scores[BoardState.BOTTOM] < length && scores[BoardState.TOP] < length) {
+			List<Expected> records = new ArrayList<>();
+			games.add(records);
+			BoardState state = BoardState.newGame();
+			MatchState match = new MatchState(length, scores[BoardState.BOTTOM], scores[BoardState.TOP], 1, MatchState.CENTERED, isCrawford, isPostCrawford);
+			writer.startGame(match, state);
+			records.add(new Expected(MatchLogWriter.GAME_START, 0, 0, 0, scores, isCrawford, state));
+
+			int turn = dice.nextInt(2);
+			int cube = 1;
+			int winner, points;
+			while (true) {
+				int opponent = BoardState.getOpponent(turn);
+				if (!isCrawford && cube < MatchState.MAX_CUBE && dice.nextInt(DOUBLE_ODDS) == 0) {
+					writer.offerDouble(turn);
+					records.add(new Expected(MatchLogWriter.DOUBLE, turn, 0, 0, null, false, state));
+					if (dice.nextInt(PASS_ODDS) == 0) {
+						writer.pass(opponent);
+						records.add(new Expected(MatchLogWriter.PASS, opponent, 0, 0, null, false, state));
+						winner = turn;
+						points = cube;
+						break;
+					}
+					writer.take(opponent);
+					records.add(new Expected(MatchLogWriter.TAKE, opponent, 0, 0, null, false, state));
+					cube *= 2;
+				}
+
+				int die1 = dice.rollDie(), die2 = dice.rollDie();
+				writer.roll(turn, die1, die2);
+				records.add(new Expected(MatchLogWriter.ROLL, turn, die1, die2, null, false, state));
+				int play = dice.nextInt(gen.generate(state, turn, die1, die2));
+				if (gen.getMoveCount(play) > 0) {
+					// a new board for every play, the records before it keep theirs.
+					state = gen.getResultingState(play, new BoardState());
+					writer.play(turn, state);
+					records.add(new Expected(MatchLogWriter.PLAY, turn, 0, 0, null, false, state));
+				}
+				if (state.isGameOver()) {
+					winner = turn;
+					points = cube * state.getGameScore(opponent);
+					break;
+				}
+				turn = opponent;
+			}
+
+			scores[winner] += points;
+			writer.endGame(winner, scores[BoardState.BOTTOM], scores[BoardState.TOP]);
+			records.add(new Expected(MatchLogWriter.GAME_END, winner, 0, 0, scores, false, state));
+			if (isCrawford) {
+				isCrawford = false;
+				isPostCrawford = true;
+			} else if (!isPostCrawford && scores[winner] == length-1) {
+				isCrawford = true;
+			}
+		}
+		return games;
+	}
+
+	private void compare(Path path, List<List<Expected>> games, String name) throws IOException {
+		BoardState state = new BoardState();
+		try (MatchLogReader reader = new MatchLogReader(path)) {
+			check(reader.getLength() == length, name, "length " + reader.getLength());
+			check(reader.getName(BoardState.BOTTOM).equals(BOTTOM_NAME) && reader.getName(BoardState.TOP).equals(TOP_NAME),
+					name, "names " + reader.getName(BoardState.BOTTOM) + ", " + reader.getName(BoardState.TOP));
+			if (!check(reader.getGames() == games.size(), name, reader.getGames() + " games, " + games.size() + " written")) return;
+
+			for (int game = games.size()-1; game >= 0; game--) {
+				List<Expected> records = games.get(game);
+				String where = name + " game " + (game+1);
+				if (!check(reader.getRecords(game) == records.size(), where, reader.getRecords(game) + " records, " + records.size() + " written")) continue;
+
+				for (int record = 0; record < records.size(); record++) {
+					Expected expected = records.get(record);
+					MatchLogReader.Record actual = reader.getRecord(game, record);
+					check(expected.matches(actual), where + " record " + record, actual + ", written " + expected);
+					reader.getPosition(game, record, state);
+					check(state.equals(expected.state), where + " record " + record, "board " + state + ", written " + expected.state);
+				}
+			}
+		}
+	}
+
+	// counts and prints a mismatch if the condition is false, returns the condition.
+	private boolean check(boolean condition, String where, String message) {
+		if (!condition) {
+			if (mismatches < MAX_PRINTED) System.out.println("Mismatch in " + where + ": " + message);
+			mismatches++;
+		}
+		return condition;
+	}
+
+	public static void main(String[] args) throws IOException {
+		int matches = 20;
+		int length = 7;
+		long seed = DiceSource.newSeed();
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--matches":
+					matches = Integer.parseInt(args[++i]);
+					break;
+				case "--length":
+					length = Integer.parseInt(args[++i]);
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				default:
+					System.err.println("Unknown option: " + args[i]);
+					System.exit(2);
+			}
+		}
+		if (length < 1) {
+			System.err.println("Length must be at least 1: " + length);
+			System.exit(2);
+		}
+
+		MatchLogCheck checker = new MatchLogCheck(length, seed);
+		Path path = Files.createTempFile("check", MatchLogWriter.EXTENSION);
+		Path unclosed = Files.createTempFile("check-unclosed", MatchLogWriter.EXTENSION);
+		try {
+			for (int match = 0; match < matches; match++) {
+				checker.check(path, unclosed);
+			}
+		} finally {
+			Files.deleteIfExists(path);
+			Files.deleteIfExists(unclosed);
+		}
+
+		int mismatches = checker.getMismatches();
+		System.out.println(matches + " matches of " + length + " points, seed " + seed + ": "
+				+ (mismatches == 0 ? "all records match." : mismatches + " mismatches."));
+		System.exit(mismatches == 0 ? 0 : 1);
+	}
+
+	/**
+	 * This class represents a record as written, with the board the reader should return at it.
+	 */
+	private static class Expected {
+		private final byte type;
+		private final int side, die1, die2, bottomScore, topScore;
+		private final boolean isCrawford;
+		private final BoardState state;
+
+		// scores is null for the records without scores.
+		private Expected(byte type, int side, int die1, int die2, int[] scores, boolean isCrawford, BoardState state) {
+			this.type = type;
+			this.side = side;
+			this.die1 = die1;
+			this.die2 = die2;
+			this.bottomScore = scores == null ? 0 : scores[BoardState.BOTTOM];
+			this.topScore = scores == null ? 0 : scores[BoardState.TOP];
+			this.isCrawford = isCrawford;
+			this.state = state;
+		}
+
+		private boolean matches(MatchLogReader.Record record) {
+			return record.getType() == type && record.getSide() == side
+					&& record.getDie1() == die1 && record.getDie2() == die2
+					&& record.getScore(BoardState.BOTTOM) == bottomScore && record.getScore(BoardState.TOP) == topScore
+					&& record.isCrawford() == isCrawford;
+		}
+
+		/**
+		 * Returns the record in the form of "type 3 side 1 dice 6-5 scores 0-2".
+		 */
+		@Override
+		public String toString() {
+			return "type " + type + " side " + side + " dice " + die1 + "-" + die2 + " scores " + bottomScore + "-" + topScore
+					+ (isCrawford ? " Crawford" : "");
+		}
+	}
+}
@@ -0,0 +1,314 @@
+package simulation;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import model.BoardState;
+import move.MoveGenerator;
+
+/**
+ * This class represents a perft-style tool for the MoveGenerator,
+ * it runs without the UI.
+ *
+ * For every fixture of Fixtures, both sides and the 21 distinct rolls,
+ * it counts the plays generated and reports the plays generated per second.
+ * With depth more than 1, it walks the play tree alternating sides,
+ * i.e. perft(depth) = sum over rolls and plays of perft(depth-1).
+ * It always checks the start moves of a few known rolls, see checkKnownMoves().
+ *
+ * Usage: java simulation.Perft [options]
+ * 		--depth n		depth of the play tree, default 1.
+ * 		--iterations n	number of timed iterations, default 20.
+ * 		--write file	write the play counts of depth 1 as the baseline.
+ * 		--check file	compare the play counts of depth 1 with the baseline.
+ * 		--legacy		compare the moves with calculateMoves() of BoardMoves,
+ * 						needs the JavaFX toolkit, skipped if it cannot start.
+ *
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ *
+ */
+public class Perft {
+	private static final int WARMUP_ITERATIONS = 5;
+
+	private final MoveGenerator[] generators;
+	private final BoardState[] states;
+
+	public Perft(int depth) {
+		generators = new MoveGenerator[depth];
+		states = new BoardState[depth];
+		for (int i = 0; i < depth; i++) {
+			generators[i] = new MoveGenerator();
+			states[i] = new BoardState();
+		}
+	}
+
+	/**
+	 * Counts the leaf positions of the play tree,
+	 * every distinct roll is counted once regardless of its probability.
+	 * A finished game is a leaf.
+	 * @param state the board state.
+	 * @param side the side on roll.
+	 * @param depth the depth, up to the depth of the constructor.
+	 * @return number of leaf positions.
+	 */
+	public long perft(BoardState state, int side, int depth) {
+		if (depth == 0 || state.isGameOver()) return 1;
+
+		MoveGenerator gen = generators[depth-1];
+		BoardState child = states[depth-1];
+		long nodes = 0;
+		for (int die1 = 1; die1 <= 6; die1++) {
+			for (int die2 = die1; die2 <= 6; die2++) {
+				int count = gen.generate(state, side, die1, die2);
+				if (depth == 1) {
+					nodes += count;
+					continue;
+				}
+				// each depth has its own generator and board, so children do not overwrite them.
+				for (int play = 0; play < count; play++) {
+					gen.getResultingState(play, child);
+					nodes += perft(child, BoardState.getOpponent(side), depth-1);
+				}
+			}
+		}
+		return nodes;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int depth = 1, iterations = 20;
+		String writeFile = null, checkFile = null;
+		boolean isLegacy = false;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--depth":
+					depth = Integer.parseInt(args[++i]);
+					break;
+				case "--iterations":
+					iterations = Integer.parseInt(args[++i]);
+					break;
+				case "--write":
+					writeFile = args[++i];
+					break;
+				case "--check":
+					checkFile = args[++i];
+					break;
+				case "--legacy":
+					isLegacy = true;
+					break;
+				default:
+					System.err.println("Unknown option: " + args[i]);
+					System.exit(2);
+			}
+		}
+
+		List<Fixtures.Fixture> fixtures = Fixtures.getAll();
+		boolean isPassed = true;
+
+		isPassed &= checkKnownMoves();
+		runThroughput(fixtures, depth, iterations);
+		if (writeFile != null) {
+			writeBaseline(fixtures, writeFile);
+		}
+		if (checkFile != null) {
+			isPassed &= checkBaseline(fixtures, checkFile);
+		}
+		if (isLegacy) {
+			isPassed &= compareLegacy(fixtures);
+		}
+		System.exit(isPassed ? 0 : 1);
+	}
+
+	private static void runThroughput(List<Fixtures.Fixture> fixtures, int depth, int iterations) {
+		Perft perft = new Perft(depth);
+		System.out.printf("%-58s %14s %14s%n", "Fixture", "White", "Black");
+
+		long total = 0;
+		for (Fixtures.Fixture aFixture : fixtures) {
+			long white = perft.perft(aFixture.getState(), BoardState.BOTTOM, depth);
+			long black = perft.perft(aFixture.getState(), BoardState.TOP, depth);
+			total += white + black;
+			System.out.printf("%-58s %14d %14d%n", aFixture.getName(), white, black);
+		}
+		System.out.printf("Total perft(%d): %d%n", depth, total);
+
+		// timed, after warming up so that the JIT has compiled the generator.
+		long sink = 0;
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			sink += runOnce(perft, fixtures, depth);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			sink += runOnce(perft, fixtures, depth);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d iterations in %.3f s, %.0f positions/s (checksum %d)%n",
+				iterations, seconds, total * iterations / seconds, sink);
+	}
+
+	private static long runOnce(Perft perft, List<Fixtures.Fixture> fixtures, int depth) {
+		long nodes = 0;
+		for (Fixtures.Fixture aFixture : fixtures) {
+			nodes += perft.perft(aFixture.getState(), BoardState.BOTTOM, depth);
+			nodes += perft.perft(aFixture.getState(), BoardState.TOP, depth);
+		}
+		return nodes;
+	}
+
+	/* Known moves. */
+
+	/**
+	 * Checks isValidMove() of the MoveGenerator against moves known to be valid or not,
+	 * each case is "fixture side die1 die2 fro to valid", with zero-based pips.
+	 * 		- 1-1 in the opening, 2/1 is only reached after 3/2, which needs a checker moved to 3 first.
+	 * 		- 1-1 with two checkers on the bar, the first one in cannot move on before the second is in.
+	 */
+	private static final String[] KNOWN_MOVES = {
+		"OPENING 0 1 1 2 1 false",
+		"OPENING 0 1 1 5 4 true",
+		"OPENING 0 1 1 7 6 true",
+		"OPENING 0 1 1 5 3 true",
+		"FORCE_CHECKERS_AT_BARS 0 1 1 24 23 true",
+		"FORCE_CHECKERS_AT_BARS 0 1 1 24 22 false",
+	};
+
+	private static boolean checkKnownMoves() {
+		Map<String, BoardState> states = new HashMap<>();
+		for (Fixtures.Fixture aFixture : Fixtures.getAll()) {
+			states.put(aFixture.getName(), aFixture.getState());
+		}
+
+		MoveGenerator gen = new MoveGenerator();
+		int failures = 0;
+		for (String aCase : KNOWN_MOVES) {
+			String[] fields = aCase.split(" ");
+			gen.generate(states.get(fields[0]), Integer.parseInt(fields[1]), Integer.parseInt(fields[2]), Integer.parseInt(fields[3]));
+			boolean isValid = gen.isValidMove(Integer.parseInt(fields[4]), Integer.parseInt(fields[5])) > 0;
+			if (isValid != Boolean.parseBoolean(fields[6])) {
+				failures++;
+				System.out.println("Known move failed: " + aCase);
+			}
+		}
+		System.out.println("Known moves: " + failures + " of " + KNOWN_MOVES.length + " failed.");
+		return failures == 0;
+	}
+
+	/* Baseline. */
+
+	// each line is "fixture side die1 die2 count".
+	private static String getKey(String fixture, int side, int die1, int die2) {
+		return fixture + " " + side + " " + die1 + " " + die2;
+	}
+
+	private static void writeBaseline(List<Fixtures.Fixture> fixtures, String file) throws IOException {
+		MoveGenerator gen = new MoveGenerator();
+		try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+			for (Fixtures.Fixture aFixture : fixtures) {
+				for (int side = BoardState.BOTTOM; side <= BoardState.TOP; side++) {
+					for (int die1 = 1; die1 <= 6; die1++) {
+						for (int die2 = die1; die2 <= 6; die2++) {
+							int count = gen.generate(aFixture.getState(), side, die1, die2);
+							out.println(getKey(aFixture.getName(), side, die1, die2) + " " + count);
+						}
+					}
+				}
+			}
+		}
+		System.out.println("Baseline written to " + file);
+	}
+
+	private static boolean checkBaseline(List<Fixtures.Fixture> fixtures, String file) throws IOException {
+		Map<String, Integer> baseline = new HashMap<>();
+		try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.isBlank()) continue;
+				int split = line.lastIndexOf(' ');
+				baseline.put(line.substring(0, split), Integer.parseInt(line.substring(split+1)));
+			}
+		}
+
+		MoveGenerator gen = new MoveGenerator();
+		int mismatches = 0, missing = 0;
+		for (Fixtures.Fixture aFixture : fixtures) {
+			for (int side = BoardState.BOTTOM; side <= BoardState.TOP; side++) {
+				for (int die1 = 1; die1 <= 6; die1++) {
+					for (int die2 = die1; die2 <= 6; die2++) {
+						String key = getKey(aFixture.getName(), side, die1, die2);
+						int count = gen.generate(aFixture.getState(), side, die1, die2);
+						Integer expected = baseline.get(key);
+						if (expected == null) {
+							missing++;
+						} else if (expected != count) {
+							mismatches++;
+							System.out.println("Mismatch: " + key + " expected " + expected + " got " + count);
+						}
+					}
+				}
+			}
+		}
+		System.out.println("Baseline check: " + mismatches + " mismatches, " + missing + " not in baseline.");
+		return mismatches == 0;
+	}
+
+	/* Legacy comparison. */
+
+	/**
+	 * Compares the moves of calculateMoves() of BoardMoves with the start moves of the MoveGenerator, see isValidMove().
+	 * BoardMoves does not enforce the use of as many dice results as possible,
+	 * so a move only in BoardMoves is expected if it is playable but breaks that rule, see isPlayableMove(),
+	 * any other move in only one of them is a failure.
+	 */
+	private static boolean compareLegacy(List<Fixtures.Fixture> fixtures) throws Exception {
+		LegacyMoves legacy;
+		try {
+			legacy = LegacyMoves.create();
+		} catch (Exception | Error e) {
+			System.out.println("Legacy comparison skipped, JavaFX toolkit not available: " + e);
+			return true;
+		}
+
+		MoveGenerator gen = new MoveGenerator();
+		boolean[] pairs = new boolean[LegacyMoves.PAIRS];
+		int maxDiceOnly = 0, onlyLegacy = 0, onlyGenerator = 0;
+		for (Fixtures.Fixture aFixture : fixtures) {
+			for (int side = BoardState.BOTTOM; side <= BoardState.TOP; side++) {
+				for (int die1 = 1; die1 <= 6; die1++) {
+					for (int die2 = die1; die2 <= 6; die2++) {
+						legacy.getMovePairs(aFixture.getState(), side, die1, die2, pairs);
+						gen.generate(aFixture.getState(), side, die1, die2);
+
+						for (int fro = -1; fro <= BoardState.NUMBER_OF_PIPS; fro++) {
+							for (int to = -1; to <= BoardState.NUMBER_OF_PIPS; to++) {
+								boolean isLegacy = pairs[LegacyMoves.getPairIndex(fro, to)];
+								boolean isGenerator = gen.isValidMove(fro, to) > 0;
+								String move = aFixture.getName() + " side " + side + " roll " + die1 + "-" + die2 + " " + fro + "/" + to;
+								if (isLegacy && !isGenerator) {
+									if (gen.isPlayableMove(fro, to) > 0) {
+										maxDiceOnly++;
+									} else {
+										onlyLegacy++;
+										System.out.println("Only in BoardMoves: " + move);
+									}
+								} else if (!isLegacy && isGenerator) {
+									onlyGenerator++;
+									System.out.println("Only in MoveGenerator: " + move);
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+		System.out.println("Legacy comparison: " + maxDiceOnly + " moves only in BoardMoves breaking the max dice rule (expected), "
+				+ onlyLegacy + " other moves only in BoardMoves, " + onlyGenerator + " moves only in MoveGenerator.");
+		return onlyLegacy == 0 && onlyGenerator == 0;
+	}
+}
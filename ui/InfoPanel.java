@@ -3,20 +3,23 @@ package ui;
 import constants.GameConstants;
 import constants.MessageType;
 import game_engine.Settings;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.util.Iterator;
-import javafx.geometry.Insets;
-import javafx.scene.Node;
-import javafx.scene.control.ScrollPane;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
 import javafx.scene.paint.Color;
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
+import javafx.scene.text.Font;
 
 /**
- * A TextFlow contained in a ScrollPane that displays the status of the game.
+ * A ListView that displays the status of the game.
+ * 
+ * The messages are kept in a RingBuffer of GameConstants.INFO_PANEL_CAPACITY messages,
+ * a message is a row, and only the rows that are visible have a node.
+ * Messages dropped from the buffer are appended to the log file in batches.
+ * The log file is written by a LogWriter on its own thread, see closeLog().
  * 
  * @teamname TeaCup
  * @author Bryan Sng, 17205050
@@ -24,52 +27,68 @@ import javafx.scene.text.TextFlow;
  * @author Braddy Yeoh, 17357376
  * 
  */
-public class InfoPanel extends ScrollPane {
-	private TextFlow textContainer;
+public class InfoPanel extends ListView<InfoPanel.Message> {
+	private static final Map<MessageType, Color> LIGHT_COLORS = new EnumMap<>(MessageType.class);
+	private static final Map<MessageType, Color> DARK_COLORS = new EnumMap<>(MessageType.class);
+	private static final Map<MessageType, String> LABELS = new EnumMap<>(MessageType.class);
+	static {
+		LIGHT_COLORS.put(MessageType.ANNOUNCEMENT, Color.GREEN);
+		LIGHT_COLORS.put(MessageType.SYSTEM, Color.GREEN);
+		LIGHT_COLORS.put(MessageType.ERROR, Color.FIREBRICK);
+		LIGHT_COLORS.put(MessageType.DEBUG, Color.DIMGRAY);
+		LIGHT_COLORS.put(MessageType.WARNING, Color.ORANGE);
+		LIGHT_COLORS.put(MessageType.CHAT, Color.ORANGE);
+		
+		DARK_COLORS.put(MessageType.ANNOUNCEMENT, Color.CHARTREUSE);
+		DARK_COLORS.put(MessageType.SYSTEM, Color.CHARTREUSE);
+		DARK_COLORS.put(MessageType.ERROR, Color.rgb(254, 168, 117));
+		DARK_COLORS.put(MessageType.DEBUG, Color.SILVER);
+		DARK_COLORS.put(MessageType.WARNING, Color.rgb(247, 220, 111));
+		DARK_COLORS.put(MessageType.CHAT, Color.rgb(247, 220, 111));
+		
+		LABELS.put(MessageType.ANNOUNCEMENT, "[System]");
+		LABELS.put(MessageType.SYSTEM, "[System]");
+		LABELS.put(MessageType.ERROR, "[Error]");
+		LABELS.put(MessageType.DEBUG, "[Debug]");
+		LABELS.put(MessageType.WARNING, "[Warning]");
+		LABELS.put(MessageType.CHAT, "");
+	}
+	
+	private final RingBuffer<Message> messages;
+	// messages dropped from the buffer, not yet in the log file.
+	private final StringBuilder droppedTexts;
+	private int numDropped;
+	private final Font font, boldFont;
+	private final LogWriter logWriter;
 	private int textPadding;
 	
 	public InfoPanel() {
 		super();
-		textContainer = new TextFlow();
-		styleScrollPane();
-		styleTextContainer();
-		initLayout();
+		messages = new RingBuffer<>(GameConstants.INFO_PANEL_CAPACITY);
+		droppedTexts = new StringBuilder();
+		font = GameConstants.getFont();
+		boldFont = GameConstants.getFont(true, false);
+		logWriter = new LogWriter(Paths.get("log.txt"), true);
+		setItems(messages);
+		styleListView();
 		welcome();
 	}
 	
-	private void styleScrollPane() {
+	private void styleListView() {
 		double height = GameConstants.getHalfBoardSize().getHeight();
 		double width = GameConstants.getMiddlePartWidth() / 3.0;
+		textPadding = 3;
 		setMinHeight(height);
 		setMaxHeight(height);
 		setMinWidth(width);
 		setMaxWidth(width);
-		setFitToWidth(true);									// text fits into width.
-		setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);		// no horizontal scroll bar.
-		vvalueProperty().bind(textContainer.heightProperty());	// auto scroll down with texts.
 		setFocusTraversable(false);
-		drawScrollPane();
+		setCellFactory(list -> new MessageCell());
+		drawListView();
 	}
-	private void drawScrollPane() {
-		if (Settings.DARK_THEME) setStyle("-fx-background-color: #60544c;");
-	}
-	
-	private void styleTextContainer() {
-		double height = GameConstants.getHalfBoardSize().getHeight();
-		textPadding = 3;
-		textContainer.setPadding(new Insets(textPadding, textPadding*3, textPadding, textPadding*3));
-		textContainer.setLineSpacing(textPadding / 2.0);
-		//textContainer.setMinHeight(height - textPadding * 2);	// needs to be set, if not the white background uneven at start.
-		textContainer.setMinHeight(height);
-		textContainer.setLineSpacing(textPadding);
-		drawTextContainer();
-	}
-	private void drawTextContainer() {
-		if (Settings.DARK_THEME) textContainer.setBackground(GameConstants.getPanelImage());
-	}
-	
-	private void initLayout() {
-		setContent(textContainer);
+	private void drawListView() {
+		if (Settings.DARK_THEME) setBackground(GameConstants.getPanelImage());
+		else setBackground(new Background(new BackgroundFill(Color.WHITE, null, null)));
 	}
 	
 	/**
@@ -82,18 +101,9 @@ public class InfoPanel extends ScrollPane {
 	}
 
 	// text padding at top and bottom.
-	// 2 line spacing in a single line, top and bottom.
-	//
-	// First we get a rough possible lines,
-	// multiply that with the line spacings,
-	// divide by font size, and we get the number of lines
-	// that should not be new lines.
-	//
-	// subtract that by the possible lines and we get our actual lines.
+	// one empty row per line of the panel, so the previous messages scroll out of view.
 	public void clear() {
-		TextFlow textContainer = getTextContainer();
-		int possibleLines = (int) (getMinHeight() - textPadding * 2) / GameConstants.FONT_SIZE;
-		int numberOfLines = (int) (possibleLines - (possibleLines * textContainer.getLineSpacing() * 2) / GameConstants.FONT_SIZE);
+		int numberOfLines = (int) (getMinHeight() - textPadding * 2) / GameConstants.FONT_SIZE;
 		printNewlines(numberOfLines);
 	}
 	
@@ -103,69 +113,12 @@ public class InfoPanel extends ScrollPane {
 	 * @param mtype - message type, (i.e., error or system message) 
 	 */
 	public void print(String msg, MessageType mtype) {
-		Text text = new Text();
-		text.setFont(GameConstants.getFont());
-		String prefix = ">";
-		String type = "";
-		
-		if (Settings.DARK_THEME) {
-			switch (mtype) {
-				case ANNOUNCEMENT:
-					prefix = "\n" + prefix;
-					text.setFont(GameConstants.getFont(true, false));
-				case SYSTEM:
-					type = "[System]";
-					text.setFill(Color.CHARTREUSE);
-					break;
-				case ERROR:
-					type = "[Error]";
-					text.setFill(Color.rgb(254, 168, 117));
-					break;
-				case DEBUG:
-					type = "[Debug]";
-					text.setFill(Color.SILVER);
-					break;
-				case WARNING:
-					type = "[Warning]";
-					text.setFill(Color.GOLD);
-				case CHAT:
-					text.setFill(Color.rgb(247, 220, 111));
-					break;
-			}
-		} else {
-			switch (mtype) {
-			case ANNOUNCEMENT:
-				prefix = "\n" + prefix;
-				text.setFont(GameConstants.getFont(true, false));
-			case SYSTEM:
-				type = "[System]";
-				text.setFill(Color.GREEN);
-				break;
-			case ERROR:
-				type = "[Error]";
-				text.setFill(Color.FIREBRICK);
-				break;
-			case DEBUG:
-				type = "[Debug]";
-				text.setFill(Color.DIMGRAY);
-				break;
-			case WARNING:
-				type = "[Warning]";
-				text.setFill(Color.GOLD);
-			case CHAT:
-				text.setFill(Color.ORANGE);
-				break;
-			}
-		}
-		text.setText(prefix + " " + type + " " + msg + "\n");
-		
 		// same as
 		// (debugMode || (!debugMode && mtype != MessageType.DEBUG))
-		// (GameConstants.DEBUG_MODE || mtype != MessageType.DEBUG)
-		if (GameConstants.DEBUG_MODE)
-			appendText(text);
-		else if (mtype != MessageType.DEBUG)
-			appendText(text);
+		if (!GameConstants.DEBUG_MODE && mtype == MessageType.DEBUG) return;
+		
+		if (mtype == MessageType.ANNOUNCEMENT) printNewlines(1);
+		appendMessage(new Message("> " + LABELS.get(mtype) + " " + msg, mtype));
 	}
 	public void print(String msg) {
 		print(msg, MessageType.SYSTEM);
@@ -177,87 +130,111 @@ public class InfoPanel extends ScrollPane {
 	 */
 	public void printNewlines(int times) {
 		for (int i = 0; i < times; i++) {
-			appendText(new Text("\n"));
+			appendMessage(new Message("", MessageType.SYSTEM));
 		}
 	}
 	
 	/**
-	 * Saves everything on the information panel to a text file.
+	 * Saves everything on the information panel to a text file,
+	 * after the messages dropped from the panel that are not saved yet.
 	 */
 	public boolean saveToFile() {
-		StringBuilder sb = new StringBuilder();
-		for (Node node : textContainer.getChildren()) {
-			if (node instanceof Text) {
-				sb.append(((Text) node).getText());
-			}
+		StringBuilder sb = new StringBuilder(droppedTexts);
+		for (Message message : messages) {
+			sb.append(message.getText()).append("\n");
+		}
+		boolean isSaved = toFile(sb);
+		if (isSaved) {
+			droppedTexts.setLength(0);
+			numDropped = 0;
 		}
-		return toFile(sb);
+		return isSaved;
 	}
 	
 	/**
-	 * Appends texts in the string builder to the log file.
+	 * Queues the texts in the string builder to be appended to the log file.
 	 * @param sb the string builder containing the string.
-	 * @return boolean value indicating if data was saved to file.
+	 * @return boolean value indicating if data was queued, i.e. the log is not closed.
 	 */
 	private boolean toFile(StringBuilder sb) {
-		boolean isSaved = false;
-		try {
-			BufferedWriter buffer = new BufferedWriter(new FileWriter(new File("log.txt"), true));
-			buffer.append(sb);
-			buffer.newLine();
-			buffer.flush();
-			buffer.close();
-			isSaved = true;
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		return isSaved;
-	}
-	
-	public TextFlow getTextContainer() {
-		return textContainer;
+		return logWriter.append(sb.append(System.lineSeparator()).toString());
 	}
 	
-	// text flow version of textarea's appendText().
-	private void appendText(Text text) {
-		textContainer.getChildren().add(text);
-		removeExcessText();
+	/**
+	 * Writes the texts queued for the log file and closes it, used when the application exits.
+	 */
+	public void closeLog() {
+		logWriter.close();
 	}
 	
-	// If exceed threshold, remove upper half of the text.
-	private void removeExcessText() {
-		if (isFull()) {
-			StringBuilder removedTexts = new StringBuilder();
-			
-			// get removed text.
-			int i = 0;
-			for (Iterator<Node> iterTextNodes = textContainer.getChildren().iterator(); iterTextNodes.hasNext();) {
-				Text aText = (Text) iterTextNodes.next();
-				removedTexts.append(aText.getText());
-				iterTextNodes.remove();
-				i++;
-				
-				// remove half of the texts.
-				if (i >= GameConstants.TEXT_CONTAINER_THRESHOLD/2) break;
+	// adds the message as the last row, and scrolls down to it.
+	// if the buffer is full, the oldest message is dropped, and the dropped messages
+	// are written to the log file once half the buffer has been dropped.
+	private void appendMessage(Message message) {
+		if (messages.isFull()) {
+			droppedTexts.append(messages.get(0).getText()).append("\n");
+			numDropped++;
+			if (numDropped >= messages.getCapacity()/2 && toFile(droppedTexts)) {
+				droppedTexts.setLength(0);
+				numDropped = 0;
 			}
-			toFile(removedTexts);
-			print("Exceeded text container threshold, excess text removed.", MessageType.DEBUG);
 		}
-	}
-	
-	// Check if the number of text node in text container exceeds threshold.
-	private boolean isFull() {
-		return textContainer.getChildren().size() > GameConstants.TEXT_CONTAINER_THRESHOLD;
+		messages.add(message);
+		scrollTo(messages.size()-1);
 	}
 	
 	public void redraw() {
-		drawScrollPane();
-		drawTextContainer();
+		drawListView();
+		refresh();
 	}
 	
 	public void reset() {
-		textContainer.getChildren().clear();
+		messages.clear();
 		welcome();
 		redraw();
 	}
+	
+	/**
+	 * This class represents a message of the information panel, i.e. a row.
+	 * The color and font of a message are looked up from its type when it is shown.
+	 */
+	public static class Message {
+		private final String text;
+		private final MessageType type;
+		
+		public Message(String text, MessageType type) {
+			this.text = text;
+			this.type = type;
+		}
+		
+		public String getText() {
+			return text;
+		}
+		
+		public MessageType getType() {
+			return type;
+		}
+	}
+	
+	// a row of the panel, reused for the messages scrolled into view.
+	private class MessageCell extends ListCell<Message> {
+		public MessageCell() {
+			super();
+			setWrapText(true);
+			setPrefWidth(0);	// wraps the text to the width of the panel instead of scrolling horizontally.
+			setStyle("-fx-background-color: transparent; -fx-padding: 0 " + textPadding*3 + " " + textPadding + " " + textPadding*3 + ";");
+		}
+		
+		@Override
+		protected void updateItem(Message message, boolean empty) {
+			super.updateItem(message, empty);
+			if (empty || message == null) {
+				setText(null);
+				return;
+			}
+			setText(message.getText());
+			setFont(message.getType() == MessageType.ANNOUNCEMENT ? boldFont : font);
+			setTextFill((Settings.DARK_THEME ? DARK_COLORS : LIGHT_COLORS).get(message.getType()));
+		}
+	}
 }
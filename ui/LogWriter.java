@@ -0,0 +1,226 @@
+package ui;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class appends text to a log file on a background thread, so the caller never waits for the disk.
+ * 
+ * Texts are queued on a lock-free queue by any thread, the writer thread drains the queue
+ * and writes the texts in batches through a single FileChannel kept open.
+ * The log is rotated once it is over MAX_BYTES or older than MAX_AGE_MS,
+ * i.e. renamed to e.g. log-20201018-153000.txt, then gzipped if asked for, and a new log is started.
+ * 
+ * flush() waits for the texts queued so far to be written, close() flushes and stops the thread.
+ * 
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ * 
+ */
+public class LogWriter implements Closeable {
+	public static final long MAX_BYTES = 1 << 20;
+	public static final long MAX_AGE_MS = 24 * 60 * 60 * 1000L;
+	private static final int BUFFER_BYTES = 1 << 16;
+	private static final DateTimeFormatter ROTATED_NAME = DateTimeFormatter.ofPattern("'-'yyyyMMdd-HHmmss");
+	
+	private final Path path;
+	private final boolean isGzipped;
+	private final ConcurrentLinkedQueue<String> queue;
+	private final Thread thread;
+	private volatile boolean isClosed;
+	// texts queued and texts written (or failed) so far, flush() waits for the second to catch up.
+	private final AtomicLong numQueued;
+	private volatile long numWritten;
+	
+	// used by the writer thread only.
+	private final ByteBuffer buffer;
+	private final CharsetEncoder encoder;
+	private FileChannel channel;
+	private long openedAt;
+	
+	/**
+	 * Starts the writer thread, the log is opened at the first write.
+	 * @param path the log file, appended to if it exists.
+	 * @param isGzipped true to gzip the rotated logs.
+	 */
+	public LogWriter(Path path, boolean isGzipped) {
+		this.path = path;
+		this.isGzipped = isGzipped;
+		queue = new ConcurrentLinkedQueue<>();
+		numQueued = new AtomicLong();
+		buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+		encoder = StandardCharsets.UTF_8.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		thread = new Thread(this::run, "log-writer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Queues the text to be appended to the log, returns at once.
+	 * @param text the text, line breaks included.
+	 * @return false if the writer is closed, the text is not written.
+	 */
+	public boolean append(String text) {
+		if (isClosed) return false;
+		queue.offer(text);
+		numQueued.incrementAndGet();
+		LockSupport.unpark(thread);
+		return true;
+	}
+	
+	/**
+	 * Waits for the texts queued so far to be written to the log.
+	 * @param timeoutMs most time to wait, in ms.
+	 * @return true if they were written in time.
+	 */
+	public synchronized boolean flush(long timeoutMs) {
+		long target = numQueued.get();
+		long deadline = System.currentTimeMillis() + timeoutMs;
+		LockSupport.unpark(thread);
+		while (numWritten < target && thread.isAlive()) {
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0) return false;
+			try {
+				wait(remaining);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return numWritten >= target;
+	}
+	
+	/**
+	 * Writes the texts queued so far, then stops the writer thread and closes the log.
+	 */
+	@Override
+	public void close() {
+		if (isClosed) return;
+		isClosed = true;
+		LockSupport.unpark(thread);
+		try {
+			thread.join(5000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private void run() {
+		while (true) {
+			boolean wasClosed = isClosed;
+			int written = writeBatch();
+			if (written > 0) {
+				synchronized (this) {
+					numWritten += written;
+					notifyAll();
+				}
+			} else if (wasClosed) {
+				break;
+			} else {
+				LockSupport.park(this);
+			}
+		}
+		closeChannel();
+		synchronized (this) {
+			notifyAll();
+		}
+	}
+	
+	// writes the queued texts, returns the number of texts taken from the queue.
+	private int writeBatch() {
+		int texts = 0;
+		String text;
+		try {
+			while ((text = queue.poll()) != null) {
+				texts++;
+				CharBuffer chars = CharBuffer.wrap(text);
+				encoder.reset();
+				while (encoder.encode(chars, buffer, true).isOverflow()) {
+					writeBuffer();
+				}
+				encoder.flush(buffer);
+			}
+			if (texts > 0) writeBuffer();
+		} catch (IOException e) {
+			e.printStackTrace();
+			buffer.clear();
+			closeChannel();
+		}
+		return texts;
+	}
+	
+	private void writeBuffer() throws IOException {
+		buffer.flip();
+		if (buffer.hasRemaining()) {
+			FileChannel channel = getChannel();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+		buffer.clear();
+	}
+	
+	// the open log, rotated first if it is too big or too old.
+	private FileChannel getChannel() throws IOException {
+		if (channel != null && (channel.size() >= MAX_BYTES || System.currentTimeMillis() - openedAt >= MAX_AGE_MS)) {
+			closeChannel();
+			rotate();
+		}
+		if (channel == null) {
+			channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+			openedAt = System.currentTimeMillis();
+		}
+		return channel;
+	}
+	
+	private void closeChannel() {
+		if (channel == null) return;
+		try {
+			channel.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		channel = null;
+	}
+	
+	// renames the log, e.g. log.txt to log-20201018-153000.txt, and gzips it if asked for.
+	private void rotate() throws IOException {
+		String name = path.getFileName().toString();
+		int dot = name.lastIndexOf('.');
+		String base = dot > 0 ? name.substring(0, dot) : name;
+		String extension = dot > 0 ? name.substring(dot) : "";
+		Path rotated = path.resolveSibling(base + LocalDateTime.now().format(ROTATED_NAME) + extension);
+		Files.move(path, rotated, StandardCopyOption.REPLACE_EXISTING);
+		
+		if (isGzipped) {
+			Path gzipped = rotated.resolveSibling(rotated.getFileName() + ".gz");
+			try (InputStream input = Files.newInputStream(rotated);
+					OutputStream output = new GZIPOutputStream(Files.newOutputStream(gzipped))) {
+				input.transferTo(output);
+			}
+			Files.delete(rotated);
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package ui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * This class represents an observable list of fixed capacity, i.e. once full, adding an element drops the oldest.
+ * Elements are kept in a circular array, so adding never copies or shifts the elements,
+ * and a ListView showing the list only redraws the rows that changed.
+ * 
+ * Only add() and clear() change the list.
+ * 
+ * @teamname TeaCup
+ * @author Bryan Sng, 17205050
+ * @author @LxEmily, 17200573
+ * @author Braddy Yeoh, 17357376
+ * 
+ */
+public class RingBuffer<E> extends ObservableListBase<E> {
+	private final Object[] elements;
+	// index in elements of the oldest element.
+	private int head = 0;
+	private int size = 0;
+	
+	public RingBuffer(int capacity) {
+		super();
+		if (capacity <= 0) throw new IllegalArgumentException("Capacity: " + capacity);
+		elements = new Object[capacity];
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + " of " + size);
+		return (E) elements[(head + index) % elements.length];
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Adds the element as the newest, dropping the oldest if full.
+	 * @param e the element.
+	 * @return true.
+	 */
+	@Override
+	public boolean add(E e) {
+		beginChange();
+		if (isFull()) {
+			E oldest = get(0);
+			elements[head] = e;
+			head = (head + 1) % elements.length;
+			nextRemove(0, oldest);
+		} else {
+			elements[(head + size) % elements.length] = e;
+			size++;
+		}
+		nextAdd(size-1, size);
+		endChange();
+		return true;
+	}
+	
+	@Override
+	public void clear() {
+		if (size == 0) return;
+		List<E> removed = new ArrayList<>(this);
+		beginChange();
+		nextRemove(0, removed);
+		for (int i = 0; i < elements.length; i++) {
+			elements[i] = null;
+		}
+		head = 0;
+		size = 0;
+		endChange();
+	}
+	
+	public boolean isFull() {
+		return size == elements.length;
+	}
+	
+	public int getCapacity() {
+		return elements.length;
+	}
+}